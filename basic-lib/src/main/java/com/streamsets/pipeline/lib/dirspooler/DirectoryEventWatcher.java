@@ -0,0 +1,112 @@
+/**
+ * Copyright 2016 StreamSets Inc.
+ *
+ * Licensed under the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.dirspooler;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+
+/**
+ * Reports the files created in and deleted from a directory using a {@link WatchService}, so that changes can be
+ * tracked without listing the directory. If the file system dropped events the listener is told to rescan the
+ * directory.
+ */
+class DirectoryEventWatcher implements Closeable {
+  private static final Logger LOG = LoggerFactory.getLogger(DirectoryEventWatcher.class);
+
+  interface Listener {
+
+    void created(Path file);
+
+    void deleted(Path file);
+
+    /**
+     * Events were lost, the directory must be listed again.
+     */
+    void overflow();
+  }
+
+  private final Path dir;
+  private final Listener listener;
+  private final WatchService watchService;
+  private boolean valid;
+
+  DirectoryEventWatcher(Path dir, Listener listener) throws IOException {
+    this.dir = dir;
+    this.listener = listener;
+    watchService = dir.getFileSystem().newWatchService();
+    dir.register(
+        watchService,
+        StandardWatchEventKinds.ENTRY_CREATE,
+        StandardWatchEventKinds.ENTRY_DELETE
+    );
+    valid = true;
+  }
+
+  /**
+   * Delivers the pending events to the listener, without waiting for new ones.
+   */
+  synchronized void poll() {
+    if (!valid) {
+      return;
+    }
+    WatchKey key;
+    while ((key = watchService.poll()) != null) {
+      boolean reset;
+      try {
+        for (WatchEvent<?> event : key.pollEvents()) {
+          if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+            LOG.debug("Lost events for directory '{}'", dir);
+            listener.overflow();
+          } else {
+            Path file = dir.resolve((Path) event.context());
+            if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE) {
+              listener.created(file);
+            } else {
+              listener.deleted(file);
+            }
+          }
+        }
+      } finally {
+        // without a reset the key would not report any further event
+        reset = key.reset();
+      }
+      if (!reset) {
+        LOG.warn("Directory '{}' can no longer be watched, relying on directory listings", dir);
+        valid = false;
+        listener.overflow();
+        break;
+      }
+    }
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    valid = false;
+    watchService.close();
+  }
+}
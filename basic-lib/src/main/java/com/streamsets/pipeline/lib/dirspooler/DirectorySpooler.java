@@ -40,8 +40,10 @@ import java.nio.file.PathMatcher;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
-import java.util.concurrent.PriorityBlockingQueue;
+import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
@@ -64,6 +66,7 @@ public class DirectorySpooler {
     private long archiveRetentionMillis;
     private String errorArchiveDir;
     private boolean waitForPathAppearance;
+    private boolean useDirectoryEvents;
 
     private Builder() {
       postProcessing = FilePostProcessing.NONE;
@@ -125,6 +128,11 @@ public class DirectorySpooler {
       return this;
     }
 
+    public Builder useDirectoryEvents(boolean useDirectoryEvents) {
+      this.useDirectoryEvents = useDirectoryEvents;
+      return this;
+    }
+
     public DirectorySpooler build() {
       Preconditions.checkArgument(context != null, "context not specified");
       Preconditions.checkArgument(spoolDir != null, "spool dir not specified");
@@ -134,7 +142,7 @@ public class DirectorySpooler {
         Preconditions.checkArgument(archiveDir != null, "archive dir not specified");
       }
       return new DirectorySpooler(context, spoolDir, maxSpoolFiles, pattern, postProcessing, archiveDir,
-          archiveRetentionMillis, errorArchiveDir, waitForPathAppearance);
+          archiveRetentionMillis, errorArchiveDir, waitForPathAppearance, useDirectoryEvents);
     }
   }
 
@@ -149,6 +157,9 @@ public class DirectorySpooler {
 
   private static final String PENDING_FILES = "pending.files";
 
+  // when directory events are used, full directory scans only catch up on events that were missed
+  static final long RECONCILIATION_INTERVAL_SECS = 300;
+
   public DirectorySpooler(Source.Context context, String spoolDir, int maxSpoolFiles, String pattern,
                           FilePostProcessing postProcessing, String archiveDir, long archiveRetentionMillis,
                           String errorArchiveDir) {
@@ -168,6 +179,23 @@ public class DirectorySpooler {
   public DirectorySpooler(Source.Context context, String spoolDir, int maxSpoolFiles, String pattern,
                           FilePostProcessing postProcessing, String archiveDir, long archiveRetentionMillis,
                           String errorArchiveDir, boolean waitForPathAppearance) {
+    this(
+        context,
+        spoolDir,
+        maxSpoolFiles,
+        pattern,
+        postProcessing,
+        archiveDir,
+        archiveRetentionMillis,
+        errorArchiveDir,
+        waitForPathAppearance,
+        false
+    );
+  }
+
+  public DirectorySpooler(Source.Context context, String spoolDir, int maxSpoolFiles, String pattern,
+                          FilePostProcessing postProcessing, String archiveDir, long archiveRetentionMillis,
+                          String errorArchiveDir, boolean waitForPathAppearance, boolean useDirectoryEvents) {
     this.context = context;
     this.spoolDir = spoolDir;
     this.maxSpoolFiles = maxSpoolFiles;
@@ -177,6 +205,7 @@ public class DirectorySpooler {
     this.archiveRetentionMillis = archiveRetentionMillis;
     this.errorArchiveDir = errorArchiveDir;
     this.waitForPathAppearance = waitForPathAppearance;
+    this.useDirectoryEvents = useDirectoryEvents;
   }
 
   private volatile String currentFile;
@@ -184,18 +213,23 @@ public class DirectorySpooler {
   private Path archiveDirPath;
   private Path errorArchiveDirPath;
   private PathMatcher fileMatcher;
-  private PriorityBlockingQueue<Path> filesQueue;
+  private SortedFileQueue filesQueue;
   private Path previousFile;
   private ScheduledExecutorService scheduledExecutor;
   private boolean waitForPathAppearance;
+  private final boolean useDirectoryEvents;
+  private DirectoryEventWatcher spoolDirWatcher;
 
   private Meter spoolQueueMeter;
   private Counter pendingFilesCounter;
 
   private volatile boolean running;
+  // set when a created file could not be queued, the directory is scanned again once the queue has room
+  private volatile boolean rescanNeeded;
 
   volatile FilePurger purger;
   volatile FileFinder finder;
+  volatile DirectoryEventPoller eventPoller;
 
   private void checkBaseDir(Path path) {
     Preconditions.checkState(path.isAbsolute(), Utils.formatL("Path '{}' is not an absolute path", path));
@@ -235,7 +269,7 @@ public class DirectorySpooler {
 
       fileMatcher = createPathMatcher(pattern);
 
-      filesQueue = new PriorityBlockingQueue<>();
+      filesQueue = new SortedFileQueue();
 
       spoolQueueMeter = context.createMeter("spoolQueue");
 
@@ -256,6 +290,11 @@ public class DirectorySpooler {
 
     handleOlderFiles(currentFile);
 
+    if (useDirectoryEvents) {
+      // watching before the initial scan so that no file created in between is missed
+      spoolDirWatcher = new DirectoryEventWatcher(spoolDirPath, new SpoolDirListener());
+    }
+
     String lastFound = findAndQueueFiles(currentFile, true, false);
 
     LOG.debug("Last file found '{}' on startup", lastFound);
@@ -263,11 +302,18 @@ public class DirectorySpooler {
     scheduledExecutor = new SafeScheduledExecutorService(1, "directory-spooler");
 
     finder = new FileFinder(lastFound);
-    scheduledExecutor.scheduleAtFixedRate(finder, 5, 5, TimeUnit.SECONDS);
+    if (useDirectoryEvents) {
+      eventPoller = new DirectoryEventPoller();
+      scheduledExecutor.scheduleWithFixedDelay(eventPoller, 1, 1, TimeUnit.SECONDS);
+      scheduledExecutor.scheduleAtFixedRate(finder, RECONCILIATION_INTERVAL_SECS, RECONCILIATION_INTERVAL_SECS,
+          TimeUnit.SECONDS);
+    } else {
+      scheduledExecutor.scheduleAtFixedRate(finder, 5, 5, TimeUnit.SECONDS);
+    }
 
     if (postProcessing == FilePostProcessing.ARCHIVE && archiveRetentionMillis > 0) {
       // create and schedule file purger only if the retention time is > 0
-      purger = new FilePurger();
+      purger = new FilePurger(useDirectoryEvents);
       scheduledExecutor.scheduleAtFixedRate(purger, 1, 1, TimeUnit.MINUTES);
     }
   }
@@ -282,6 +328,21 @@ public class DirectorySpooler {
     } catch (RuntimeException ex) {
       LOG.warn("Error during scheduledExecutor.shutdownNow(), {}", ex.toString(), ex);
     }
+    if (spoolDirWatcher != null) {
+      closeWatcher(spoolDirWatcher);
+      spoolDirWatcher = null;
+    }
+    if (purger != null) {
+      purger.close();
+    }
+  }
+
+  private static void closeWatcher(DirectoryEventWatcher watcher) {
+    try {
+      watcher.close();
+    } catch (IOException ex) {
+      LOG.warn("Error while closing directory watcher: {}", ex.toString(), ex);
+    }
   }
 
   public boolean isRunning() {
@@ -332,7 +393,8 @@ public class DirectorySpooler {
       filesQueue.add(file);
       spoolQueueMeter.mark(filesQueue.size());
     } else {
-      LOG.warn("File '{}' already in queue, ignoring", file);
+      // expected when a directory scan finds files already reported by directory events
+      LOG.debug("File '{}' already in queue, ignoring", file);
     }
   }
 
@@ -364,34 +426,36 @@ public class DirectorySpooler {
     Preconditions.checkState(running, "Spool directory watcher not running");
     synchronized (this) {
       if (previousFile != null) {
-        switch (postProcessing) {
-          case NONE:
-            LOG.debug("Previous file '{}' remains in spool directory", previousFile);
-            break;
-          case DELETE:
-            try {
-              LOG.debug("Deleting previous file '{}'", previousFile);
-              Files.delete(previousFile);
-            } catch (IOException ex) {
-              throw new RuntimeException(Utils.format("Could not delete file '{}', {}", previousFile, ex.toString(),
-                  ex));
-            }
-            break;
-          case ARCHIVE:
-            try {
-              if (Files.exists(previousFile)) {
-                LOG.debug("Archiving previous file '{}'", previousFile);
-                Files.move(previousFile, archiveDirPath.resolve(previousFile.getFileName()));
-              }
-            } catch (IOException ex) {
-              throw new RuntimeException(Utils.format("Could not move file '{}' to archive dir {}, {}", previousFile,
-                  archiveDirPath, ex.toString(), ex));
-            }
-            break;
-        }
+        postProcess(previousFile);
         previousFile = null;
       }
     }
+    Path next = pollQueue(wait, timeUnit);
+    if (next != null) {
+      previousFile = next;
+    }
+    return (next != null) ? next.toFile() : null;
+  }
+
+  /**
+   * Returns the next file like {@link #poolForFile(long, TimeUnit)}, but without post processing the file returned
+   * before. Used when several files are processed at once, the caller post processes each file once it is done with
+   * it, using {@link #postProcessFile(File)} or {@link #handleFileAsError(File)}.
+   */
+  public File takeFile(long wait, TimeUnit timeUnit) {
+    Preconditions.checkArgument(wait >= 0, "wait must be zero or greater");
+    Preconditions.checkNotNull(timeUnit, "timeUnit cannot be null");
+
+    if(!canPoolFiles()) {
+      return null;
+    }
+
+    Preconditions.checkState(running, "Spool directory watcher not running");
+    Path next = pollQueue(wait, timeUnit);
+    return (next != null) ? next.toFile() : null;
+  }
+
+  private Path pollQueue(long wait, TimeUnit timeUnit) {
     Path next = null;
     try {
       LOG.debug("Polling for file, waiting '{}' ms", TimeUnit.MILLISECONDS.convert(wait, timeUnit));
@@ -402,11 +466,45 @@ public class DirectorySpooler {
       LOG.debug("Polling for file returned '{}'", next);
       if (next != null) {
         currentFile = next.getFileName().toString();
-        previousFile = next;
       }
     }
     pendingFilesCounter.inc(filesQueue.size() - pendingFilesCounter.getCount());
-    return (next != null) ? next.toFile() : null;
+    return next;
+  }
+
+  /**
+   * Applies the post processing option to a file taken with {@link #takeFile(long, TimeUnit)}.
+   */
+  public synchronized void postProcessFile(File file) {
+    postProcess(file.toPath());
+  }
+
+  private void postProcess(Path file) {
+    switch (postProcessing) {
+      case NONE:
+        LOG.debug("Previous file '{}' remains in spool directory", file);
+        break;
+      case DELETE:
+        try {
+          LOG.debug("Deleting previous file '{}'", file);
+          Files.delete(file);
+        } catch (IOException ex) {
+          throw new RuntimeException(Utils.format("Could not delete file '{}', {}", file, ex.toString(),
+              ex));
+        }
+        break;
+      case ARCHIVE:
+        try {
+          if (Files.exists(file)) {
+            LOG.debug("Archiving previous file '{}'", file);
+            Files.move(file, archiveDirPath.resolve(file.getFileName()));
+          }
+        } catch (IOException ex) {
+          throw new RuntimeException(Utils.format("Could not move file '{}' to archive dir {}, {}", file,
+              archiveDirPath, ex.toString(), ex));
+        }
+        break;
+    }
   }
 
   public void handleCurrentFileAsError() throws IOException {
@@ -421,6 +519,18 @@ public class DirectorySpooler {
     }
   }
 
+  /**
+   * Moves a file taken with {@link #takeFile(long, TimeUnit)} to the error archive directory, if there is one.
+   */
+  public synchronized void handleFileAsError(File file) throws IOException {
+    if (errorArchiveDirPath != null) {
+      LOG.error("Archiving file in error '{}' in error archive directory '{}'", file, errorArchiveDirPath);
+      Files.move(file.toPath(), errorArchiveDirPath.resolve(file.getName()));
+    } else {
+      LOG.error("Leaving file in error '{}' in spool directory", file);
+    }
+  }
+
   String findAndQueueFiles(final String startingFile, final boolean includeStartingFile, boolean checkCurrent)
       throws IOException {
     DirectoryStream.Filter<Path> filter = new DirectoryStream.Filter<Path>() {
@@ -512,6 +622,11 @@ public class DirectorySpooler {
       LOG.debug("Starting file finder from '{}'", currentFile);
       try {
         lastFound = findAndQueueFiles(currentFile, false, true);
+      } catch (IllegalStateException ex) {
+        // the queue filled up, pick up the remaining files once it has room again
+        rescanNeeded = useDirectoryEvents && filesQueue.size() >= maxSpoolFiles;
+        LOG.warn("Error while scanning directory '{}' for files newer than '{}': {}", spoolDirPath, lastFound,
+            ex.toString(), ex);
       } catch (Exception ex) {
         LOG.warn("Error while scanning directory '{}' for files newer than '{}': {}", archiveDirPath, lastFound,
             ex.toString(), ex);
@@ -520,11 +635,195 @@ public class DirectorySpooler {
     }
   }
 
-  class FilePurger implements Runnable {
+  /**
+   * Applies the pending spool directory events to the files queue.
+   */
+  class DirectoryEventPoller implements Runnable {
+
+    @Override
+    public void run() {
+      try {
+        spoolDirWatcher.poll();
+        if (rescanNeeded && filesQueue.size() < maxSpoolFiles) {
+          LOG.debug("Queue has room again, scanning for files whose events were dropped");
+          rescanNeeded = false;
+          finder.run();
+        }
+        pendingFilesCounter.inc(filesQueue.size() - pendingFilesCounter.getCount());
+      } catch (Exception ex) {
+        LOG.warn("Error while polling events of directory '{}': {}", spoolDirPath, ex.toString(), ex);
+      }
+    }
+  }
+
+  class SpoolDirListener implements DirectoryEventWatcher.Listener {
+
+    @Override
+    public void created(Path file) {
+      String name = file.getFileName().toString();
+      if (fileMatcher.matches(file.getFileName()) && (currentFile == null || currentFile.compareTo(name) < 0)) {
+        LOG.trace("Found file '{}'", file);
+        try {
+          addFileToQueue(file, false);
+        } catch (IllegalStateException ex) {
+          // like an overflow, the file is picked up by a directory scan once the queue has room
+          LOG.debug("Could not queue file '{}', scheduling a directory scan: {}", file, ex.toString());
+          rescanNeeded = true;
+        }
+      }
+    }
+
+    @Override
+    public void deleted(Path file) {
+      if (filesQueue.remove(file)) {
+        LOG.debug("Queued file '{}' was removed from the spool directory", file);
+      }
+    }
+
+    @Override
+    public void overflow() {
+      finder.run();
+    }
+  }
+
+  /**
+   * An archived file and the last modified time it had when it was indexed.
+   */
+  private static class ArchivedFile implements Comparable<ArchivedFile> {
+    private final Path path;
+    private final long lastModified;
+
+    ArchivedFile(Path path, long lastModified) {
+      this.path = path;
+      this.lastModified = lastModified;
+    }
+
+    @Override
+    public int compareTo(ArchivedFile other) {
+      int compares = Long.compare(lastModified, other.lastModified);
+      return (compares != 0) ? compares : path.compareTo(other.path);
+    }
+  }
+
+  class FilePurger implements Runnable, DirectoryEventWatcher.Listener {
+    private DirectoryEventWatcher archiveDirWatcher;
+    // archived files ordered by last modified time, files deleted meanwhile are skipped when reaching the head
+    private final PriorityQueue<ArchivedFile> archivedFiles = new PriorityQueue<>();
+    private final Map<Path, Long> archivedFilesIndex = new HashMap<>();
+    private long lastScan;
+
+    FilePurger(boolean useDirectoryEvents) {
+      if (useDirectoryEvents) {
+        try {
+          archiveDirWatcher = new DirectoryEventWatcher(archiveDirPath, this);
+        } catch (IOException ex) {
+          LOG.warn("Could not watch archive directory '{}', scanning it instead: {}", archiveDirPath, ex.toString(),
+              ex);
+        }
+      }
+    }
 
     @Override
-    @SuppressWarnings("unchecked")
     public void run() {
+      if (archiveDirWatcher == null) {
+        purgeScanning();
+      } else {
+        purgeIndexed();
+      }
+    }
+
+    void close() {
+      if (archiveDirWatcher != null) {
+        closeWatcher(archiveDirWatcher);
+      }
+    }
+
+    @Override
+    public void created(Path file) {
+      if (fileMatcher.matches(file.getFileName())) {
+        index(file);
+      }
+    }
+
+    @Override
+    public void deleted(Path file) {
+      archivedFilesIndex.remove(file);
+    }
+
+    @Override
+    public void overflow() {
+      lastScan = 0;
+    }
+
+    private void index(Path file) {
+      try {
+        long lastModified = Files.getLastModifiedTime(file).toMillis();
+        archivedFilesIndex.put(file, lastModified);
+        archivedFiles.add(new ArchivedFile(file, lastModified));
+      } catch (IOException ex) {
+        LOG.debug("Could not index archived file '{}': {}", file, ex.toString());
+      }
+    }
+
+    private void scan() throws IOException {
+      archivedFiles.clear();
+      archivedFilesIndex.clear();
+      DirectoryStream.Filter<Path> filter = new DirectoryStream.Filter<Path>() {
+        @Override
+        public boolean accept(Path entry) throws IOException {
+          return fileMatcher.matches(entry.getFileName());
+        }
+      };
+      try (DirectoryStream<Path> files = Files.newDirectoryStream(archiveDirPath, filter)) {
+        for (Path file : files) {
+          index(file);
+        }
+      }
+      lastScan = System.currentTimeMillis();
+    }
+
+    private void purgeIndexed() {
+      LOG.debug("Starting archived files purging");
+      int purged = 0;
+      try {
+        archiveDirWatcher.poll();
+        if (System.currentTimeMillis() - lastScan > TimeUnit.SECONDS.toMillis(RECONCILIATION_INTERVAL_SECS)) {
+          scan();
+        }
+        long timeThreshold = System.currentTimeMillis() - archiveRetentionMillis;
+        while (!archivedFiles.isEmpty() && archivedFiles.peek().lastModified < timeThreshold) {
+          if (!running) {
+            LOG.debug("Spooler has been destroyed, stopping archived files purging half way");
+            break;
+          }
+          ArchivedFile archived = archivedFiles.poll();
+          Long lastModified = archivedFilesIndex.get(archived.path);
+          if (lastModified == null || lastModified != archived.lastModified) {
+            // deleted or indexed again since
+            continue;
+          }
+          archivedFilesIndex.remove(archived.path);
+          try {
+            if (Files.getLastModifiedTime(archived.path).toMillis() < timeThreshold) {
+              LOG.debug("Deleting archived file '{}', exceeded retention time", archived.path);
+              Files.delete(archived.path);
+              purged++;
+            } else {
+              index(archived.path);
+            }
+          } catch (IOException ex) {
+            LOG.warn("Error while deleting file '{}': {}", archived.path, ex.toString(), ex);
+          }
+        }
+      } catch (IOException ex) {
+        LOG.warn("Error while scanning directory '{}' for archived files purging: {}", archiveDirPath, ex.toString(),
+            ex);
+      }
+      LOG.debug("Finished archived files purging, deleted '{}' files", purged);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void purgeScanning() {
       LOG.debug("Starting archived files purging");
       final long timeThreshold = System.currentTimeMillis() - archiveRetentionMillis;
       DirectoryStream.Filter filter = new DirectoryStream.Filter<Path>() {
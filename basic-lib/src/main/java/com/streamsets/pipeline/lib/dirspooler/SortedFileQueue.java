@@ -0,0 +1,99 @@
+/**
+ * Copyright 2016 StreamSets Inc.
+ *
+ * Licensed under the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.dirspooler;
+
+import java.nio.file.Path;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Files waiting to be processed, in lexicographical order and without duplicates. Adding, removing and looking up a
+ * file are logarithmic, so the index stays cheap to maintain with a large number of pending files.
+ */
+class SortedFileQueue {
+  private final TreeSet<Path> files = new TreeSet<>();
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition notEmpty = lock.newCondition();
+
+  /**
+   * @return false if the file was already queued
+   */
+  boolean add(Path file) {
+    lock.lock();
+    try {
+      boolean added = files.add(file);
+      if (added) {
+        notEmpty.signal();
+      }
+      return added;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  boolean remove(Path file) {
+    lock.lock();
+    try {
+      return files.remove(file);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  boolean contains(Path file) {
+    lock.lock();
+    try {
+      return files.contains(file);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  int size() {
+    lock.lock();
+    try {
+      return files.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Removes and returns the first file, waiting up to the given time for one to be queued.
+   * @return the first file, null if there was none within the given time
+   */
+  Path poll(long wait, TimeUnit timeUnit) throws InterruptedException {
+    long nanos = timeUnit.toNanos(wait);
+    lock.lockInterruptibly();
+    try {
+      while (files.isEmpty()) {
+        if (nanos <= 0) {
+          return null;
+        }
+        nanos = notEmpty.awaitNanos(nanos);
+      }
+      return files.pollFirst();
+    } finally {
+      lock.unlock();
+    }
+  }
+}
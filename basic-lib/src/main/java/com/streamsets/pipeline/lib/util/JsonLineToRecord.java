@@ -19,23 +19,15 @@
  */
 package com.streamsets.pipeline.lib.util;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.streamsets.pipeline.api.Field;
 import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.Source;
 
 public class JsonLineToRecord implements ToRecord {
-  private ObjectMapper objectMapper;
-
-  public JsonLineToRecord() {
-    objectMapper = new ObjectMapper();
-
-  }
 
   public Field parse(String line) throws ToRecordException {
     try {
-      Object json = objectMapper.readValue(line, Object.class);
-      return JsonUtil.jsonToField(json);
+      return JsonUtil.stringToField(line);
     } catch (Exception ex) {
       throw new ToRecordException(Errors.RECORD_00, line, ex.toString(), ex);
     }
@@ -29,10 +29,11 @@ import com.streamsets.pipeline.configurablestage.DTarget;
 import com.streamsets.pipeline.stage.destination.hdfs.HdfsTarget;
 
 @StageDef(
-    version = 2,
+    version = 3,
     label = "Local FS",
     description = "Writes to the local file system",
     icon = "localfilesystem.png",
+    upgrader = LocalFileSystemTargetUpgrader.class,
     onlineHelpRefUrl = "index.html#Destinations/LocalFS.html#task_e33_3v5_1r"
 )
 @ConfigGroups(Groups.class)
@@ -166,6 +166,20 @@ public class Configs {
   )
   public boolean compression;
 
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      defaultValue = "1",
+      label = "Parallel Requests per Batch",
+      description = "Number of requests a batch is split into and sent at the same time to the active SDC RPC " +
+          "connections. Large batches on high latency links benefit from several requests",
+      displayPosition = 50,
+      group = "ADVANCED",
+      min = 1,
+      max = 64
+  )
+  public int parallelRequests;
+
   private SSLSocketFactory sslSocketFactory;
 
   public List<Stage.ConfigIssue> init(Stage.Context context) {
@@ -19,6 +19,9 @@
  */
 package com.streamsets.pipeline.stage.destination.sdcipc;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.streamsets.pipeline.api.Batch;
 import com.streamsets.pipeline.api.OnRecordError;
 import com.streamsets.pipeline.api.Record;
@@ -31,20 +34,28 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.HttpURLConnection;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class SdcIpcTarget extends BaseTarget {
   private static final Logger LOG = LoggerFactory.getLogger(SdcIpcTarget.class);
+  // smaller batches are not worth splitting into parallel requests
+  static final int MIN_RECORDS_PER_REQUEST = 100;
 
   private final Configs config;
   final List<String> standByHostPorts;
   final List<String> activeHostPorts;
   int lastActive;
+  private ExecutorService executor;
 
   public SdcIpcTarget(Configs config) {
     this.config = config;
@@ -59,6 +70,10 @@ public class SdcIpcTarget extends BaseTarget {
     issues.addAll(config.init(getContext()));
     if (issues.isEmpty()) {
       initializeHostPortsLists();
+      if (config.parallelRequests > 1) {
+        executor = Executors.newFixedThreadPool(config.parallelRequests,
+            new ThreadFactoryBuilder().setNameFormat("sdcipc-writer-%d").setDaemon(true).build());
+      }
     }
     return issues;
   }
@@ -92,7 +107,7 @@ public class SdcIpcTarget extends BaseTarget {
     }
   }
 
-  String getHostPort(boolean previousOneHadError) {
+  synchronized String getHostPort(boolean previousOneHadError) {
     if (activeHostPorts.size() == 1) {
       return activeHostPorts.get(0);
     } else {
@@ -124,39 +139,88 @@ public class SdcIpcTarget extends BaseTarget {
 
   @Override
   public void write(Batch batch) throws StageException {
+    List<Record> records = ImmutableList.copyOf(batch.getRecords());
+    List<List<Record>> requests = splitIntoRequests(records);
+    if (requests.size() == 1) {
+      String errorReason = send(batch.getSourceOffset(), records);
+      if (errorReason != null) {
+        handleError(batch.getSourceOffset(), records, errorReason);
+      }
+    } else {
+      List<Future<String>> futures = new ArrayList<>(requests.size());
+      for (final List<Record> request : requests) {
+        final String requestId = batch.getSourceOffset() + "-" + futures.size();
+        futures.add(executor.submit(new Callable<String>() {
+          @Override
+          public String call() throws Exception {
+            return send(requestId, request);
+          }
+        }));
+      }
+      // the batch is done, and its offset can be committed, only once all its requests have been acknowledged
+      List<String> errorReasons = new ArrayList<>(requests.size());
+      for (Future<String> future : futures) {
+        try {
+          errorReasons.add(future.get());
+        } catch (InterruptedException ex) {
+          Thread.currentThread().interrupt();
+          throw new StageException(Errors.IPC_DEST_20, ex.toString(), ex);
+        } catch (ExecutionException ex) {
+          errorReasons.add(ex.getCause().toString());
+        }
+      }
+      for (int i = 0; i < requests.size(); i++) {
+        if (errorReasons.get(i) != null) {
+          handleError(batch.getSourceOffset() + "-" + i, requests.get(i), errorReasons.get(i));
+        }
+      }
+    }
+  }
+
+  List<List<Record>> splitIntoRequests(List<Record> records) {
+    int count = Math.min(config.parallelRequests, records.size() / MIN_RECORDS_PER_REQUEST);
+    if (count <= 1) {
+      return ImmutableList.of(records);
+    }
+    return Lists.partition(records, (records.size() + count - 1) / count);
+  }
+
+  // returns NULL if the records were written out, the error reason otherwise
+  String send(String requestId, List<Record> records) {
     ContextExtensions ext = (ContextExtensions) getContext();
     boolean ok = false;
     int retryCount = 0;
     String errorReason = null;
     HttpURLConnection conn = null;
     while (!ok && retryCount <= config.retriesPerBatch) {
-      LOG.debug("Writing out batch '{}' retry '{}'", batch.getSourceOffset(), retryCount);
+      LOG.debug("Writing out batch '{}' retry '{}'", requestId, retryCount);
       try {
         conn = createWriteConnection(retryCount > 0);
         if (config.compression) {
           conn.setRequestProperty(Constants.X_SDC_COMPRESSION_HEADER, Constants.SNAPPY_COMPRESSION);
         }
+        // records are serialized straight into the socket instead of being buffered by the connection
+        conn.setChunkedStreamingMode(0);
         OutputStream os = conn.getOutputStream();
         if (config.compression) {
           os = new SnappyFramedOutputStream(os);
         }
         RecordWriter writer = ext.createRecordWriter(os);
-        Iterator<Record> it = batch.getRecords();
-        while (it.hasNext()) {
-          Record record = it.next();
+        for (Record record : records) {
           writer.write(record);
         }
         writer.close();
         ok = conn.getResponseCode() == HttpURLConnection.HTTP_OK;
         if (!ok) {
           errorReason = conn.getResponseMessage();
-          LOG.warn("Batch '{}' could not be written out: {}", batch.getSourceOffset(), errorReason);
+          LOG.warn("Batch '{}' could not be written out: {}", requestId, errorReason);
         } else {
-          LOG.debug("Batch '{}' written out on retry '{}'", batch.getSourceOffset(), retryCount);
+          LOG.debug("Batch '{}' written out on retry '{}'", requestId, retryCount);
         }
+        consumeResponse(conn, ok);
       } catch (IOException ex) {
         errorReason = ex.toString();
-        LOG.warn("Batch '{}' could not be written out: {}", batch.getSourceOffset(), errorReason, ex);
+        LOG.warn("Batch '{}' could not be written out: {}", requestId, errorReason, ex);
 
         if (conn != null) {
           conn.disconnect();
@@ -164,31 +228,52 @@ public class SdcIpcTarget extends BaseTarget {
       }
       retryCount++;
     }
-    if (!ok) {
-      OnRecordError onErrorRecord = getContext().getOnErrorRecord();
-      // this branch only happens when the pipeline error handling strategy is "send to RPC". if we can't forward to
-      // that pipeline, then it's a pipeline-stopping problem.
-      if (onErrorRecord == null) {
-        throw new StageException(Errors.IPC_DEST_20, errorReason);
-      }
+    return (ok) ? null : errorReason;
+  }
 
-      switch (onErrorRecord) {
-        case DISCARD:
-          LOG.debug("Discarding batch '{}' after error", batch.getSourceOffset());
-          break;
-        case TO_ERROR:
-          Iterator<Record> it = batch.getRecords();
-          while (it.hasNext()) {
-            Record record = it.next();
-            getContext().toError(record, Errors.IPC_DEST_20, errorReason);
-          }
-          break;
-        case STOP_PIPELINE:
-          throw new StageException(Errors.IPC_DEST_20, errorReason);
-        default:
-          throw new StageException(Errors.IPC_DEST_21, getContext().getOnErrorRecord());
+  // reading the response fully returns the connection to the keep-alive pool to be reused by the next request
+  private void consumeResponse(HttpURLConnection conn, boolean ok) throws IOException {
+    try (InputStream is = (ok) ? conn.getInputStream() : conn.getErrorStream()) {
+      if (is != null) {
+        byte[] buffer = new byte[1024];
+        while (is.read(buffer) > -1) {
+          // discarding response body
+        }
       }
     }
   }
 
+  private void handleError(String requestId, List<Record> records, String errorReason) throws StageException {
+    OnRecordError onErrorRecord = getContext().getOnErrorRecord();
+    // this branch only happens when the pipeline error handling strategy is "send to RPC". if we can't forward to
+    // that pipeline, then it's a pipeline-stopping problem.
+    if (onErrorRecord == null) {
+      throw new StageException(Errors.IPC_DEST_20, errorReason);
+    }
+
+    switch (onErrorRecord) {
+      case DISCARD:
+        LOG.debug("Discarding batch '{}' after error", requestId);
+        break;
+      case TO_ERROR:
+        for (Record record : records) {
+          getContext().toError(record, Errors.IPC_DEST_20, errorReason);
+        }
+        break;
+      case STOP_PIPELINE:
+        throw new StageException(Errors.IPC_DEST_20, errorReason);
+      default:
+        throw new StageException(Errors.IPC_DEST_21, getContext().getOnErrorRecord());
+    }
+  }
+
+  @Override
+  public void destroy() {
+    if (executor != null) {
+      executor.shutdownNow();
+      executor = null;
+    }
+    super.destroy();
+  }
+
 }
@@ -25,10 +25,11 @@ import com.streamsets.pipeline.api.HideConfigs;
 import com.streamsets.pipeline.api.StageDef;
 
 @StageDef(
-    version = 1,
+    version = 2,
     label = "Write to Another Pipeline",
     description = "",
     icon = "",
+    upgrader = SdcIpcTargetUpgrader.class,
     onlineHelpRefUrl = "index.html#Pipeline_Configuration/ErrorHandling.html#concept_kgc_l4y_5r"
 )
 @ErrorStage
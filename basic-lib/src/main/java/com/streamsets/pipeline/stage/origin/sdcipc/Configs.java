@@ -121,6 +121,33 @@ public class Configs {
   )
   public int maxRecordSize;
 
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      defaultValue = "10",
+      label = "Max Concurrent Requests",
+      description = "Maximum number of requests from SDC RPC destinations processed at the same time",
+      displayPosition = 20,
+      group = "ADVANCED",
+      min = 1,
+      max = 200
+  )
+  public int maxConcurrentRequests;
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      defaultValue = "100",
+      label = "Max Queued Data (MB)",
+      description = "Maximum size of the records received and waiting to be processed by the pipeline. " +
+          "When reached, requests wait before queueing their records",
+      displayPosition = 30,
+      group = "ADVANCED",
+      min = 1,
+      max = Integer.MAX_VALUE
+  )
+  public int maxQueuedDataMB;
+
   public List<Stage.ConfigIssue> init(Stage.Context context) {
     List<Stage.ConfigIssue> issues = new ArrayList<>();
 
@@ -0,0 +1,64 @@
+/**
+ * Copyright 2016 StreamSets Inc.
+ *
+ * Licensed under the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.sdcipc;
+
+import com.streamsets.pipeline.api.Record;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Records of an IPC POST request waiting to be acknowledged once the batch containing them is committed.
+ */
+class IpcRequest {
+  private final List<Record> records;
+  private final long bytes;
+  private final CountDownLatch latch;
+  private volatile boolean done;
+
+  IpcRequest(List<Record> records, long bytes) {
+    this.records = records;
+    this.bytes = bytes;
+    latch = new CountDownLatch(1);
+  }
+
+  List<Record> getRecords() {
+    return records;
+  }
+
+  long getBytes() {
+    return bytes;
+  }
+
+  void complete(boolean done) {
+    this.done = done;
+    latch.countDown();
+  }
+
+  /**
+   * Waits until the request is completed, returns <code>true</code> if its batch was committed, <code>false</code>
+   * if it was cancelled.
+   */
+  boolean await() throws InterruptedException {
+    latch.await();
+    return done;
+  }
+
+}
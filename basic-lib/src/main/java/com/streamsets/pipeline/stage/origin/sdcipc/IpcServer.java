@@ -36,10 +36,11 @@ import org.eclipse.jetty.util.thread.QueuedThreadPool;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 
 @SuppressWarnings({"squid:S2095", "squid:S00112"})
@@ -49,13 +50,21 @@ public class IpcServer {
   private final Stage.Context context;
   private final Configs configs;
   private Server httpServer;
-  private final BlockingQueue<List<Record>> queue;
+  private final BlockingQueue<IpcRequest> queue;
+  private final long maxQueuedBytes;
+  private final Object queuedBytesLock;
+  private long queuedBytes;
+  private volatile boolean shuttingDown;
+  private final List<IpcRequest> inFlight;
   private IpcServlet servlet;
 
   public IpcServer(Stage.Context context, Configs configs) {
     this.context = context;
     this.configs = configs;
-    queue = new SynchronousQueue<>();
+    queue = new LinkedBlockingQueue<>();
+    maxQueuedBytes = configs.maxQueuedDataMB * 1000L * 1000;
+    queuedBytesLock = new Object();
+    inFlight = new ArrayList<>();
   }
 
   private int getJettyServerMinimumThreads() {
@@ -67,7 +76,8 @@ public class IpcServer {
   }
 
   public void start() throws Exception {
-    int numberOfThreads = getJettyServerMinimumThreads();
+    // POST requests block until their batch is committed, each one of them needs its own thread
+    int numberOfThreads = getJettyServerMinimumThreads() + configs.maxConcurrentRequests;
     QueuedThreadPool threadPool = new QueuedThreadPool(numberOfThreads, numberOfThreads, 60000,
                                                        new ArrayBlockingQueue<Runnable>(20));
     threadPool.setName("sdcipc-server");
@@ -92,7 +102,7 @@ public class IpcServer {
     connector.setPort(configs.port);
     server.setConnectors(new Connector[]{connector});
 
-    servlet = new IpcServlet(context, configs, queue);
+    servlet = new IpcServlet(context, configs, this);
     ServletContextHandler contextHandler = new ServletContextHandler();
     contextHandler.addServlet(new ServletHolder(new PingServlet()), Constants.PING_PATH);
     contextHandler.addServlet(new ServletHolder(servlet), Constants.IPC_PATH);
@@ -109,11 +119,19 @@ public class IpcServer {
     LOG.info("Shutting down, port '{}', TLS '{}'", configs.port, configs.sslEnabled);
     if (httpServer != null) {
       try {
+        synchronized (queuedBytesLock) {
+          shuttingDown = true;
+          queuedBytesLock.notifyAll();
+        }
         servlet.setShuttingDown();
+        cancelBatch();
+        cancelQueued();
         try {
           // wait up to 30secs for servlet to finish POST request then continue with the shutdown
           long start = System.currentTimeMillis();
           while (servlet.isInPost() && System.currentTimeMillis() - start < 30000) {
+            // requests that were parsed while shutting down
+            cancelQueued();
             Thread.sleep(50);
           }
           if (servlet.isInPost()) {
@@ -130,23 +148,77 @@ public class IpcServer {
     }
   }
 
-  public List<Record> poll(long secs) throws InterruptedException {
-    return queue.poll(secs, TimeUnit.SECONDS);
+  /**
+   * Adds a request to the staging queue, blocking while the queued requests exceed the maximum queued data. A request
+   * is always accepted if the queue is empty, regardless of its size.
+   */
+  void offer(IpcRequest request) throws InterruptedException {
+    synchronized (queuedBytesLock) {
+      while (!shuttingDown && queuedBytes > 0 && queuedBytes + request.getBytes() > maxQueuedBytes) {
+        queuedBytesLock.wait();
+      }
+      if (shuttingDown) {
+        request.complete(false);
+        return;
+      }
+      queuedBytes += request.getBytes();
+    }
+    queue.add(request);
+  }
+
+  /**
+   * Returns the records of the queued requests, at least one request and, after that, as many whole requests as fit
+   * within the given number of records. Returns <code>null</code> if no request arrives within the given time.
+   * <p/>
+   * The requests are acknowledged when the batch is done or cancelled.
+   */
+  public List<Record> poll(long secs, int maxRecords) throws InterruptedException {
+    IpcRequest request = queue.poll(secs, TimeUnit.SECONDS);
+    if (request == null) {
+      return null;
+    }
+    inFlight.add(request);
+    List<Record> records = new ArrayList<>(request.getRecords());
+    request = queue.peek();
+    while (request != null && records.size() + request.getRecords().size() <= maxRecords) {
+      queue.remove();
+      inFlight.add(request);
+      records.addAll(request.getRecords());
+      request = queue.peek();
+    }
+    return records;
   }
 
   public void cancelBatch() {
     LOG.debug("Cancel batch");
-    servlet.batchCancelled();
-    synchronized (queue) {
-      queue.notify();
-    }
+    completeInFlight(false);
   }
 
   public void doneWithBatch() {
     LOG.debug("Done with batch");
-    servlet.batchDone();
-    synchronized (queue) {
-      queue.notify();
+    completeInFlight(true);
+  }
+
+  private void completeInFlight(boolean done) {
+    for (IpcRequest request : inFlight) {
+      complete(request, done);
+    }
+    inFlight.clear();
+  }
+
+  private void cancelQueued() {
+    IpcRequest request = queue.poll();
+    while (request != null) {
+      complete(request, false);
+      request = queue.poll();
+    }
+  }
+
+  private void complete(IpcRequest request, boolean done) {
+    request.complete(done);
+    synchronized (queuedBytesLock) {
+      queuedBytes -= request.getBytes();
+      queuedBytesLock.notifyAll();
     }
   }
 
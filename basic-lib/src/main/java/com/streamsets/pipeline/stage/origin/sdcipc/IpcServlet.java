@@ -19,6 +19,7 @@
  */
 package com.streamsets.pipeline.stage.origin.sdcipc;
 
+import com.google.common.io.CountingInputStream;
 import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.Stage;
 import com.streamsets.pipeline.api.ext.ContextExtensions;
@@ -37,7 +38,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @SuppressWarnings({"squid:S2226", "squid:S1989", "squid:S1948"})
 public class IpcServlet extends HttpServlet {
@@ -46,17 +48,18 @@ public class IpcServlet extends HttpServlet {
   private final Stage.Context context;
   private final Configs configs;
   private final int maxObjectLen;
-  private final BlockingQueue<List<Record>> queue;
-  private volatile boolean batchDone;
-  private volatile boolean batchCancelled;
+  private final IpcServer server;
+  private final Semaphore concurrentRequests;
+  private final AtomicInteger inPost;
   private volatile boolean shuttingDown;
-  private volatile boolean inPost;
 
-  public IpcServlet(Stage.Context context, Configs configs, BlockingQueue<List<Record>> queue) {
+  public IpcServlet(Stage.Context context, Configs configs, IpcServer server) {
     this.context = context;
     this.configs = configs;
     maxObjectLen = this.configs.maxRecordSize * 1000 * 1000;
-    this.queue = queue;
+    this.server = server;
+    concurrentRequests = new Semaphore(configs.maxConcurrentRequests, true);
+    inPost = new AtomicInteger();
   }
 
   @Override
@@ -73,9 +76,9 @@ public class IpcServlet extends HttpServlet {
   }
 
   @Override
-  protected synchronized void doPost(HttpServletRequest req, HttpServletResponse resp)
+  protected void doPost(HttpServletRequest req, HttpServletResponse resp)
       throws ServletException, IOException {
-    inPost = true;
+    inPost.incrementAndGet();
     try {
       if (shuttingDown) {
         LOG.debug("Shutting down, discarding incoming request");
@@ -108,31 +111,11 @@ public class IpcServlet extends HttpServlet {
               }
             }
             if (processRequest) {
-              RecordReader reader = ((ContextExtensions) context).createRecordReader(is, 0, maxObjectLen);
-
-              List<Record> records = new ArrayList<>();
-              Record record = reader.readRecord();
-              while (record != null) {
-                records.add(record);
-                record = reader.readRecord();
-              }
-              LOG.debug("Got '{}' records from '{}'", records.size(), req.getRemoteAddr());
-              batchDone = false;
-              batchCancelled = false;
-              queue.add(records);
-              synchronized (queue) {
-                LOG.debug("Waiting for signal of batch completion");
-                while (!(batchDone || batchCancelled)) {
-                  queue.wait();
-                }
-                if (batchDone) {
-                  LOG.debug("Batch done");
-                  resp.setStatus(HttpServletResponse.SC_OK);
-                } else {
-                  // Batch cancelled
-                  LOG.debug("Batch cancelled: {}", batchCancelled);
-                  resp.setStatus(HttpServletResponse.SC_GONE);
-                }
+              concurrentRequests.acquire();
+              try {
+                processRequest(req, resp, is);
+              } finally {
+                concurrentRequests.release();
               }
             }
           } catch (IOException ex) {
@@ -147,24 +130,39 @@ public class IpcServlet extends HttpServlet {
         }
       }
     } finally {
-      inPost = false;
+      inPost.decrementAndGet();
     }
   }
 
-  public void setShuttingDown() {
-    shuttingDown = true;
-  }
-
-  public void batchDone() {
-    batchDone = true;
+  private void processRequest(HttpServletRequest req, HttpServletResponse resp, InputStream is)
+      throws IOException, InterruptedException {
+    CountingInputStream counter = new CountingInputStream(is);
+    RecordReader reader = ((ContextExtensions) context).createRecordReader(counter, 0, maxObjectLen);
+    List<Record> records = new ArrayList<>();
+    Record record = reader.readRecord();
+    while (record != null) {
+      records.add(record);
+      record = reader.readRecord();
+    }
+    LOG.debug("Got '{}' records, '{}' bytes, from '{}'", records.size(), counter.getCount(), req.getRemoteAddr());
+    IpcRequest request = new IpcRequest(records, counter.getCount());
+    server.offer(request);
+    LOG.debug("Waiting for signal of batch completion");
+    if (request.await()) {
+      LOG.debug("Batch done");
+      resp.setStatus(HttpServletResponse.SC_OK);
+    } else {
+      LOG.debug("Batch cancelled");
+      resp.setStatus(HttpServletResponse.SC_GONE);
+    }
   }
 
-  public void batchCancelled() {
-    batchCancelled = true;
+  public void setShuttingDown() {
+    shuttingDown = true;
   }
 
   public boolean isInPost() {
-    return inPost;
+    return inPost.get() > 0;
   }
 
 }
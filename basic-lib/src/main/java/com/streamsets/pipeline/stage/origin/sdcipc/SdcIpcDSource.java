@@ -28,11 +28,12 @@ import com.streamsets.pipeline.api.StageDef;
 import com.streamsets.pipeline.configurablestage.DSourceOffsetCommitter;
 
 @StageDef(
-    version = 1,
+    version = 2,
     label = "SDC RPC",
     execution = ExecutionMode.STANDALONE,
     description = "Receives records via SDC RPC from a Data Collector pipeline that uses an SDC RPC destination",
     icon="sdcipc.png",
+    upgrader = SdcIpcSourceUpgrader.class,
     onlineHelpRefUrl = "index.html#Origins/SDC_RPCorigin.html#task_lxh_1w2_ct"
 )
 @ConfigGroups(Groups.class)
@@ -69,7 +69,7 @@ public class SdcIpcSource extends BaseSource implements OffsetCommitter {
   @Override
   public String produce(String lastSourceOffset, int maxBatchSize, BatchMaker batchMaker) throws StageException {
     try {
-      List<Record> records = ipcServer.poll(configs.maxWaitTimeSecs);
+      List<Record> records = ipcServer.poll(configs.maxWaitTimeSecs, maxBatchSize);
       if (records != null) {
         LOG.debug("Got '{}' records", records.size());
         for (Record record : records) {
@@ -54,6 +54,9 @@ public enum Errors implements ErrorCode {
   SPOOLDIR_30("RegEx {} contains {} groups but the field Path to group mapping specifies group {}."),
   SPOOLDIR_31("Error parsing grok pattern {}, reason {}"),
   SPOOLDIR_32("File Pattern cannot be empty"),
+  SPOOLDIR_33("Number of threads cannot be less than 1"),
+  SPOOLDIR_34("Invalid offset '{}': {}"),
+  SPOOLDIR_35("Failed to read files from spool directory: {}"),
   ;
 
   private final String msg;
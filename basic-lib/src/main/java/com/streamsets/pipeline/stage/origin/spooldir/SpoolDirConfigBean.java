@@ -65,6 +65,18 @@ public class SpoolDirConfigBean {
   )
   public boolean allowLateDirectory = false;
 
+  @ConfigDef(
+      required = false,
+      type = ConfigDef.Type.BOOLEAN,
+      label = "Use Directory Events",
+      description = "Tracks new files from file system notifications instead of listing the directory every few " +
+          "seconds. The directory is still listed every few minutes to catch up on missed notifications.",
+      displayPosition = 13,
+      group = "FILES",
+      defaultValue = "false"
+  )
+  public boolean useDirectoryEvents = false;
+
   @ConfigDef(
       required = true,
       type = ConfigDef.Type.NUMBER,
@@ -103,6 +115,21 @@ public class SpoolDirConfigBean {
   )
   public long poolingTimeoutSecs;
 
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      defaultValue = "1",
+      label = "Number of Threads",
+      description = "Number of files read and parsed at the same time. With more than one thread the records of " +
+          "different files are interleaved in a batch, and files are post processed once their records are " +
+          "committed.",
+      displayPosition = 35,
+      group = "FILES",
+      min = 1,
+      max = Integer.MAX_VALUE
+  )
+  public int numberOfThreads = 1;
+
   @ConfigDef(
       required = true,
       type = ConfigDef.Type.STRING,
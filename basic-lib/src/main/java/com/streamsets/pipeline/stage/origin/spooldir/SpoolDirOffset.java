@@ -0,0 +1,163 @@
+/**
+ * Copyright 2016 StreamSets Inc.
+ *
+ * Licensed under the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.spooldir;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Offset of the files read in parallel.
+ * <p/>
+ * The spooler hands out files in lexicographical order, so the offset keeps the last file up to which every file has
+ * been fully processed, plus the position of each later file that is being read or that was completed ahead of an
+ * earlier one. Completed files are folded into the last file as soon as there is no pending file before them.
+ * <p/>
+ * It is serialized as JSON, the source converts between it and the <code>&lt;file&gt;::&lt;offset&gt;</code> offset of
+ * the single threaded mode.
+ */
+class SpoolDirOffset {
+  static final String DONE = "-1";
+  static final String START = "0";
+
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+  private static final String LAST_FILE = "lastFile";
+  private static final String FILES = "files";
+
+  private String lastFile;
+  private final TreeMap<String, String> files = new TreeMap<>();
+  // files with a position in the offset this one was created from, that have not been started again yet
+  private final TreeSet<String> resumedFiles = new TreeSet<>();
+
+  /**
+   * Creates the offset for a file and its position, as tracked by the single threaded mode.
+   * @param file file, null if no file has been processed yet
+   * @param offset position in the file, {@link #DONE} if the file was fully processed
+   */
+  SpoolDirOffset(String file, String offset) {
+    if (file != null) {
+      lastFile = file;
+      if (!DONE.equals(offset)) {
+        files.put(file, offset);
+        resumedFiles.add(file);
+      }
+    }
+  }
+
+  SpoolDirOffset(SpoolDirOffset offset) {
+    lastFile = offset.lastFile;
+    files.putAll(offset.files);
+    resumedFiles.addAll(offset.resumedFiles);
+  }
+
+  @SuppressWarnings("unchecked")
+  static SpoolDirOffset fromJson(String json) throws IOException {
+    Map<String, Object> map = OBJECT_MAPPER.readValue(json, Map.class);
+    SpoolDirOffset offset = new SpoolDirOffset(null, START);
+    offset.lastFile = (String) map.get(LAST_FILE);
+    Map<String, String> files = (Map<String, String>) map.get(FILES);
+    if (files != null) {
+      offset.files.putAll(files);
+      for (Map.Entry<String, String> entry : files.entrySet()) {
+        if (!DONE.equals(entry.getValue())) {
+          offset.resumedFiles.add(entry.getKey());
+        }
+      }
+    }
+    return offset;
+  }
+
+  static boolean isJson(String offset) {
+    return offset != null && offset.startsWith("{");
+  }
+
+  String toJson() throws IOException {
+    Map<String, Object> map = new HashMap<>();
+    map.put(LAST_FILE, lastFile);
+    map.put(FILES, files);
+    return OBJECT_MAPPER.writeValueAsString(map);
+  }
+
+  /**
+   * Position to start reading a file from.
+   * @param file file name
+   * @return the position, null if the file was already fully processed
+   */
+  String getStartOffset(String file) {
+    String offset = files.get(file);
+    if (offset == null) {
+      offset = (lastFile != null && file.compareTo(lastFile) <= 0) ? null : START;
+    } else if (DONE.equals(offset)) {
+      offset = null;
+    }
+    return offset;
+  }
+
+  /**
+   * Records that the spooler handed out a file. Files are handed out in order, so resumed files before it that were
+   * not handed out again are no longer in the directory and are considered done.
+   * @param file file name
+   * @param offset position reading starts from
+   */
+  void start(String file, String offset) {
+    for (String missingFile : new ArrayList<>(resumedFiles.headSet(file))) {
+      files.put(missingFile, DONE);
+      resumedFiles.remove(missingFile);
+    }
+    resumedFiles.remove(file);
+    setOffset(file, offset);
+  }
+
+  void setOffset(String file, String offset) {
+    files.put(file, offset);
+    while (!files.isEmpty() && DONE.equals(files.firstEntry().getValue())) {
+      String doneFile = files.pollFirstEntry().getKey();
+      if (lastFile == null || doneFile.compareTo(lastFile) > 0) {
+        lastFile = doneFile;
+      }
+    }
+  }
+
+  /**
+   * Earliest file that has not been fully processed.
+   * @return the file and its position, null if all files up to the last file were fully processed
+   */
+  Map.Entry<String, String> getFirstPendingFile() {
+    for (Map.Entry<String, String> entry : files.entrySet()) {
+      if (!DONE.equals(entry.getValue())) {
+        return entry;
+      }
+    }
+    return null;
+  }
+
+  String getLastFile() {
+    return lastFile;
+  }
+
+  Map<String, String> getFiles() {
+    return files;
+  }
+}
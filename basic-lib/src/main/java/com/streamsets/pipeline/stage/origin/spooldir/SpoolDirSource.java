@@ -19,6 +19,7 @@
  */
 package com.streamsets.pipeline.stage.origin.spooldir;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.streamsets.pipeline.api.BatchMaker;
 import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.StageException;
@@ -43,7 +44,14 @@ import java.io.IOException;
 import java.nio.channels.ClosedByInterruptException;
 import java.nio.file.PathMatcher;
 import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
 public class SpoolDirSource extends BaseSource {
@@ -68,6 +76,19 @@ public class SpoolDirSource extends BaseSource {
   private DataParserFactory parserFactory;
   private DataParser parser;
 
+  // Parallel mode: reader threads take files from the spooler and queue their records for the batches.
+  private boolean parallel;
+  private ExecutorService readerPool;
+  private volatile boolean readersRunning;
+  private BlockingQueue<FileItem> fileItems;
+  private final Object takeLock = new Object();
+  // offset the source started from, read by the reader threads
+  private SpoolDirOffset initialOffset;
+  // offset of the records produced so far, only used by the pipeline thread
+  private SpoolDirOffset parallelOffset;
+  // files completed by the last batch, post processed once the batch is committed; the value is true for errors
+  private final Map<File, Boolean> completedFiles = new LinkedHashMap<>();
+
   @Override
   protected List<ConfigIssue> init() {
     List<ConfigIssue> issues = super.init();
@@ -109,6 +130,16 @@ public class SpoolDirSource extends BaseSource {
       );
     }
 
+    if (conf.numberOfThreads < 1) {
+      issues.add(
+          getContext().createConfigIssue(
+              Groups.FILES.name(),
+              SPOOLDIR_CONFIG_BEAN_PREFIX + "numberOfThreads",
+              Errors.SPOOLDIR_33
+          )
+      );
+    }
+
     validateFilePattern(issues);
 
     if (conf.maxSpoolFiles < 1) {
@@ -176,11 +207,17 @@ public class SpoolDirSource extends BaseSource {
         conf.poolingTimeoutSecs = 1;
       }
 
+      parallel = conf.numberOfThreads > 1 && !getContext().isPreview();
+      if (parallel) {
+        fileItems = new ArrayBlockingQueue<>(conf.batchSize);
+      }
+
       DirectorySpooler.Builder builder =
           DirectorySpooler.builder().setDir(conf.spoolDir).setFilePattern(conf.filePattern)
               .setMaxSpoolFiles(conf.maxSpoolFiles)
               .setPostProcessing(DirectorySpooler.FilePostProcessing.valueOf(conf.postProcessing.name()))
-              .waitForPathAppearance(waitForPathToBePresent);
+              .waitForPathAppearance(waitForPathToBePresent)
+              .useDirectoryEvents(conf.useDirectoryEvents);
       if (conf.postProcessing == PostProcessingOptions.ARCHIVE) {
         builder.setArchiveDir(conf.archiveDir);
         builder.setArchiveRetention(conf.retentionTimeMins);
@@ -282,6 +319,7 @@ public class SpoolDirSource extends BaseSource {
 
   @Override
   public void destroy() {
+    stopReaders();
     IOUtils.closeQuietly(parser);
     if (spooler != null) {
       spooler.destroy();
@@ -323,6 +361,24 @@ public class SpoolDirSource extends BaseSource {
     return (file == null) ? NULL_FILE + OFFSET_SEPARATOR + fileOffset : file + OFFSET_SEPARATOR + fileOffset;
   }
 
+  /**
+   * Converts an offset of the parallel mode to a <code>&lt;file&gt;::&lt;offset&gt;</code> offset, starting from the
+   * earliest file that was not fully processed. Files completed ahead of it are processed again.
+   */
+  private String fromParallelOffset(String sourceOffset) throws StageException {
+    SpoolDirOffset offset;
+    try {
+      offset = SpoolDirOffset.fromJson(sourceOffset);
+    } catch (IOException ex) {
+      throw new StageException(Errors.SPOOLDIR_34, sourceOffset, ex.toString(), ex);
+    }
+    Map.Entry<String, String> pendingFile = offset.getFirstPendingFile();
+    if (pendingFile == null) {
+      return createSourceOffset(offset.getLastFile(), MINUS_ONE);
+    }
+    return createSourceOffset(pendingFile.getKey(), pendingFile.getValue());
+  }
+
   private boolean hasToFetchNextFileFromSpooler(String file, String offset) {
     return
         // we don't have a current file half way processed in the current agent execution
@@ -360,6 +416,13 @@ public class SpoolDirSource extends BaseSource {
   @Override
   public String produce(String lastSourceOffset, int maxBatchSize, BatchMaker batchMaker) throws StageException {
     int batchSize = Math.min(conf.batchSize, maxBatchSize);
+    if (parallel) {
+      return produceInParallel(lastSourceOffset, batchSize, batchMaker);
+    }
+    if (SpoolDirOffset.isJson(lastSourceOffset)) {
+      // the offset was written while reading files in parallel
+      lastSourceOffset = fromParallelOffset(lastSourceOffset);
+    }
     // if lastSourceOffset is NULL (beginning of source) it returns NULL
     String file = getFileFromSourceOffset(lastSourceOffset);
     // if lastSourceOffset is NULL (beginning of source) it returns 0
@@ -431,11 +494,7 @@ public class SpoolDirSource extends BaseSource {
     String sourceFile = file.getName();
     try {
       if (parser == null) {
-        if (conf.dataFormat == DataFormat.AVRO) {
-          parser = parserFactory.getParser(file, offset);
-        } else {
-          parser = parserFactory.getParser(file.getName(), new FileInputStream(file), offset);
-        }
+        parser = createParser(file, offset);
       }
       for (int i = 0; i < maxBatchSize; i++) {
         try {
@@ -454,18 +513,7 @@ public class SpoolDirSource extends BaseSource {
         } catch (ObjectLengthException ex) {
           String exOffset = offset;
           offset = MINUS_ONE;
-          switch (getContext().getOnErrorRecord()) {
-            case DISCARD:
-              break;
-            case TO_ERROR:
-              getContext().reportError(Errors.SPOOLDIR_02, sourceFile, exOffset, ex);
-              break;
-            case STOP_PIPELINE:
-              throw new StageException(Errors.SPOOLDIR_02, sourceFile, exOffset);
-            default:
-              throw new IllegalStateException(Utils.format("Unknown OnError value '{}'",
-                  getContext().getOnErrorRecord(), ex));
-          }
+          handleObjectLengthError(sourceFile, exOffset, ex);
         }
       }
     } catch (IOException|DataParserException ex) {
@@ -516,4 +564,270 @@ public class SpoolDirSource extends BaseSource {
     return offset;
   }
 
+  private DataParser createParser(File file, String offset) throws IOException, DataParserException {
+    if (conf.dataFormat == DataFormat.AVRO) {
+      return parserFactory.getParser(file, offset);
+    } else {
+      return parserFactory.getParser(file.getName(), new FileInputStream(file), offset);
+    }
+  }
+
+  private void handleObjectLengthError(String sourceFile, String offset, ObjectLengthException ex)
+      throws StageException {
+    switch (getContext().getOnErrorRecord()) {
+      case DISCARD:
+        break;
+      case TO_ERROR:
+        getContext().reportError(Errors.SPOOLDIR_02, sourceFile, offset, ex);
+        break;
+      case STOP_PIPELINE:
+        throw new StageException(Errors.SPOOLDIR_02, sourceFile, offset);
+      default:
+        throw new IllegalStateException(Utils.format("Unknown OnError value '{}'",
+            getContext().getOnErrorRecord(), ex));
+    }
+  }
+
+  /**
+   * Produces a batch from the records queued by the reader threads. The returned offset has the position of every
+   * file being read, files are post processed on the next call, once the batch completing them has been committed.
+   */
+  private String produceInParallel(String lastSourceOffset, int batchSize, BatchMaker batchMaker)
+      throws StageException {
+    if (readerPool == null) {
+      startReaders(lastSourceOffset);
+    } else {
+      postProcessCompletedFiles();
+    }
+
+    int recordCount = 0;
+    try {
+      FileItem item = fileItems.poll(conf.poolingTimeoutSecs, TimeUnit.SECONDS);
+      while (item != null) {
+        recordCount += processItem(item, batchMaker);
+        item = (recordCount < batchSize) ? fileItems.poll() : null;
+      }
+    } catch (InterruptedException ex) {
+      LOG.warn("Pooling interrupted");
+    }
+    if (recordCount == 0) {
+      LOG.debug("No new records available in spool directory after '{}' secs, producing empty batch",
+          conf.poolingTimeoutSecs);
+    }
+
+    try {
+      return parallelOffset.toJson();
+    } catch (IOException ex) {
+      throw new StageException(Errors.SPOOLDIR_35, ex.toString(), ex);
+    }
+  }
+
+  private void startReaders(String lastSourceOffset) throws StageException {
+    try {
+      if (SpoolDirOffset.isJson(lastSourceOffset)) {
+        initialOffset = SpoolDirOffset.fromJson(lastSourceOffset);
+      } else {
+        initialOffset = new SpoolDirOffset(
+            getFileFromSourceOffset(lastSourceOffset),
+            getOffsetFromSourceOffset(lastSourceOffset)
+        );
+      }
+    } catch (IOException ex) {
+      throw new StageException(Errors.SPOOLDIR_34, lastSourceOffset, ex.toString(), ex);
+    }
+    parallelOffset = new SpoolDirOffset(initialOffset);
+
+    readersRunning = true;
+    readerPool = Executors.newFixedThreadPool(
+        conf.numberOfThreads,
+        new ThreadFactoryBuilder().setNameFormat("spooldir-reader-%d").setDaemon(true).build()
+    );
+    for (int i = 0; i < conf.numberOfThreads; i++) {
+      readerPool.execute(new FileReader());
+    }
+  }
+
+  private void stopReaders() {
+    readersRunning = false;
+    if (readerPool != null) {
+      readerPool.shutdownNow();
+      try {
+        readerPool.awaitTermination(1, TimeUnit.MINUTES);
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      }
+      readerPool = null;
+    }
+  }
+
+  private void postProcessCompletedFiles() throws StageException {
+    Iterator<Map.Entry<File, Boolean>> iterator = completedFiles.entrySet().iterator();
+    while (iterator.hasNext()) {
+      Map.Entry<File, Boolean> completedFile = iterator.next();
+      iterator.remove();
+      if (completedFile.getValue()) {
+        try {
+          spooler.handleFileAsError(completedFile.getKey());
+        } catch (IOException ex) {
+          throw new StageException(Errors.SPOOLDIR_00, completedFile.getKey(), ex.toString(), ex);
+        }
+      } else {
+        spooler.postProcessFile(completedFile.getKey());
+      }
+    }
+  }
+
+  private int processItem(FileItem item, BatchMaker batchMaker) throws StageException {
+    int recordCount = 0;
+    switch (item.type) {
+      case START:
+        parallelOffset.start(item.file.getName(), item.offset);
+        break;
+      case RECORD:
+        batchMaker.addRecord(item.record);
+        parallelOffset.setOffset(item.file.getName(), item.offset);
+        recordCount = 1;
+        break;
+      case RECORD_ERROR:
+        handleObjectLengthError(item.file.getName(), item.offset, (ObjectLengthException) item.exception);
+        break;
+      case FILE_ERROR:
+        handleFileError(item);
+        parallelOffset.setOffset(item.file.getName(), SpoolDirOffset.DONE);
+        break;
+      case END:
+        parallelOffset.setOffset(item.file.getName(), SpoolDirOffset.DONE);
+        completedFiles.put(item.file, false);
+        break;
+      case FAILURE:
+        throw new StageException(Errors.SPOOLDIR_35, item.exception.toString(), item.exception);
+      default:
+        throw new IllegalStateException(Utils.format("Unknown item type '{}'", item.type));
+    }
+    return recordCount;
+  }
+
+  private void handleFileError(FileItem item) throws StageException {
+    String sourceFile = item.file.getName();
+    Exception ex = item.exception;
+    switch (getContext().getOnErrorRecord()) {
+      case DISCARD:
+        completedFiles.put(item.file, false);
+        break;
+      case TO_ERROR:
+        LOG.error(Errors.SPOOLDIR_01.getMessage(), item.file.getAbsolutePath(), item.offset, ex.toString(), ex);
+        getContext().reportError(Errors.SPOOLDIR_01, item.file.getAbsolutePath(), item.offset, ex.toString(), ex);
+        completedFiles.put(item.file, true);
+        break;
+      case STOP_PIPELINE:
+        getContext().reportError(Errors.SPOOLDIR_04, sourceFile, item.offset, ex.toString(), ex);
+        throw new StageException(Errors.SPOOLDIR_04, sourceFile, item.offset, ex.toString());
+      default:
+        throw new IllegalStateException(Utils.format("Unknown OnError value '{}'",
+            getContext().getOnErrorRecord(), ex));
+    }
+  }
+
+  private enum ItemType {START, RECORD, RECORD_ERROR, FILE_ERROR, END, FAILURE}
+
+  /**
+   * What a reader thread hands to the pipeline thread: the start of a file, a record with the file position after
+   * it, an error, or the end of a file.
+   */
+  private static class FileItem {
+    private final ItemType type;
+    private final File file;
+    private final String offset;
+    private final Record record;
+    private final Exception exception;
+
+    FileItem(ItemType type, File file, String offset, Record record, Exception exception) {
+      this.type = type;
+      this.file = file;
+      this.offset = offset;
+      this.record = record;
+      this.exception = exception;
+    }
+  }
+
+  private class FileReader implements Runnable {
+
+    @Override
+    public void run() {
+      try {
+        while (readersRunning) {
+          File file;
+          String offset;
+          // files are taken and started under the same lock, so that they are started in the order of the spooler
+          synchronized (takeLock) {
+            file = spooler.takeFile(1, TimeUnit.SECONDS);
+            if (file == null) {
+              continue;
+            }
+            offset = initialOffset.getStartOffset(file.getName());
+            if (offset == null) {
+              LOG.warn("Ignoring file '{}' in spool directory as it was already processed", file.getName());
+              spooler.postProcessFile(file);
+              continue;
+            }
+            fileItems.put(new FileItem(ItemType.START, file, offset, null, null));
+          }
+          readFile(file, offset);
+        }
+      } catch (InterruptedException ex) {
+        // the source is being destroyed
+      } catch (RuntimeException ex) {
+        if (readersRunning) {
+          LOG.error(Errors.SPOOLDIR_35.getMessage(), ex.toString(), ex);
+          fileItems.offer(new FileItem(ItemType.FAILURE, null, null, null, ex));
+        }
+      }
+    }
+
+    private void readFile(File file, String offset) throws InterruptedException {
+      DataParser fileParser = null;
+      try {
+        fileParser = createParser(file, offset);
+        boolean eof = false;
+        while (!eof && readersRunning) {
+          try {
+            Record record = fileParser.parse();
+            if (record != null) {
+              record.getHeader().setAttribute(HeaderAttributeConstants.FILE, file.getPath());
+              record.getHeader().setAttribute(HeaderAttributeConstants.OFFSET, offset);
+              offset = fileParser.getOffset();
+              fileItems.put(new FileItem(ItemType.RECORD, file, offset, record, null));
+            } else {
+              eof = true;
+            }
+          } catch (ObjectLengthException ex) {
+            fileItems.put(new FileItem(ItemType.RECORD_ERROR, file, offset, null, ex));
+          }
+        }
+        if (eof) {
+          fileItems.put(new FileItem(ItemType.END, file, SpoolDirOffset.DONE, null, null));
+        }
+      } catch (IOException|DataParserException ex) {
+        if (ex instanceof ClosedByInterruptException || ex.getCause() instanceof ClosedByInterruptException) {
+          // the source is being destroyed
+          return;
+        }
+        String exOffset;
+        if (ex instanceof OverrunException) {
+          exOffset = String.valueOf(((OverrunException) ex).getStreamOffset());
+        } else {
+          try {
+            exOffset = (fileParser != null) ? fileParser.getOffset() : MINUS_ONE;
+          } catch (IOException ex1) {
+            LOG.warn("Could not get the file offset to report with error, reason: {}", ex1.toString(), ex);
+            exOffset = MINUS_ONE;
+          }
+        }
+        fileItems.put(new FileItem(ItemType.FILE_ERROR, file, exOffset, null, ex));
+      } finally {
+        IOUtils.closeQuietly(fileParser);
+      }
+    }
+  }
+
 }
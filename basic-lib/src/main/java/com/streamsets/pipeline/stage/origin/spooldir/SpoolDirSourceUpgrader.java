@@ -35,6 +35,8 @@ public class SpoolDirSourceUpgrader implements StageUpgrader {
   private static final String DATA_FORMAT_CONFIG= "dataFormatConfig";
   private static final String FILE_COMPRESSION = "fileCompression";
   private static final String ALLOW_LATE_DIRECTORY = "allowLateDirectory";
+  private static final String NUMBER_OF_THREADS = "numberOfThreads";
+  private static final String USE_DIRECTORY_EVENTS = "useDirectoryEvents";
   private static final Joiner joiner = Joiner.on(".");
 
   private final List<Config> configsToRemove = new ArrayList<>();
@@ -54,6 +56,10 @@ public class SpoolDirSourceUpgrader implements StageUpgrader {
         upgradeV4ToV5(configs);
       case 5:
         upgradeV5ToV6(configs);
+      case 6:
+        upgradeV6ToV7(configs);
+      case 7:
+        upgradeV7ToV8(configs);
         break;
       default:
         throw new IllegalStateException(Utils.format("Unexpected fromVersion {}", fromVersion));
@@ -61,6 +67,14 @@ public class SpoolDirSourceUpgrader implements StageUpgrader {
     return configs;
   }
 
+  private void upgradeV7ToV8(List<Config> configs) {
+    configs.add(new Config(joiner.join(CONF, USE_DIRECTORY_EVENTS), false));
+  }
+
+  private void upgradeV6ToV7(List<Config> configs) {
+    configs.add(new Config(joiner.join(CONF, NUMBER_OF_THREADS), 1));
+  }
+
   private void upgradeV5ToV6(List<Config> configs) {
     configs.add(new Config(joiner.join(CONF, ALLOW_LATE_DIRECTORY), false));
   }
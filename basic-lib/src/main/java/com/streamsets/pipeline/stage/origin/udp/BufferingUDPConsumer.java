@@ -0,0 +1,174 @@
+/**
+ * Copyright 2015 StreamSets Inc.
+ *
+ * Licensed under the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.udp;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Meter;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.base.OnRecordErrorException;
+import com.streamsets.pipeline.lib.parser.AbstractParser;
+import io.netty.channel.socket.DatagramPacket;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Parses packets on the thread that received them into a buffer owned by that thread. Parsers keep per
+ * instance state (record ids, caches) so every receiver thread gets its own parser. The producer drains all
+ * buffers at once, receiver threads only touch the shared wake-up monitor when their buffer goes from empty
+ * to non-empty.
+ */
+public class BufferingUDPConsumer implements UDPConsumer {
+  private static final Logger LOG = LoggerFactory.getLogger(BufferingUDPConsumer.class);
+
+  public interface ParserFactory {
+    AbstractParser create();
+  }
+
+  private final ParserFactory parserFactory;
+  private final int maxBufferedPackets;
+  private final Counter receivedPackets;
+  private final Counter droppedPackets;
+  private final Meter droppedPacketsMeter;
+  private final List<ReceiverBuffer> buffers;
+  private final ThreadLocal<ReceiverBuffer> threadBuffer;
+  private final Object signal;
+
+  /**
+   * @param maxBufferedPackets maximum number of parsed packets each receiver thread holds before dropping.
+   */
+  public BufferingUDPConsumer(
+      ParserFactory parserFactory,
+      int maxBufferedPackets,
+      Counter receivedPackets,
+      Counter droppedPackets,
+      Meter droppedPacketsMeter
+  ) {
+    this.parserFactory = parserFactory;
+    this.maxBufferedPackets = maxBufferedPackets;
+    this.receivedPackets = receivedPackets;
+    this.droppedPackets = droppedPackets;
+    this.droppedPacketsMeter = droppedPacketsMeter;
+    this.buffers = new CopyOnWriteArrayList<>();
+    this.signal = new Object();
+    this.threadBuffer = new ThreadLocal<ReceiverBuffer>() {
+      @Override
+      protected ReceiverBuffer initialValue() {
+        ReceiverBuffer buffer = new ReceiverBuffer(BufferingUDPConsumer.this.parserFactory.create());
+        buffers.add(buffer);
+        return buffer;
+      }
+    };
+  }
+
+  @Override
+  public void process(DatagramPacket packet) throws Exception {
+    receivedPackets.inc();
+    ReceiverBuffer buffer = threadBuffer.get();
+    ParseResult result;
+    try {
+      List<Record> records = buffer.parser.parse(packet.content(), packet.recipient(), packet.sender());
+      result = new ParseResult(records);
+    } catch (OnRecordErrorException ex) {
+      result = new ParseResult(ex);
+    }
+    int added = buffer.add(result);
+    if (added < 0) {
+      droppedPackets.inc();
+      droppedPacketsMeter.mark();
+      long dropped = droppedPackets.getCount();
+      if (dropped % 1000 == 0) {
+        LOG.info("Receiver buffer full, dropped {} of {} packets", dropped, receivedPackets.getCount());
+      }
+    } else if (added == 1) {
+      synchronized (signal) {
+        signal.notifyAll();
+      }
+    }
+  }
+
+  /**
+   * Moves everything buffered by all receiver threads into <code>results</code>, waiting up to
+   * <code>maxWaitMillis</code> for at least one packet if nothing is buffered.
+   */
+  public void drainTo(Collection<ParseResult> results, long maxWaitMillis) throws InterruptedException {
+    if (drainAll(results)) {
+      return;
+    }
+    long deadline = System.currentTimeMillis() + maxWaitMillis;
+    synchronized (signal) {
+      // receivers add to their buffer before taking the monitor to notify, so checking
+      // the buffers while holding it cannot miss a wake-up
+      while (!drainAll(results)) {
+        long remaining = deadline - System.currentTimeMillis();
+        if (remaining <= 0) {
+          return;
+        }
+        signal.wait(remaining);
+      }
+    }
+  }
+
+  private boolean drainAll(Collection<ParseResult> results) {
+    boolean drained = false;
+    for (ReceiverBuffer buffer : buffers) {
+      drained |= buffer.drainTo(results);
+    }
+    return drained;
+  }
+
+  private class ReceiverBuffer {
+    private final AbstractParser parser;
+    private List<ParseResult> results;
+
+    ReceiverBuffer(AbstractParser parser) {
+      this.parser = parser;
+      this.results = new ArrayList<>();
+    }
+
+    /**
+     * Returns the number of buffered results after adding, or -1 if the buffer is full.
+     */
+    synchronized int add(ParseResult result) {
+      if (results.size() >= maxBufferedPackets) {
+        return -1;
+      }
+      results.add(result);
+      return results.size();
+    }
+
+    boolean drainTo(Collection<ParseResult> target) {
+      List<ParseResult> drained;
+      synchronized (this) {
+        if (results.isEmpty()) {
+          return false;
+        }
+        drained = results;
+        results = new ArrayList<>(drained.size());
+      }
+      target.addAll(drained);
+      return true;
+    }
+  }
+}
@@ -32,6 +32,8 @@ public enum Errors implements ErrorCode {
   UDP_04("Charset '{}' is not supported"),
   UDP_05("collectd Types DB '{}' not found"),
   UDP_06("collectd Auth File '{}' not found"),
+  UDP_07("Native transport (epoll) is not available: {}"),
+  UDP_08("Number of receiver threads '{}' must be greater than zero"),
   ;
 
   private final String msg;
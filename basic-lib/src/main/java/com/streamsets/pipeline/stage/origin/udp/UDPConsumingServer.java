@@ -26,6 +26,10 @@ import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollChannelOption;
+import io.netty.channel.epoll.EpollDatagramChannel;
+import io.netty.channel.epoll.EpollEventLoopGroup;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.nio.NioDatagramChannel;
 import org.slf4j.Logger;
@@ -38,6 +42,8 @@ import java.util.List;
 
 public class UDPConsumingServer {
   private static final Logger LOG = LoggerFactory.getLogger(UDPConsumingServer.class);
+  private final boolean enableEpoll;
+  private final int numThreads;
   private final List<InetSocketAddress> addresses;
   private final UDPConsumer udpConsumer;
   private final List<ChannelFuture> channelFutures;
@@ -53,23 +59,69 @@ public class UDPConsumingServer {
   }
 
   public UDPConsumingServer(List<InetSocketAddress> addresses, UDPConsumer udpConsumer) {
+    this(false, 1, addresses, udpConsumer);
+  }
+
+  /**
+   * With <code>enableEpoll</code> each address is bound <code>numThreads</code> times using SO_REUSEPORT,
+   * one channel per event loop, so the kernel spreads the packets of a port across all receiver threads.
+   */
+  public UDPConsumingServer(
+      boolean enableEpoll,
+      int numThreads,
+      List<InetSocketAddress> addresses,
+      UDPConsumer udpConsumer
+  ) {
+    Utils.checkArgument(numThreads > 0, "Number of threads must be greater than zero");
+    this.enableEpoll = enableEpoll;
+    this.numThreads = enableEpoll ? numThreads : 1;
     this.addresses = ImmutableList.copyOf(addresses);
     this.udpConsumer = udpConsumer;
     this.channelFutures = new ArrayList<>();
   }
 
+  /**
+   * Returns the number of event loop threads receiving packets. With epoll there are <code>numThreads</code> of
+   * them, each one serving a channel of every address, otherwise there is one per address.
+   */
+  public static int getEventLoopThreads(boolean enableEpoll, int numThreads, int addresses) {
+    return enableEpoll ? numThreads : addresses;
+  }
+
+  public static boolean isEpollAvailable() {
+    return Epoll.isAvailable();
+  }
+
+  public static Throwable getEpollUnavailabilityCause() {
+    return Epoll.unavailabilityCause();
+  }
+
   public void listen() throws Exception {
-    group = new NioEventLoopGroup();
+    int threads = getEventLoopThreads(enableEpoll, numThreads, addresses.size());
+    if (enableEpoll) {
+      group = new EpollEventLoopGroup(threads);
+    } else {
+      group = new NioEventLoopGroup(threads);
+    }
     for (SocketAddress address : addresses) {
       Bootstrap b = new Bootstrap();
-      b.group(group)
-        .channel(NioDatagramChannel.class)
-        .handler(new UDPConsumingServerHandler(udpConsumer))
-        .option(ChannelOption.SO_REUSEADDR, true)
-        .option(ChannelOption.ALLOCATOR, new PooledByteBufAllocator()); // use on-heap buffers
-      LOG.info("Starting server on address {}", address);
-      ChannelFuture channelFuture = b.bind(address).sync();
-      channelFutures.add(channelFuture);
+      b.group(group).handler(new UDPConsumingServerHandler(udpConsumer)).option(ChannelOption.SO_REUSEADDR, true);
+      if (enableEpoll) {
+        // the native transport hands the kernel the buffer address directly, so it needs direct buffers;
+        // they come out of fixed size pooled arenas
+        b.channel(EpollDatagramChannel.class)
+          .option(EpollChannelOption.SO_REUSEPORT, true)
+          .option(ChannelOption.ALLOCATOR, new PooledByteBufAllocator(true));
+      } else {
+        b.channel(NioDatagramChannel.class)
+          .option(ChannelOption.ALLOCATOR, new PooledByteBufAllocator()); // use on-heap buffers
+      }
+      for (int i = 0; i < numThreads; i++) {
+        LOG.info("Starting server on address {} ({} of {})", address, i + 1, numThreads);
+        // the group hands out its event loops round robin, so every channel gets its own thread
+        ChannelFuture channelFuture = b.bind(address).sync();
+        channelFutures.add(channelFuture);
+      }
     }
   }
 
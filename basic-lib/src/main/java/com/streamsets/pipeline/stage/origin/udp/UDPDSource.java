@@ -40,12 +40,13 @@ import static com.streamsets.pipeline.lib.parser.ParserConfigKey.EXCLUDE_INTERVA
 import static com.streamsets.pipeline.lib.parser.ParserConfigKey.TYPES_DB_PATH;
 
 @StageDef(
-    version = 1,
+    version = 2,
     label = "UDP Source",
     description = "Listens for UDP messages on a single port",
     icon = "udp.png",
     execution = ExecutionMode.STANDALONE,
     recordsByRef = true,
+    upgrader = UDPSourceUpgrader.class,
     onlineHelpRefUrl = "index.html#Origins/UDP.html#task_kgn_rcv_1s"
 )
 
@@ -101,6 +102,32 @@ public class UDPDSource extends DSource {
   )
   public int maxWaitTime;
 
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.BOOLEAN,
+      defaultValue = "false",
+      label = "Use Native Transport (epoll)",
+      description = "Receives packets with the native epoll transport, available on 64-bit Linux only",
+      displayPosition = 50,
+      group = "UDP"
+  )
+  public boolean enableEpoll;
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      defaultValue = "1",
+      label = "Number of Receiver Threads",
+      description = "Number of threads receiving and parsing packets on each port, bound with SO_REUSEPORT",
+      displayPosition = 60,
+      group = "UDP",
+      dependsOn = "enableEpoll",
+      triggeredByValue = "true",
+      min = 1,
+      max = 128
+  )
+  public int numThreads;
+
   @ConfigDef(
       required = true,
       type = ConfigDef.Type.MODEL,
@@ -197,6 +224,6 @@ public class UDPDSource extends DSource {
     parserConfig.put(TYPES_DB_PATH, typesDbPath);
     parserConfig.put(EXCLUDE_INTERVAL, excludeInterval);
     parserConfig.put(AUTH_FILE_PATH, authFilePath);
-    return new UDPSource(ports, parserConfig, dataFormat, batchSize, maxWaitTime);
+    return new UDPSource(ports, parserConfig, dataFormat, batchSize, maxWaitTime, enableEpoll, numThreads);
   }
 }
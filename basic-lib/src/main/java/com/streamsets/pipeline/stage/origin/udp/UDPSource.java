@@ -19,6 +19,8 @@
  */
 package com.streamsets.pipeline.stage.origin.udp;
 
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Meter;
 import com.google.common.collect.ImmutableSet;
 import com.streamsets.pipeline.api.BatchMaker;
 import com.streamsets.pipeline.api.Record;
@@ -44,9 +46,6 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Queue;
 import java.util.Set;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.TimeUnit;
 
 import static com.streamsets.pipeline.lib.parser.ParserConfigKey.AUTH_FILE_PATH;
 import static com.streamsets.pipeline.lib.parser.ParserConfigKey.CHARSET;
@@ -66,10 +65,13 @@ public class UDPSource extends BaseSource {
   private final List<InetSocketAddress> addresses;
   private final ParserConfig parserConfig;
   private final UDPDataFormat dataFormat;
+  private final boolean enableEpoll;
+  private final int numThreads;
+  private final List<ParseResult> drained;
   private long recordCount;
   private UDPConsumingServer udpServer;
-  private AbstractParser parser;
-  private BlockingQueue<ParseResult> incomingQueue;
+  private Charset charset;
+  private BufferingUDPConsumer udpConsumer;
 
   public UDPSource(
       List<String> ports,
@@ -77,12 +79,27 @@ public class UDPSource extends BaseSource {
       UDPDataFormat dataFormat,
       int maxBatchSize,
       long maxWaitTime
+  ) {
+    this(ports, parserConfig, dataFormat, maxBatchSize, maxWaitTime, false, 1);
+  }
+
+  public UDPSource(
+      List<String> ports,
+      ParserConfig parserConfig,
+      UDPDataFormat dataFormat,
+      int maxBatchSize,
+      long maxWaitTime,
+      boolean enableEpoll,
+      int numThreads
   ) {
     this.ports = ImmutableSet.copyOf(ports);
     this.parserConfig = parserConfig;
     this.dataFormat = dataFormat;
     this.maxBatchSize = maxBatchSize;
     this.maxWaitTime = maxWaitTime;
+    this.enableEpoll = enableEpoll;
+    this.numThreads = numThreads;
+    this.drained = new ArrayList<>();
     this.overrunQueue = new LinkedList<>();
     this.addresses = new ArrayList<>();
   }
@@ -91,7 +108,6 @@ public class UDPSource extends BaseSource {
   protected List<ConfigIssue> init() {
     List<ConfigIssue> issues = new ArrayList<>();
     this.recordCount = 0;
-    this.incomingQueue = new ArrayBlockingQueue<>(this.maxBatchSize * 10);
     if (ports.isEmpty()) {
       issues.add(getContext().createConfigIssue(Groups.UDP.name(), "ports",
         Errors.UDP_02));
@@ -112,28 +128,23 @@ public class UDPSource extends BaseSource {
       }
     }
 
-    Charset charset;
+    if (enableEpoll && !UDPConsumingServer.isEpollAvailable()) {
+      issues.add(getContext().createConfigIssue(Groups.UDP.name(), "enableEpoll", Errors.UDP_07,
+        UDPConsumingServer.getEpollUnavailabilityCause()));
+    }
+    if (numThreads < 1) {
+      issues.add(getContext().createConfigIssue(Groups.UDP.name(), "numThreads", Errors.UDP_08, numThreads));
+    }
+
     switch (dataFormat) {
       case NETFLOW:
-        parser = new NetflowParser(getContext());
         break;
       case SYSLOG:
         charset = validateCharset(Groups.SYSLOG.name(), issues);
-        parser = new SyslogParser(getContext(), charset);
         break;
       case COLLECTD:
         charset = validateCharset(Groups.COLLECTD.name(), issues);
         checkCollectdParserConfigs(issues);
-        if (issues.size() == 0) {
-          parser = new CollectdParser(
-              getContext(),
-              parserConfig.getBoolean(CONVERT_TIME),
-              parserConfig.getString(TYPES_DB_PATH),
-              parserConfig.getBoolean(EXCLUDE_INTERVAL),
-              parserConfig.getString(AUTH_FILE_PATH),
-              charset
-          );
-        }
         break;
       default:
         issues.add(getContext().createConfigIssue(Groups.UDP.name(), "dataFormat",
@@ -142,8 +153,25 @@ public class UDPSource extends BaseSource {
     }
     if (issues.isEmpty()) {
       if (!addresses.isEmpty()) {
-        QueuingUDPConsumer udpConsumer = new QueuingUDPConsumer(parser, incomingQueue);
-        udpServer = new UDPConsumingServer(addresses, udpConsumer);
+        Counter receivedPackets = getContext().createCounter("receivedPackets");
+        Counter droppedPackets = getContext().createCounter("droppedPackets");
+        Meter droppedPacketsMeter = getContext().createMeter("droppedPackets");
+        // every event loop thread parses with its own parser into its own buffer, whatever the number of
+        // channels it serves, the buffers together hold as many packets as the single queue used to
+        int receivers = UDPConsumingServer.getEventLoopThreads(enableEpoll, numThreads, addresses.size());
+        udpConsumer = new BufferingUDPConsumer(
+            new BufferingUDPConsumer.ParserFactory() {
+              @Override
+              public AbstractParser create() {
+                return createParser();
+              }
+            },
+            Math.max(1, (this.maxBatchSize * 10) / receivers),
+            receivedPackets,
+            droppedPackets,
+            droppedPacketsMeter
+        );
+        udpServer = new UDPConsumingServer(enableEpoll, numThreads, addresses, udpConsumer);
         try {
           udpServer.listen();
           udpServer.start();
@@ -157,6 +185,26 @@ public class UDPSource extends BaseSource {
     return issues;
   }
 
+  private AbstractParser createParser() {
+    switch (dataFormat) {
+      case NETFLOW:
+        return new NetflowParser(getContext());
+      case SYSLOG:
+        return new SyslogParser(getContext(), charset);
+      case COLLECTD:
+        return new CollectdParser(
+            getContext(),
+            parserConfig.getBoolean(CONVERT_TIME),
+            parserConfig.getString(TYPES_DB_PATH),
+            parserConfig.getBoolean(EXCLUDE_INTERVAL),
+            parserConfig.getString(AUTH_FILE_PATH),
+            charset
+        );
+      default:
+        throw new IllegalStateException(Utils.format("Unknown data format: {}", dataFormat));
+    }
+  }
+
   private Charset validateCharset(String groupName, List<ConfigIssue> issues) {
     Charset charset;
     try {
@@ -196,26 +244,33 @@ public class UDPSource extends BaseSource {
       udpServer.destroy();
       udpServer = null;
     }
+    udpConsumer = null;
     super.destroy();
   }
 
   @Override
   public String produce(String lastSourceOffset, int maxBatchSize, BatchMaker batchMaker) throws StageException {
     Utils.checkNotNull(udpServer, "UDP server is null");
-    Utils.checkNotNull(incomingQueue, "Incoming queue is null");
+    Utils.checkNotNull(udpConsumer, "UDP consumer is null");
     maxBatchSize = Math.min(this.maxBatchSize, maxBatchSize);
     final long startingRecordCount = recordCount;
     long remainingTime = maxWaitTime;
-    for (int i = 0; i < maxBatchSize; i++) {
+    int batchSize = 0;
+    while (batchSize < maxBatchSize) {
       if (overrunQueue.isEmpty()) {
         try {
           long start = System.currentTimeMillis();
-          ParseResult result = incomingQueue.poll(remainingTime, TimeUnit.MILLISECONDS);
+          udpConsumer.drainTo(drained, remainingTime);
           long elapsedTime = System.currentTimeMillis() - start;
           if (elapsedTime > 0) {
             remainingTime -= elapsedTime;
           }
-          if (result != null) {
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          remainingTime = 0;
+        }
+        try {
+          for (ParseResult result : drained) {
             try {
               List<Record> records = result.getRecords();
               if (IS_TRACE_ENABLED) {
@@ -237,13 +292,14 @@ public class UDPSource extends BaseSource {
               }
             }
           }
-        } catch (InterruptedException e) {
-          Thread.currentThread().interrupt();
+        } finally {
+          drained.clear();
         }
       }
-      Record record = overrunQueue.poll();
-      if (record != null) {
+      Record record;
+      while (batchSize < maxBatchSize && (record = overrunQueue.poll()) != null) {
         recordCount++;
+        batchSize++;
         batchMaker.addRecord(record);
       }
       if (remainingTime <= 0) {
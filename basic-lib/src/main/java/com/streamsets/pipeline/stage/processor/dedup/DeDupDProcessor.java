@@ -33,13 +33,14 @@ import com.streamsets.pipeline.configurablestage.DProcessor;
 import java.util.List;
 
 @StageDef(
-    version = 1,
+    version = 2,
     label = "Record Deduplicator",
     description = "Separates unique and duplicate records based on field comparison",
     icon="dedup.png",
     outputStreams = OutputStreams.class,
     execution = ExecutionMode.STANDALONE,
-    onlineHelpRefUrl = "index.html#Processors/RDeduplicator.html#task_ikr_c2f_zq"
+    onlineHelpRefUrl = "index.html#Processors/RDeduplicator.html#task_ikr_c2f_zq",
+    upgrader = DeDupProcessorUpgrader.class
 )
 @ConfigGroups(Groups.class)
 @HideConfigs(onErrorRecord = true)
@@ -94,9 +95,36 @@ public class DeDupDProcessor extends DProcessor {
   @FieldSelectorModel
   public List<String> fieldsToCompare;
 
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.BOOLEAN,
+      defaultValue = "false",
+      label = "Off-Heap Index",
+      description = "Keeps the hashes of the records to compare in a memory-mapped file instead of the heap. " +
+          "Use it for large numbers of records to compare",
+      displayPosition = 50,
+      group = "DE_DUP"
+  )
+  public boolean offHeapIndex;
+
+  @ConfigDef(
+      required = false,
+      type = ConfigDef.Type.STRING,
+      defaultValue = "",
+      label = "Index File",
+      description = "Absolute path of the file keeping the index, it is reloaded when the pipeline restarts. " +
+          "Leave empty to discard the index when the pipeline stops",
+      displayPosition = 60,
+      group = "DE_DUP",
+      dependsOn = "offHeapIndex",
+      triggeredByValue = "true"
+  )
+  public String indexFile;
+
   @Override
   protected Processor createProcessor() {
-    return new DeDupProcessor(recordCountWindow, timeWindowSecs, compareFields, fieldsToCompare);
+    return new DeDupProcessor(recordCountWindow, timeWindowSecs, compareFields, fieldsToCompare, offHeapIndex,
+                              indexFile);
   }
 
 }
@@ -25,6 +25,7 @@ import com.google.common.cache.CacheLoader;
 import com.google.common.hash.HashCode;
 import com.google.common.hash.HashFunction;
 import com.google.common.hash.Hashing;
+import com.streamsets.pipeline.api.Batch;
 import com.streamsets.pipeline.api.BatchMaker;
 import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.StageException;
@@ -32,8 +33,13 @@ import com.streamsets.pipeline.api.base.RecordProcessor;
 import com.streamsets.pipeline.lib.hashing.HashingUtil;
 import com.streamsets.pipeline.lib.queue.XEvictingQueue;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 public class DeDupProcessor extends RecordProcessor {
@@ -43,13 +49,22 @@ public class DeDupProcessor extends RecordProcessor {
   private final  int timeWindowSecs;
   private final  SelectFields compareFields;
   private final  List<String> fieldsToCompare;
+  private final  boolean offHeapIndex;
+  private final  String indexFile;
 
   public DeDupProcessor(int recordCountWindow, int timeWindowSecs,
       SelectFields compareFields, List<String> fieldsToCompare) {
+    this(recordCountWindow, timeWindowSecs, compareFields, fieldsToCompare, false, "");
+  }
+
+  public DeDupProcessor(int recordCountWindow, int timeWindowSecs,
+      SelectFields compareFields, List<String> fieldsToCompare, boolean offHeapIndex, String indexFile) {
     this.recordCountWindow = recordCountWindow;
     this.timeWindowSecs = timeWindowSecs;
     this.compareFields = compareFields;
     this.fieldsToCompare = fieldsToCompare;
+    this.offHeapIndex = offHeapIndex;
+    this.indexFile = indexFile;
   }
 
   private static final Object VOID = new Object();
@@ -58,6 +73,10 @@ public class DeDupProcessor extends RecordProcessor {
   private HashingUtil.RecordFunnel funnel;
   private Cache<HashCode, Object> hashCache;
   private XEvictingQueue<HashCode> hashBuffer;
+  private OffHeapHashIndex offHeapHashIndex;
+  // hashes of the unique records of the current batch and when they were seen, they are added to the off-heap index
+  // only when the next batch comes in, once the current batch went through
+  private Map<HashCode, Long> pendingHashes;
   private String uniqueLane;
   private String duplicateLane;
 
@@ -79,7 +98,7 @@ public class DeDupProcessor extends RecordProcessor {
       issues.add(getContext().createConfigIssue(Groups.DE_DUP.name(), "compareFields", Errors.DEDUP_02));
     }
 
-    long estimatedMemory = MEMORY_USAGE_PER_HASH * recordCountWindow;
+    long estimatedMemory = (offHeapIndex) ? 0 : MEMORY_USAGE_PER_HASH * recordCountWindow;
     long maxPipelineMemoryBytes = getContext().getPipelineMaxMemory() * 1000 * 1000;
     if (estimatedMemory > maxPipelineMemoryBytes) {
       issues.add(getContext().createConfigIssue(Groups.DE_DUP.name(), "recordCountWindow", Errors.DEDUP_03,
@@ -90,17 +109,22 @@ public class DeDupProcessor extends RecordProcessor {
       hasher = HashingUtil.getHasher("murmur3_128");
       funnel = (compareFields == SelectFields.ALL_FIELDS) ? HashingUtil.getRecordFunnel(Collections.EMPTY_LIST) :
           HashingUtil.getRecordFunnel(fieldsToCompare);
-      CacheBuilder cacheBuilder = CacheBuilder.newBuilder();
-      if (timeWindowSecs > 0) {
-        cacheBuilder.expireAfterWrite(timeWindowSecs, TimeUnit.SECONDS);
-      }
-      hashCache = cacheBuilder.build(new CacheLoader<HashCode, Object>() {
-        @Override
-        public Object load(HashCode key) throws Exception {
-          return VOID;
+      if (offHeapIndex) {
+        openOffHeapIndex(issues);
+        pendingHashes = new LinkedHashMap<>();
+      } else {
+        CacheBuilder cacheBuilder = CacheBuilder.newBuilder();
+        if (timeWindowSecs > 0) {
+          cacheBuilder.expireAfterWrite(timeWindowSecs, TimeUnit.SECONDS);
         }
-      });
-      hashBuffer = XEvictingQueue.create(recordCountWindow);
+        hashCache = cacheBuilder.build(new CacheLoader<HashCode, Object>() {
+          @Override
+          public Object load(HashCode key) throws Exception {
+            return VOID;
+          }
+        });
+        hashBuffer = XEvictingQueue.create(recordCountWindow);
+      }
       hashAttrName = getInfo() + ".hash";
       uniqueLane = getContext().getOutputLanes().get(OutputStreams.UNIQUE.ordinal());
       duplicateLane = getContext().getOutputLanes().get(OutputStreams.DUPLICATE.ordinal());
@@ -108,10 +132,34 @@ public class DeDupProcessor extends RecordProcessor {
     return issues;
   }
 
+  private void openOffHeapIndex(List<ConfigIssue> issues) {
+    boolean persistent = indexFile != null && !indexFile.isEmpty();
+    File file = null;
+    try {
+      file = (persistent) ? new File(indexFile) : File.createTempFile("sdc-dedup-", ".idx");
+      // hashes depend on the fields compared, a persisted index is reused only if they have not changed
+      String settings = (compareFields == SelectFields.ALL_FIELDS) ? "" : fieldsToCompare.toString();
+      offHeapHashIndex = OffHeapHashIndex.open(file, persistent, recordCountWindow, timeWindowSecs * 1000L,
+                                               settings);
+    } catch (IOException ex) {
+      issues.add(getContext().createConfigIssue(Groups.DE_DUP.name(), "indexFile", Errors.DEDUP_04, file,
+                                                ex.toString()));
+    }
+  }
+
   boolean duplicateCheck(Record record) {
     boolean dup = true;
     HashCode hash = hasher.hashObject(record, funnel);
     record.getHeader().setAttribute(hashAttrName, hash.toString());
+    if (offHeapHashIndex != null) {
+      ByteBuffer bytes = ByteBuffer.wrap(hash.asBytes());
+      long now = System.currentTimeMillis();
+      if (pendingHashes.containsKey(hash) || offHeapHashIndex.contains(bytes.getLong(), bytes.getLong(), now)) {
+        return true;
+      }
+      pendingHashes.put(hash, now);
+      return false;
+    }
     if (hashCache.getIfPresent(hash) == null) {
       hashCache.put(hash, VOID);
       HashCode evicted = hashBuffer.addAndGetEvicted(hash);
@@ -123,6 +171,24 @@ public class DeDupProcessor extends RecordProcessor {
     return dup;
   }
 
+  @Override
+  public void process(Batch batch, BatchMaker batchMaker) throws StageException {
+    // the pipeline runs a batch only after the previous one went through, a failed batch instead stops the pipeline
+    // and its hashes are dropped, so that its records are not taken as duplicates when they are processed again
+    addPendingHashes();
+    super.process(batch, batchMaker);
+  }
+
+  private void addPendingHashes() {
+    if (offHeapHashIndex != null) {
+      for (Map.Entry<HashCode, Long> entry : pendingHashes.entrySet()) {
+        ByteBuffer bytes = ByteBuffer.wrap(entry.getKey().asBytes());
+        offHeapHashIndex.add(bytes.getLong(), bytes.getLong(), entry.getValue());
+      }
+      pendingHashes.clear();
+    }
+  }
+
   @Override
   protected void process(Record record, BatchMaker batchMaker) throws StageException {
     if (duplicateCheck(record)) {
@@ -132,4 +198,13 @@ public class DeDupProcessor extends RecordProcessor {
     }
   }
 
+  @Override
+  public void destroy() {
+    if (offHeapHashIndex != null) {
+      offHeapHashIndex.close();
+      offHeapHashIndex = null;
+    }
+    super.destroy();
+  }
+
 }
@@ -0,0 +1,394 @@
+/**
+ * Copyright 2016 StreamSets Inc.
+ *
+ * Licensed under the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.processor.dedup;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Index of 128 bit hashes kept off-heap in a memory-mapped file, with count and time based eviction.
+ * <p/>
+ * The index is an open addressing (linear probing) hash table of 128 bit hashes plus a ring buffer with the hashes
+ * in insertion order and their insertion time. When the ring buffer is full or its oldest entry is older than the
+ * time window, the oldest entry is evicted from the ring buffer and from the table. Each entry uses around 45 bytes
+ * of the memory-mapped file and no heap memory.
+ * <p/>
+ * When the index is persistent, the file is kept on close and the index is reloaded on the next open if it was
+ * closed cleanly and it was created with the same settings. Otherwise the file is deleted on close. The settings are
+ * stored as they are after the ring buffer. The file is unmapped on close, the index cannot be used afterwards.
+ */
+class OffHeapHashIndex implements Closeable {
+  private static final Logger LOG = LoggerFactory.getLogger(OffHeapHashIndex.class);
+
+  private static final long MAGIC = 0x5344434444555031L; // 'SDCDDUP1'
+  private static final long VERSION = 2;
+
+  // header slots
+  private static final int H_MAGIC = 0;
+  private static final int H_VERSION = 1;
+  private static final int H_CAPACITY = 2;
+  private static final int H_WINDOW = 3;
+  private static final int H_TIME_WINDOW = 4;
+  private static final int H_SETTINGS_LENGTH = 5;
+  private static final int H_HEAD = 6;
+  private static final int H_SIZE = 7;
+  private static final int H_CLEAN = 8;
+  private static final int HEADER_LONGS = 16;
+
+  private static final double LOAD_FACTOR = 0.75;
+
+  private final File file;
+  private final boolean persistent;
+  private final long capacity;
+  private final long window;
+  private final long timeWindowMillis;
+  private final long tableStart;
+  private final long ringStart;
+  private final LongArray longs;
+  private long head;
+  private long size;
+
+  private OffHeapHashIndex(File file, boolean persistent, LongArray longs, long capacity, long window,
+      long timeWindowMillis) {
+    this.file = file;
+    this.persistent = persistent;
+    this.longs = longs;
+    this.capacity = capacity;
+    this.window = window;
+    this.timeWindowMillis = timeWindowMillis;
+    tableStart = HEADER_LONGS;
+    ringStart = tableStart + 2 * capacity;
+    head = longs.get(H_HEAD);
+    size = longs.get(H_SIZE);
+  }
+
+  static long getCapacity(long window) {
+    return (long) (window / LOAD_FACTOR) + 1;
+  }
+
+  static long getFileSize(long window) {
+    return (HEADER_LONGS + 2 * getCapacity(window) + 3 * window) * 8;
+  }
+
+  private static long getFileSize(long window, byte[] settings) {
+    return getFileSize(window) + settings.length;
+  }
+
+  /**
+   * Opens the index in the given file.
+   *
+   * @param file file backing the index.
+   * @param persistent if the file should be kept on close and reloaded on the next open.
+   * @param window maximum number of hashes in the index.
+   * @param timeWindowMillis maximum time hashes are kept in the index, zero for no time limit.
+   * @param settings settings producing the hashes, the index is reloaded only if they are the same.
+   */
+  static OffHeapHashIndex open(File file, boolean persistent, long window, long timeWindowMillis, String settings)
+      throws IOException {
+    long capacity = getCapacity(window);
+    byte[] settingsBytes = settings.getBytes(StandardCharsets.UTF_8);
+    long length = getFileSize(window, settingsBytes);
+    boolean reload = false;
+    if (persistent && file.exists() && file.length() == length) {
+      try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+        long[] header = new long[HEADER_LONGS];
+        LongArray headerLongs = LongArray.map(raf.getChannel(), FileChannel.MapMode.READ_ONLY, HEADER_LONGS);
+        for (int i = 0; i < HEADER_LONGS; i++) {
+          header[i] = headerLongs.get(i);
+        }
+        headerLongs.unmap();
+        byte[] storedSettings = new byte[settingsBytes.length];
+        raf.seek(getFileSize(window));
+        raf.readFully(storedSettings);
+        reload = header[H_MAGIC] == MAGIC && header[H_VERSION] == VERSION && header[H_CAPACITY] == capacity &&
+            header[H_WINDOW] == window && header[H_TIME_WINDOW] == timeWindowMillis &&
+            header[H_SETTINGS_LENGTH] == settingsBytes.length && Arrays.equals(storedSettings, settingsBytes);
+        if (!reload) {
+          LOG.warn("De-duplication index '{}' was created with different settings, discarding it", file);
+        } else if (header[H_CLEAN] != 1) {
+          LOG.warn("De-duplication index '{}' was not closed cleanly, discarding it", file);
+          reload = false;
+        }
+      }
+    }
+    if (!reload && file.exists() && !file.delete()) {
+      throw new IOException("Could not delete '" + file + "'");
+    }
+    LongArray longs;
+    try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+      // extending a new file makes it a sparse file full of zeros, the empty value of the table
+      raf.setLength(length);
+      if (!reload) {
+        raf.seek(getFileSize(window));
+        raf.write(settingsBytes);
+      }
+      longs = LongArray.map(raf.getChannel(), FileChannel.MapMode.READ_WRITE, getFileSize(window) / 8);
+    }
+    if (!reload) {
+      longs.set(H_MAGIC, MAGIC);
+      longs.set(H_VERSION, VERSION);
+      longs.set(H_CAPACITY, capacity);
+      longs.set(H_WINDOW, window);
+      longs.set(H_TIME_WINDOW, timeWindowMillis);
+      longs.set(H_SETTINGS_LENGTH, settingsBytes.length);
+    }
+    // until closed cleanly the file is not reusable
+    longs.set(H_CLEAN, 0);
+    if (persistent) {
+      longs.force();
+    }
+    OffHeapHashIndex index = new OffHeapHashIndex(file, persistent, longs, capacity, window, timeWindowMillis);
+    LOG.debug("Opened de-duplication index '{}', window '{}', entries '{}'", file, window, index.size);
+    return index;
+  }
+
+  long size() {
+    return size;
+  }
+
+  /**
+   * Returns if the hash is in the index, after evicting the hashes older than the time window.
+   */
+  boolean contains(long hash1, long hash2, long now) {
+    if (hash1 == 0 && hash2 == 0) {
+      // zero is the empty slot value
+      hash2 = 1;
+    }
+    evictExpired(now);
+    return !isEmpty(probe(hash1, hash2));
+  }
+
+  /**
+   * Adds the hash to the index if not present.
+   *
+   * @return <code>true</code> if the hash was added, <code>false</code> if it was already in the index.
+   */
+  boolean add(long hash1, long hash2, long now) {
+    if (hash1 == 0 && hash2 == 0) {
+      // zero is the empty slot value
+      hash2 = 1;
+    }
+    evictExpired(now);
+    long slot = probe(hash1, hash2);
+    if (!isEmpty(slot)) {
+      return false;
+    }
+    if (size == window) {
+      evictOldest();
+      // the eviction may have shifted entries, the free slot has to be looked up again
+      slot = home(hash1);
+      while (getHash1(slot) != 0 || getHash2(slot) != 0) {
+        slot = next(slot);
+      }
+    }
+    setSlot(slot, hash1, hash2);
+    long ringIdx = ringStart + ((head + size) % window) * 3;
+    longs.set(ringIdx, hash1);
+    longs.set(ringIdx + 1, hash2);
+    longs.set(ringIdx + 2, now);
+    size++;
+    longs.set(H_SIZE, size);
+    return true;
+  }
+
+  private void evictExpired(long now) {
+    if (timeWindowMillis > 0) {
+      while (size > 0 && longs.get(ringStart + head * 3 + 2) <= now - timeWindowMillis) {
+        evictOldest();
+      }
+    }
+  }
+
+  private void evictOldest() {
+    long ringIdx = ringStart + head * 3;
+    remove(longs.get(ringIdx), longs.get(ringIdx + 1));
+    head = (head + 1) % window;
+    size--;
+    longs.set(H_HEAD, head);
+    longs.set(H_SIZE, size);
+  }
+
+  // backward shift deletion, keeps the probe sequences of the entries after the removed one without tombstones
+  private void remove(long hash1, long hash2) {
+    long slot = home(hash1);
+    while (getHash1(slot) != hash1 || getHash2(slot) != hash2) {
+      if (getHash1(slot) == 0 && getHash2(slot) == 0) {
+        return;
+      }
+      slot = next(slot);
+    }
+    long free = slot;
+    long current = next(free);
+    while (getHash1(current) != 0 || getHash2(current) != 0) {
+      long currentHome = home(getHash1(current));
+      // moves the entry to the free slot if its home is not between the free slot and its current slot (cyclically)
+      boolean move = (free <= current) ? (currentHome <= free || currentHome > current)
+                                       : (currentHome <= free && currentHome > current);
+      if (move) {
+        setSlot(free, getHash1(current), getHash2(current));
+        free = current;
+      }
+      current = next(current);
+    }
+    setSlot(free, 0, 0);
+  }
+
+  // returns the slot holding the hash, or the empty slot ending its probe sequence
+  private long probe(long hash1, long hash2) {
+    long slot = home(hash1);
+    while (!isEmpty(slot) && (getHash1(slot) != hash1 || getHash2(slot) != hash2)) {
+      slot = next(slot);
+    }
+    return slot;
+  }
+
+  private boolean isEmpty(long slot) {
+    return getHash1(slot) == 0 && getHash2(slot) == 0;
+  }
+
+  private long home(long hash1) {
+    return (hash1 & Long.MAX_VALUE) % capacity;
+  }
+
+  private long next(long slot) {
+    return (slot + 1 == capacity) ? 0 : slot + 1;
+  }
+
+  private long getHash1(long slot) {
+    return longs.get(tableStart + slot * 2);
+  }
+
+  private long getHash2(long slot) {
+    return longs.get(tableStart + slot * 2 + 1);
+  }
+
+  private void setSlot(long slot, long hash1, long hash2) {
+    longs.set(tableStart + slot * 2, hash1);
+    longs.set(tableStart + slot * 2 + 1, hash2);
+  }
+
+  @Override
+  public void close() {
+    if (persistent) {
+      longs.force();
+      longs.set(H_CLEAN, 1);
+      longs.force();
+      longs.unmap();
+      LOG.debug("Closed de-duplication index '{}', entries '{}'", file, size);
+    } else {
+      longs.unmap();
+      if (!file.delete()) {
+        LOG.warn("Could not delete de-duplication index '{}'", file);
+      }
+    }
+  }
+
+  /**
+   * Array of longs over a memory-mapped file, mapped in segments as a single mapping cannot exceed 2GB.
+   */
+  static class LongArray {
+    private static final int SEGMENT_SHIFT = 27; // longs, 1GB segments
+    private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+
+    private final MappedByteBuffer[] segments;
+
+    private LongArray(MappedByteBuffer[] segments) {
+      this.segments = segments;
+    }
+
+    static LongArray map(FileChannel channel, FileChannel.MapMode mode, long length) throws IOException {
+      int count = (int) ((length + SEGMENT_MASK) >>> SEGMENT_SHIFT);
+      MappedByteBuffer[] segments = new MappedByteBuffer[count];
+      for (int i = 0; i < count; i++) {
+        long start = (long) i << SEGMENT_SHIFT;
+        long longs = Math.min(1L << SEGMENT_SHIFT, length - start);
+        segments[i] = channel.map(mode, start * 8, longs * 8);
+        segments[i].order(ByteOrder.nativeOrder());
+      }
+      return new LongArray(segments);
+    }
+
+    long get(long index) {
+      return segments[(int) (index >>> SEGMENT_SHIFT)].getLong((int) (index & SEGMENT_MASK) << 3);
+    }
+
+    void set(long index, long value) {
+      segments[(int) (index >>> SEGMENT_SHIFT)].putLong((int) (index & SEGMENT_MASK) << 3, value);
+    }
+
+    void force() {
+      for (MappedByteBuffer segment : segments) {
+        segment.force();
+      }
+    }
+
+    /**
+     * Releases the mappings right away instead of when the buffers are garbage collected, which keeps the file and
+     * its disk space in use meanwhile. The array must not be used afterwards.
+     */
+    void unmap() {
+      for (int i = 0; i < segments.length; i++) {
+        if (segments[i] != null) {
+          unmap(segments[i]);
+          // a later access fails with a NullPointerException instead of touching unmapped memory
+          segments[i] = null;
+        }
+      }
+    }
+
+    // there is no public API to unmap a buffer, it is done with the JDK internals when they are accessible
+    private static void unmap(MappedByteBuffer buffer) {
+      try {
+        try {
+          // Java 9+
+          Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+          Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+          Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+          theUnsafe.setAccessible(true);
+          invokeCleaner.invoke(theUnsafe.get(null), buffer);
+        } catch (NoSuchMethodException ex) {
+          // Java 7 and 8
+          Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+          cleanerMethod.setAccessible(true);
+          Object cleaner = cleanerMethod.invoke(buffer);
+          if (cleaner != null) {
+            cleaner.getClass().getMethod("clean").invoke(cleaner);
+          }
+        }
+      } catch (Exception ex) {
+        LOG.debug("Could not unmap buffer, it is released when garbage collected: {}", ex.toString(), ex);
+      }
+    }
+  }
+
+}
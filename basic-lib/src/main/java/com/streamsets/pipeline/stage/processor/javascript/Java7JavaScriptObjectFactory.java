@@ -35,6 +35,11 @@ public class Java7JavaScriptObjectFactory extends ScriptObjectFactory {
     super(engine);
   }
 
+  @Override
+  protected boolean isFieldViewSupported() {
+    return false;
+  }
+
   @Override
   public Object createArray(List elements) {
     return new NativeArray(elements.toArray(new Object[elements.size()]));
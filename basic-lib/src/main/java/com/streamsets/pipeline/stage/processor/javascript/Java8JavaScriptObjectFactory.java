@@ -62,7 +62,9 @@ public class Java8JavaScriptObjectFactory extends ScriptObjectFactory {
   protected Field scriptToField(Object scriptObject) {
     Field field;
     if (scriptObject != null) {
-      if (SCRIPT_OBJECT_MIRROR_CLASS.isInstance(scriptObject)) {
+      if (isFieldView(scriptObject)) {
+        field = super.scriptToField(scriptObject);
+      } else if (SCRIPT_OBJECT_MIRROR_CLASS.isInstance(scriptObject)) {
         try {
           Set set = (Set) ENTRY_SET_METHOD.invoke(scriptObject);
           if ((boolean) IS_ARRAY_METHOD.invoke(scriptObject)) {
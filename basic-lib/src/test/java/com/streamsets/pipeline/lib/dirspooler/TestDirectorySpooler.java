@@ -370,6 +370,106 @@ public class TestDirectorySpooler {
     spooler.destroy();
   }
 
+  private File pollWithDirectoryEvents(DirectorySpooler spooler) throws Exception {
+    // events are delivered asynchronously by the file system
+    long timeout = System.currentTimeMillis() + 10000;
+    File file = null;
+    while (file == null && System.currentTimeMillis() < timeout) {
+      spooler.eventPoller.run();
+      file = spooler.poolForFile(100, TimeUnit.MILLISECONDS);
+    }
+    return file;
+  }
+
+  @Test
+  public void testDirectoryEvents() throws Exception {
+    Assert.assertTrue(spoolDir.mkdirs());
+    File logFile1 = new File(spoolDir, "x1.log").getAbsoluteFile();
+    new FileWriter(logFile1).close();
+
+    DirectorySpooler spooler = initializeAndGetBuilder()
+        .setMaxSpoolFiles(3)
+        .useDirectoryEvents(true)
+        .build();
+    spooler.init(null);
+    Assert.assertEquals(logFile1, spooler.poolForFile(0, TimeUnit.MILLISECONDS));
+
+    File logFile3 = new File(spoolDir, "x3.log").getAbsoluteFile();
+    new FileWriter(logFile3).close();
+    Assert.assertEquals(logFile3, pollWithDirectoryEvents(spooler));
+
+    // older than the current file and not matching files are ignored
+    new FileWriter(new File(spoolDir, "x2.log")).close();
+    new FileWriter(new File(spoolDir, "y4.log")).close();
+    File logFile5 = new File(spoolDir, "x5.log").getAbsoluteFile();
+    new FileWriter(logFile5).close();
+    Assert.assertEquals(logFile5, pollWithDirectoryEvents(spooler));
+
+    spooler.destroy();
+  }
+
+  @Test
+  public void testDirectoryEventsWithFullQueue() throws Exception {
+    Assert.assertTrue(spoolDir.mkdirs());
+
+    DirectorySpooler spooler = initializeAndGetBuilder()
+        .setMaxSpoolFiles(2)
+        .useDirectoryEvents(true)
+        .build();
+    spooler.init(null);
+
+    // more files than the queue holds, the events of the last ones are dropped
+    File logFile1 = new File(spoolDir, "x1.log").getAbsoluteFile();
+    File logFile2 = new File(spoolDir, "x2.log").getAbsoluteFile();
+    File logFile3 = new File(spoolDir, "x3.log").getAbsoluteFile();
+    new FileWriter(logFile1).close();
+    new FileWriter(logFile2).close();
+    new FileWriter(logFile3).close();
+
+    // dropped files are found as soon as the queue has room, not at the next reconciliation
+    Assert.assertEquals(logFile1, pollWithDirectoryEvents(spooler));
+    Assert.assertEquals(logFile2, pollWithDirectoryEvents(spooler));
+    Assert.assertEquals(logFile3, pollWithDirectoryEvents(spooler));
+
+    spooler.destroy();
+  }
+
+  @Test
+  public void testRetentionPurgingWithDirectoryEvents() throws Exception {
+    Assert.assertTrue(spoolDir.mkdirs());
+    Assert.assertTrue(archiveDir.mkdirs());
+    new FileWriter(new File(archiveDir, "x0.log")).close();
+    File logFile1 = new File(spoolDir, "x1.log").getAbsoluteFile();
+    new FileWriter(logFile1).close();
+
+    DirectorySpooler spooler = initializeAndGetBuilder()
+        .setMaxSpoolFiles(3)
+        .setPostProcessing(DirectorySpooler.FilePostProcessing.ARCHIVE)
+        .setArchiveDir(archiveDir.getAbsolutePath())
+        .setArchiveRetention(1000, TimeUnit.MILLISECONDS)
+        .useDirectoryEvents(true)
+        .build();
+    spooler.init(null);
+
+    // builds the archive index
+    spooler.purger.run();
+    Assert.assertEquals(1, archiveDir.list().length);
+
+    Assert.assertEquals(logFile1, spooler.poolForFile(0, TimeUnit.MILLISECONDS));
+    Assert.assertNull(spooler.poolForFile(0, TimeUnit.MILLISECONDS));
+    Assert.assertEquals(2, archiveDir.list().length);
+
+    Thread.sleep(1100);
+    long timeout = System.currentTimeMillis() + 10000;
+    while (archiveDir.list().length > 0 && System.currentTimeMillis() < timeout) {
+      spooler.purger.run();
+      Thread.sleep(100);
+    }
+    Assert.assertEquals(0, archiveDir.list().length);
+
+    spooler.destroy();
+  }
+
   @Test
   public void testSpoolQueueMetrics() throws Exception {
     Assert.assertTrue(spoolDir.mkdirs());
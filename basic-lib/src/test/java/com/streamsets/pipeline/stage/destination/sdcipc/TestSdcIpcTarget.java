@@ -57,6 +57,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class TestSdcIpcTarget {
 
@@ -282,7 +283,8 @@ public class TestSdcIpcTarget {
   }
 
   private static class ReceiverServlet extends HttpServlet {
-    boolean compressedData;
+    volatile boolean compressedData;
+    final AtomicInteger posts = new AtomicInteger();
 
     @Override
     protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
@@ -304,10 +306,11 @@ public class TestSdcIpcTarget {
       } else if (appId == null || !appId.equals("appId")) {
         resp.setStatus(HttpServletResponse.SC_FORBIDDEN);
       } else {
+        posts.incrementAndGet();
         compressedData = req.getHeader(Constants.X_SDC_COMPRESSION_HEADER) != null &&
                          req.getHeader(Constants.X_SDC_COMPRESSION_HEADER).equals(Constants.SNAPPY_COMPRESSION);
         InputStream is = req.getInputStream();
-        while (is.read() > 1);
+        while (is.read() > -1);
         resp.setStatus(HttpServletResponse.SC_OK);
       }
     }
@@ -394,6 +397,81 @@ public class TestSdcIpcTarget {
     }
   }
 
+  @Test
+  public void testSplitIntoRequests() throws Exception {
+    Configs config = new Configs();
+    config.parallelRequests = 4;
+    SdcIpcTarget target = new SdcIpcTarget(config);
+    List<Record> records = new ArrayList<>();
+    for (int i = 0; i < SdcIpcTarget.MIN_RECORDS_PER_REQUEST; i++) {
+      records.add(RecordCreator.create());
+    }
+    Assert.assertEquals(1, target.splitIntoRequests(records).size());
+    for (int i = 0; i < 2 * SdcIpcTarget.MIN_RECORDS_PER_REQUEST + 1; i++) {
+      records.add(RecordCreator.create());
+    }
+    List<List<Record>> requests = target.splitIntoRequests(records);
+    Assert.assertEquals(3, requests.size());
+    int count = 0;
+    for (List<Record> request : requests) {
+      count += request.size();
+    }
+    Assert.assertEquals(records.size(), count);
+    Assert.assertEquals(1, target.splitIntoRequests(new ArrayList<Record>()).size());
+  }
+
+  @Test
+  public void testHttpParallelRequests() throws Exception {
+    Server server = new Server(0);
+    ServletContextHandler context = new ServletContextHandler();
+    ReceiverServlet servlet = new ReceiverServlet();
+    context.addServlet(new ServletHolder(servlet), Constants.IPC_PATH);
+    context.setContextPath("/");
+    server.setHandler(context);
+    try {
+      server.start();
+
+      Configs config = new Configs();
+      config.appId = "appId";
+      config.connectionTimeOutMs = 1000;
+      config.readTimeOutMs = 2000;
+      config.hostPorts = ImmutableList.of("localhost:" + server.getURI().getPort());
+      config.retriesPerBatch = 2;
+      config.sslEnabled = false;
+      config.trustStoreFile = "";
+      config.trustStorePassword = "";
+      config.hostVerification = true;
+      config.compression = true;
+      config.parallelRequests = 4;
+
+      SdcIpcTarget target = new SdcIpcTarget(config);
+      TargetRunner runner = new TargetRunner.Builder(SdcIpcTarget.class, target)
+          .setOnRecordError(OnRecordError.TO_ERROR).build();
+      try {
+        runner.runInit();
+        List<Record> records = new ArrayList<>();
+        for (int i = 0; i < 4 * SdcIpcTarget.MIN_RECORDS_PER_REQUEST; i++) {
+          records.add(RecordCreator.create());
+        }
+        int posts = servlet.posts.get();
+        runner.runWrite(records);
+        Assert.assertEquals(posts + 4, servlet.posts.get());
+        Assert.assertTrue(servlet.compressedData);
+        Assert.assertTrue(runner.getErrorRecords().isEmpty());
+        Assert.assertTrue(runner.getErrors().isEmpty());
+
+        // to force the error, all records of all requests go to error
+        config.appId = "invalid";
+        runner.runWrite(records);
+        Assert.assertEquals(records.size(), runner.getErrorRecords().size());
+      } finally {
+        runner.runDestroy();
+      }
+    } finally {
+      server.stop();
+    }
+  }
+
   private void testHttps(boolean hostVerification) throws Exception {
     String hostname = (hostVerification) ? SSLTestUtils.getHostname() : "localhost";
 
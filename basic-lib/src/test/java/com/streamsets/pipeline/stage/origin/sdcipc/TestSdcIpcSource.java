@@ -20,6 +20,7 @@
 package com.streamsets.pipeline.stage.origin.sdcipc;
 
 import com.google.common.collect.ImmutableList;
+import com.streamsets.pipeline.api.Config;
 import com.streamsets.pipeline.api.Field;
 import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.Source;
@@ -43,9 +44,11 @@ import java.net.HttpURLConnection;
 import java.net.ServerSocket;
 import java.security.KeyPair;
 import java.security.cert.Certificate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
@@ -85,6 +88,9 @@ public class TestSdcIpcSource {
     configs.keyStorePassword = "keystore";
     configs.port = randomPort;
     configs.maxWaitTimeSecs = 2;
+    configs.maxRecordSize = 10;
+    configs.maxConcurrentRequests = 10;
+    configs.maxQueuedDataMB = 100;
     Source source = new SdcIpcSource(configs);
     final SourceRunner runner = new SourceRunner.Builder(SdcIpcSource.class, source).addOutputLane("lane").build();
     try {
@@ -213,6 +219,67 @@ public class TestSdcIpcSource {
     }
   }
 
+  @Test
+  public void testConcurrentRequests() throws Exception {
+    final Configs configs = new Configs();
+    configs.appId = "appId";
+    configs.sslEnabled = false;
+    configs.port = randomPort;
+    configs.maxWaitTimeSecs = 2;
+    configs.maxRecordSize = 10;
+    configs.maxConcurrentRequests = 10;
+    configs.maxQueuedDataMB = 100;
+    Source source = new SdcIpcSource(configs);
+    final SourceRunner runner = new SourceRunner.Builder(SdcIpcSource.class, source).addOutputLane("lane").build();
+    try {
+      runner.runInit();
+
+      ExecutorService executor = Executors.newFixedThreadPool(3);
+      List<Future<Boolean>> futures = new ArrayList<>();
+      for (int i = 0; i < 3; i++) {
+        futures.add(executor.submit(new Callable<Boolean>() {
+          @Override
+          public Boolean call() throws Exception {
+            Record r1 = RecordCreator.create();
+            r1.set(Field.create(true));
+            Record r2 = RecordCreator.create();
+            r2.set(Field.create(false));
+            return sendRecords(configs.appId, runner.getContext(), SSLTestUtils.getHostname() + ":" + configs.port,
+                               false, null, null, false, ImmutableList.of(r1, r2));
+          }
+        }));
+      }
+
+      // requests are acknowledged only once the batch containing their records is committed
+      int records = 0;
+      while (records < 6) {
+        StageRunner.Output output = runner.runProduce(null, 4);
+        int batchRecords = output.getRecords().get("lane").size();
+        Assert.assertTrue(batchRecords <= 4);
+        records += batchRecords;
+      }
+      Assert.assertEquals(6, records);
+      for (Future<Boolean> future : futures) {
+        Assert.assertTrue(future.get(5, TimeUnit.SECONDS));
+      }
+      executor.shutdownNow();
+    } finally {
+      runner.runDestroy();
+    }
+  }
+
+  @Test
+  public void testUpgradeV1ToV2() throws Exception {
+    List<Config> configs = new ArrayList<>();
+    configs.add(new Config("configs.port", 20000));
+    new SdcIpcSourceUpgrader().upgrade("l", "s", "i", 1, 2, configs);
+    Assert.assertEquals(3, configs.size());
+    Assert.assertEquals("configs.maxConcurrentRequests", configs.get(1).getName());
+    Assert.assertEquals(10, configs.get(1).getValue());
+    Assert.assertEquals("configs.maxQueuedDataMB", configs.get(2).getName());
+    Assert.assertEquals(100, configs.get(2).getValue());
+  }
+
   @Test
   public void testReceiveRecordsHttp() throws Exception {
     testReceiveRecords(false, false);
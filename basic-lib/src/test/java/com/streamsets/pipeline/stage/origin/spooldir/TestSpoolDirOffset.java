@@ -0,0 +1,76 @@
+/**
+ * Copyright 2016 StreamSets Inc.
+ *
+ * Licensed under the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.spooldir;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestSpoolDirOffset {
+
+  @Test
+  public void testNoOffset() throws Exception {
+    SpoolDirOffset offset = new SpoolDirOffset(null, "0");
+    Assert.assertNull(offset.getLastFile());
+    Assert.assertEquals("0", offset.getStartOffset("file-0.log"));
+  }
+
+  @Test
+  public void testSingleThreadedOffset() throws Exception {
+    SpoolDirOffset offset = new SpoolDirOffset("file-1.log", "-1");
+    Assert.assertNull(offset.getStartOffset("file-0.log"));
+    Assert.assertNull(offset.getStartOffset("file-1.log"));
+    Assert.assertEquals("0", offset.getStartOffset("file-2.log"));
+
+    offset = new SpoolDirOffset("file-1.log", "20");
+    Assert.assertNull(offset.getStartOffset("file-0.log"));
+    Assert.assertEquals("20", offset.getStartOffset("file-1.log"));
+    Assert.assertEquals("0", offset.getStartOffset("file-2.log"));
+  }
+
+  @Test
+  public void testFilesCompletedOutOfOrder() throws Exception {
+    SpoolDirOffset offset = new SpoolDirOffset(null, "0");
+    offset.start("file-0.log", "0");
+    offset.start("file-1.log", "0");
+    offset.setOffset("file-1.log", SpoolDirOffset.DONE);
+    offset.setOffset("file-0.log", "10");
+
+    // file-1.log can't be folded while file-0.log is pending
+    SpoolDirOffset resumed = SpoolDirOffset.fromJson(offset.toJson());
+    Assert.assertNull(resumed.getLastFile());
+    Assert.assertEquals("10", resumed.getStartOffset("file-0.log"));
+    Assert.assertNull(resumed.getStartOffset("file-1.log"));
+    Assert.assertEquals("0", resumed.getStartOffset("file-2.log"));
+
+    offset.setOffset("file-0.log", SpoolDirOffset.DONE);
+    Assert.assertEquals("file-1.log", offset.getLastFile());
+    Assert.assertTrue(offset.getFiles().isEmpty());
+  }
+
+  @Test
+  public void testResumedFileNoLongerInDirectory() throws Exception {
+    SpoolDirOffset offset = new SpoolDirOffset("file-1.log", "20");
+    // the spooler handed out a later file, file-1.log won't be handed out anymore
+    offset.start("file-2.log", "0");
+    Assert.assertEquals("file-1.log", offset.getLastFile());
+    Assert.assertEquals(1, offset.getFiles().size());
+    Assert.assertEquals("0", offset.getFiles().get("file-2.log"));
+  }
+}
@@ -313,4 +313,59 @@ public class TestSpoolDirSource {
     }
   }
 
+  @Test
+  public void testProduceFromParallelOffset() throws Exception {
+    TSpoolDirSource source = createSource(null);
+    SourceRunner runner = new SourceRunner.Builder(TSpoolDirSource.class, source).addOutputLane("lane").build();
+    File file0 = new File(source.spoolDir, "file-0.log").getAbsoluteFile();
+    Files.createFile(file0.toPath());
+    File file1 = new File(source.spoolDir, "file-1.log").getAbsoluteFile();
+    Files.createFile(file1.toPath());
+    File file2 = new File(source.spoolDir, "file-2.log").getAbsoluteFile();
+    Files.createFile(file2.toPath());
+
+    // offset left by a parallel run, file-0 done, file-1 half way and file-2 completed ahead of it
+    SpoolDirOffset parallelOffset = new SpoolDirOffset("file-0.log", "-1");
+    parallelOffset.start("file-1.log", "0");
+    parallelOffset.setOffset("file-1.log", "1");
+    parallelOffset.start("file-2.log", "0");
+    parallelOffset.setOffset("file-2.log", "-1");
+
+    runner.runInit();
+    source.file = file1;
+    source.offset = 1;
+    source.maxBatchSize = 10;
+    try {
+      StageRunner.Output output = runner.runProduce(parallelOffset.toJson(), 10);
+      Assert.assertEquals(source.createSourceOffset("file-1.log", "1"), output.getNewOffset());
+      Assert.assertTrue(source.produceCalled);
+    } finally {
+      runner.runDestroy();
+    }
+  }
+
+  @Test
+  public void testProduceFromCompletedParallelOffset() throws Exception {
+    TSpoolDirSource source = createSource(null);
+    SourceRunner runner = new SourceRunner.Builder(TSpoolDirSource.class, source).addOutputLane("lane").build();
+    File file0 = new File(source.spoolDir, "file-0.log").getAbsoluteFile();
+    Files.createFile(file0.toPath());
+    File file1 = new File(source.spoolDir, "file-1.log").getAbsoluteFile();
+    Files.createFile(file1.toPath());
+
+    SpoolDirOffset parallelOffset = new SpoolDirOffset("file-0.log", "-1");
+
+    runner.runInit();
+    source.file = file1;
+    source.offset = 0;
+    source.maxBatchSize = 10;
+    try {
+      StageRunner.Output output = runner.runProduce(parallelOffset.toJson(), 10);
+      Assert.assertEquals(source.createSourceOffset("file-1.log", "0"), output.getNewOffset());
+      Assert.assertTrue(source.produceCalled);
+    } finally {
+      runner.runDestroy();
+    }
+  }
+
 }
@@ -27,6 +27,7 @@ import com.streamsets.pipeline.config.OnParseError;
 import com.streamsets.pipeline.config.PostProcessingOptions;
 import com.streamsets.pipeline.sdk.SourceRunner;
 import com.streamsets.pipeline.sdk.StageRunner;
+import com.streamsets.pipeline.stage.common.HeaderAttributeConstants;
 import org.apache.commons.io.IOUtils;
 import org.junit.Assert;
 import org.junit.Test;
@@ -38,7 +39,9 @@ import java.io.FileOutputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 public class TestTextSpoolDirSource {
@@ -65,6 +68,10 @@ public class TestTextSpoolDirSource {
   }
 
   private SpoolDirSource createSource(String charset) {
+    return new SpoolDirSource(createConfigBean(charset));
+  }
+
+  private SpoolDirConfigBean createConfigBean(String charset) {
     SpoolDirConfigBean conf = new SpoolDirConfigBean();
     conf.dataFormat = DataFormat.TEXT;
     conf.dataFormatConfig.charset = charset;
@@ -86,7 +93,7 @@ public class TestTextSpoolDirSource {
     conf.dataFormatConfig.onParseError = OnParseError.ERROR;
     conf.dataFormatConfig.maxStackTraceLines = 0;
 
-    return new SpoolDirSource(conf);
+    return conf;
   }
 
   public void testProduceFullFile(String charset) throws Exception {
@@ -158,6 +165,52 @@ public class TestTextSpoolDirSource {
     }
   }
 
+  @Test
+  public void testProduceInParallel() throws Exception {
+    SpoolDirConfigBean conf = createConfigBean("UTF-8");
+    conf.numberOfThreads = 3;
+    for (int i = 0; i < 5; i++) {
+      Writer writer = new OutputStreamWriter(new FileOutputStream(new File(conf.spoolDir, "file-" + i + ".log")));
+      IOUtils.write(LINE1 + "\n" + LINE1 + "\n", writer);
+      writer.close();
+    }
+
+    SpoolDirSource source = new SpoolDirSource(conf);
+    SourceRunner runner = new SourceRunner.Builder(SpoolDirDSource.class, source).addOutputLane("lane").build();
+    runner.runInit();
+    try {
+      Map<String, Integer> recordsPerFile = new HashMap<>();
+      String offset = null;
+      SpoolDirOffset spoolDirOffset = null;
+      // batches are cut whenever the readers are behind, produce until every file has been completed
+      for (int i = 0; i < 20 && (spoolDirOffset == null || !"file-4.log".equals(spoolDirOffset.getLastFile())); i++) {
+        StageRunner.Output output = runner.runProduce(offset, 4);
+        offset = output.getNewOffset();
+        for (Record record : output.getRecords().get("lane")) {
+          Assert.assertEquals(LINE1, record.get().getValueAsMap().get("text").getValueAsString());
+          String file = new File(record.getHeader().getAttribute(HeaderAttributeConstants.FILE)).getName();
+          recordsPerFile.put(file, (recordsPerFile.containsKey(file) ? recordsPerFile.get(file) : 0) + 1);
+        }
+        spoolDirOffset = SpoolDirOffset.fromJson(offset);
+      }
+      Assert.assertEquals(5, recordsPerFile.size());
+      for (int count : recordsPerFile.values()) {
+        Assert.assertEquals(2, count);
+      }
+
+      // all files are completed and folded into the last file of the offset
+      Assert.assertEquals("file-4.log", spoolDirOffset.getLastFile());
+      Assert.assertTrue(spoolDirOffset.getFiles().isEmpty());
+
+      // files are archived once the batch completing them is committed, when the next batch is produced
+      runner.runProduce(offset, 4);
+      Assert.assertEquals(0, new File(conf.spoolDir).list().length);
+      Assert.assertEquals(5, new File(conf.archiveDir).list().length);
+    } finally {
+      runner.runDestroy();
+    }
+  }
+
   @Test
   public void testGbkEncodedFile() throws Exception {
     SpoolDirSource source = createSource("GBK");
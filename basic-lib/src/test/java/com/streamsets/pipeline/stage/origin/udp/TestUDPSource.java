@@ -19,17 +19,25 @@
  */
 package com.streamsets.pipeline.stage.origin.udp;
 
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Meter;
 import com.streamsets.pipeline.api.BatchMaker;
+import com.streamsets.pipeline.api.Config;
 import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.StageException;
+import com.streamsets.pipeline.lib.parser.AbstractParser;
 import com.streamsets.pipeline.lib.parser.ParserConfig;
 import com.streamsets.pipeline.lib.util.ThreadUtil;
 import com.streamsets.pipeline.sdk.SourceRunner;
 import com.streamsets.pipeline.sdk.StageRunner;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import org.apache.commons.io.IOUtils;
 import org.junit.Assert;
+import org.junit.Assume;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.Mockito;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -38,9 +46,11 @@ import java.io.InputStream;
 import java.net.DatagramPacket;
 import java.net.DatagramSocket;
 import java.net.InetAddress;
+import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import static com.streamsets.pipeline.lib.parser.ParserConfigKey.CHARSET;
@@ -71,6 +81,11 @@ public class TestUDPSource {
       super(ports, parserConfig, dataFormat, maxBatchSize, maxWaitTime);
     }
 
+    public TUDPSource(List<String> ports, ParserConfig parserConfig, UDPDataFormat dataFormat, int maxBatchSize,
+        long maxWaitTime, boolean enableEpoll, int numThreads) {
+      super(ports, parserConfig, dataFormat, maxBatchSize, maxWaitTime, enableEpoll, numThreads);
+    }
+
     @Override
     public String produce(String lastSourceOffset, int maxBatchSize, BatchMaker batchMaker) throws StageException {
       produceCalled = true;
@@ -172,4 +187,86 @@ public class TestUDPSource {
       runner.runDestroy();
     }
   }
+
+  @Test
+  public void testEpollReceiverThreads() throws Exception {
+    Assume.assumeTrue(UDPConsumingServer.isEpollAvailable());
+    List<String> ports = genPorts().subList(0, 1);
+    ParserConfig parserConfig = new ParserConfig();
+    parserConfig.put(CHARSET, "UTF-8");
+    TUDPSource source = new TUDPSource(ports, parserConfig, UDPDataFormat.SYSLOG, 100, 100L, true, 4);
+    SourceRunner runner = new SourceRunner.Builder(TUDPSource.class, source).addOutputLane("lane").build();
+    runner.runInit();
+    try {
+      byte[] bytes = "<34>1 2003-10-11T22:14:15.003Z mymachine.example.com some syslog data".
+        getBytes(StandardCharsets.UTF_8);
+      // distinct source ports so SO_REUSEPORT spreads the packets over the receiver threads
+      for (int i = 0; i < 20; i++) {
+        DatagramSocket clientSocket = new DatagramSocket();
+        clientSocket.send(new DatagramPacket(bytes, bytes.length, InetAddress.getLoopbackAddress(),
+            Integer.parseInt(ports.get(0))));
+        clientSocket.close();
+      }
+      int received = 0;
+      for (int i = 0; i < 10 && received < 20; i++) {
+        received += runner.runProduce(null, 100).getRecords().get("lane").size();
+      }
+      Assert.assertEquals(20, received);
+    } finally {
+      runner.runDestroy();
+    }
+  }
+
+  @Test
+  public void testBufferingConsumerDropsWhenFull() throws Exception {
+    final AbstractParser parser = Mockito.mock(AbstractParser.class);
+    Mockito.when(parser.parse(Mockito.any(ByteBuf.class), Mockito.any(InetSocketAddress.class),
+        Mockito.any(InetSocketAddress.class))).thenReturn(Collections.<Record>emptyList());
+    Counter received = new Counter();
+    Counter dropped = new Counter();
+    BufferingUDPConsumer consumer = new BufferingUDPConsumer(
+        new BufferingUDPConsumer.ParserFactory() {
+          @Override
+          public AbstractParser create() {
+            return parser;
+          }
+        },
+        5,
+        received,
+        dropped,
+        new Meter()
+    );
+    InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), 2000);
+    for (int i = 0; i < 8; i++) {
+      consumer.process(new io.netty.channel.socket.DatagramPacket(Unpooled.buffer(1), address, address));
+    }
+    Assert.assertEquals(8, received.getCount());
+    Assert.assertEquals(3, dropped.getCount());
+
+    List<ParseResult> results = new ArrayList<>();
+    consumer.drainTo(results, 0);
+    Assert.assertEquals(5, results.size());
+
+    // nothing buffered, returns once the wait time is up
+    results.clear();
+    consumer.drainTo(results, 10);
+    Assert.assertTrue(results.isEmpty());
+
+    consumer.process(new io.netty.channel.socket.DatagramPacket(Unpooled.buffer(1), address, address));
+    consumer.drainTo(results, 1000);
+    Assert.assertEquals(1, results.size());
+    Assert.assertEquals(3, dropped.getCount());
+  }
+
+  @Test
+  public void testUpgradeV1ToV2() throws Exception {
+    List<Config> configs = new ArrayList<>();
+    configs.add(new Config("batchSize", 1000));
+    new UDPSourceUpgrader().upgrade("l", "s", "i", 1, 2, configs);
+    Assert.assertEquals(3, configs.size());
+    Assert.assertEquals("enableEpoll", configs.get(1).getName());
+    Assert.assertEquals(false, configs.get(1).getValue());
+    Assert.assertEquals("numThreads", configs.get(2).getName());
+    Assert.assertEquals(1, configs.get(2).getValue());
+  }
 }
@@ -30,12 +30,14 @@ import com.streamsets.pipeline.sdk.StageRunner;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.File;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
 public class TestDeDupProcessor {
 
@@ -111,6 +113,58 @@ public class TestDeDupProcessor {
     runner.runInit();
   }
 
+  @Test
+  public void testOffHeapIndexAcrossRestarts() throws Exception {
+    File dir = new File("target", UUID.randomUUID().toString());
+    Assert.assertTrue(dir.mkdirs());
+    String indexFile = new File(dir, "dedup.idx").getAbsolutePath();
+    for (int run = 0; run < 2; run++) {
+      Processor processor = new DeDupProcessor(4, 0, SelectFields.ALL_FIELDS, Collections.EMPTY_LIST, true,
+                                               indexFile);
+      ProcessorRunner runner = new ProcessorRunner.Builder(DeDupDProcessor.class, processor)
+          .addOutputLane("unique")
+          .addOutputLane("duplicate")
+          .build();
+      runner.runInit();
+      try {
+        List<Record> input = ImmutableList.of(createRecordWithValue("a"), createRecordWithValue("b"),
+                                              createRecordWithValue("a"));
+        StageRunner.Output output = runner.runProcess(input);
+        // on the second run all records were seen in the first run
+        Assert.assertEquals((run == 0) ? 2 : 0, output.getRecords().get("unique").size());
+        Assert.assertEquals((run == 0) ? 1 : 3, output.getRecords().get("duplicate").size());
+        // the hashes of a batch are kept once the next batch comes in
+        runner.runProcess(Collections.<Record>emptyList());
+      } finally {
+        runner.runDestroy();
+      }
+    }
+  }
+
+  @Test
+  public void testOffHeapIndexDropsHashesOfLastBatch() throws Exception {
+    File dir = new File("target", UUID.randomUUID().toString());
+    Assert.assertTrue(dir.mkdirs());
+    String indexFile = new File(dir, "dedup.idx").getAbsolutePath();
+    for (int run = 0; run < 2; run++) {
+      Processor processor = new DeDupProcessor(4, 0, SelectFields.ALL_FIELDS, Collections.EMPTY_LIST, true,
+                                               indexFile);
+      ProcessorRunner runner = new ProcessorRunner.Builder(DeDupDProcessor.class, processor)
+          .addOutputLane("unique")
+          .addOutputLane("duplicate")
+          .build();
+      runner.runInit();
+      try {
+        // the batch may not have gone through before the pipeline stopped, its records are processed again
+        StageRunner.Output output = runner.runProcess(ImmutableList.of(createRecordWithValue("a")));
+        Assert.assertEquals(1, output.getRecords().get("unique").size());
+        Assert.assertEquals(0, output.getRecords().get("duplicate").size());
+      } finally {
+        runner.runDestroy();
+      }
+    }
+  }
+
   @Test
   public void testUniqueSingleBatchAllFields() throws Exception {
     Processor processor = new DeDupProcessor(4, 1, SelectFields.ALL_FIELDS, Collections.EMPTY_LIST);
@@ -0,0 +1,158 @@
+/**
+ * Copyright 2016 StreamSets Inc.
+ *
+ * Licensed under the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.processor.dedup;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.UUID;
+
+public class TestOffHeapHashIndex {
+
+  private File getIndexFile() {
+    File dir = new File("target", UUID.randomUUID().toString());
+    Assert.assertTrue(dir.mkdirs());
+    return new File(dir, "index");
+  }
+
+  @Test
+  public void testCountWindow() throws Exception {
+    File file = getIndexFile();
+    OffHeapHashIndex index = OffHeapHashIndex.open(file, false, 3, 0, "");
+    try {
+      Assert.assertTrue(index.add(1, 1, 0));
+      Assert.assertTrue(index.add(2, 2, 0));
+      Assert.assertFalse(index.add(1, 1, 0));
+      Assert.assertTrue(index.add(3, 3, 0));
+      Assert.assertEquals(3, index.size());
+
+      // evicts 1
+      Assert.assertTrue(index.add(4, 4, 0));
+      Assert.assertEquals(3, index.size());
+      Assert.assertFalse(index.add(2, 2, 0));
+      Assert.assertFalse(index.add(4, 4, 0));
+      // evicts 2
+      Assert.assertTrue(index.add(1, 1, 0));
+      Assert.assertTrue(index.add(2, 2, 0));
+    } finally {
+      index.close();
+    }
+    Assert.assertFalse(file.exists());
+  }
+
+  @Test
+  public void testTimeWindow() throws Exception {
+    OffHeapHashIndex index = OffHeapHashIndex.open(getIndexFile(), false, 10, 1000, "");
+    try {
+      Assert.assertTrue(index.add(1, 1, 0));
+      Assert.assertTrue(index.add(2, 2, 500));
+      Assert.assertFalse(index.add(1, 1, 900));
+      // 1 expired
+      Assert.assertTrue(index.add(1, 1, 1000));
+      Assert.assertFalse(index.add(2, 2, 1000));
+      // 2 expired
+      Assert.assertTrue(index.add(2, 2, 1500));
+      Assert.assertEquals(2, index.size());
+    } finally {
+      index.close();
+    }
+  }
+
+  @Test
+  public void testContains() throws Exception {
+    OffHeapHashIndex index = OffHeapHashIndex.open(getIndexFile(), false, 10, 1000, "");
+    try {
+      Assert.assertFalse(index.contains(1, 1, 0));
+      Assert.assertTrue(index.add(1, 1, 0));
+      Assert.assertTrue(index.contains(1, 1, 500));
+      Assert.assertFalse(index.contains(0, 0, 500));
+      Assert.assertTrue(index.add(0, 0, 500));
+      Assert.assertTrue(index.contains(0, 0, 500));
+      // 1 expired
+      Assert.assertFalse(index.contains(1, 1, 1000));
+      Assert.assertEquals(1, index.size());
+    } finally {
+      index.close();
+    }
+  }
+
+  @Test
+  public void testCollisions() throws Exception {
+    int window = 1000;
+    long capacity = OffHeapHashIndex.getCapacity(window);
+    OffHeapHashIndex index = OffHeapHashIndex.open(getIndexFile(), false, window, 0, "");
+    try {
+      // all hashes share the same home slot, exercising probing and backward shift deletion on eviction
+      for (long i = 0; i < 5 * window; i++) {
+        Assert.assertTrue(index.add((i % 7) * capacity, i, 0));
+        Assert.assertFalse(index.add((i % 7) * capacity, i, 0));
+        if (i >= window) {
+          Assert.assertTrue(index.add(((i - window) % 7) * capacity, i - window, 0));
+          Assert.assertFalse(index.add((i % 7) * capacity, i, 0));
+        }
+      }
+    } finally {
+      index.close();
+    }
+  }
+
+  @Test
+  public void testPersistence() throws Exception {
+    File file = getIndexFile();
+    OffHeapHashIndex index = OffHeapHashIndex.open(file, true, 10, 0, "");
+    Assert.assertTrue(index.add(1, 1, 0));
+    Assert.assertTrue(index.add(0, 0, 0));
+    index.close();
+    Assert.assertTrue(file.exists());
+
+    index = OffHeapHashIndex.open(file, true, 10, 0, "");
+    Assert.assertEquals(2, index.size());
+    Assert.assertFalse(index.add(1, 1, 0));
+    Assert.assertFalse(index.add(0, 0, 0));
+    Assert.assertTrue(index.add(2, 2, 0));
+    // not closed, simulating a crash
+
+    index = OffHeapHashIndex.open(file, true, 10, 0, "");
+    Assert.assertEquals(0, index.size());
+    Assert.assertTrue(index.add(1, 1, 0));
+    index.close();
+
+    // different settings
+    index = OffHeapHashIndex.open(file, true, 10, 0, "[/a]");
+    Assert.assertTrue(index.add(1, 1, 0));
+    index.close();
+    index = OffHeapHashIndex.open(file, true, 10, 0, "[/a]");
+    Assert.assertEquals(1, index.size());
+    index.close();
+    // same length, different fields
+    index = OffHeapHashIndex.open(file, true, 10, 0, "[/b]");
+    Assert.assertEquals(0, index.size());
+    index.close();
+  }
+
+  @Test(expected = NullPointerException.class)
+  public void testNotUsableAfterClose() throws Exception {
+    OffHeapHashIndex index = OffHeapHashIndex.open(getIndexFile(), false, 10, 0, "");
+    index.close();
+    index.add(1, 1, 0);
+  }
+
+}
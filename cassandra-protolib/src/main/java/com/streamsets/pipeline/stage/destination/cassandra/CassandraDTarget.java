@@ -32,7 +32,7 @@ import java.util.List;
 
 @GenerateResourceBundle
 @StageDef(
-    version = 2,
+    version = 3,
     label = "Cassandra",
     description = "Writes data to Cassandra",
     icon = "cassandra.png",
@@ -109,6 +109,33 @@ public class CassandraDTarget extends DTarget {
   @ListBeanModel
   public List<CassandraFieldMappingConfig> columnNames;
 
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.MODEL,
+      defaultValue = "LOGGED_BATCH",
+      label = "Write Mode",
+      description = "Logged batches are atomic but go through the batch log of a single coordinator. " +
+          "Asynchronous writes group records by partition and send each group to its replicas.",
+      displayPosition = 70,
+      group = "CASSANDRA"
+  )
+  @ValueChooserModel(WriteModeChooserValues.class)
+  public CassandraWriteMode writeMode;
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      defaultValue = "64",
+      label = "Max Concurrent Requests",
+      description = "Maximum number of asynchronous write requests in flight",
+      displayPosition = 80,
+      group = "CASSANDRA",
+      dependsOn = "writeMode",
+      triggeredByValue = "ASYNC_BY_PARTITION",
+      min = 1
+  )
+  public int maxConcurrentRequests;
+
   @ConfigDef(
       required = true,
       type = ConfigDef.Type.STRING,
@@ -142,7 +169,9 @@ public class CassandraDTarget extends DTarget {
         username,
         password,
         qualifiedTableName,
-        columnNames
+        columnNames,
+        writeMode,
+        maxConcurrentRequests
     );
   }
 }
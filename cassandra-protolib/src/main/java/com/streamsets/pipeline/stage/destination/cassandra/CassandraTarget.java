@@ -26,11 +26,17 @@ import com.datastax.driver.core.ColumnMetadata;
 import com.datastax.driver.core.KeyspaceMetadata;
 import com.datastax.driver.core.PreparedStatement;
 import com.datastax.driver.core.ProtocolOptions;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.ResultSetFuture;
 import com.datastax.driver.core.Session;
+import com.datastax.driver.core.Statement;
 import com.datastax.driver.core.TableMetadata;
 import com.datastax.driver.core.exceptions.AuthenticationException;
+import com.datastax.driver.core.exceptions.DriverException;
 import com.datastax.driver.core.exceptions.InvalidTypeException;
 import com.datastax.driver.core.exceptions.NoHostAvailableException;
+import com.datastax.driver.core.policies.DCAwareRoundRobinPolicy;
+import com.datastax.driver.core.policies.TokenAwarePolicy;
 import com.google.common.base.Function;
 import com.google.common.base.Joiner;
 import com.google.common.cache.CacheBuilder;
@@ -39,6 +45,8 @@ import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
 import com.streamsets.pipeline.api.Batch;
 import com.streamsets.pipeline.api.Field;
 import com.streamsets.pipeline.api.Record;
@@ -53,16 +61,19 @@ import org.slf4j.LoggerFactory;
 import javax.annotation.Nullable;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.SortedMap;
 import java.util.SortedSet;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.Semaphore;
 
 /**
  * Cassandra Destination for StreamSets Data Collector
@@ -73,6 +84,8 @@ import java.util.TreeSet;
  *   explicitly specify the keyspace in your queries.
  * - If you execute a statement more than once, consider using a prepared statement.
  * - You can reduce the number of network round trips and also have atomic operations by using batches.
+ * - Batches spanning partitions go through the batch log of a single coordinator, unlogged single partition
+ *   batches sent asynchronously through a token aware policy go straight to the replicas.
  *
  */
 public class CassandraTarget extends BaseTarget {
@@ -88,6 +101,8 @@ public class CassandraTarget extends BaseTarget {
 
   private final String qualifiedTableName;
   private final List<CassandraFieldMappingConfig> columnNames;
+  private final CassandraWriteMode writeMode;
+  private final int maxConcurrentRequests;
 
 
   private Cluster cluster = null;
@@ -95,6 +110,8 @@ public class CassandraTarget extends BaseTarget {
 
   private SortedMap<String, String> columnMappings;
   private LoadingCache<SortedSet<String>, PreparedStatement> statementCache;
+  private Semaphore inFlightRequests;
+  private FutureCallback<ResultSet> inFlightRequestCallback;
 
   public CassandraTarget(
       final List<String> addresses,
@@ -103,7 +120,9 @@ public class CassandraTarget extends BaseTarget {
       final String username,
       final String password,
       final String qualifiedTableName,
-      final List<CassandraFieldMappingConfig> columnNames
+      final List<CassandraFieldMappingConfig> columnNames,
+      final CassandraWriteMode writeMode,
+      final int maxConcurrentRequests
   ) {
     this.addresses = addresses;
     this.port = port;
@@ -112,6 +131,8 @@ public class CassandraTarget extends BaseTarget {
     this.password = password;
     this.qualifiedTableName = qualifiedTableName;
     this.columnNames = columnNames;
+    this.writeMode = writeMode;
+    this.maxConcurrentRequests = maxConcurrentRequests;
   }
 
   @Override
@@ -166,6 +187,17 @@ public class CassandraTarget extends BaseTarget {
       }
     }
 
+    if (writeMode == CassandraWriteMode.ASYNC_BY_PARTITION && maxConcurrentRequests < 1) {
+      issues.add(
+          context.createConfigIssue(
+              Groups.CASSANDRA.name(),
+              "maxConcurrentRequests",
+              Errors.CASSANDRA_10,
+              maxConcurrentRequests
+          )
+      );
+    }
+
     if (issues.isEmpty()) {
       cluster = Cluster.builder()
           .addContactPoints(contactPoints)
@@ -173,8 +205,25 @@ public class CassandraTarget extends BaseTarget {
           .withPort(port)
               // If authentication is disabled on the C* cluster, this method has no effect.
           .withCredentials(username, password)
+              // Sends each statement to a replica of its partition, requires statements to carry a routing key.
+          .withLoadBalancingPolicy(new TokenAwarePolicy(new DCAwareRoundRobinPolicy()))
           .build();
 
+      if (writeMode == CassandraWriteMode.ASYNC_BY_PARTITION) {
+        inFlightRequests = new Semaphore(maxConcurrentRequests);
+        inFlightRequestCallback = new FutureCallback<ResultSet>() {
+          @Override
+          public void onSuccess(ResultSet result) {
+            inFlightRequests.release();
+          }
+
+          @Override
+          public void onFailure(Throwable t) {
+            inFlightRequests.release();
+          }
+        };
+      }
+
       try {
         session = cluster.connect();
 
@@ -273,8 +322,15 @@ public class CassandraTarget extends BaseTarget {
   }
 
   @Override
-  @SuppressWarnings("unchecked")
   public void write(Batch batch) throws StageException {
+    if (writeMode == CassandraWriteMode.ASYNC_BY_PARTITION) {
+      writeAsyncByPartition(batch);
+    } else {
+      writeLoggedBatch(batch);
+    }
+  }
+
+  private void writeLoggedBatch(Batch batch) throws StageException {
     // The batch holding the current batch to INSERT.
     BatchStatement batchedStatement = new BatchStatement();
 
@@ -304,9 +360,85 @@ public class CassandraTarget extends BaseTarget {
     }
   }
 
+  /**
+   * Groups the statements by partition and sends each group as an unlogged batch, with at most
+   * maxConcurrentRequests requests in flight. Failed groups are reported for each of their records.
+   */
+  private void writeAsyncByPartition(Batch batch) throws StageException {
+    // LinkedHashMap so that partitions are written in the order they first appear in the batch.
+    Map<ByteBuffer, PartitionWrite> partitions = new LinkedHashMap<>();
+    List<PartitionWrite> writes = new ArrayList<>();
+
+    Iterator<Record> records = batch.getRecords();
+    while (records.hasNext()) {
+      final Record record = records.next();
+      BoundStatement boundStmt = recordToBoundStatement(record);
+      if (boundStmt != null) {
+        // statements without a routing key cannot be grouped, they are sent on their own.
+        ByteBuffer routingKey = boundStmt.getRoutingKey();
+        PartitionWrite write = (routingKey == null) ? null : partitions.get(routingKey);
+        if (write == null || write.size() == MAX_BATCH_SIZE) {
+          write = new PartitionWrite();
+          writes.add(write);
+          if (routingKey != null) {
+            partitions.put(routingKey, write);
+          }
+        }
+        write.add(record, boundStmt);
+      }
+    }
+
+    List<ResultSetFuture> futures = new ArrayList<>(writes.size());
+    for (PartitionWrite write : writes) {
+      inFlightRequests.acquireUninterruptibly();
+      ResultSetFuture future = session.executeAsync(write.toStatement());
+      Futures.addCallback(future, inFlightRequestCallback);
+      futures.add(future);
+    }
+
+    // wait for all the writes before failing the batch so none is left in flight.
+    StageException stageException = null;
+    for (int i = 0; i < futures.size(); i++) {
+      try {
+        futures.get(i).getUninterruptibly();
+      } catch (DriverException e) {
+        LOG.debug("Could not insert batch due to: {}", e.toString(), e);
+        for (Record record : writes.get(i).records) {
+          try {
+            handleWriteError(record, e);
+          } catch (StageException ex) {
+            if (stageException == null) {
+              stageException = ex;
+            }
+          }
+        }
+      }
+    }
+    if (stageException != null) {
+      throw stageException;
+    }
+  }
+
+  private void handleWriteError(Record record, DriverException e) throws StageException {
+    switch (getContext().getOnErrorRecord()) {
+      case DISCARD:
+        break;
+      case TO_ERROR:
+        getContext().toError(record, Errors.CASSANDRA_09, record.getHeader().getSourceId(), e.toString(), e);
+        break;
+      case STOP_PIPELINE:
+        throw new StageException(Errors.CASSANDRA_09, record.getHeader().getSourceId(), e.toString(), e);
+      default:
+        throw new IllegalStateException(
+            Utils.format("Unknown OnError value '{}'", getContext().getOnErrorRecord(), e)
+        );
+    }
+  }
+
   /**
    * Convert a Record into a fully-bound statement.
    */
+  @SuppressWarnings("unchecked")
   private BoundStatement recordToBoundStatement(Record record) throws StageException {
     ImmutableList.Builder<Object> values = new ImmutableList.Builder<>();
     SortedSet<String> columnsPresent = Sets.newTreeSet(columnMappings.keySet());
@@ -367,6 +499,32 @@ public class CassandraTarget extends BaseTarget {
     return boundStmt;
   }
 
+  /**
+   * Records and statements sharing a partition, sent in a single request.
+   */
+  private static class PartitionWrite {
+    private final List<Record> records = new ArrayList<>();
+    private final List<BoundStatement> statements = new ArrayList<>();
+
+    void add(Record record, BoundStatement statement) {
+      records.add(record);
+      statements.add(statement);
+    }
+
+    int size() {
+      return statements.size();
+    }
+
+    Statement toStatement() {
+      if (statements.size() == 1) {
+        return statements.get(0);
+      }
+      BatchStatement batchStatement = new BatchStatement(BatchStatement.Type.UNLOGGED);
+      batchStatement.addAll(statements);
+      return batchStatement;
+    }
+  }
+
   private Cluster getCluster() {
     return Cluster.builder()
         .addContactPoints(contactPoints)
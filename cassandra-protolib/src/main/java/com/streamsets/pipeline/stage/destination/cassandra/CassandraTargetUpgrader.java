@@ -32,6 +32,9 @@ public class CassandraTargetUpgrader implements StageUpgrader {
     switch(fromVersion) {
       case 1:
         upgradeV1ToV2(configs);
+        // fall through
+      case 2:
+        upgradeV2ToV3(configs);
         break;
       default:
         throw new IllegalStateException(Utils.format("Unexpected fromVersion {}", fromVersion));
@@ -42,4 +45,9 @@ public class CassandraTargetUpgrader implements StageUpgrader {
   private void upgradeV1ToV2(List<Config> configs) {
     configs.add(new Config("compression", "NONE"));
   }
+
+  private void upgradeV2ToV3(List<Config> configs) {
+    configs.add(new Config("writeMode", "LOGGED_BATCH"));
+    configs.add(new Config("maxConcurrentRequests", 64));
+  }
 }
@@ -119,6 +119,7 @@ public class TestCassandraTarget {
         .addConfiguration("contactNodes", ImmutableList.of("localhost"))
         .addConfiguration("useCredentials", false)
         .addConfiguration("compression", CassandraCompressionCodec.NONE)
+        .addConfiguration("writeMode", CassandraWriteMode.LOGGED_BATCH)
         .addConfiguration("qualifiedTableName", tableName)
         .addConfiguration("columnNames", fieldMappings)
         .addConfiguration("port", CASSANDRA_NATIVE_PORT)
@@ -145,6 +146,7 @@ public class TestCassandraTarget {
         .addConfiguration("contactNodes", ImmutableList.of("localhost"))
         .addConfiguration("useCredentials", false)
         .addConfiguration("compression", CassandraCompressionCodec.NONE)
+        .addConfiguration("writeMode", CassandraWriteMode.LOGGED_BATCH)
         .addConfiguration("qualifiedTableName", tableName)
         .addConfiguration("columnNames", fieldMappings)
         .addConfiguration("port", CASSANDRA_NATIVE_PORT)
@@ -194,6 +196,7 @@ public class TestCassandraTarget {
         .addConfiguration("contactNodes", ImmutableList.of("localhost"))
         .addConfiguration("useCredentials", false)
         .addConfiguration("compression", CassandraCompressionCodec.NONE)
+        .addConfiguration("writeMode", CassandraWriteMode.LOGGED_BATCH)
         .addConfiguration("qualifiedTableName", tableName)
         .addConfiguration("columnNames", fieldMappings)
         .addConfiguration("port", CASSANDRA_NATIVE_PORT)
@@ -241,6 +244,7 @@ public class TestCassandraTarget {
         .addConfiguration("contactNodes", ImmutableList.of("localhost"))
         .addConfiguration("useCredentials", false)
         .addConfiguration("compression", CassandraCompressionCodec.NONE)
+        .addConfiguration("writeMode", CassandraWriteMode.LOGGED_BATCH)
         .addConfiguration("qualifiedTableName", tableName)
         .addConfiguration("columnNames", fieldMappings)
         .addConfiguration("port", CASSANDRA_NATIVE_PORT)
@@ -286,6 +290,7 @@ public class TestCassandraTarget {
         .addConfiguration("contactNodes", ImmutableList.of("localhost"))
         .addConfiguration("useCredentials", false)
         .addConfiguration("compression", CassandraCompressionCodec.NONE)
+        .addConfiguration("writeMode", CassandraWriteMode.LOGGED_BATCH)
         .addConfiguration("qualifiedTableName", tableName)
         .addConfiguration("columnNames", fieldMappings)
         .addConfiguration("port", CASSANDRA_NATIVE_PORT)
@@ -332,6 +337,7 @@ public class TestCassandraTarget {
         .addConfiguration("contactNodes", ImmutableList.of("localhost"))
         .addConfiguration("useCredentials", false)
         .addConfiguration("compression", CassandraCompressionCodec.NONE)
+        .addConfiguration("writeMode", CassandraWriteMode.LOGGED_BATCH)
         .addConfiguration("qualifiedTableName", tableName)
         .addConfiguration("columnNames", fieldMappings)
         .addConfiguration("port", CASSANDRA_NATIVE_PORT)
@@ -377,6 +383,7 @@ public class TestCassandraTarget {
         .addConfiguration("contactNodes", ImmutableList.of("localhost"))
         .addConfiguration("useCredentials", false)
         .addConfiguration("compression", CassandraCompressionCodec.NONE)
+        .addConfiguration("writeMode", CassandraWriteMode.LOGGED_BATCH)
         .addConfiguration("qualifiedTableName", tableName)
         .addConfiguration("columnNames", fieldMappings)
         .addConfiguration("port", CASSANDRA_NATIVE_PORT)
@@ -427,6 +434,7 @@ public class TestCassandraTarget {
         .addConfiguration("contactNodes", ImmutableList.of("localhost"))
         .addConfiguration("useCredentials", false)
         .addConfiguration("compression", CassandraCompressionCodec.NONE)
+        .addConfiguration("writeMode", CassandraWriteMode.LOGGED_BATCH)
         .addConfiguration("qualifiedTableName", "tablename")
         .addConfiguration("columnNames", fieldMappings)
         .addConfiguration("port", CASSANDRA_NATIVE_PORT)
@@ -450,6 +458,7 @@ public class TestCassandraTarget {
         .addConfiguration("contactNodes", ImmutableList.of("localhost"))
         .addConfiguration("useCredentials", false)
         .addConfiguration("compression", CassandraCompressionCodec.NONE)
+        .addConfiguration("writeMode", CassandraWriteMode.LOGGED_BATCH)
         .addConfiguration("qualifiedTableName", tableName)
         .addConfiguration("columnNames", fieldMappings)
         .addConfiguration("port", CASSANDRA_NATIVE_PORT)
@@ -481,4 +490,109 @@ public class TestCassandraTarget {
     List<Row> allRows = resultSet.all();
     Assert.assertEquals(70000, allRows.size());
   }
+
+  @Test
+  public void testWriteAsyncByPartition() throws InterruptedException, StageException {
+    final String tableName = "test.trips";
+    List<CassandraFieldMappingConfig> fieldMappings = ImmutableList.of(
+        new CassandraFieldMappingConfig("[0]", "driver_id"),
+        new CassandraFieldMappingConfig("[1]", "trip_id"),
+        new CassandraFieldMappingConfig("[2]", "time"),
+        new CassandraFieldMappingConfig("[3]", "x"),
+        new CassandraFieldMappingConfig("[4]", "y")
+    );
+
+    TargetRunner targetRunner = new TargetRunner.Builder(CassandraDTarget.class)
+        .addConfiguration("contactNodes", ImmutableList.of("localhost"))
+        .addConfiguration("useCredentials", false)
+        .addConfiguration("compression", CassandraCompressionCodec.NONE)
+        .addConfiguration("writeMode", CassandraWriteMode.ASYNC_BY_PARTITION)
+        .addConfiguration("maxConcurrentRequests", 2)
+        .addConfiguration("qualifiedTableName", tableName)
+        .addConfiguration("columnNames", fieldMappings)
+        .addConfiguration("port", CASSANDRA_NATIVE_PORT)
+        .build();
+
+    // 3 partitions, driver 1 has 3 trips interleaved with the others
+    List<Record> records = ImmutableList.of(
+        createTripRecord(1, 1),
+        createTripRecord(2, 1),
+        createTripRecord(1, 2),
+        createTripRecord(3, 1),
+        createTripRecord(1, 3)
+    );
+    targetRunner.runInit();
+    targetRunner.runWrite(records);
+
+    // Should not be any error records.
+    Assert.assertTrue(targetRunner.getErrorRecords().isEmpty());
+    Assert.assertTrue(targetRunner.getErrors().isEmpty());
+
+    targetRunner.runDestroy();
+
+    Assert.assertEquals(5, session.execute("SELECT * FROM test.trips").all().size());
+    Assert.assertEquals(3, session.execute("SELECT * FROM test.trips WHERE driver_id = 1").all().size());
+  }
+
+  @Test
+  public void testWriteAsyncByPartitionOnErrorToError() throws Exception {
+    final String tableName = "test.trips";
+    List<CassandraFieldMappingConfig> fieldMappings = ImmutableList.of(
+        new CassandraFieldMappingConfig("[0]", "driver_id"),
+        new CassandraFieldMappingConfig("[1]", "trip_id"),
+        new CassandraFieldMappingConfig("[2]", "time"),
+        new CassandraFieldMappingConfig("[3]", "x"),
+        new CassandraFieldMappingConfig("[4]", "y")
+    );
+
+    TargetRunner targetRunner = new TargetRunner.Builder(CassandraDTarget.class)
+        .addConfiguration("contactNodes", ImmutableList.of("localhost"))
+        .addConfiguration("useCredentials", false)
+        .addConfiguration("compression", CassandraCompressionCodec.NONE)
+        .addConfiguration("writeMode", CassandraWriteMode.ASYNC_BY_PARTITION)
+        .addConfiguration("maxConcurrentRequests", 2)
+        .addConfiguration("qualifiedTableName", tableName)
+        .addConfiguration("columnNames", fieldMappings)
+        .addConfiguration("port", CASSANDRA_NATIVE_PORT)
+        .setOnRecordError(OnRecordError.TO_ERROR)
+        .build();
+
+    // binds fine but is rejected by Cassandra, the partition key cannot be null
+    Record badRecord = RecordCreator.create();
+    List<Field> fields = new ArrayList<>();
+    fields.add(Field.create(Field.Type.INTEGER, null));
+    fields.add(Field.create(2));
+    fields.add(Field.create(3));
+    fields.add(Field.create(4.0));
+    fields.add(Field.create(5.0));
+    badRecord.set(Field.create(fields));
+
+    List<Record> records = ImmutableList.of(createTripRecord(1, 1), badRecord, createTripRecord(2, 1));
+    targetRunner.runInit();
+    targetRunner.runWrite(records);
+
+    // only the rejected record goes to error
+    Assert.assertEquals(1, targetRunner.getErrorRecords().size());
+    Assert.assertEquals(
+        Errors.CASSANDRA_09.toString(),
+        targetRunner.getErrorRecords().get(0).getHeader().getErrorCode()
+    );
+    Assert.assertTrue(targetRunner.getErrors().isEmpty());
+
+    targetRunner.runDestroy();
+
+    Assert.assertEquals(2, session.execute("SELECT * FROM test.trips").all().size());
+  }
+
+  private static Record createTripRecord(int driverId, int tripId) {
+    Record record = RecordCreator.create();
+    List<Field> fields = new ArrayList<>();
+    fields.add(Field.create(driverId));
+    fields.add(Field.create(tripId));
+    fields.add(Field.create(3));
+    fields.add(Field.create(4.0));
+    fields.add(Field.create(5.0));
+    record.set(Field.create(fields));
+    return record;
+  }
 }
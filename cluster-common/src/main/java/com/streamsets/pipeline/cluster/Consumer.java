@@ -36,6 +36,10 @@ import java.util.concurrent.TimeUnit;
  */
 public class Consumer {
   private static final Logger LOG = LoggerFactory.getLogger(Consumer.class);
+  // batches and producer messages wake the consumer up, the timeout only bounds each wait
+  private static final long DATA_WAIT_MILLIS = 1000;
+  // grace period for a put racing with the producer completing
+  private static final long DRAIN_WAIT_MILLIS = 10;
   private final ControlChannel controlChannel;
   private final DataChannel dataChannel;
   private boolean running;
@@ -44,17 +48,24 @@ public class Consumer {
   private volatile Throwable consumerError;
   private String lastCommittedOffset;
 
-  public Consumer(ControlChannel controlChannel, DataChannel dataChannel) {
+  public Consumer(ControlChannel controlChannel, final DataChannel dataChannel) {
     this.controlChannel = controlChannel;
     this.dataChannel = dataChannel;
     this.running = true;
     this.batchCommitted = true;
     this.lastCommittedOffset = "";
+    controlChannel.setConsumerMessageListener(new Runnable() {
+      @Override
+      public void run() {
+        dataChannel.wakeUp();
+      }
+    });
   }
 
   /**
    * Consumes messages off the queue. Returns null when the producer
-   * has indicated it is complete and throws an exception
+   * has indicated it is complete and all queued batches have been
+   * consumed and throws an exception
    * when the consumer producer has indicated it is in error.
    */
   public OffsetAndResult<Map.Entry> take() {
@@ -66,7 +77,8 @@ public class Consumer {
     }
     try {
       Utils.checkState(batchCommitted, "Cannot take messages when last batch is uncommitted");
-      while (running) {
+      while (true) {
+        dataChannel.clearWakeUp();
         for (ControlChannel.Message controlMessage : controlChannel.getConsumerMessages()) {
           switch (controlMessage.getType()) {
             case PRODUCER_COMPLETE:
@@ -83,12 +95,17 @@ public class Consumer {
               throw new IllegalStateException(msg);
           }
         }
-        OffsetAndResult<Map.Entry> batch = dataChannel.take(10, TimeUnit.MILLISECONDS);
+        // once the producer is complete only drain what is queued
+        OffsetAndResult<Map.Entry> batch =
+          dataChannel.take(running ? DATA_WAIT_MILLIS : DRAIN_WAIT_MILLIS, TimeUnit.MILLISECONDS);
         LOG.trace("Received batch: {}", batch);
         if (batch != null) {
           batchCommitted = false; // got a new batch
           return batch;
         }
+        if (!running) {
+          break;
+        }
       }
       LOG.trace("Returning null");
       return null;
@@ -27,21 +27,41 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Provides a bi-directional control channel between two threads, one producing
  * and the other consuming. Both threads can queue multiple control messages
- * for the corresponding thread.
+ * for the corresponding thread. The producer can block waiting for its messages,
+ * the consumer is notified through its listener when a message is queued for it.
  */
 public class ControlChannel {
   private static final Logger LOG = LoggerFactory.getLogger(ControlChannel.class);
-  private final BlockingQueue<Message> producerQueue = new ArrayBlockingQueue<>(10);
+  // unbounded as the consumer posts one commit per outstanding batch
+  private final BlockingQueue<Message> producerQueue = new LinkedBlockingQueue<>();
   private final BlockingQueue<Message> consumerQueue = new ArrayBlockingQueue<>(10);
+  private volatile Runnable consumerMessageListener;
+
+  /**
+   * Sets the callback run after a message has been queued for the consumer.
+   */
+  public void setConsumerMessageListener(Runnable consumerMessageListener) {
+    this.consumerMessageListener = consumerMessageListener;
+  }
+
+  private void notifyConsumer() {
+    Runnable listener = consumerMessageListener;
+    if (listener != null) {
+      listener.run();
+    }
+  }
 
   public void producerComplete() {
     LOG.info("Producer complete");
     try {
       consumerQueue.put(new Message(MessageType.PRODUCER_COMPLETE));
+      notifyConsumer();
     } catch (InterruptedException e) {
       LOG.info("Interrupted while queuing '{}'", MessageType.PRODUCER_COMPLETE.name());
       Thread.currentThread().interrupt();
@@ -54,6 +74,13 @@ public class ControlChannel {
     return result;
   }
 
+  /**
+   * Waits up to the given timeout for a message to the producer, returns null if none arrived.
+   */
+  public Message takeProducerMessage(long timeout, TimeUnit unit) throws InterruptedException {
+    return producerQueue.poll(timeout, unit);
+  }
+
   public List<Message> getConsumerMessages() {
     List<Message> result = new ArrayList<>();
     consumerQueue.drainTo(result);
@@ -74,6 +101,7 @@ public class ControlChannel {
     LOG.trace("Producer Error: {}", throwable, throwable);
     try {
       consumerQueue.put(new Message(MessageType.PRODUCER_ERROR, throwable));
+      notifyConsumer();
     } catch (InterruptedException e) {
       LOG.info("Interrupted while queuing '{}': {}", MessageType.PRODUCER_ERROR.name(), throwable, throwable);
       Thread.currentThread().interrupt();
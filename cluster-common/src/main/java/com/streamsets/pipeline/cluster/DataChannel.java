@@ -19,25 +19,83 @@
  */
 package com.streamsets.pipeline.cluster;
 
+import com.streamsets.pipeline.api.impl.Utils;
 import com.streamsets.pipeline.impl.OffsetAndResult;
 
 import java.util.Map;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
- * Implements a uni-directional data flow from producer to consumer.
+ * Implements a uni-directional data flow from producer to consumer. The channel holds the one batch
+ * the producer has outstanding with the consumer. A waiting consumer can be woken up without data,
+ * to process control messages.
  */
 public class DataChannel {
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition notEmpty = lock.newCondition();
+  private OffsetAndResult<Map.Entry> batch;
+  private boolean wakeUp;
 
-  private final BlockingQueue<OffsetAndResult<Map.Entry>> dataQueue = new ArrayBlockingQueue<>(1);
-
-  public boolean offer(OffsetAndResult<Map.Entry> batch, long timeout, TimeUnit unit) throws InterruptedException {
-    return dataQueue.offer(batch, timeout, unit);
+  /**
+   * Hands the batch to the consumer, returns false if the channel still holds a batch.
+   */
+  public boolean offer(OffsetAndResult<Map.Entry> batch) throws InterruptedException {
+    Utils.checkNotNull(batch, "batch");
+    lock.lockInterruptibly();
+    try {
+      if (this.batch != null) {
+        return false;
+      }
+      this.batch = batch;
+      notEmpty.signal();
+      return true;
+    } finally {
+      lock.unlock();
+    }
   }
 
+  /**
+   * Returns the next batch, or null if none arrived before the timeout or the consumer was woken up.
+   */
   public OffsetAndResult<Map.Entry> take(long timeout, TimeUnit unit) throws InterruptedException {
-    return dataQueue.poll(timeout, unit);
+    long nanos = unit.toNanos(timeout);
+    lock.lockInterruptibly();
+    try {
+      while (batch == null && !wakeUp && nanos > 0) {
+        nanos = notEmpty.awaitNanos(nanos);
+      }
+      OffsetAndResult<Map.Entry> result = batch;
+      batch = null;
+      return result;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Makes a pending or the next call to take return immediately, until cleared.
+   */
+  public void wakeUp() {
+    lock.lock();
+    try {
+      wakeUp = true;
+      notEmpty.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Clears a wake up. To not miss any, call it before checking for the reason of the wake up.
+   */
+  public void clearWakeUp() {
+    lock.lock();
+    try {
+      wakeUp = false;
+    } finally {
+      lock.unlock();
+    }
   }
 }
@@ -33,6 +33,8 @@ import java.util.concurrent.TimeUnit;
  */
 public class Producer {
   private static final Logger LOG = LoggerFactory.getLogger(Producer.class);
+  // commits and errors wake the producer up, the timeout only bounds each wait
+  private static final long CONTROL_MESSAGE_WAIT_SECS = 1;
   private final ControlChannel controlChannel;
   private final DataChannel dataChannel;
   private volatile Throwable consumerError;
@@ -56,7 +58,7 @@ public class Producer {
    * control messages from the consumer. Throws an exception
    * when the consumer has indicated it encountered an error.
    */
-  public void put(OffsetAndResult<Map.Entry> batch) throws InterruptedException {
+  public synchronized void put(OffsetAndResult<Map.Entry> batch) throws InterruptedException {
     if (consumerError != null) {
       throw new RuntimeException(Utils.format("Consumer encountered error: {}", consumerError), consumerError);
     }
@@ -68,40 +70,18 @@ public class Producer {
       if (!batch.getResult().isEmpty()) {
         expectedOffset = batch.getResult().get(batch.getResult().size() - 1).getKey(); // get the last one
       }
-      while (!dataChannel.offer(batch, 10, TimeUnit.MILLISECONDS)) {
-        for (ControlChannel.Message controlMessage : controlChannel.getProducerMessages()) {
-          switch (controlMessage.getType()) {
-            case CONSUMER_ERROR:
-              Throwable throwable = (Throwable) controlMessage.getPayload();
-              consumerError = throwable;
-              throw new ConsumerRuntimeException(Utils.format("Consumer encountered error: {}", throwable), throwable);
-            default:
-              String msg = Utils.format("Illegal control message type: '{}'", controlMessage.getType());
-              throw new IllegalStateException(msg);
-          }
-        }
+      // the previous batch was committed before its put returned, so the channel is empty
+      if (!dataChannel.offer(batch)) {
+        throw new IllegalStateException("Data channel still holds the previous batch");
       }
       // now wait for offset commit
-      while (true) {
-        for (ControlChannel.Message controlMessage : controlChannel.getProducerMessages()) {
-          switch (controlMessage.getType()) {
-            case CONSUMER_COMMIT:
-              if (!controlMessage.getPayload().equals(expectedOffset)) {
-                LOG.warn("Expected offset: '{}' and found: '{}'", expectedOffset, controlMessage.getPayload());
-              } else if (LOG.isTraceEnabled()) {
-                LOG.trace("Commit of: '{}'", controlMessage.getPayload());
-              }
-              return;
-            case CONSUMER_ERROR:
-              Throwable throwable = (Throwable) controlMessage.getPayload();
-              consumerError = throwable;
-              throw new ConsumerRuntimeException(Utils.format("Consumer encountered error: {}", throwable), throwable);
-            default:
-              throw new IllegalStateException(Utils.format("Illegal control message type: '{}'",
-                controlMessage.getType()));
-          }
+      boolean committed = false;
+      while (!committed) {
+        ControlChannel.Message controlMessage =
+          controlChannel.takeProducerMessage(CONTROL_MESSAGE_WAIT_SECS, TimeUnit.SECONDS);
+        if (controlMessage != null) {
+          committed = handleControlMessage(controlMessage, expectedOffset);
         }
-        TimeUnit.MILLISECONDS.sleep(10);
       }
     } catch (Throwable throwable) {
       controlChannel.producerComplete();
@@ -117,6 +97,25 @@ public class Producer {
     }
   }
 
+  private boolean handleControlMessage(ControlChannel.Message controlMessage, Object expectedOffset) {
+    switch (controlMessage.getType()) {
+      case CONSUMER_COMMIT:
+        if (!controlMessage.getPayload().equals(expectedOffset)) {
+          LOG.warn("Expected offset: '{}' and found: '{}'", expectedOffset, controlMessage.getPayload());
+        } else if (LOG.isTraceEnabled()) {
+          LOG.trace("Commit of: '{}'", controlMessage.getPayload());
+        }
+        return true;
+      case CONSUMER_ERROR:
+        Throwable throwable = (Throwable) controlMessage.getPayload();
+        consumerError = throwable;
+        throw new ConsumerRuntimeException(Utils.format("Consumer encountered error: {}", throwable), throwable);
+      default:
+        throw new IllegalStateException(Utils.format("Illegal control message type: '{}'",
+          controlMessage.getType()));
+    }
+  }
+
   public boolean inErrorState() {
     return consumerError != null || producerError != null;
   }
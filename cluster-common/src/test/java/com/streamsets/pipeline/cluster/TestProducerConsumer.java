@@ -121,6 +121,20 @@ public class TestProducerConsumer {
     Assert.assertSame(producerError, getError(take(true)));
   }
 
+  @Test(timeout = 5000)
+  public void testProducerErrorWakesUpWaitingConsumer() throws Exception {
+    Future<List<Map.Entry>> takeFuture = take(false);
+    RuntimeException producerError = new RuntimeException();
+    controlChannel.producerError(producerError);
+    try {
+      // well below the consumer wait timeout
+      takeFuture.get(500, TimeUnit.MILLISECONDS);
+      Assert.fail("Take should fail with the producer error");
+    } catch (ExecutionException ex) {
+      Assert.assertSame(producerError, ex.getCause().getCause());
+    }
+  }
+
   private Throwable getError(Future future) throws InterruptedException {
     try {
       future.get();
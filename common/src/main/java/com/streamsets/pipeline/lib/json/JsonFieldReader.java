@@ -0,0 +1,133 @@
+/**
+ * Copyright 2016 StreamSets Inc.
+ *
+ * Licensed under the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.json;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.impl.Utils;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds a {@link Field} straight from the Jackson token stream, without materializing the JSON value as
+ * <code>Map</code>/<code>List</code> objects first.
+ * <p/>
+ * Map keys come from Jackson's symbol table, which canonicalizes (and by default interns) field names, so repeated
+ * keys across documents share the same <code>String</code> instance.
+ * <p/>
+ * Subclasses can enforce limits while the value is being built by overriding {@link #onValueRead(JsonParser)}.
+ */
+public class JsonFieldReader {
+
+  /**
+   * Reads the JSON value starting at the current token of the parser, advancing to the first token if the parser
+   * has not been started. On return the current token of the parser is the last token of the value.
+   *
+   * @return the value as a <code>Field</code>, <code>null</code> if the parser has no more tokens.
+   */
+  public Field read(JsonParser parser) throws IOException {
+    JsonToken token = parser.getCurrentToken();
+    if (token == null) {
+      token = parser.nextToken();
+      if (token == null) {
+        return null;
+      }
+    }
+    return readValue(parser, token);
+  }
+
+  /**
+   * Called every time a value has been added to a map or a list.
+   */
+  protected void onValueRead(JsonParser parser) throws IOException {
+  }
+
+  private Field readValue(JsonParser parser, JsonToken token) throws IOException {
+    if (token == null) {
+      throw new JsonParseException("Unexpected end-of-input", parser.getCurrentLocation());
+    }
+    Field field;
+    switch (token) {
+      case START_OBJECT:
+        Map<String, Field> map = new LinkedHashMap<>();
+        while ((token = parser.nextToken()) != JsonToken.END_OBJECT) {
+          if (token != JsonToken.FIELD_NAME) {
+            throw unexpectedToken(parser, token);
+          }
+          String name = parser.getCurrentName();
+          map.put(name, readValue(parser, parser.nextToken()));
+          onValueRead(parser);
+        }
+        field = Field.create(map);
+        break;
+      case START_ARRAY:
+        List<Field> list = new ArrayList<>();
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+          list.add(readValue(parser, token));
+          onValueRead(parser);
+        }
+        field = Field.create(list);
+        break;
+      case VALUE_STRING:
+        field = Field.create(parser.getText());
+        break;
+      case VALUE_NUMBER_INT:
+        switch (parser.getNumberType()) {
+          case INT:
+            field = Field.create(parser.getIntValue());
+            break;
+          case LONG:
+            field = Field.create(parser.getLongValue());
+            break;
+          default:
+            field = Field.create(new BigDecimal(parser.getBigIntegerValue()));
+            break;
+        }
+        break;
+      case VALUE_NUMBER_FLOAT:
+        field = Field.create(parser.getDoubleValue());
+        break;
+      case VALUE_TRUE:
+        field = Field.create(true);
+        break;
+      case VALUE_FALSE:
+        field = Field.create(false);
+        break;
+      case VALUE_NULL:
+        field = Field.create(Field.Type.STRING, null);
+        break;
+      default:
+        throw unexpectedToken(parser, token);
+    }
+    return field;
+  }
+
+  private static JsonParseException unexpectedToken(JsonParser parser, JsonToken token) {
+    return new JsonParseException(Utils.format("Unexpected token '{}'", token), parser.getTokenLocation());
+  }
+
+}
@@ -179,6 +179,16 @@ public class OverrunStreamingJsonParser extends StreamingJsonParser {
     return OBJECT_MAPPER;
   }
 
+  @Override
+  protected JsonFieldReader createFieldReader() {
+    return new JsonFieldReader() {
+      @Override
+      protected void onValueRead(JsonParser parser) throws IOException {
+        checkLength();
+      }
+    };
+  }
+
   @Override
   protected Object readObjectFromArray() throws IOException {
     Utils.checkState(!overrun, "The underlying input stream had an overrun, the parser is not usable anymore");
@@ -189,7 +199,7 @@ public class OverrunStreamingJsonParser extends StreamingJsonParser {
       TL.set(this);
       return super.readObjectFromArray();
     } catch (Exception ex) {
-      ObjectLengthException olex = ExceptionUtils.findSpecificCause(ex, ObjectLengthException.class);
+      ObjectLengthException olex = findCause(ex, ObjectLengthException.class);
       if (olex != null) {
         JsonParser parser = getJsonParser();
         JsonToken token = parser.getCurrentToken();
@@ -201,7 +211,7 @@ public class OverrunStreamingJsonParser extends StreamingJsonParser {
         }
         throw olex;
       } else {
-        OverrunException oex = ExceptionUtils.findSpecificCause(ex, OverrunException.class);
+        OverrunException oex = findCause(ex, OverrunException.class);
         if (oex != null) {
           overrun = true;
           throw oex;
@@ -222,12 +232,12 @@ public class OverrunStreamingJsonParser extends StreamingJsonParser {
       TL.set(this);
       return super.readObjectFromStream();
     } catch (Exception ex) {
-      ObjectLengthException olex = ExceptionUtils.findSpecificCause(ex, ObjectLengthException.class);
+      ObjectLengthException olex = findCause(ex, ObjectLengthException.class);
       if (olex != null) {
         fastForwardToNextRootObject();
         throw olex;
       } else {
-        OverrunException oex = ExceptionUtils.findSpecificCause(ex, OverrunException.class);
+        OverrunException oex = findCause(ex, OverrunException.class);
         if (oex != null) {
           overrun = true;
           throw oex;
@@ -239,15 +249,26 @@ public class OverrunStreamingJsonParser extends StreamingJsonParser {
     }
   }
 
-  private static void checkIfLengthExceededForObjectRead(Object json) {
-    OverrunStreamingJsonParser enforcer = TL.get();
-    if (enforcer.maxObjectLen > -1) {
-      if (enforcer.getJsonParser().getCurrentLocation().getCharOffset() > enforcer.limitOffset) {
-        ExceptionUtils.throwUndeclared(new ObjectLengthException(Utils.format(
-            "JSON Object at offset '{}' exceeds max length '{}'", enforcer.startOffset, enforcer.maxObjectLen),
-                                                                 enforcer.startOffset));
+  // the field reader throws directly, the Map/List path gets the exception wrapped by Jackson
+  private static <E extends Throwable> E findCause(Exception ex, Class<E> causeClass) {
+    return (causeClass.isInstance(ex)) ? causeClass.cast(ex) : ExceptionUtils.findSpecificCause(ex, causeClass);
+  }
+
+  private void checkLength() throws ObjectLengthException {
+    if (maxObjectLen > -1) {
+      if (getJsonParser().getCurrentLocation().getCharOffset() > limitOffset) {
+        throw new ObjectLengthException(Utils.format("JSON Object at offset '{}' exceeds max length '{}'", startOffset,
+            maxObjectLen), startOffset);
       }
     }
   }
 
+  private static void checkIfLengthExceededForObjectRead(Object json) {
+    try {
+      TL.get().checkLength();
+    } catch (ObjectLengthException ex) {
+      ExceptionUtils.throwUndeclared(ex);
+    }
+  }
+
 }
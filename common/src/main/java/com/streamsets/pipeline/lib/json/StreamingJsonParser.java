@@ -26,6 +26,7 @@ import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
 import com.google.common.base.Preconditions;
+import com.streamsets.pipeline.api.Field;
 import com.streamsets.pipeline.api.impl.Utils;
 import com.streamsets.pipeline.lib.io.OverrunException;
 import org.apache.commons.io.IOUtils;
@@ -51,6 +52,8 @@ public class StreamingJsonParser {
   private long posCorrection;
   private boolean closed;
   private Byte firstNonSpaceChar;
+  private JsonFieldReader fieldReader;
+  private boolean readingField;
 
   protected ObjectMapper getObjectMapper() {
     return OBJECT_MAPPER;
@@ -102,6 +105,13 @@ public class StreamingJsonParser {
   protected void fastForwardLeaseReader() {
   }
 
+  /**
+   * Returns the reader used by {@link #readField()}, subclasses may return a reader enforcing limits.
+   */
+  protected JsonFieldReader createFieldReader() {
+    return new JsonFieldReader();
+  }
+
   protected Reader getReader() {
     return reader;
   }
@@ -130,7 +140,7 @@ public class StreamingJsonParser {
     JsonToken token = jsonParser.nextToken();
     if (token != null) {
       if (token != JsonToken.END_ARRAY) {
-        value = jsonParser.readValueAs(Object.class);
+        value = readValue(Object.class);
       }
     }
     return value;
@@ -150,7 +160,7 @@ public class StreamingJsonParser {
       nextToken = jsonParser.nextToken();
     }
     if (nextToken != null) {
-      value = jsonParser.readValueAs(getExpectedClass());
+      value = readValue(getExpectedClass());
       nextToken = jsonParser.nextToken();
       if (nextToken == null) {
         // if we reached the EOF Jackson JSON parser keeps the as getTokenLocation() the location of the last token,
@@ -161,6 +171,14 @@ public class StreamingJsonParser {
     return value;
   }
 
+  private Object readValue(Class expectedClass) throws IOException {
+    if (readingField) {
+      // a top-level null reads as no value, as it does with readValueAs(), callers take it as the end of the data
+      return (jsonParser.getCurrentToken() == JsonToken.VALUE_NULL) ? null : fieldReader.read(jsonParser);
+    }
+    return jsonParser.readValueAs(expectedClass);
+  }
+
   protected void fastForwardToNextRootObject() throws IOException {
     Preconditions.checkState(mode == Mode.MULTIPLE_OBJECTS, "Parser must be in MULTIPLE_OBJECT mode");
     JsonToken token = jsonParser.getCurrentToken();
@@ -208,6 +226,24 @@ public class StreamingJsonParser {
     }
   }
 
+  /**
+   * Reads the next JSON value as a <code>Field</code>, building it directly from the token stream instead of going
+   * through the <code>Map</code>/<code>List</code> representation returned by {@link #read()}.
+   *
+   * @return the next value, <code>null</code> if there are no more values.
+   */
+  public Field readField() throws IOException {
+    if (fieldReader == null) {
+      fieldReader = createFieldReader();
+    }
+    readingField = true;
+    try {
+      return (Field) read();
+    } finally {
+      readingField = false;
+    }
+  }
+
   public void close() throws IOException {
     closed = true;
     jsonParser.close();
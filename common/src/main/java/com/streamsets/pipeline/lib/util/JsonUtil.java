@@ -19,12 +19,14 @@
  */
 package com.streamsets.pipeline.lib.util;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.streamsets.pipeline.api.Field;
 import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.StageException;
 import com.streamsets.pipeline.api.impl.Utils;
+import com.streamsets.pipeline.lib.json.JsonFieldReader;
 
 import java.io.IOException;
 import java.math.BigDecimal;
@@ -41,6 +43,7 @@ public class JsonUtil {
   private JsonUtil() {}
 
   private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+  private static final JsonFieldReader FIELD_READER = new JsonFieldReader();
 
   public static Field jsonToField(Object json) throws IOException {
     Field field;
@@ -161,12 +164,30 @@ public class JsonUtil {
 
   public static Field bytesToField(byte[] bytes) throws StageException {
     try {
-      return jsonToField(OBJECT_MAPPER.readValue(bytes, Object.class));
+      try (JsonParser parser = OBJECT_MAPPER.getFactory().createParser(bytes)) {
+        return readField(parser);
+      }
     } catch (Exception e) {
       throw new StageException(CommonError.CMN_0101, new String(bytes, StandardCharsets.UTF_8), e.toString(), e);
     }
   }
 
+  public static Field stringToField(String json) throws StageException {
+    try (JsonParser parser = OBJECT_MAPPER.getFactory().createParser(json)) {
+      return readField(parser);
+    } catch (Exception e) {
+      throw new StageException(CommonError.CMN_0101, json, e.toString(), e);
+    }
+  }
+
+  private static Field readField(JsonParser parser) throws IOException {
+    Field field = FIELD_READER.read(parser);
+    if (field == null) {
+      throw new IOException("No content to parse");
+    }
+    return field;
+  }
+
   public static boolean isJSONValid(String jsonString) {
     try {
       OBJECT_MAPPER.readTree(jsonString);
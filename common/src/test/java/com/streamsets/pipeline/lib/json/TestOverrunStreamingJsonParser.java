@@ -21,6 +21,7 @@ package com.streamsets.pipeline.lib.json;
 
 import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableList;
+import com.streamsets.pipeline.api.Field;
 import com.streamsets.pipeline.lib.io.CountingReader;
 import com.streamsets.pipeline.lib.io.ObjectLengthException;
 import com.streamsets.pipeline.lib.io.OverrunException;
@@ -96,6 +97,46 @@ public class TestOverrunStreamingJsonParser {
     Assert.assertEquals(ImmutableList.of("b", "B"), a2);
   }
 
+  @Test
+  public void testReadFieldArrayOfObjects() throws Exception {
+    StreamingJsonParser parser = new OverrunStreamingJsonParser(
+        getJsonReader("TestOverrunStreamingJsonParser-arrayOfObjects.json"), StreamingJsonParser.Mode.ARRAY_OBJECTS,
+        50);
+    Field a1 = parser.readField();
+    Assert.assertNotNull(a1);
+    try {
+      parser.readField();
+      Assert.fail();
+    } catch (ObjectLengthException ex) {
+      //NOP
+    }
+    Field a2 = parser.readField();
+    Assert.assertNotNull(a2);
+    Assert.assertNull(parser.readField());
+    Assert.assertEquals(ImmutableList.of(Field.create("a"), Field.create("A")), a1.getValueAsList());
+    Assert.assertEquals(ImmutableList.of(Field.create("b"), Field.create("B")), a2.getValueAsList());
+  }
+
+  @Test
+  public void testReadFieldMultipleObjects() throws Exception {
+    StreamingJsonParser parser = new OverrunStreamingJsonParser(
+        getJsonReader("TestOverrunStreamingJsonParser-multipleObjects.json"), StreamingJsonParser.Mode.MULTIPLE_OBJECTS,
+        50);
+    Field a1 = parser.readField();
+    Assert.assertNotNull(a1);
+    try {
+      parser.readField();
+      Assert.fail();
+    } catch (ObjectLengthException ex) {
+      //NOP
+    }
+    Field a2 = parser.readField();
+    Assert.assertNotNull(a2);
+    Assert.assertNull(parser.readField());
+    Assert.assertEquals(ImmutableList.of(Field.create("a"), Field.create("A")), a1.getValueAsList());
+    Assert.assertEquals(ImmutableList.of(Field.create("b"), Field.create("B")), a2.getValueAsList());
+  }
+
   // Stream level overrun, Array
 
   public void testStreamLevelOverrunArray(boolean attemptNextRead) throws Exception {
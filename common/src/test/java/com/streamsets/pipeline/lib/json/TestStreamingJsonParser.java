@@ -21,6 +21,7 @@ package com.streamsets.pipeline.lib.json;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.streamsets.pipeline.api.Field;
 import com.streamsets.pipeline.lib.io.OverrunException;
 import com.streamsets.pipeline.lib.io.OverrunInputStream;
 import org.junit.Assert;
@@ -30,6 +31,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.io.StringReader;
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Map;
 
@@ -250,4 +253,58 @@ public class TestStreamingJsonParser {
     Assert.assertNull((Map) parser.read());
   }
 
+  // Fields
+
+  @Test
+  public void testReadFieldArrayOfMaps() throws Exception {
+    StreamingJsonParser parser = new StreamingJsonParser(getJsonReader("TestStreamingJsonParser-arrayOfMaps.json"),
+                                                         StreamingJsonParser.Mode.ARRAY_OBJECTS);
+    Field f1 = parser.readField();
+    Assert.assertNotNull(f1);
+    Field f2 = parser.readField();
+    Assert.assertNotNull(f2);
+    Assert.assertNull(parser.readField());
+    Assert.assertEquals(Field.Type.MAP, f1.getType());
+    Assert.assertEquals("A", f1.getValueAsMap().get("a").getValueAsString());
+    Assert.assertEquals("B", f2.getValueAsMap().get("b").getValueAsString());
+  }
+
+  @Test
+  public void testReadFieldMultipleObjects() throws Exception {
+    String json = "{\"s\":\"x\",\"i\":1,\"l\":10000000000,\"b\":12345678901234567890,\"d\":1.5," +
+        "\"t\":true,\"n\":null,\"a\":[1,[\"x\"],{}]}\n[\"b\"]";
+    StreamingJsonParser parser = new StreamingJsonParser(new StringReader(json),
+                                                         StreamingJsonParser.Mode.MULTIPLE_OBJECTS);
+    Map<String, Field> map = parser.readField().getValueAsMap();
+    Assert.assertEquals(ImmutableList.of("s", "i", "l", "b", "d", "t", "n", "a"), ImmutableList.copyOf(map.keySet()));
+    Assert.assertEquals(Field.create("x"), map.get("s"));
+    Assert.assertEquals(Field.create(1), map.get("i"));
+    Assert.assertEquals(Field.create(10000000000L), map.get("l"));
+    Assert.assertEquals(Field.create(new BigDecimal("12345678901234567890")), map.get("b"));
+    Assert.assertEquals(Field.create(1.5d), map.get("d"));
+    Assert.assertEquals(Field.create(true), map.get("t"));
+    Assert.assertEquals(Field.create(Field.Type.STRING, null), map.get("n"));
+    List<Field> list = map.get("a").getValueAsList();
+    Assert.assertEquals(3, list.size());
+    Assert.assertEquals(Field.create(1), list.get(0));
+    Assert.assertEquals(ImmutableList.of(Field.create("x")), list.get(1).getValueAsList());
+    Assert.assertTrue(list.get(2).getValueAsMap().isEmpty());
+
+    // the map and list readers can be mixed on the same stream
+    Assert.assertEquals(ImmutableList.of("b"), parser.read());
+    Assert.assertNull(parser.readField());
+  }
+
+  @Test
+  public void testReadFieldTopLevelNull() throws Exception {
+    // same as read(), a null document is returned as no value
+    StreamingJsonParser parser = new StreamingJsonParser(new StringReader("{\"a\":null}\nnull"),
+                                                         StreamingJsonParser.Mode.MULTIPLE_OBJECTS);
+    Assert.assertEquals(Field.create(Field.Type.STRING, null), parser.readField().getValueAsMap().get("a"));
+    Assert.assertNull(parser.readField());
+
+    parser = new StreamingJsonParser(new StringReader("[null]"), StreamingJsonParser.Mode.ARRAY_OBJECTS);
+    Assert.assertNull(parser.readField());
+  }
+
 }
@@ -0,0 +1,59 @@
+/**
+ * Copyright 2016 StreamSets Inc.
+ *
+ * Licensed under the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.processor.scripting;
+
+import com.streamsets.pipeline.api.Field;
+
+/**
+ * Value of a {@link ScriptFieldView} the script has not replaced, converted to a script object on first access.
+ */
+final class FieldSlot {
+  private final ScriptObjectFactory factory;
+  private final Field field;
+  private Object value;
+  private boolean converted;
+
+  FieldSlot(ScriptObjectFactory factory, Field field) {
+    this.factory = factory;
+    this.field = field;
+  }
+
+  Object get() {
+    if (!converted) {
+      value = factory.fieldToScriptView(field);
+      converted = true;
+    }
+    return value;
+  }
+
+  boolean isModified() {
+    return converted && value instanceof ScriptFieldView && ((ScriptFieldView) value).isModified();
+  }
+
+  // primitive values are either immutable or the very same object held by the field, they cannot change in place
+  Field toField() {
+    return (isModified()) ? ((ScriptFieldView) value).toField() : field;
+  }
+
+  static Object get(Object value) {
+    return (value instanceof FieldSlot) ? ((FieldSlot) value).get() : value;
+  }
+
+}
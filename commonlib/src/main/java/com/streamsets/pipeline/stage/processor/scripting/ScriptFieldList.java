@@ -0,0 +1,104 @@
+/**
+ * Copyright 2016 StreamSets Inc.
+ *
+ * Licensed under the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.processor.scripting;
+
+import com.streamsets.pipeline.api.Field;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Script list view of a LIST field.
+ */
+class ScriptFieldList extends AbstractList<Object> implements ScriptFieldView, RandomAccess {
+  private final ScriptObjectFactory factory;
+  private final Field field;
+  // FieldSlots for the original elements, script objects for the elements set by the script
+  private final List<Object> values;
+  private boolean modified;
+
+  ScriptFieldList(ScriptObjectFactory factory, Field field) {
+    this.factory = factory;
+    this.field = field;
+    List<Field> fields = field.getValueAsList();
+    values = new ArrayList<>(fields.size());
+    for (Field element : fields) {
+      values.add(new FieldSlot(factory, element));
+    }
+  }
+
+  @Override
+  public int size() {
+    return values.size();
+  }
+
+  @Override
+  public Object get(int index) {
+    return FieldSlot.get(values.get(index));
+  }
+
+  @Override
+  public Object set(int index, Object element) {
+    modified = true;
+    return FieldSlot.get(values.set(index, element));
+  }
+
+  @Override
+  public void add(int index, Object element) {
+    modified = true;
+    modCount++;
+    values.add(index, element);
+  }
+
+  @Override
+  public Object remove(int index) {
+    modified = true;
+    modCount++;
+    return FieldSlot.get(values.remove(index));
+  }
+
+  @Override
+  public boolean isModified() {
+    if (modified) {
+      return true;
+    }
+    for (Object value : values) {
+      if (((FieldSlot) value).isModified()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public Field toField() {
+    if (!isModified()) {
+      return field;
+    }
+    List<Field> fields = new ArrayList<>(values.size());
+    for (Object value : values) {
+      fields.add((value instanceof FieldSlot) ? ((FieldSlot) value).toField() : factory.scriptToField(value));
+    }
+    return Field.create(fields);
+  }
+
+}
@@ -0,0 +1,170 @@
+/**
+ * Copyright 2016 StreamSets Inc.
+ *
+ * Licensed under the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.processor.scripting;
+
+import com.streamsets.pipeline.api.Field;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Script map view of a MAP or LIST_MAP field.
+ */
+class ScriptFieldMap extends AbstractMap<String, Object> implements ScriptFieldView, ScriptObjectFactory.MapInfo {
+  private final ScriptObjectFactory factory;
+  private final Field field;
+  // FieldSlots for the original values, script objects for the values set by the script
+  private final LinkedHashMap<String, Object> values;
+  private boolean modified;
+
+  @SuppressWarnings("unchecked")
+  ScriptFieldMap(ScriptObjectFactory factory, Field field) {
+    this.factory = factory;
+    this.field = field;
+    values = new LinkedHashMap<>();
+    for (Map.Entry<String, Field> entry : ((Map<String, Field>) field.getValue()).entrySet()) {
+      values.put(entry.getKey(), new FieldSlot(factory, entry.getValue()));
+    }
+  }
+
+  @Override
+  public boolean isListMap() {
+    return field.getType() == Field.Type.LIST_MAP;
+  }
+
+  @Override
+  public int size() {
+    return values.size();
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return values.containsKey(key);
+  }
+
+  @Override
+  public Object get(Object key) {
+    return FieldSlot.get(values.get(key));
+  }
+
+  @Override
+  public Object put(String key, Object value) {
+    modified = true;
+    return FieldSlot.get(values.put(key, value));
+  }
+
+  @Override
+  public Object remove(Object key) {
+    if (!values.containsKey(key)) {
+      return null;
+    }
+    modified = true;
+    return FieldSlot.get(values.remove(key));
+  }
+
+  @Override
+  public void clear() {
+    modified = true;
+    values.clear();
+  }
+
+  @Override
+  public Set<Entry<String, Object>> entrySet() {
+    return new AbstractSet<Entry<String, Object>>() {
+      @Override
+      public int size() {
+        return values.size();
+      }
+
+      @Override
+      public Iterator<Entry<String, Object>> iterator() {
+        final Iterator<Entry<String, Object>> iterator = values.entrySet().iterator();
+        return new Iterator<Entry<String, Object>>() {
+          @Override
+          public boolean hasNext() {
+            return iterator.hasNext();
+          }
+
+          @Override
+          public Entry<String, Object> next() {
+            final Entry<String, Object> entry = iterator.next();
+            return new Entry<String, Object>() {
+              @Override
+              public String getKey() {
+                return entry.getKey();
+              }
+
+              @Override
+              public Object getValue() {
+                return FieldSlot.get(entry.getValue());
+              }
+
+              @Override
+              public Object setValue(Object value) {
+                modified = true;
+                return FieldSlot.get(entry.setValue(value));
+              }
+            };
+          }
+
+          @Override
+          public void remove() {
+            modified = true;
+            iterator.remove();
+          }
+        };
+      }
+    };
+  }
+
+  @Override
+  public boolean isModified() {
+    if (modified) {
+      return true;
+    }
+    for (Object value : values.values()) {
+      if (((FieldSlot) value).isModified()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public Field toField() {
+    if (!isModified()) {
+      return field;
+    }
+    LinkedHashMap<String, Field> fields = new LinkedHashMap<>();
+    for (Map.Entry<String, Object> entry : values.entrySet()) {
+      Object value = entry.getValue();
+      fields.put(
+          entry.getKey(),
+          (value instanceof FieldSlot) ? ((FieldSlot) value).toField() : factory.scriptToField(value)
+      );
+    }
+    return (isListMap()) ? Field.createListMap(fields) : Field.create(fields);
+  }
+
+}
@@ -41,11 +41,38 @@ public class ScriptObjectFactory {
   public ScriptRecord createScriptRecord(Record record) {
     Object scriptValue = null;
     if (record.get() != null) {
-      scriptValue = fieldToScript(record.get());
+      scriptValue = (isFieldViewSupported()) ? fieldToScriptView(record.get()) : fieldToScript(record.get());
     }
     return new ScriptRecord(record, scriptValue);
   }
 
+  /**
+   * Indicates if records can be handed to scripts as Java maps and lists backed by the record fields, converting
+   * fields only when the script accesses them. Factories using script native maps and arrays must return false.
+   */
+  protected boolean isFieldViewSupported() {
+    return true;
+  }
+
+  protected static boolean isFieldView(Object scriptObject) {
+    return scriptObject instanceof ScriptFieldView;
+  }
+
+  Object fieldToScriptView(Field field) {
+    if (field != null && field.getValue() != null) {
+      switch (field.getType()) {
+        case MAP:
+        case LIST_MAP:
+          return new ScriptFieldMap(this, field);
+        case LIST:
+          return new ScriptFieldList(this, field);
+        default:
+          break;
+      }
+    }
+    return fieldToScript(field);
+  }
+
   @SuppressWarnings("unchecked")
   public Record getRecord(ScriptRecord scriptRecord) {
     Record record = scriptRecord.record;
@@ -123,7 +150,9 @@ public class ScriptObjectFactory {
   protected Field scriptToField(Object scriptObject) {
     Field field;
     if (scriptObject != null) {
-      if (scriptObject instanceof Map) {
+      if (isFieldView(scriptObject)) {
+        field = ((ScriptFieldView) scriptObject).toField();
+      } else if (scriptObject instanceof Map) {
         Map<String, Object> scriptMap = (Map<String, Object>) scriptObject;
         LinkedHashMap<String, Field> fieldMap = new LinkedHashMap<>();
         for (Map.Entry<String, Object> entry : scriptMap.entrySet()) {
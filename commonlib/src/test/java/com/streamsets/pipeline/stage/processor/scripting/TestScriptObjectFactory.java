@@ -0,0 +1,101 @@
+/**
+ * Copyright 2016 StreamSets Inc.
+ *
+ * Licensed under the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.processor.scripting;
+
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.sdk.RecordCreator;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class TestScriptObjectFactory {
+
+  private static Record createRecord() {
+    List<Field> list = new ArrayList<>();
+    list.add(Field.create(1));
+    list.add(Field.create(2));
+    LinkedHashMap<String, Field> nested = new LinkedHashMap<>();
+    nested.put("list", Field.create(list));
+    LinkedHashMap<String, Field> root = new LinkedHashMap<>();
+    root.put("a", Field.create("A"));
+    root.put("nested", Field.createListMap(nested));
+    Record record = RecordCreator.create();
+    record.set(Field.create(root));
+    return record;
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testUnmodifiedRecordKeepsFields() {
+    ScriptObjectFactory factory = new ScriptObjectFactory(null);
+    Record record = createRecord();
+    Field root = record.get();
+    ScriptRecord scriptRecord = factory.createScriptRecord(record);
+    Map<String, Object> map = (Map<String, Object>) scriptRecord.value;
+    Assert.assertEquals("A", map.get("a"));
+    Map<String, Object> nested = (Map<String, Object>) map.get("nested");
+    Assert.assertTrue(((ScriptObjectFactory.MapInfo) nested).isListMap());
+    Assert.assertEquals(2, ((List<Object>) nested.get("list")).get(1));
+    Assert.assertSame(root, factory.getRecord(scriptRecord).get());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testModifiedRecordRebuildsModifiedPath() {
+    ScriptObjectFactory factory = new ScriptObjectFactory(null);
+    Record record = createRecord();
+    Field root = record.get();
+    Field a = root.getValueAsMap().get("a");
+    ScriptRecord scriptRecord = factory.createScriptRecord(record);
+    Map<String, Object> map = (Map<String, Object>) scriptRecord.value;
+    Map<String, Object> nested = (Map<String, Object>) map.get("nested");
+    ((List<Object>) nested.get("list")).add(3);
+    nested.put("b", "B");
+
+    Record out = factory.getRecord(scriptRecord);
+    Assert.assertNotSame(root, out.get());
+    Assert.assertSame(a, out.get("/a"));
+    Assert.assertEquals(Field.Type.LIST_MAP, out.get("/nested").getType());
+    Assert.assertEquals(3, out.get("/nested/list").getValueAsList().size());
+    Assert.assertEquals(3, out.get("/nested/list[2]").getValue());
+    Assert.assertEquals("B", out.get("/nested/b").getValue());
+
+    // the original fields are not modified
+    Assert.assertEquals(2, root.getValueAsMap().get("nested").getValueAsListMap().get("list").getValueAsList().size());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testRemoveThroughIterator() {
+    ScriptObjectFactory factory = new ScriptObjectFactory(null);
+    ScriptRecord scriptRecord = factory.createScriptRecord(createRecord());
+    Map<String, Object> map = (Map<String, Object>) scriptRecord.value;
+    map.keySet().remove("a");
+    Record out = factory.getRecord(scriptRecord);
+    Assert.assertFalse(out.has("/a"));
+    Assert.assertTrue(out.has("/nested"));
+  }
+
+}
@@ -31,6 +31,7 @@ public class HistogramJson {
   private long p99;
   private long p999;
   private long stddev;
+  private String histogram;
 
   public HistogramJson() {
 
@@ -80,6 +81,10 @@ public class HistogramJson {
     return stddev;
   }
 
+  public String getHistogram() {
+    return histogram;
+  }
+
   public void setCount(long count) {
     this.count = count;
   }
@@ -123,4 +128,8 @@ public class HistogramJson {
   public void setStddev(long stddev) {
     this.stddev = stddev;
   }
+
+  public void setHistogram(String histogram) {
+    this.histogram = histogram;
+  }
 }
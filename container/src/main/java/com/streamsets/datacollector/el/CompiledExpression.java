@@ -0,0 +1,390 @@
+/**
+ * Copyright 2016 StreamSets Inc.
+ *
+ * Licensed under the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.el;
+
+import org.apache.commons.el.BinaryOperator;
+import org.apache.commons.el.BinaryOperatorExpression;
+import org.apache.commons.el.Coercions;
+import org.apache.commons.el.ConditionalExpression;
+import org.apache.commons.el.Constants;
+import org.apache.commons.el.Expression;
+import org.apache.commons.el.ExpressionString;
+import org.apache.commons.el.FunctionInvocation;
+import org.apache.commons.el.Literal;
+import org.apache.commons.el.Logger;
+import org.apache.commons.el.NamedValue;
+import org.apache.commons.el.UnaryOperator;
+import org.apache.commons.el.UnaryOperatorExpression;
+
+import javax.servlet.jsp.el.ELException;
+import javax.servlet.jsp.el.FunctionMapper;
+import javax.servlet.jsp.el.VariableResolver;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.List;
+
+/**
+ * An EL expression compiled into a tree of nodes bound to its functions.
+ * <p/>
+ * The commons-el interpreter resolves every function by name and walks the parsed expression on each evaluation.
+ * A compiled expression resolves functions once, pre-coerces constant function arguments and folds operators and
+ * string templates whose operands are all constants. Constructs it does not compile (i.e. property and index
+ * access) are evaluated by the commons-el interpreter.
+ */
+class CompiledExpression {
+  // same as the logger used by commons-el ExpressionEvaluatorImpl, errors are thrown as ELExceptions
+  private static final Logger LOGGER = new Logger(System.out);
+
+  private final Node root;
+
+  private CompiledExpression(Node root) {
+    this.root = root;
+  }
+
+  /**
+   * Compiles an expression parsed by commons-el <code>ExpressionEvaluatorImpl.parseExpressionString()</code>,
+   * a <code>String</code>, an <code>Expression</code> or an <code>ExpressionString</code>.
+   */
+  static CompiledExpression compile(Object parsedExpression, FunctionMapper functionMapper) {
+    return new CompiledExpression(compileNode(parsedExpression, functionMapper));
+  }
+
+  boolean isConstant() {
+    return root.isConstant();
+  }
+
+  Object evaluate(VariableResolver variableResolver, Class<?> returnType) throws ELException {
+    return Coercions.coerce(root.evaluate(variableResolver), returnType, LOGGER);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Node compileNode(Object element, FunctionMapper functionMapper) {
+    Node node;
+    if (element instanceof String) {
+      node = new ConstantNode(element);
+    } else if (element instanceof Literal) {
+      node = new ConstantNode(((Literal) element).getValue());
+    } else if (element instanceof NamedValue) {
+      node = new VariableNode(((NamedValue) element).getName());
+    } else if (element instanceof FunctionInvocation) {
+      node = compileFunction((FunctionInvocation) element, functionMapper);
+    } else if (element instanceof UnaryOperatorExpression) {
+      UnaryOperatorExpression expression = (UnaryOperatorExpression) element;
+      UnaryOperator[] operators;
+      if (expression.getOperator() != null) {
+        operators = new UnaryOperator[]{expression.getOperator()};
+      } else {
+        List<UnaryOperator> list = expression.getOperators();
+        operators = list.toArray(new UnaryOperator[list.size()]);
+      }
+      node = fold(new UnaryNode(operators, compileNode(expression.getExpression(), functionMapper)));
+    } else if (element instanceof BinaryOperatorExpression) {
+      BinaryOperatorExpression expression = (BinaryOperatorExpression) element;
+      List<BinaryOperator> operators = expression.getOperators();
+      List<Expression> expressions = expression.getExpressions();
+      node = fold(new BinaryNode(
+          compileNode(expression.getExpression(), functionMapper),
+          operators.toArray(new BinaryOperator[operators.size()]),
+          compileNodes(expressions.toArray(), functionMapper)
+      ));
+    } else if (element instanceof ConditionalExpression) {
+      ConditionalExpression expression = (ConditionalExpression) element;
+      node = fold(new ConditionalNode(
+          compileNode(expression.getCondition(), functionMapper),
+          compileNode(expression.getTrueBranch(), functionMapper),
+          compileNode(expression.getFalseBranch(), functionMapper)
+      ));
+    } else if (element instanceof ExpressionString) {
+      node = fold(new ConcatNode(compileNodes(((ExpressionString) element).getElements(), functionMapper)));
+    } else {
+      node = new InterpretedNode((Expression) element, functionMapper);
+    }
+    return node;
+  }
+
+  private static Node[] compileNodes(Object[] elements, FunctionMapper functionMapper) {
+    Node[] nodes = new Node[elements.length];
+    for (int i = 0; i < elements.length; i++) {
+      nodes[i] = compileNode(elements[i], functionMapper);
+    }
+    return nodes;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Node compileFunction(FunctionInvocation function, FunctionMapper functionMapper) {
+    String name = function.getFunctionName();
+    int index = name.indexOf(':');
+    String prefix = (index == -1) ? "" : name.substring(0, index);
+    String localName = (index == -1) ? name : name.substring(index + 1);
+    Method method = (functionMapper != null) ? functionMapper.resolveFunction(prefix, localName) : null;
+    List<Expression> arguments = function.getArgumentList();
+    if (method == null || method.getParameterTypes().length != arguments.size()) {
+      // let the interpreter report the error when the expression is evaluated
+      return new InterpretedNode(function, functionMapper);
+    }
+    return new FunctionNode(name, method, compileNodes(arguments.toArray(), functionMapper));
+  }
+
+  // evaluates nodes with constant operands at compile time, if the evaluation fails it is left for evaluation time
+  private static Node fold(Node node) {
+    if (node.isConstant()) {
+      try {
+        return new ConstantNode(node.evaluate(null));
+      } catch (ELException ex) {
+        return node;
+      }
+    }
+    return node;
+  }
+
+  private static boolean areConstant(Node... nodes) {
+    for (Node node : nodes) {
+      if (!node.isConstant()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private abstract static class Node {
+
+    abstract Object evaluate(VariableResolver variableResolver) throws ELException;
+
+    boolean isConstant() {
+      return false;
+    }
+  }
+
+  private static class ConstantNode extends Node {
+    private final Object value;
+
+    ConstantNode(Object value) {
+      this.value = value;
+    }
+
+    @Override
+    Object evaluate(VariableResolver variableResolver) {
+      return value;
+    }
+
+    @Override
+    boolean isConstant() {
+      return true;
+    }
+  }
+
+  private static class VariableNode extends Node {
+    private final String name;
+
+    VariableNode(String name) {
+      this.name = name;
+    }
+
+    @Override
+    Object evaluate(VariableResolver variableResolver) throws ELException {
+      return (variableResolver == null) ? null : variableResolver.resolveVariable(name);
+    }
+  }
+
+  private static class FunctionNode extends Node {
+    private final String name;
+    private final Method method;
+    private final Class<?>[] parameterTypes;
+    private final Node[] arguments;
+    private final Object[] constantArguments;
+
+    FunctionNode(String name, Method method, Node[] arguments) {
+      this.name = name;
+      this.method = method;
+      this.arguments = arguments;
+      parameterTypes = method.getParameterTypes();
+      constantArguments = new Object[arguments.length];
+      for (int i = 0; i < arguments.length; i++) {
+        if (arguments[i].isConstant()) {
+          try {
+            constantArguments[i] = Coercions.coerce(arguments[i].evaluate(null), parameterTypes[i], LOGGER);
+          } catch (ELException ex) {
+            // coerce it at evaluation time to report the error there
+            arguments[i] = new UncoercedConstantNode(arguments[i]);
+          }
+        }
+      }
+    }
+
+    @Override
+    Object evaluate(VariableResolver variableResolver) throws ELException {
+      Object[] values = new Object[arguments.length];
+      for (int i = 0; i < arguments.length; i++) {
+        if (arguments[i].isConstant()) {
+          values[i] = constantArguments[i];
+        } else {
+          values[i] = Coercions.coerce(arguments[i].evaluate(variableResolver), parameterTypes[i], LOGGER);
+        }
+      }
+      try {
+        return method.invoke(null, values);
+      } catch (InvocationTargetException ex) {
+        LOGGER.logError(Constants.FUNCTION_INVOCATION_ERROR, ex.getTargetException(), name);
+        return null;
+      } catch (Exception ex) {
+        LOGGER.logError(Constants.FUNCTION_INVOCATION_ERROR, ex, name);
+        return null;
+      }
+    }
+  }
+
+  // a constant that cannot be coerced to the function parameter type, must not be treated as constant
+  private static class UncoercedConstantNode extends Node {
+    private final Node node;
+
+    UncoercedConstantNode(Node node) {
+      this.node = node;
+    }
+
+    @Override
+    Object evaluate(VariableResolver variableResolver) throws ELException {
+      return node.evaluate(variableResolver);
+    }
+  }
+
+  private static class UnaryNode extends Node {
+    private final UnaryOperator[] operators;
+    private final Node operand;
+
+    UnaryNode(UnaryOperator[] operators, Node operand) {
+      this.operators = operators;
+      this.operand = operand;
+    }
+
+    @Override
+    Object evaluate(VariableResolver variableResolver) throws ELException {
+      Object value = operand.evaluate(variableResolver);
+      for (int i = operators.length - 1; i >= 0; i--) {
+        value = operators[i].apply(value, LOGGER);
+      }
+      return value;
+    }
+
+    @Override
+    boolean isConstant() {
+      return operand.isConstant();
+    }
+  }
+
+  private static class BinaryNode extends Node {
+    private final Node first;
+    private final BinaryOperator[] operators;
+    private final Node[] operands;
+
+    BinaryNode(Node first, BinaryOperator[] operators, Node[] operands) {
+      this.first = first;
+      this.operators = operators;
+      this.operands = operands;
+    }
+
+    @Override
+    Object evaluate(VariableResolver variableResolver) throws ELException {
+      Object value = first.evaluate(variableResolver);
+      for (int i = 0; i < operators.length; i++) {
+        BinaryOperator operator = operators[i];
+        // For the And/Or operators, we need to coerce to a boolean before testing if we shouldEvaluate
+        if (operator.shouldCoerceToBoolean()) {
+          value = Coercions.coerceToBoolean(value, LOGGER);
+        }
+        if (operator.shouldEvaluate(value)) {
+          value = operator.apply(value, operands[i].evaluate(variableResolver), LOGGER);
+        }
+      }
+      return value;
+    }
+
+    @Override
+    boolean isConstant() {
+      return first.isConstant() && areConstant(operands);
+    }
+  }
+
+  private static class ConditionalNode extends Node {
+    private final Node condition;
+    private final Node trueBranch;
+    private final Node falseBranch;
+
+    ConditionalNode(Node condition, Node trueBranch, Node falseBranch) {
+      this.condition = condition;
+      this.trueBranch = trueBranch;
+      this.falseBranch = falseBranch;
+    }
+
+    @Override
+    Object evaluate(VariableResolver variableResolver) throws ELException {
+      if (Coercions.coerceToBoolean(condition.evaluate(variableResolver), LOGGER)) {
+        return trueBranch.evaluate(variableResolver);
+      } else {
+        return falseBranch.evaluate(variableResolver);
+      }
+    }
+
+    @Override
+    boolean isConstant() {
+      return areConstant(condition, trueBranch, falseBranch);
+    }
+  }
+
+  private static class ConcatNode extends Node {
+    private final Node[] elements;
+
+    ConcatNode(Node[] elements) {
+      this.elements = elements;
+    }
+
+    @Override
+    Object evaluate(VariableResolver variableResolver) throws ELException {
+      StringBuilder sb = new StringBuilder();
+      for (Node element : elements) {
+        Object value = element.evaluate(variableResolver);
+        if (value != null) {
+          sb.append(value.toString());
+        }
+      }
+      return sb.toString();
+    }
+
+    @Override
+    boolean isConstant() {
+      return areConstant(elements);
+    }
+  }
+
+  private static class InterpretedNode extends Node {
+    private final Expression expression;
+    private final FunctionMapper functionMapper;
+
+    InterpretedNode(Expression expression, FunctionMapper functionMapper) {
+      this.expression = expression;
+      this.functionMapper = functionMapper;
+    }
+
+    @Override
+    Object evaluate(VariableResolver variableResolver) throws ELException {
+      return expression.evaluate(variableResolver, functionMapper, LOGGER);
+    }
+  }
+
+}
@@ -37,6 +37,8 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 public class ELEvaluator extends ELEval {
   private static final Logger LOG = LoggerFactory.getLogger(ELEvaluator.class);
@@ -50,6 +52,16 @@ public class ELEvaluator extends ELEval {
   // ExpressionEvaluatorImpl can be used as a singleton
   private static final ExpressionEvaluatorImpl EVALUATOR = new ExpressionEvaluatorImpl();
 
+  public static final String COMPILED_EL_KEY = "el.compiled";
+  public static final boolean COMPILED_EL_DEFAULT = false;
+
+  // beyond this number of distinct expressions per evaluator, expressions are interpreted
+  private static final int MAX_COMPILED_EXPRESSIONS = 1000;
+
+  private static volatile boolean compiledMode = COMPILED_EL_DEFAULT;
+
+  private final ConcurrentMap<String, CompiledExpression> compiledExpressions = new ConcurrentHashMap<>();
+
   public ELEvaluator(String configName, Map<String, Object> constants, List<Class> elFuncConstDefClasses) {
     this(configName, constants, elFuncConstDefClasses.toArray(new Class[elFuncConstDefClasses.size()]));
   }
@@ -102,6 +114,14 @@ public class ELEvaluator extends ELEval {
     namespaceFunctions.put(functionName, function.getMethod());
   }
 
+  public static void setCompiledMode(boolean compiled) {
+    compiledMode = compiled;
+  }
+
+  public static boolean isCompiledMode() {
+    return compiledMode;
+  }
+
   @Override
   public String getConfigName() {
     return configName;
@@ -140,6 +160,10 @@ public class ELEvaluator extends ELEval {
       }
     };
     try {
+      CompiledExpression compiled = (compiledMode && expression != null) ? getCompiledExpression(expression) : null;
+      if (compiled != null) {
+        return (T) compiled.evaluate(variableResolver, returnType);
+      }
       return (T) EVALUATOR.evaluate(expression, returnType, variableResolver, functionMapper);
     } catch (ELException e) {
       LOG.debug("Error valuating EL '{}': {}", expression, e.toString(), e);
@@ -151,6 +175,15 @@ public class ELEvaluator extends ELEval {
     }
   }
 
+  private CompiledExpression getCompiledExpression(String expression) throws ELException {
+    CompiledExpression compiled = compiledExpressions.get(expression);
+    if (compiled == null && compiledExpressions.size() < MAX_COMPILED_EXPRESSIONS) {
+      compiled = CompiledExpression.compile(EVALUATOR.parseExpressionString(expression), functionMapper);
+      compiledExpressions.putIfAbsent(expression, compiled);
+    }
+    return compiled;
+  }
+
   private class FunctionMapperImpl implements FunctionMapper {
 
     @Override
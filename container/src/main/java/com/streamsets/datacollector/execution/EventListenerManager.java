@@ -22,6 +22,7 @@ package com.streamsets.datacollector.execution;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Sets;
 import com.streamsets.datacollector.alerts.AlertEventListener;
 import com.streamsets.datacollector.execution.alerts.AlertInfo;
 import com.streamsets.datacollector.json.ObjectMapperFactory;
@@ -34,15 +35,21 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public class EventListenerManager {
   private static final Logger LOG = LoggerFactory.getLogger(EventListenerManager.class);
   private final Map<String, List<MetricsEventListener>> metricsEventListenerMap;
+  private final Map<String, List<MetricsEventListener>> metricsDeltaEventListenerMap;
+  // delta listeners that have been sent the full metrics already, they only get the changes from then on
+  private final Set<MetricsEventListener> metricsDeltaEventListenersWithMetrics;
   private final List<StateEventListener> stateEventListenerList;
   private final List<AlertEventListener> alertEventListenerList;
 
   public EventListenerManager() {
     metricsEventListenerMap = new HashMap<>();
+    metricsDeltaEventListenerMap = new HashMap<>();
+    metricsDeltaEventListenersWithMetrics = Sets.newIdentityHashSet();
     stateEventListenerList = new ArrayList<>();
     alertEventListenerList = new ArrayList<>();
   }
@@ -82,6 +89,26 @@ public class EventListenerManager {
     }
   }
 
+  public void addMetricsDeltaEventListener(String pipelineName, MetricsEventListener metricsEventListener) {
+    synchronized (metricsDeltaEventListenerMap) {
+      List<MetricsEventListener> metricsEventListeners = metricsDeltaEventListenerMap.get(pipelineName);
+      if(metricsEventListeners == null) {
+        metricsEventListeners = new ArrayList<>();
+        metricsDeltaEventListenerMap.put(pipelineName, metricsEventListeners);
+      }
+      metricsEventListeners.add(metricsEventListener);
+    }
+  }
+
+  public void removeMetricsDeltaEventListener(String pipelineName, MetricsEventListener metricsEventListener) {
+    synchronized (metricsDeltaEventListenerMap) {
+      if(metricsDeltaEventListenerMap.containsKey(pipelineName)) {
+        metricsDeltaEventListenerMap.get(pipelineName).remove(metricsEventListener);
+      }
+      metricsDeltaEventListenersWithMetrics.remove(metricsEventListener);
+    }
+  }
+
   public void addAlertEventListener(AlertEventListener alertEventListener) {
     synchronized (alertEventListenerList) {
       alertEventListenerList.add(alertEventListener);
@@ -98,6 +125,11 @@ public class EventListenerManager {
     return metricsEventListenerMap.get(pipelineName) != null &&  metricsEventListenerMap.get(pipelineName).size() > 0;
   }
 
+  public boolean hasMetricsDeltaEventListeners(String pipelineName) {
+    return metricsDeltaEventListenerMap.get(pipelineName) != null &&
+        metricsDeltaEventListenerMap.get(pipelineName).size() > 0;
+  }
+
   public void broadcastAlerts(AlertInfo alertInfo) {
     if(alertEventListenerList.size() > 0) {
       try {
@@ -162,4 +194,34 @@ public class EventListenerManager {
     }
   }
 
+  /**
+   * Sends the full metrics to the delta listeners that have not received them yet, and the changes since the
+   * previous refresh to the others. Nothing is sent to the latter if there are no changes.
+   */
+  public void broadcastMetricsDelta(String pipelineName, String metricsJSONStr, String metricsDeltaJSONStr) {
+    if(hasMetricsDeltaEventListeners(pipelineName)) {
+      List<MetricsEventListener> metricsEventListenerListCopy;
+      Set<MetricsEventListener> listenersWithoutMetrics = Sets.newIdentityHashSet();
+      synchronized (metricsDeltaEventListenerMap) {
+        metricsEventListenerListCopy = new ArrayList<>(metricsDeltaEventListenerMap.get(pipelineName));
+        for(MetricsEventListener metricsEventListener : metricsEventListenerListCopy) {
+          if(metricsDeltaEventListenersWithMetrics.add(metricsEventListener)) {
+            listenersWithoutMetrics.add(metricsEventListener);
+          }
+        }
+      }
+
+      for(MetricsEventListener metricsEventListener : metricsEventListenerListCopy) {
+        String metrics = listenersWithoutMetrics.contains(metricsEventListener) ? metricsJSONStr : metricsDeltaJSONStr;
+        if(metrics != null) {
+          try {
+            metricsEventListener.notification(metrics);
+          } catch(Exception ex) {
+            LOG.warn("Error while notifying metrics, {}", ex.toString(), ex);
+          }
+        }
+      }
+    }
+  }
+
 }
@@ -33,7 +33,12 @@ public interface SnapshotStore {
   // creates a snapshot info, in progress
   public SnapshotInfo create(String user, String name, String rev, String id, String label) throws PipelineException;;
 
-  // saves the data of the snapshot and updates the corresponding snapshot info.
+  // appends one batch to the data of a snapshot in progress, without completing the snapshot.
+  public void appendBatch(String name, String rev, String id, List<StageOutput> snapshotBatch)
+    throws PipelineException;
+
+  // saves the data of the snapshot, after the batches appended before if any, and updates the corresponding snapshot
+  // info.
   public SnapshotInfo save(String name, String rev, String id, List<List<StageOutput>> snapshotBatches)
     throws PipelineException;
 
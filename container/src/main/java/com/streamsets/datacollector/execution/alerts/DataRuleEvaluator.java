@@ -112,6 +112,13 @@ public class DataRuleEvaluator {
   private final String rev;
   private final MetricRegistryJson metricRegistryJson;
   private final BlockingQueue<Record> statsQueue;
+  private final ELEvaluator conditionEvaluator;
+  private final ELEvaluator alertTextEvaluator;
+  // metrics are resolved on first use and kept for the life of the evaluator
+  private String evaluatedRecordCounterLane;
+  private Counter evaluatedRecordCounter;
+  private Counter matchingRecordCounter;
+  private Meter meter;
 
   public DataRuleEvaluator(
       String name,
@@ -135,6 +142,8 @@ public class DataRuleEvaluator {
     this.alertManager = alertManager;
     this.metricRegistryJson = metricRegistryJson;
     this.statsQueue = statsQueue;
+    conditionEvaluator = new ELEvaluator("el", RuleELRegistry.getRuleELs(dataRuleDefinition.getFamily()));
+    alertTextEvaluator = new ELEvaluator("alertInfo", RuleELRegistry.getRuleELs(RuleELRegistry.ALERT));
   }
 
   public void evaluateRule(List<Record> sampleRecords, String lane,
@@ -171,7 +180,10 @@ public class DataRuleEvaluator {
         //evaluate
         boolean success = evaluate(elVars, r, dataRuleDefinition.getCondition(), dataRuleDefinition.getId());
         if (success) {
-          alertTextForMatchRecords.add(resolveAlertText(elVars, dataRuleDefinition));
+          // alert texts are only used by alerts
+          if (dataRuleDefinition.isAlertEnabled()) {
+            alertTextForMatchRecords.add(resolveAlertText(elVars, dataRuleDefinition));
+          }
           sampledRecords.add(new SampledRecord(r, true));
           matchingRecordCount++;
         } else {
@@ -180,34 +192,8 @@ public class DataRuleEvaluator {
       }
 
       if (dataRuleDefinition.isAlertEnabled()) {
-        //Keep the counters and meters ready before execution
-        //batch record counter - cummulative sum of records per batch
-        Counter evaluatedRecordCounter =
-            MetricsConfigurator.getCounter(metrics, LaneResolver.getPostFixedLaneForObserver(
-                lane));
-        if (evaluatedRecordCounter == null) {
-          evaluatedRecordCounter = MetricsConfigurator.createCounter(metrics, LaneResolver.getPostFixedLaneForObserver(
-              lane), name, rev);
-          if (metricRegistryJson != null) {
-            CounterJson counterJson =
-              metricRegistryJson.getCounters().get(
-                LaneResolver.getPostFixedLaneForObserver(lane) + MetricsConfigurator.COUNTER_SUFFIX);
-            evaluatedRecordCounter.inc(counterJson.getCount());
-          }
-        }
-        //counter for the matching records - cummulative sum of records that match criteria
-        Counter matchingRecordCounter =
-            MetricsConfigurator.getCounter(metrics, USER_PREFIX + dataRuleDefinition.getId());
-        if (matchingRecordCounter == null) {
-          matchingRecordCounter =
-            MetricsConfigurator.createCounter(metrics, USER_PREFIX + dataRuleDefinition.getId(), name, rev);
-          if (metricRegistryJson != null) {
-            CounterJson counterJson =
-              metricRegistryJson.getCounters().get(
-                USER_PREFIX + dataRuleDefinition.getId() + MetricsConfigurator.COUNTER_SUFFIX);
-            matchingRecordCounter.inc(counterJson.getCount());
-          }
-        }
+        Counter evaluatedRecordCounter = getEvaluatedRecordCounter(lane);
+        Counter matchingRecordCounter = getMatchingRecordCounter();
 
         evaluatedRecordCounter.inc(evaluatedRecordCount);
         matchingRecordCounter.inc(matchingRecordCount);
@@ -287,13 +273,65 @@ public class DataRuleEvaluator {
       }
 
       if (dataRuleDefinition.isMeterEnabled() && matchingRecordCount > 0) {
-        Meter meter = MetricsConfigurator.getMeter(metrics, USER_PREFIX + dataRuleDefinition.getId());
-        if (meter == null) {
-          meter = MetricsConfigurator.createMeter(metrics, USER_PREFIX + dataRuleDefinition.getId(), name ,rev);
+        getMeter().mark(matchingRecordCount);
+      }
+    }
+  }
+
+  // data rules of a lane may be evaluated concurrently and they share the lane counter, metrics are looked up and
+  // created atomically
+  private Counter getEvaluatedRecordCounter(String lane) {
+    if (evaluatedRecordCounter == null || !lane.equals(evaluatedRecordCounterLane)) {
+      synchronized (metrics) {
+        //batch record counter - cummulative sum of records per batch
+        String counterName = LaneResolver.getPostFixedLaneForObserver(lane);
+        Counter counter = MetricsConfigurator.getCounter(metrics, counterName);
+        if (counter == null) {
+          counter = MetricsConfigurator.createCounter(metrics, counterName, name, rev);
+          if (metricRegistryJson != null) {
+            CounterJson counterJson =
+              metricRegistryJson.getCounters().get(counterName + MetricsConfigurator.COUNTER_SUFFIX);
+            counter.inc(counterJson.getCount());
+          }
+        }
+        evaluatedRecordCounter = counter;
+        evaluatedRecordCounterLane = lane;
+      }
+    }
+    return evaluatedRecordCounter;
+  }
+
+  private Counter getMatchingRecordCounter() {
+    if (matchingRecordCounter == null) {
+      synchronized (metrics) {
+        //counter for the matching records - cummulative sum of records that match criteria
+        Counter counter = MetricsConfigurator.getCounter(metrics, USER_PREFIX + dataRuleDefinition.getId());
+        if (counter == null) {
+          counter = MetricsConfigurator.createCounter(metrics, USER_PREFIX + dataRuleDefinition.getId(), name, rev);
+          if (metricRegistryJson != null) {
+            CounterJson counterJson =
+              metricRegistryJson.getCounters().get(
+                USER_PREFIX + dataRuleDefinition.getId() + MetricsConfigurator.COUNTER_SUFFIX);
+            counter.inc(counterJson.getCount());
+          }
+        }
+        matchingRecordCounter = counter;
+      }
+    }
+    return matchingRecordCounter;
+  }
+
+  private Meter getMeter() {
+    if (meter == null) {
+      synchronized (metrics) {
+        Meter userMeter = MetricsConfigurator.getMeter(metrics, USER_PREFIX + dataRuleDefinition.getId());
+        if (userMeter == null) {
+          userMeter = MetricsConfigurator.createMeter(metrics, USER_PREFIX + dataRuleDefinition.getId(), name ,rev);
         }
-        meter.mark(matchingRecordCount);
+        meter = userMeter;
       }
     }
+    return meter;
   }
 
   @VisibleForTesting
@@ -303,7 +341,7 @@ public class DataRuleEvaluator {
         record,
         el,
         elVars,
-        new ELEvaluator("el", RuleELRegistry.getRuleELs(dataRuleDefinition.getFamily()))
+        conditionEvaluator
       );
     } catch (ObserverException e) {
       //A faulty condition should not take down rest of the alerts with it.
@@ -324,8 +362,7 @@ public class DataRuleEvaluator {
       if (alertText == null) {
         alertText = "";
       }
-      ELEvaluator elEval = new ELEvaluator("alertInfo", RuleELRegistry.getRuleELs(RuleELRegistry.ALERT));
-      return elEval.eval(elVars, alertText, String.class);
+      return alertTextEvaluator.eval(elVars, alertText, String.class);
     } catch (ELEvalException e) {
       //A faulty el alerttext should not take down rest of the alerts with it.
       //Log and it and continue for now
@@ -0,0 +1,107 @@
+/**
+ * Copyright 2016 StreamSets Inc.
+ *
+ * Licensed under the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.execution.metrics;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Computes what changed in the metrics JSON between two refreshes, so that clients that already have the metrics
+ * are sent only the counters, meters, histograms, timers and gauges that changed.
+ * <p/>
+ * A delta has the same layout as the full metrics JSON with only the changed metrics in each section, plus
+ * <code>"delta": true</code> and the names of the removed metrics under <code>"removed"</code>.
+ */
+class MetricsDeltaTracker {
+  static final String DELTA = "delta";
+  static final String REMOVED = "removed";
+
+  private JsonNode previous;
+
+  /**
+   * Returns the changes since the previous call and remembers the given metrics for the next one.
+   *
+   * @return the delta, null if nothing changed
+   */
+  ObjectNode update(JsonNode metrics) {
+    JsonNode before = previous;
+    previous = metrics;
+    if (before == null) {
+      return createDelta(metrics, JsonNodeFactory.instance.objectNode());
+    }
+    return createDelta(metrics, before);
+  }
+
+  void reset() {
+    previous = null;
+  }
+
+  private static ObjectNode createDelta(JsonNode metrics, JsonNode before) {
+    ObjectNode delta = JsonNodeFactory.instance.objectNode();
+    ArrayNode removed = JsonNodeFactory.instance.arrayNode();
+    boolean changed = false;
+    Iterator<Map.Entry<String, JsonNode>> sections = metrics.fields();
+    while (sections.hasNext()) {
+      Map.Entry<String, JsonNode> section = sections.next();
+      JsonNode beforeSection = before.get(section.getKey());
+      if (section.getValue().isObject()) {
+        ObjectNode changedMetrics = JsonNodeFactory.instance.objectNode();
+        Iterator<Map.Entry<String, JsonNode>> entries = section.getValue().fields();
+        while (entries.hasNext()) {
+          Map.Entry<String, JsonNode> metric = entries.next();
+          if (beforeSection == null || !metric.getValue().equals(beforeSection.get(metric.getKey()))) {
+            changedMetrics.set(metric.getKey(), metric.getValue());
+          }
+        }
+        if (beforeSection != null && beforeSection.isObject()) {
+          Iterator<String> names = beforeSection.fieldNames();
+          while (names.hasNext()) {
+            String name = names.next();
+            if (!section.getValue().has(name)) {
+              removed.add(name);
+            }
+          }
+        }
+        if (changedMetrics.size() > 0) {
+          delta.set(section.getKey(), changedMetrics);
+          changed = true;
+        }
+      } else if (!section.getValue().equals(beforeSection)) {
+        delta.set(section.getKey(), section.getValue());
+        changed = true;
+      }
+    }
+    if (removed.size() > 0) {
+      delta.set(REMOVED, removed);
+      changed = true;
+    }
+    if (!changed) {
+      return null;
+    }
+    delta.put(DELTA, true);
+    return delta;
+  }
+
+}
@@ -21,6 +21,7 @@
 package com.streamsets.datacollector.execution.metrics;
 
 import com.codahale.metrics.MetricRegistry;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.streamsets.datacollector.callback.CallbackInfo;
 import com.streamsets.datacollector.config.PipelineConfiguration;
@@ -31,9 +32,12 @@ import com.streamsets.datacollector.execution.runner.cluster.SlaveCallbackManage
 import com.streamsets.datacollector.execution.runner.common.ThreadHealthReporter;
 import com.streamsets.datacollector.json.ObjectMapperFactory;
 import com.streamsets.datacollector.main.RuntimeInfo;
+import com.streamsets.datacollector.metrics.LogLinearHistogram;
 import com.streamsets.datacollector.restapi.bean.CounterJson;
+import com.streamsets.datacollector.restapi.bean.HistogramJson;
 import com.streamsets.datacollector.restapi.bean.MeterJson;
 import com.streamsets.datacollector.restapi.bean.MetricRegistryJson;
+import com.streamsets.datacollector.restapi.bean.TimerJson;
 import com.streamsets.datacollector.store.PipelineStoreException;
 import com.streamsets.datacollector.util.AggregatorUtil;
 import com.streamsets.datacollector.util.Configuration;
@@ -54,6 +58,7 @@ import java.util.Map;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 
 public class MetricsEventRunnable implements Runnable {
 
@@ -62,6 +67,7 @@ public class MetricsEventRunnable implements Runnable {
 
   public static final String RUNNABLE_NAME = "MetricsEventRunnable";
   private static final Logger LOG = LoggerFactory.getLogger(MetricsEventRunnable.class);
+  private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
   private final ConcurrentMap<String, MetricRegistryJson> slaveMetrics;
   private ThreadHealthReporter threadHealthReporter;
   private final EventListenerManager eventListenerManager;
@@ -75,6 +81,7 @@ public class MetricsEventRunnable implements Runnable {
   private final RuntimeInfo runtimeInfo;
   private BlockingQueue<Record> statsQueue;
   private PipelineConfiguration pipelineConfiguration;
+  private final MetricsDeltaTracker metricsDeltaTracker = new MetricsDeltaTracker();
 
   @Inject
   public MetricsEventRunnable(
@@ -123,19 +130,33 @@ public class MetricsEventRunnable implements Runnable {
       if(threadHealthReporter != null) {
         threadHealthReporter.reportHealth(RUNNABLE_NAME, scheduledDelay, System.currentTimeMillis());
       }
-      ObjectMapper objectMapper = ObjectMapperFactory.get();
       PipelineState state = pipelineStateStore.getState(name, rev);
-      if (hasMetricEventListeners(state) || isStatAggregationEnabled()) {
+      // serialized once per refresh and shared by all listeners, without indentation as nobody reads it as is,
+      // slaves also ship the histograms of their timers and histograms for the master to merge them
+      ObjectMapper objectMapper = (state.getExecutionMode() == ExecutionMode.SLAVE)
+          ? ObjectMapperFactory.getOneLineWithMergeableMetrics() : ObjectMapperFactory.getOneLine();
+      boolean hasMetricsDeltaEventListeners = hasMetricsDeltaEventListeners(state);
+      if (hasMetricEventListeners(state) || hasMetricsDeltaEventListeners || isStatAggregationEnabled()) {
         // compute aggregated metrics in case of cluster mode pipeline
         // get individual pipeline metrics if non cluster mode pipeline
-        String metricsJSONStr;
+        Object metrics;
         if (state.getExecutionMode() == ExecutionMode.CLUSTER_BATCH
           || state.getExecutionMode() == ExecutionMode.CLUSTER_YARN_STREAMING
           || state.getExecutionMode() == ExecutionMode.CLUSTER_MESOS_STREAMING) {
-          MetricRegistryJson metricRegistryJson = getAggregatedMetrics();
-          metricsJSONStr = objectMapper.writer().writeValueAsString(metricRegistryJson);
+          metrics = getAggregatedMetrics();
+        } else {
+          metrics = metricRegistry;
+        }
+        String metricsJSONStr;
+        if (hasMetricsDeltaEventListeners) {
+          JsonNode metricsJson = objectMapper.valueToTree(metrics);
+          metricsJSONStr = objectMapper.writeValueAsString(metricsJson);
+          JsonNode delta = metricsDeltaTracker.update(metricsJson);
+          String metricsDeltaJSONStr = (delta == null) ? null : objectMapper.writeValueAsString(delta);
+          eventListenerManager.broadcastMetricsDelta(name, metricsJSONStr, metricsDeltaJSONStr);
         } else {
-          metricsJSONStr = objectMapper.writer().writeValueAsString(metricRegistry);
+          metricsJSONStr = objectMapper.writeValueAsString(metrics);
+          metricsDeltaTracker.reset();
         }
         if (hasMetricEventListeners(state)) {
           eventListenerManager.broadcastMetrics(name, metricsJSONStr);
@@ -245,11 +266,112 @@ public class MetricsEventRunnable implements Runnable {
 
     aggregatedMetrics.setCounters(aggregatedCounters);
     aggregatedMetrics.setMeters(aggregatedMeters);
+    aggregatedMetrics.setHistograms(aggregateHistograms());
+    aggregatedMetrics.setTimers(aggregateTimers());
     aggregatedMetrics.setSlaves(slaves);
 
     return aggregatedMetrics;
   }
 
+  // lifetime counts and rates are summed up, percentiles come from merging the histograms of the slaves windows
+  private Map<String, HistogramJson> aggregateHistograms() {
+    Map<String, HistogramJson> aggregatedHistograms = new HashMap<>();
+    Map<String, LogLinearHistogram> mergedHistograms = new HashMap<>();
+    for (MetricRegistryJson metrics : slaveMetrics.values()) {
+      if (metrics.getHistograms() == null) {
+        continue;
+      }
+      for (Map.Entry<String, HistogramJson> histogramJsonEntry : metrics.getHistograms().entrySet()) {
+        HistogramJson slaveHistogram = histogramJsonEntry.getValue();
+        HistogramJson aggregatedHistogram = aggregatedHistograms.get(histogramJsonEntry.getKey());
+        if (aggregatedHistogram == null) {
+          aggregatedHistogram = new HistogramJson();
+          aggregatedHistograms.put(histogramJsonEntry.getKey(), aggregatedHistogram);
+          mergedHistograms.put(histogramJsonEntry.getKey(), new LogLinearHistogram());
+        }
+        aggregatedHistogram.setCount(aggregatedHistogram.getCount() + slaveHistogram.getCount());
+        mergeHistogram(
+            mergedHistograms.get(histogramJsonEntry.getKey()),
+            histogramJsonEntry.getKey(),
+            slaveHistogram.getHistogram()
+        );
+      }
+    }
+    for (Map.Entry<String, HistogramJson> histogramJsonEntry : aggregatedHistograms.entrySet()) {
+      HistogramJson aggregatedHistogram = histogramJsonEntry.getValue();
+      LogLinearHistogram histogram = mergedHistograms.get(histogramJsonEntry.getKey());
+      aggregatedHistogram.setMax(histogram.getMax());
+      aggregatedHistogram.setMean(Math.round(histogram.getMean()));
+      aggregatedHistogram.setMin(histogram.getMin());
+      aggregatedHistogram.setP50(histogram.getValue(0.5));
+      aggregatedHistogram.setP75(histogram.getValue(0.75));
+      aggregatedHistogram.setP95(histogram.getValue(0.95));
+      aggregatedHistogram.setP98(histogram.getValue(0.98));
+      aggregatedHistogram.setP99(histogram.getValue(0.99));
+      aggregatedHistogram.setP999(histogram.getValue(0.999));
+      aggregatedHistogram.setStddev(Math.round(histogram.getStdDev()));
+    }
+    return aggregatedHistograms;
+  }
+
+  private Map<String, TimerJson> aggregateTimers() {
+    Map<String, TimerJson> aggregatedTimers = new HashMap<>();
+    Map<String, LogLinearHistogram> mergedHistograms = new HashMap<>();
+    for (MetricRegistryJson metrics : slaveMetrics.values()) {
+      if (metrics.getTimers() == null) {
+        continue;
+      }
+      for (Map.Entry<String, TimerJson> timerJsonEntry : metrics.getTimers().entrySet()) {
+        TimerJson slaveTimer = timerJsonEntry.getValue();
+        TimerJson aggregatedTimer = aggregatedTimers.get(timerJsonEntry.getKey());
+        if (aggregatedTimer == null) {
+          aggregatedTimer = new TimerJson();
+          aggregatedTimer.setDuration_units(slaveTimer.getDuration_units());
+          aggregatedTimer.setRate_units(slaveTimer.getRate_units());
+          aggregatedTimers.put(timerJsonEntry.getKey(), aggregatedTimer);
+          mergedHistograms.put(timerJsonEntry.getKey(), new LogLinearHistogram());
+        }
+        aggregatedTimer.setCount(aggregatedTimer.getCount() + slaveTimer.getCount());
+        aggregatedTimer.setM1_rate(aggregatedTimer.getM1_rate() + slaveTimer.getM1_rate());
+        aggregatedTimer.setM5_rate(aggregatedTimer.getM5_rate() + slaveTimer.getM5_rate());
+        aggregatedTimer.setM15_rate(aggregatedTimer.getM15_rate() + slaveTimer.getM15_rate());
+        aggregatedTimer.setMean_rate(aggregatedTimer.getMean_rate() + slaveTimer.getMean_rate());
+        mergeHistogram(
+            mergedHistograms.get(timerJsonEntry.getKey()),
+            timerJsonEntry.getKey(),
+            slaveTimer.getHistogram()
+        );
+      }
+    }
+    // timer histograms are in nanoseconds, timer JSON durations are in seconds
+    for (Map.Entry<String, TimerJson> timerJsonEntry : aggregatedTimers.entrySet()) {
+      TimerJson aggregatedTimer = timerJsonEntry.getValue();
+      LogLinearHistogram histogram = mergedHistograms.get(timerJsonEntry.getKey());
+      aggregatedTimer.setMax(histogram.getMax() / NANOS_PER_SECOND);
+      aggregatedTimer.setMean(histogram.getMean() / NANOS_PER_SECOND);
+      aggregatedTimer.setMin(histogram.getMin() / NANOS_PER_SECOND);
+      aggregatedTimer.setP50(histogram.getValue(0.5) / NANOS_PER_SECOND);
+      aggregatedTimer.setP75(histogram.getValue(0.75) / NANOS_PER_SECOND);
+      aggregatedTimer.setP95(histogram.getValue(0.95) / NANOS_PER_SECOND);
+      aggregatedTimer.setP98(histogram.getValue(0.98) / NANOS_PER_SECOND);
+      aggregatedTimer.setP99(histogram.getValue(0.99) / NANOS_PER_SECOND);
+      aggregatedTimer.setP999(histogram.getValue(0.999) / NANOS_PER_SECOND);
+      aggregatedTimer.setStddev(histogram.getStdDev() / NANOS_PER_SECOND);
+    }
+    return aggregatedTimers;
+  }
+
+  private void mergeHistogram(LogLinearHistogram histogram, String metricName, String encodedHistogram) {
+    // slaves running an older version do not ship histograms
+    if (encodedHistogram != null) {
+      try {
+        histogram.merge(LogLinearHistogram.decode(encodedHistogram));
+      } catch (IllegalArgumentException ex) {
+        LOG.warn("Ignoring invalid histogram of metric '{}': {}", metricName, ex.toString());
+      }
+    }
+  }
+
   public int getScheduledDelay() {
     return scheduledDelay;
   }
@@ -262,6 +384,10 @@ public class MetricsEventRunnable implements Runnable {
     return null != statsQueue;
   }
 
+  private boolean hasMetricsDeltaEventListeners(PipelineState state) {
+    return eventListenerManager.hasMetricsDeltaEventListeners(name) && state.getStatus().isActive();
+  }
+
   private boolean hasMetricEventListeners(PipelineState state) {
     return eventListenerManager.hasMetricEventListeners(name) && state.getStatus().isActive();
   }
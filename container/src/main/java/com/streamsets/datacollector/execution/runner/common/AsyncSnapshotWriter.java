@@ -0,0 +1,177 @@
+/**
+ * Copyright 2016 StreamSets Inc.
+ *
+ * Licensed under the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.execution.runner.common;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.streamsets.datacollector.execution.SnapshotStore;
+import com.streamsets.datacollector.runner.StageOutput;
+import com.streamsets.datacollector.util.PipelineException;
+import com.streamsets.pipeline.api.Record;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Writes the batches captured for a snapshot to the {@link SnapshotStore} from a background thread, one batch at a
+ * time, so the pipeline thread does not wait for the snapshot to be serialized.
+ * <p/>
+ * The number of captured records waiting to be written is bounded. A batch that would go over the limit drops the
+ * capture, and the partially written snapshot is deleted, rather than slowing down the pipeline.
+ */
+class AsyncSnapshotWriter {
+  private static final Logger LOG = LoggerFactory.getLogger(AsyncSnapshotWriter.class);
+  private static final long CANCEL_WAIT_SECS = 30;
+
+  private final SnapshotStore snapshotStore;
+  private final String pipelineName;
+  private final String revision;
+  private final int maxPendingRecords;
+  private final ThreadPoolExecutor executor;
+  private final AtomicInteger pendingRecords = new AtomicInteger();
+  private volatile Capture capture;
+
+  AsyncSnapshotWriter(SnapshotStore snapshotStore, String pipelineName, String revision, int maxPendingRecords) {
+    this.snapshotStore = snapshotStore;
+    this.pipelineName = pipelineName;
+    this.revision = revision;
+    this.maxPendingRecords = maxPendingRecords;
+    // the thread goes away when no snapshot is being written
+    executor = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+        new ThreadFactoryBuilder().setNameFormat("SnapshotWriter-" + pipelineName).setDaemon(true).build());
+    executor.allowCoreThreadTimeOut(true);
+  }
+
+  /**
+   * Starts a new capture, the batches of the previous one not written yet are discarded.
+   */
+  void start(String snapshotName) {
+    if (capture != null) {
+      capture.cancelled = true;
+    }
+    capture = new Capture(snapshotName);
+  }
+
+  /**
+   * Queues a captured batch, the last batch completes the snapshot.
+   *
+   * @return false if the capture was dropped because too many records are waiting to be written
+   */
+  boolean write(final List<StageOutput> snapshotBatch, final boolean last) {
+    final Capture current = capture;
+    if (current == null || current.cancelled) {
+      return false;
+    }
+    final int records = countRecords(snapshotBatch);
+    if (pendingRecords.get() + records > maxPendingRecords) {
+      LOG.warn("Dropping snapshot '{}' of pipeline '{}', more than '{}' captured records waiting to be written",
+          current.snapshotName, pipelineName, maxPendingRecords);
+      current.cancelled = true;
+      executor.execute(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            snapshotStore.deleteSnapshot(pipelineName, revision, current.snapshotName);
+          } catch (PipelineException ex) {
+            LOG.warn("Error deleting dropped snapshot '{}': {}", current.snapshotName, ex.toString(), ex);
+          }
+        }
+      });
+      return false;
+    }
+    pendingRecords.addAndGet(records);
+    executor.execute(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          if (!current.cancelled) {
+            if (!snapshotBatch.isEmpty()) {
+              snapshotStore.appendBatch(pipelineName, revision, current.snapshotName, snapshotBatch);
+            }
+            if (last) {
+              snapshotStore.save(pipelineName, revision, current.snapshotName,
+                  Collections.<List<StageOutput>>emptyList());
+            }
+          }
+        } catch (PipelineException ex) {
+          LOG.error("Error writing snapshot '{}' of pipeline '{}': {}", current.snapshotName, pipelineName,
+              ex.toString(), ex);
+          current.cancelled = true;
+        } finally {
+          pendingRecords.addAndGet(-records);
+        }
+      }
+    });
+    return true;
+  }
+
+  /**
+   * Discards the batches of the current capture not written yet, waiting for the batch being written if any.
+   */
+  void cancel() {
+    Capture current = capture;
+    if (current != null) {
+      current.cancelled = true;
+      Future<?> drained = executor.submit(new Runnable() {
+        @Override
+        public void run() {
+        }
+      });
+      try {
+        drained.get(CANCEL_WAIT_SECS, TimeUnit.SECONDS);
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      } catch (ExecutionException | TimeoutException ex) {
+        LOG.warn("Error waiting for snapshot '{}' to be cancelled: {}", current.snapshotName, ex.toString(), ex);
+      }
+    }
+  }
+
+  private static int countRecords(List<StageOutput> snapshotBatch) {
+    int records = 0;
+    for (StageOutput stageOutput : snapshotBatch) {
+      for (List<Record> laneRecords : stageOutput.getOutput().values()) {
+        records += laneRecords.size();
+      }
+      if (stageOutput.getErrorRecords() != null) {
+        records += stageOutput.getErrorRecords().size();
+      }
+    }
+    return records;
+  }
+
+  private static class Capture {
+    private final String snapshotName;
+    private volatile boolean cancelled;
+
+    Capture(String snapshotName) {
+      this.snapshotName = snapshotName;
+    }
+  }
+
+}
@@ -29,6 +29,8 @@ public class Constants {
   public static final String PIPELINE_CLUSTER_TOKEN_KEY = "pipeline.cluster.token";
   public static final String MAX_BATCH_SIZE_KEY = "production.maxBatchSize";
   public static final int MAX_BATCH_SIZE_DEFAULT = 1000;
+  public static final String PIPELINED_EXECUTION_DEPTH_KEY = "production.pipelinedExecution.depth";
+  public static final int PIPELINED_EXECUTION_DEPTH_DEFAULT = 0;
   public static final String DELIVERY_GUARANTEE = "deliveryGuarantee";
   public static final String MAX_ERROR_FILE_SIZE_KEY = "production.maxErrorFileSize";
   public static final String MAX_ERROR_FILE_SIZE_DEFAULT = "1024MB";
@@ -42,10 +44,14 @@ public class Constants {
   public static final int OBSERVER_QUEUE_SIZE_DEFAULT = 100;
   public static final String SNAPSHOT_MAX_BATCH_SIZE_KEY = "snapshot.maxBatchSize";
   public static final int SNAPSHOT_MAX_BATCH_SIZE_DEFAULT = 10;
+  public static final String SNAPSHOT_MAX_PENDING_RECORDS_KEY = "snapshot.maxPendingRecords";
+  public static final int SNAPSHOT_MAX_PENDING_RECORDS_DEFAULT = 10000;
   public static final int SAMPLED_RECORDS_MAX_CACHE_SIZE_DEFAULT = 100;
   public static final String SAMPLED_RECORDS_MAX_CACHE_SIZE_KEY = "observer.sampled.records.cache.size";
   public static final String MAX_OBSERVER_REQUEST_OFFER_WAIT_TIME_MS_KEY = "observer.queue.offer.max.wait.time.ms";
   public static final int MAX_OBSERVER_REQUEST_OFFER_WAIT_TIME_MS_DEFAULT = 1000;
+  public static final String DATA_RULES_EVALUATION_THREADS_KEY = "observer.data.rules.evaluation.threads";
+  public static final int DATA_RULES_EVALUATION_THREADS_DEFAULT = 1;
   public static final String MESOS_JAR_URL = "mesos.jar.url";
   public static final String STATS_AGGREGATOR_QUEUE_SIZE_KEY = "stats.queue.size";
   public static final int STATS_AGGREGATOR_QUEUE_SIZE_DEFAULT = 1000;
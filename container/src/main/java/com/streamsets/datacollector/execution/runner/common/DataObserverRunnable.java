@@ -86,6 +86,7 @@ public class DataObserverRunnable implements Runnable {
         }
       }
     } finally {
+      dataObserverRunner.stop();
       Thread.currentThread().setName(originalName);
     }
   }
@@ -22,6 +22,7 @@ package com.streamsets.datacollector.execution.runner.common;
 import com.codahale.metrics.MetricRegistry;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.EvictingQueue;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.streamsets.datacollector.config.DataRuleDefinition;
 import com.streamsets.datacollector.execution.alerts.AlertManager;
 import com.streamsets.datacollector.execution.alerts.DataRuleEvaluator;
@@ -36,12 +37,18 @@ import com.streamsets.pipeline.api.Record;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class DataObserverRunner {
 
@@ -56,18 +63,31 @@ public class DataObserverRunner {
   private final String name;
   private final String rev;
   private MetricRegistryJson metricRegistryJson;
-  private final Map<String, Object> pipelineELContext;
+  // each rule has its own EL context, drift rules keep the values they compare records with in it
+  private final Map<String, Map<String, Object>> ruleToPipelineELContext;
   private BlockingQueue<Record> startsAggregatorQueue;
+  private final Map<String, DataRuleEvaluator> dataRuleEvaluators;
+  private final ExecutorService evaluationExecutor;
 
   public DataObserverRunner(String name, String rev, MetricRegistry metrics, AlertManager alertManager,
                             Configuration configuration) {
     this.metrics = metrics;
-    this.ruleToSampledRecordsMap = new HashMap<>();
+    // data rules may be evaluated concurrently, each one updating its own entry
+    this.ruleToSampledRecordsMap = new ConcurrentHashMap<>();
     this.configuration = configuration;
     this.alertManager = alertManager;
     this.name = name;
     this.rev = rev;
-    this.pipelineELContext = new HashMap<>();
+    this.ruleToPipelineELContext = new HashMap<>();
+    this.dataRuleEvaluators = new HashMap<>();
+    int threads = configuration.get(
+        Constants.DATA_RULES_EVALUATION_THREADS_KEY,
+        Constants.DATA_RULES_EVALUATION_THREADS_DEFAULT
+    );
+    this.evaluationExecutor = (threads <= 1) ? null : Executors.newFixedThreadPool(
+        threads,
+        new ThreadFactoryBuilder().setNameFormat("DataRuleEvaluator-%d").setDaemon(true).build()
+    );
   }
 
   public void setStatsQueue(BlockingQueue<Record> startsAggregatorQueue) {
@@ -75,33 +95,28 @@ public class DataObserverRunner {
   }
 
   public void handleDataRulesEvaluationRequest(DataRulesEvaluationRequest dataRulesEvaluationRequest) {
+    List<Runnable> evaluations = new ArrayList<>();
 
     //This is the map of ruleId vs sampled records
     Map<String, Map<String, List<Record>>> snapshot = dataRulesEvaluationRequest.getSnapshot();
     for(Map.Entry<String, Map<String, List<Record>>> e : snapshot.entrySet()) {
-      String lane = e.getKey();
+      final String lane = e.getKey();
       Map<String, List<Record>> ruleIdToSampledRecords = e.getValue();
       List<DataRuleDefinition> dataRuleDefinitions = rulesConfigurationChangeRequest.getLaneToDataRuleMap().get(lane);
 
       if (dataRuleDefinitions != null) {
         for (DataRuleDefinition dataRuleDefinition : dataRuleDefinitions) {
           //sampled records for that rule
-          List<Record> sampledRecords = ruleIdToSampledRecords.get(dataRuleDefinition.getId());
+          final List<Record> sampledRecords = ruleIdToSampledRecords.get(dataRuleDefinition.getId());
           if(dataRuleDefinition.isEnabled()  && sampledRecords != null && sampledRecords.size() > 0) {
             //evaluate rule only if it is enabled and there are sampled records.
-            DataRuleEvaluator dataRuleEvaluator = new DataRuleEvaluator(
-                name,
-                rev,
-                metrics,
-                alertManager,
-                rulesConfigurationChangeRequest.getRuleDefinitions().getEmailIds(),
-                pipelineELContext,
-                dataRuleDefinition,
-                configuration,
-                metricRegistryJson,
-                startsAggregatorQueue
-            );
-            dataRuleEvaluator.evaluateRule(sampledRecords, lane, ruleToSampledRecordsMap);
+            final DataRuleEvaluator dataRuleEvaluator = getDataRuleEvaluator(dataRuleDefinition);
+            evaluations.add(new Runnable() {
+              @Override
+              public void run() {
+                dataRuleEvaluator.evaluateRule(sampledRecords, lane, ruleToSampledRecordsMap);
+              }
+            });
           } else if (!dataRuleDefinition.isEnabled()) {
             //If data rule is disabled, clear the sampled records for that rule
             EvictingQueue<SampledRecord> records = ruleToSampledRecordsMap.get(dataRuleDefinition.getId());
@@ -112,11 +127,69 @@ public class DataObserverRunner {
         }
       }
     }
+    evaluate(evaluations);
+  }
+
+  // rules are independent from each other, they are evaluated in parallel if there is a thread pool for it
+  private void evaluate(List<Runnable> evaluations) {
+    if (evaluationExecutor == null || evaluations.size() == 1) {
+      for (Runnable evaluation : evaluations) {
+        evaluation.run();
+      }
+    } else {
+      List<Future<?>> futures = new ArrayList<>(evaluations.size());
+      for (Runnable evaluation : evaluations) {
+        futures.add(evaluationExecutor.submit(evaluation));
+      }
+      try {
+        for (Future<?> future : futures) {
+          future.get();
+        }
+      } catch (ExecutionException ex) {
+        if (ex.getCause() instanceof RuntimeException) {
+          throw (RuntimeException) ex.getCause();
+        }
+        throw new RuntimeException(ex.getCause());
+      } catch (InterruptedException ex) {
+        for (Future<?> future : futures) {
+          future.cancel(true);
+        }
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  // evaluators keep their EL evaluators, with their compiled expressions, and their metrics across batches until
+  // the rules configuration changes
+  private DataRuleEvaluator getDataRuleEvaluator(DataRuleDefinition dataRuleDefinition) {
+    DataRuleEvaluator dataRuleEvaluator = dataRuleEvaluators.get(dataRuleDefinition.getId());
+    if (dataRuleEvaluator == null) {
+      Map<String, Object> pipelineELContext = ruleToPipelineELContext.get(dataRuleDefinition.getId());
+      if (pipelineELContext == null) {
+        pipelineELContext = new HashMap<>();
+        ruleToPipelineELContext.put(dataRuleDefinition.getId(), pipelineELContext);
+      }
+      dataRuleEvaluator = new DataRuleEvaluator(
+          name,
+          rev,
+          metrics,
+          alertManager,
+          rulesConfigurationChangeRequest.getRuleDefinitions().getEmailIds(),
+          pipelineELContext,
+          dataRuleDefinition,
+          configuration,
+          metricRegistryJson,
+          startsAggregatorQueue
+      );
+      dataRuleEvaluators.put(dataRuleDefinition.getId(), dataRuleEvaluator);
+    }
+    return dataRuleEvaluator;
   }
 
   public void handleConfigurationChangeRequest(RulesConfigurationChangeRequest rulesConfigurationChangeRequest) {
     //update config changes
     this.rulesConfigurationChangeRequest = rulesConfigurationChangeRequest;
+    dataRuleEvaluators.clear();
 
     //remove metrics for changed / deleted rules
     for(String ruleId : rulesConfigurationChangeRequest.getRulesToRemove().keySet()) {
@@ -190,6 +263,13 @@ public class DataObserverRunner {
 
   public void setMetricRegistryJson(MetricRegistryJson metricRegistryJson) {
     this.metricRegistryJson = metricRegistryJson;
+    dataRuleEvaluators.clear();
+  }
+
+  public void stop() {
+    if (evaluationExecutor != null) {
+      evaluationExecutor.shutdownNow();
+    }
   }
 
 }
@@ -0,0 +1,113 @@
+/**
+ * Copyright 2016 StreamSets Inc.
+ *
+ * Licensed under the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.execution.runner.common;
+
+import com.google.common.base.Preconditions;
+import com.streamsets.datacollector.runner.SourceOffsetTracker;
+import com.streamsets.pipeline.api.impl.Utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Offset tracker used when the origin runs ahead of the rest of the pipeline.
+ * <p/>
+ * Every batch gets its own tracker (see {@link #newBatchTracker()}). The origin reads from it the offset produced by
+ * the batch before it, even if that batch has not been committed yet, while commits are forwarded to the wrapped
+ * tracker strictly in the order in which the batches were created.
+ */
+public class PipelinedSourceOffsetTracker {
+
+  private final SourceOffsetTracker offsetTracker;
+  private final AtomicLong batchSequence;
+  private volatile String producedOffset;
+  private volatile boolean producerFinished;
+  private long lastCommittedSequence;
+
+  public PipelinedSourceOffsetTracker(SourceOffsetTracker offsetTracker) {
+    this.offsetTracker = offsetTracker;
+    batchSequence = new AtomicLong();
+    producedOffset = offsetTracker.getOffset();
+    lastCommittedSequence = -1;
+  }
+
+  /**
+   * Returns if the origin has produced the last batch, this is, if it returned a <code>null</code> offset.
+   */
+  public boolean isProducerFinished() {
+    return producerFinished;
+  }
+
+  /**
+   * Creates the tracker for the next batch. It must be called by the thread running the origin, right before the
+   * origin produces the batch.
+   */
+  public SourceOffsetTracker newBatchTracker() {
+    return new BatchOffsetTracker(batchSequence.getAndIncrement(), producedOffset);
+  }
+
+  private synchronized void commit(long sequence, String offset) {
+    Preconditions.checkState(sequence > lastCommittedSequence, Utils.formatL(
+        "Batch '{}' committed after batch '{}'", sequence, lastCommittedSequence));
+    offsetTracker.setOffset(offset);
+    offsetTracker.commitOffset();
+    lastCommittedSequence = sequence;
+  }
+
+  private class BatchOffsetTracker implements SourceOffsetTracker {
+    private final long sequence;
+    private final String previousOffset;
+    private String newOffset;
+    private boolean committed;
+
+    BatchOffsetTracker(long sequence, String previousOffset) {
+      this.sequence = sequence;
+      this.previousOffset = previousOffset;
+    }
+
+    @Override
+    public boolean isFinished() {
+      return offsetTracker.isFinished();
+    }
+
+    @Override
+    public String getOffset() {
+      return (committed) ? newOffset : previousOffset;
+    }
+
+    @Override
+    public void setOffset(String offset) {
+      newOffset = offset;
+      producedOffset = offset;
+      producerFinished = (offset == null);
+    }
+
+    @Override
+    public void commitOffset() {
+      commit(sequence, newOffset);
+      committed = true;
+    }
+
+    @Override
+    public long getLastBatchTime() {
+      return offsetTracker.getLastBatchTime();
+    }
+  }
+
+}
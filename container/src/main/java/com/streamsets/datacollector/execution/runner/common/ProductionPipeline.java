@@ -158,6 +158,9 @@ public class ProductionPipeline {
         }
       }
     } finally {
+      if (pipelineRunner.getOffSetTracker() instanceof ProductionSourceOffsetTracker) {
+        ((ProductionSourceOffsetTracker) pipelineRunner.getOffSetTracker()).close();
+      }
       MetricsConfigurator.cleanUpJmxMetrics(name, rev);
     }
   }
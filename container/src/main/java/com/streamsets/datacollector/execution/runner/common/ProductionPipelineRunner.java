@@ -63,6 +63,7 @@ import com.streamsets.datacollector.util.ContainerError;
 import com.streamsets.datacollector.util.PipelineException;
 import com.streamsets.pipeline.api.ErrorListener;
 import com.streamsets.pipeline.api.OffsetCommitTrigger;
+import com.streamsets.pipeline.api.OffsetCommitter;
 import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.Stage;
 import com.streamsets.pipeline.api.StageException;
@@ -80,6 +81,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
@@ -88,6 +90,7 @@ import java.util.concurrent.TimeUnit;
 public class ProductionPipelineRunner implements PipelineRunner {
 
   private static final Logger LOG = LoggerFactory.getLogger(ProductionPipelineRunner.class);
+  private static final long PIPELINED_POLL_INTERVAL_MS = 100;
 
   private final RuntimeInfo runtimeInfo;
   private final com.streamsets.datacollector.util.Configuration configuration;
@@ -120,6 +123,10 @@ public class ProductionPipelineRunner implements PipelineRunner {
   private volatile boolean stop = false;
   /*indicates if the next batch of data should be captured, only the next batch*/
   private volatile int batchesToCapture = 0;
+  /*number of batches created for capture and not written to the snapshot yet, guarded by this*/
+  private int capturesInFlight;
+  /*changes whenever a snapshot starts or is cancelled, batches captured for an earlier one are not written*/
+  private int snapshotGeneration;
   /*indicates the snapshot name to be captured*/
   private volatile String snapshotName;
   /*indicates the batch size to be captured*/
@@ -137,7 +144,7 @@ public class ProductionPipelineRunner implements PipelineRunner {
   private MemoryLimitConfiguration memoryLimitConfiguration;
   private long lastMemoryLimitNotification;
   private ThreadHealthReporter threadHealthReporter;
-  private final List<List<StageOutput>> capturedBatches = new ArrayList<>();
+  private final AsyncSnapshotWriter snapshotWriter;
 
   @Inject
   public ProductionPipelineRunner(@Named("name") String pipelineName, @Named ("rev") String revision,
@@ -154,6 +161,8 @@ public class ProductionPipelineRunner implements PipelineRunner {
     stageToErrorRecordsMap = new HashMap<>();
     stageToErrorMessagesMap = new HashMap<>();
     errorRecordsMutex = new Object();
+    snapshotWriter = new AsyncSnapshotWriter(snapshotStore, pipelineName, revision,
+        configuration.get(Constants.SNAPSHOT_MAX_PENDING_RECORDS_KEY, Constants.SNAPSHOT_MAX_PENDING_RECORDS_DEFAULT));
 
     MetricsConfigurator.registerPipeline(pipelineName, revision);
     batchProcessingTimer = MetricsConfigurator.createTimer(metrics, "pipeline.batchProcessing", pipelineName, revision);
@@ -263,6 +272,17 @@ public class ProductionPipelineRunner implements PipelineRunner {
 
     OffsetCommitTrigger offsetCommitTrigger = getOffsetCommitTrigger(pipes);
 
+    int pipelinedDepth = configuration.get(Constants.PIPELINED_EXECUTION_DEPTH_KEY,
+        Constants.PIPELINED_EXECUTION_DEPTH_DEFAULT);
+    if (pipelinedDepth > 0) {
+      if (isPipelinedExecutionSupported(pipes)) {
+        runPipelined(pipes, badRecordsHandler, statsAggregationHandler, offsetCommitTrigger, pipelinedDepth);
+        return;
+      }
+      LOG.warn("Pipelined execution is not supported for the origin of pipeline '{}', running batches sequentially",
+          pipelineName);
+    }
+
     while (!offsetTracker.isFinished() && !stop) {
       if (threadHealthReporter != null) {
         threadHealthReporter.reportHealth(ProductionPipelineRunnable.RUNNABLE_NAME, -1, System.currentTimeMillis());
@@ -285,6 +305,80 @@ public class ProductionPipelineRunner implements PipelineRunner {
     }
   }
 
+  /**
+   * Pipelined execution runs the origin in its own thread, ahead of the rest of the pipeline, so the origin can
+   * produce the next batches while the processors and targets work on the current one.
+   * <p/>
+   * Origins that commit offsets themselves ({@link OffsetCommitter}) are not supported, as committing on them would
+   * also commit the batches still in flight.
+   */
+  private boolean isPipelinedExecutionSupported(Pipe[] pipes) {
+    return pipes.length > 1 && pipes[0] instanceof StagePipe &&
+        pipes[0].getStage().getDefinition().getType() == StageType.SOURCE &&
+        !(pipes[0].getStage().getStage() instanceof OffsetCommitter);
+  }
+
+  private void runPipelined(
+      Pipe[] pipes,
+      BadRecordsHandler badRecordsHandler,
+      StatsAggregationHandler statsAggregationHandler,
+      OffsetCommitTrigger offsetCommitTrigger,
+      int pipelinedDepth
+  ) throws StageException, PipelineRuntimeException {
+    LOG.info("Running pipeline '{}' with up to '{}' batches in flight", pipelineName, pipelinedDepth);
+    BlockingQueue<PendingBatch> pendingBatches = new ArrayBlockingQueue<>(pipelinedDepth);
+    PipelinedBatchProducer producer = new PipelinedBatchProducer(pipes[0],
+        new PipelinedSourceOffsetTracker(offsetTracker), pendingBatches);
+    Thread producerThread = new Thread(producer, "ProductionPipelineRunner-" + pipelineName + "-origin");
+    producerThread.setDaemon(true);
+    producerThread.start();
+    try {
+      while (!offsetTracker.isFinished() && !stop && !(producer.isDone() && pendingBatches.isEmpty())) {
+        if (threadHealthReporter != null) {
+          threadHealthReporter.reportHealth(ProductionPipelineRunnable.RUNNABLE_NAME, -1, System.currentTimeMillis());
+        }
+        PendingBatch batch;
+        try {
+          batch = pendingBatches.poll(PIPELINED_POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+          Thread.currentThread().interrupt();
+          break;
+        }
+        if (batch == null) {
+          continue;
+        }
+        try {
+          if (batch.getError() != null) {
+            throw batch.getError();
+          }
+          //pick up any recent changes done to the rule definitions
+          if(observer != null) {
+            observer.reconfigure();
+          }
+          processBatch(pipes, 1, batch, badRecordsHandler, statsAggregationHandler, offsetCommitTrigger);
+          for (BatchListener batchListener : batchListenerList) {
+            batchListener.postBatch();
+          }
+        } catch (Throwable throwable) {
+          sendPipelineErrorNotificationRequest(throwable);
+          errorNotification(pipes, throwable);
+          Throwables.propagateIfInstanceOf(throwable, StageException.class);
+          Throwables.propagateIfInstanceOf(throwable, PipelineRuntimeException.class);
+          Throwables.propagate(throwable);
+        }
+      }
+    } finally {
+      // batches still in flight are discarded, their offsets have not been committed
+      producer.cancel();
+      pendingBatches.clear();
+      try {
+        producerThread.join();
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
   private void errorNotification(Pipe[] pipes, Throwable throwable) throws StageException {
     Set<ErrorListener> listeners = Sets.newIdentityHashSet();
     for (Pipe pipe : pipes) {
@@ -350,9 +444,14 @@ public class ProductionPipelineRunner implements PipelineRunner {
 
   public void capture(String snapshotName, int batchSize, int batches) {
     Preconditions.checkArgument(batchSize > 0);
+    snapshotWriter.start(snapshotName);
     this.snapshotName = snapshotName;
-    this.snapshotBatchSize = batchSize;
-    this.batchesToCapture = batches;
+    synchronized (this) {
+      this.snapshotBatchSize = batchSize;
+      this.batchesToCapture = batches;
+      this.capturesInFlight = 0;
+      this.snapshotGeneration++;
+    }
   }
 
   public void cancelSnapshot(String snapshotName) throws PipelineException {
@@ -360,8 +459,10 @@ public class ProductionPipelineRunner implements PipelineRunner {
     synchronized (this) {
       this.snapshotBatchSize = 0;
       this.batchesToCapture = 0;
-      capturedBatches.clear();
+      this.capturesInFlight = 0;
+      this.snapshotGeneration++;
     }
+    snapshotWriter.cancel();
   }
 
   private void runBatch(
@@ -370,44 +471,84 @@ public class ProductionPipelineRunner implements PipelineRunner {
       StatsAggregationHandler statsAggregationHandler,
       OffsetCommitTrigger offsetCommitTrigger
   ) throws PipelineException, StageException {
-    boolean committed = false;
-    /*value true indicates that this batch is captured */
-    boolean batchCaptured = false;
-    PipeBatch pipeBatch;
     //pick up any recent changes done to the rule definitions
     if(observer != null) {
       observer.reconfigure();
     }
+    PendingBatch batch = createPendingBatch(offsetTracker);
+    processBatch(pipes, 0, batch, badRecordsHandler, statsAggregationHandler, offsetCommitTrigger);
+  }
 
-    if(batchesToCapture > 0) {
-      batchCaptured = true;
-      pipeBatch = new FullPipeBatch(offsetTracker, snapshotBatchSize, true /*snapshot stage output*/);
+  private PendingBatch createPendingBatch(SourceOffsetTracker batchOffsetTracker) {
+    FullPipeBatch pipeBatch;
+    /*value true indicates that this batch is captured */
+    boolean batchCaptured;
+    int batchSize;
+    int generation;
+    synchronized (this) {
+      // in pipelined execution the origin creates batches ahead of the ones being written to the snapshot, so the
+      // capture is counted when the batch is created
+      batchCaptured = capturesInFlight < batchesToCapture;
+      if (batchCaptured) {
+        capturesInFlight++;
+      }
+      batchSize = snapshotBatchSize;
+      generation = snapshotGeneration;
+    }
+    if(batchCaptured) {
+      pipeBatch = new FullPipeBatch(batchOffsetTracker, batchSize, true /*snapshot stage output*/);
     } else {
-      pipeBatch = new FullPipeBatch(offsetTracker,
+      pipeBatch = new FullPipeBatch(batchOffsetTracker,
         configuration.get(Constants.MAX_BATCH_SIZE_KEY, Constants.MAX_BATCH_SIZE_DEFAULT),
         false /*snapshot stage output*/);
     }
-    ((FullPipeBatch) pipeBatch).setRateLimiter(rateLimiter);
+    pipeBatch.setRateLimiter(rateLimiter);
+    return new PendingBatch(pipeBatch, batchOffsetTracker, batchCaptured, generation,
+        batchOffsetTracker.getLastBatchTime());
+  }
+
+  /**
+   * Runs the given batch through the pipes starting at <code>firstPipe</code>, the pipes before it must have been
+   * processed already for this batch.
+   */
+  private void processBatch(
+      Pipe[] pipes,
+      int firstPipe,
+      PendingBatch batch,
+      BadRecordsHandler badRecordsHandler,
+      StatsAggregationHandler statsAggregationHandler,
+      OffsetCommitTrigger offsetCommitTrigger
+  ) throws PipelineException, StageException {
+    boolean committed = false;
+    PipeBatch pipeBatch = batch.getPipeBatch();
+    SourceOffsetTracker batchOffsetTracker = batch.getOffsetTracker();
     long start = System.currentTimeMillis();
     sourceOffset = pipeBatch.getPreviousOffset();
-    long lastBatchTime = offsetTracker.getLastBatchTime();
+    long lastBatchTime = batch.getLastBatchTime();
     Map<String, Long> memoryConsumedByStage = new HashMap<>();
     Map<String, Object> stageBatchMetrics = new HashMap<>();
-    for (Pipe pipe : pipes) {
+    for (int i = firstPipe; i < pipes.length; i++) {
+      Pipe pipe = pipes[i];
       //set the last batch time in the stage context of each pipe
       ((StageContext)pipe.getStage().getContext()).setLastBatchTime(lastBatchTime);
       //TODO Define an interface to handle delivery guarantee
       if (deliveryGuarantee == DeliveryGuarantee.AT_MOST_ONCE
           && pipe.getStage().getDefinition().getType() == StageType.TARGET && !committed) {
         // target cannot control offset commit in AT_MOST_ONCE mode
-        offsetTracker.commitOffset();
+        batchOffsetTracker.commitOffset();
         committed = true;
       }
       pipe.process(pipeBatch);
+    }
+    for (int i = 0; i < pipes.length; i++) {
+      Pipe pipe = pipes[i];
       if (pipe instanceof StagePipe) {
-        memoryConsumedByStage.put(pipe.getStage().getInfo().getInstanceName(), ((StagePipe)pipe).getMemoryConsumed());
+        String instanceName = pipe.getStage().getInfo().getInstanceName();
+        memoryConsumedByStage.put(instanceName, ((StagePipe)pipe).getMemoryConsumed());
         if (isStatsAggregationEnabled()) {
-          stageBatchMetrics.put(pipe.getStage().getInfo().getInstanceName(), ((StagePipe) pipe).getBatchMetrics());
+          // pipes before firstPipe may already be working on a later batch, use the metrics captured with this one
+          stageBatchMetrics.put(instanceName, (i < firstPipe) ? batch.getStageBatchMetrics(instanceName)
+              : ((StagePipe) pipe).getBatchMetrics());
         }
       }
     }
@@ -418,11 +559,11 @@ public class ProductionPipelineRunner implements PipelineRunner {
       // 1. There is no offset commit trigger for this pipeline or
       // 2. there is a commit trigger and it is on
       if (offsetCommitTrigger == null || offsetCommitTrigger.commit()) {
-        offsetTracker.commitOffset();
+        batchOffsetTracker.commitOffset();
       }
     }
 
-    long batchDuration = System.currentTimeMillis() - start;
+    long batchDuration = batch.getProcessingTime() + System.currentTimeMillis() - start;
     batchProcessingTimer.update(batchDuration, TimeUnit.MILLISECONDS);
     batchCountMeter.mark();
     batchInputRecordsHistogram.update(pipeBatch.getInputRecords());
@@ -454,23 +595,21 @@ public class ProductionPipelineRunner implements PipelineRunner {
     newSourceOffset = offsetTracker.getOffset();
 
     synchronized (this) {
-      if(batchCaptured && batchesToCapture > 0) {
+      if(batch.isCaptured() && batch.getSnapshotGeneration() == snapshotGeneration && batchesToCapture > 0) {
         List<StageOutput> snapshot = pipeBatch.getSnapshotsOfAllStagesOutput();
-        if (!snapshot.isEmpty()) {
-          capturedBatches.add(snapshot);
-        }
         /*
          * Reset the capture snapshot variable only after capturing the snapshot
          * This guarantees that once captureSnapshot is called, the output is captured exactly once
          * */
         batchesToCapture--;
+        capturesInFlight--;
+        // the snapshot is written by a background thread, the pipeline does not wait for it
+        if (!snapshotWriter.write(snapshot, batchesToCapture == 0)) {
+          batchesToCapture = 0;
+          capturesInFlight = 0;
+        }
         if (batchesToCapture == 0) {
           snapshotBatchSize = 0;
-          batchesToCapture = 0;
-          if (!capturedBatches.isEmpty()) {
-            snapshotStore.save(pipelineName, revision, snapshotName, capturedBatches);
-            capturedBatches.clear();
-          }
         }
       }
     }
@@ -640,4 +779,143 @@ public class ProductionPipelineRunner implements PipelineRunner {
     return null;
   }
 
+  /**
+   * A batch on its way through the pipeline, with the offset tracker it must commit through.
+   */
+  private static class PendingBatch {
+    private final FullPipeBatch pipeBatch;
+    private final SourceOffsetTracker offsetTracker;
+    private final boolean captured;
+    private final int snapshotGeneration;
+    private final long lastBatchTime;
+    private final Throwable error;
+    private final Map<String, Object> stageBatchMetrics;
+    private long processingTime;
+
+    PendingBatch(FullPipeBatch pipeBatch, SourceOffsetTracker offsetTracker, boolean captured, int snapshotGeneration,
+        long lastBatchTime) {
+      this(pipeBatch, offsetTracker, captured, snapshotGeneration, lastBatchTime, null);
+    }
+
+    PendingBatch(Throwable error) {
+      this(null, null, false, 0, 0, error);
+    }
+
+    private PendingBatch(FullPipeBatch pipeBatch, SourceOffsetTracker offsetTracker, boolean captured,
+        int snapshotGeneration, long lastBatchTime, Throwable error) {
+      this.pipeBatch = pipeBatch;
+      this.offsetTracker = offsetTracker;
+      this.captured = captured;
+      this.snapshotGeneration = snapshotGeneration;
+      this.lastBatchTime = lastBatchTime;
+      this.error = error;
+      stageBatchMetrics = new HashMap<>();
+    }
+
+    public FullPipeBatch getPipeBatch() {
+      return pipeBatch;
+    }
+
+    public SourceOffsetTracker getOffsetTracker() {
+      return offsetTracker;
+    }
+
+    public boolean isCaptured() {
+      return captured;
+    }
+
+    public int getSnapshotGeneration() {
+      return snapshotGeneration;
+    }
+
+    public long getLastBatchTime() {
+      return lastBatchTime;
+    }
+
+    public Throwable getError() {
+      return error;
+    }
+
+    public Object getStageBatchMetrics(String instanceName) {
+      return stageBatchMetrics.get(instanceName);
+    }
+
+    public void setStageBatchMetrics(String instanceName, Map<String, Object> batchMetrics) {
+      stageBatchMetrics.put(instanceName, new HashMap<>(batchMetrics));
+    }
+
+    public long getProcessingTime() {
+      return processingTime;
+    }
+
+    public void addProcessingTime(long time) {
+      processingTime += time;
+    }
+  }
+
+  /**
+   * Runs the origin of the pipeline in pipelined execution, handing the produced batches to the pipeline thread.
+   * The bounded queue limits how many batches can be in flight at any time.
+   */
+  private class PipelinedBatchProducer implements Runnable {
+    private final Pipe sourcePipe;
+    private final PipelinedSourceOffsetTracker pipelinedOffsetTracker;
+    private final BlockingQueue<PendingBatch> pendingBatches;
+    private volatile boolean cancelled;
+    private volatile boolean done;
+
+    PipelinedBatchProducer(Pipe sourcePipe, PipelinedSourceOffsetTracker pipelinedOffsetTracker,
+        BlockingQueue<PendingBatch> pendingBatches) {
+      this.sourcePipe = sourcePipe;
+      this.pipelinedOffsetTracker = pipelinedOffsetTracker;
+      this.pendingBatches = pendingBatches;
+    }
+
+    public void cancel() {
+      cancelled = true;
+    }
+
+    public boolean isDone() {
+      return done;
+    }
+
+    @Override
+    public void run() {
+      try {
+        while (!cancelled && !stop && !pipelinedOffsetTracker.isProducerFinished()) {
+          // listeners are told about the batch before the origin reads it, as in sequential execution; with
+          // batches in flight preBatch() of a batch may run before postBatch() of the previous ones
+          for (BatchListener batchListener : batchListenerList) {
+            batchListener.preBatch();
+          }
+          PendingBatch batch = createPendingBatch(pipelinedOffsetTracker.newBatchTracker());
+          long start = System.currentTimeMillis();
+          ((StageContext) sourcePipe.getStage().getContext()).setLastBatchTime(batch.getLastBatchTime());
+          sourcePipe.process(batch.getPipeBatch());
+          batch.addProcessingTime(System.currentTimeMillis() - start);
+          if (isStatsAggregationEnabled()) {
+            batch.setStageBatchMetrics(sourcePipe.getStage().getInfo().getInstanceName(),
+                ((StagePipe) sourcePipe).getBatchMetrics());
+          }
+          enqueue(batch);
+        }
+      } catch (Throwable throwable) {
+        LOG.error("Origin of pipeline '{}' failed: {}", pipelineName, throwable.toString(), throwable);
+        try {
+          enqueue(new PendingBatch(throwable));
+        } catch (InterruptedException ex) {
+          Thread.currentThread().interrupt();
+        }
+      } finally {
+        done = true;
+      }
+    }
+
+    private void enqueue(PendingBatch batch) throws InterruptedException {
+      while (!cancelled && !pendingBatches.offer(batch, PIPELINED_POLL_INTERVAL_MS, TimeUnit.MILLISECONDS)) {
+        LOG.trace("Waiting for the pipeline to take batch from origin");
+      }
+    }
+  }
+
 }
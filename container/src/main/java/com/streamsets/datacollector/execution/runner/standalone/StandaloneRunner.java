@@ -321,7 +321,8 @@ public class StandaloneRunner extends AbstractRunner implements StateListener {
     if(status == PipelineStatus.RUNNING) {
       throw new PipelineRunnerException(ContainerError.CONTAINER_0104, name);
     }
-    ProductionSourceOffsetTracker offsetTracker = new ProductionSourceOffsetTracker(name, rev, runtimeInfo);
+    ProductionSourceOffsetTracker offsetTracker = new ProductionSourceOffsetTracker(name, rev, runtimeInfo,
+      configuration);
     offsetTracker.resetOffset(name, rev);
   }
 
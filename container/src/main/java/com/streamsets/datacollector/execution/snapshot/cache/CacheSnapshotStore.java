@@ -68,6 +68,12 @@ public class CacheSnapshotStore implements SnapshotStore {
     }
   }
 
+  @Override
+  public void appendBatch(String name, String rev, String id, List<StageOutput> snapshotBatch)
+    throws PipelineException {
+    snapshotStore.appendBatch(name, rev, id, snapshotBatch);
+  }
+
   @Override
   public SnapshotInfo save(String name, String rev, String id, List<List<StageOutput>> snapshotBatches)
     throws PipelineException {
@@ -23,13 +23,12 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.streamsets.datacollector.execution.Snapshot;
 import com.streamsets.datacollector.execution.SnapshotInfo;
 import com.streamsets.datacollector.execution.SnapshotStore;
-import com.streamsets.datacollector.execution.snapshot.common.SnapshotData;
 import com.streamsets.datacollector.execution.snapshot.common.SnapshotImpl;
 import com.streamsets.datacollector.execution.snapshot.common.SnapshotInfoImpl;
 import com.streamsets.datacollector.io.DataStore;
 import com.streamsets.datacollector.json.ObjectMapperFactory;
 import com.streamsets.datacollector.main.RuntimeInfo;
-import com.streamsets.datacollector.restapi.bean.SnapshotDataJson;
+import com.streamsets.datacollector.restapi.bean.BeanHelper;
 import com.streamsets.datacollector.restapi.bean.SnapshotInfoJson;
 import com.streamsets.datacollector.runner.PipelineRuntimeException;
 import com.streamsets.datacollector.runner.StageOutput;
@@ -41,12 +40,17 @@ import com.streamsets.datacollector.util.PipelineException;
 
 import javax.inject.Inject;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.FilenameFilter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -54,27 +58,51 @@ import java.util.List;
 public class FileSnapshotStore implements SnapshotStore {
   private static final String SNAPSHOT_FILE_NAME = "snapshot.json";
   private static final String INFO_FILE_NAME = "info.json";
+  // data of a snapshot in progress, renamed to the snapshot file once complete
+  private static final String PARTIAL_SNAPSHOT_FILE_NAME = "snapshot.json.partial";
+  private static final byte[] SNAPSHOT_START = "{\"snapshotBatches\":[".getBytes(StandardCharsets.UTF_8);
+  private static final byte[] BATCH_SEPARATOR = ",".getBytes(StandardCharsets.UTF_8);
+  private static final byte[] SNAPSHOT_END = "]}".getBytes(StandardCharsets.UTF_8);
   private final LockCache<String> lockCache;
   private final RuntimeInfo runtimeInfo;
   private final ObjectMapper json;
+  private final ObjectMapper jsonOneLine;
 
   @Inject
   public FileSnapshotStore(RuntimeInfo runtimeInfo, LockCache<String> lockCache) {
     this.runtimeInfo = runtimeInfo;
     this.lockCache = lockCache;
     json = ObjectMapperFactory.get();
+    jsonOneLine = ObjectMapperFactory.getOneLine();
   }
 
   @Override
   public SnapshotInfo create(String user, String name, String rev, String id, String label) throws PipelineException {
     synchronized (lockCache.getLock(name)) {
       PipelineDirectoryUtil.createPipelineSnapshotDir(runtimeInfo, name, rev, id);
+      // a capture stopped before completing leaves its batches behind, they must not be part of the new capture
+      try {
+        Files.deleteIfExists(getPartialPipelineSnapshotFile(name, rev, id).toPath());
+      } catch (IOException e) {
+        throw new PipelineRuntimeException(ContainerError.CONTAINER_0603, id, name, rev, e.toString(), e);
+      }
       SnapshotInfo snapshotInfo = new SnapshotInfoImpl(user, id, label, name, rev, System.currentTimeMillis(), true);
       persistSnapshotInfo(snapshotInfo);
       return snapshotInfo;
     }
   }
 
+  @Override
+  public void appendBatch(String name, String rev, String id, List<StageOutput> snapshotBatch)
+    throws PipelineException {
+    synchronized (lockCache.getLock(name)) {
+      if (getInfo(name, rev, id) == null) {
+        throw new PipelineException(ContainerError.CONTAINER_0605);
+      }
+      appendSnapshotBatches(name, rev, id, Collections.singletonList(snapshotBatch));
+    }
+  }
+
   @Override
   public SnapshotInfo save(String name, String rev, String id, List<List<StageOutput>> snapshotBatches)
     throws PipelineException {
@@ -83,7 +111,8 @@ public class FileSnapshotStore implements SnapshotStore {
       if (existingInfo == null) {
         throw new PipelineException(ContainerError.CONTAINER_0605);
       }
-      persistSnapshot(name, rev, id, snapshotBatches);
+      appendSnapshotBatches(name, rev, id, snapshotBatches);
+      completeSnapshot(name, rev, id);
       SnapshotInfo updatedSnapshotInfo =
         new SnapshotInfoImpl(existingInfo.getUser(), id, existingInfo.getLabel(), name, rev, System.currentTimeMillis(),
             false);
@@ -193,6 +222,11 @@ public class FileSnapshotStore implements SnapshotStore {
       SNAPSHOT_FILE_NAME);
   }
 
+  private File getPartialPipelineSnapshotFile(String pipelineName, String rev, String snapshotName) {
+    return new File(PipelineDirectoryUtil.getPipelineSnapshotDir(runtimeInfo, pipelineName, rev, snapshotName),
+      PARTIAL_SNAPSHOT_FILE_NAME);
+  }
+
   private File getPipelineSnapshotInfoFile(String name, String rev, String id) {
     return new File(PipelineDirectoryUtil.getPipelineSnapshotDir(runtimeInfo, name, rev, id),
       INFO_FILE_NAME);
@@ -212,16 +246,40 @@ public class FileSnapshotStore implements SnapshotStore {
     }
   }
 
-  private void persistSnapshot(String name, String rev, String id, List<List<StageOutput>> snapshotBatches)
+  /**
+   * Appends batches to the partial snapshot file. The file holds the same JSON document as a complete snapshot, minus
+   * its closing brackets, so batches can be written as they are captured instead of all at once.
+   */
+  private void appendSnapshotBatches(String name, String rev, String id, List<List<StageOutput>> snapshotBatches)
     throws PipelineRuntimeException {
-    DataStore dataStore = new DataStore(getPipelineSnapshotFile(name, rev, id));
-    try (OutputStream out = dataStore.getOutputStream()) {
-      json.writeValue(out, new SnapshotDataJson(new SnapshotData(snapshotBatches)));
-      dataStore.commit(out);
+    File partialFile = getPartialPipelineSnapshotFile(name, rev, id);
+    boolean first = !partialFile.exists() || partialFile.length() == 0;
+    try (OutputStream out = new BufferedOutputStream(new FileOutputStream(partialFile, true))) {
+      if (first) {
+        out.write(SNAPSHOT_START);
+      }
+      for (List<StageOutput> snapshotBatch : snapshotBatches) {
+        if (!first) {
+          out.write(BATCH_SEPARATOR);
+        }
+        jsonOneLine.writeValue(out, BeanHelper.wrapStageOutput(snapshotBatch));
+        first = false;
+      }
+    } catch (IOException e) {
+      throw new PipelineRuntimeException(ContainerError.CONTAINER_0603, id, name, rev, e.toString(), e);
+    }
+  }
+
+  private void completeSnapshot(String name, String rev, String id) throws PipelineRuntimeException {
+    File partialFile = getPartialPipelineSnapshotFile(name, rev, id);
+    try {
+      try (OutputStream out = new FileOutputStream(partialFile, true)) {
+        out.write(SNAPSHOT_END);
+      }
+      Files.move(partialFile.toPath(), getPipelineSnapshotFile(name, rev, id).toPath(),
+          StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
     } catch (IOException e) {
       throw new PipelineRuntimeException(ContainerError.CONTAINER_0603, id, name, rev, e.toString(), e);
-    } finally {
-      dataStore.release();
     }
   }
 
@@ -0,0 +1,59 @@
+/**
+ * Copyright 2016 StreamSets Inc.
+ *
+ * Licensed under the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.streamsets.datacollector.metrics.LogLinearHistogram;
+import com.streamsets.datacollector.metrics.MergeableHistogram;
+
+import java.io.IOException;
+
+public class MergeableHistogramSerializer extends JsonSerializer<MergeableHistogram> {
+  private final boolean includeHistogram;
+
+  public MergeableHistogramSerializer(boolean includeHistogram) {
+    this.includeHistogram = includeHistogram;
+  }
+
+  @Override
+  public void serialize(MergeableHistogram histogram, JsonGenerator jgen, SerializerProvider provider)
+      throws IOException {
+    LogLinearHistogram values = histogram.getHistogram();
+    jgen.writeStartObject();
+    jgen.writeNumberField("count", histogram.getCount());
+    jgen.writeNumberField("max", values.getMax());
+    jgen.writeNumberField("mean", values.getMean());
+    jgen.writeNumberField("min", values.getMin());
+    jgen.writeNumberField("p50", values.getValue(0.5));
+    jgen.writeNumberField("p75", values.getValue(0.75));
+    jgen.writeNumberField("p95", values.getValue(0.95));
+    jgen.writeNumberField("p98", values.getValue(0.98));
+    jgen.writeNumberField("p99", values.getValue(0.99));
+    jgen.writeNumberField("p999", values.getValue(0.999));
+    jgen.writeNumberField("stddev", values.getStdDev());
+    if (includeHistogram) {
+      jgen.writeStringField("histogram", values.encode());
+    }
+    jgen.writeEndObject();
+  }
+
+}
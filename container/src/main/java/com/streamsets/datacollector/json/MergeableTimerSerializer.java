@@ -0,0 +1,79 @@
+/**
+ * Copyright 2016 StreamSets Inc.
+ *
+ * Licensed under the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.streamsets.datacollector.metrics.LogLinearHistogram;
+import com.streamsets.datacollector.metrics.MergeableTimer;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+public class MergeableTimerSerializer extends JsonSerializer<MergeableTimer> {
+  private final String rateUnit;
+  private final double rateFactor;
+  private final String durationUnit;
+  private final double durationFactor;
+  private final boolean includeHistogram;
+
+  private static String calculateRateUnit(TimeUnit unit, String name) {
+    String s = unit.toString().toLowerCase(Locale.US);
+    return name + '/' + s.substring(0, s.length() - 1);
+  }
+
+  public MergeableTimerSerializer(TimeUnit rateUnit, TimeUnit durationUnit, boolean includeHistogram) {
+    this.rateFactor = (double)rateUnit.toSeconds(1L);
+    this.rateUnit = calculateRateUnit(rateUnit, "calls");
+    this.durationFactor = 1.0 / durationUnit.toNanos(1L);
+    this.durationUnit = durationUnit.toString().toLowerCase(Locale.US);
+    this.includeHistogram = includeHistogram;
+  }
+
+  @Override
+  public void serialize(MergeableTimer timer, JsonGenerator jgen, SerializerProvider provider) throws IOException {
+    LogLinearHistogram durations = timer.getHistogram();
+    jgen.writeStartObject();
+    jgen.writeNumberField("count", timer.getCount());
+    jgen.writeNumberField("max", durations.getMax() * this.durationFactor);
+    jgen.writeNumberField("mean", durations.getMean() * this.durationFactor);
+    jgen.writeNumberField("min", durations.getMin() * this.durationFactor);
+    jgen.writeNumberField("p50", durations.getValue(0.5) * this.durationFactor);
+    jgen.writeNumberField("p75", durations.getValue(0.75) * this.durationFactor);
+    jgen.writeNumberField("p95", durations.getValue(0.95) * this.durationFactor);
+    jgen.writeNumberField("p98", durations.getValue(0.98) * this.durationFactor);
+    jgen.writeNumberField("p99", durations.getValue(0.99) * this.durationFactor);
+    jgen.writeNumberField("p999", durations.getValue(0.999) * this.durationFactor);
+    jgen.writeNumberField("stddev", durations.getStdDev() * this.durationFactor);
+    jgen.writeNumberField("m15_rate", timer.getFifteenMinuteRate() * this.rateFactor);
+    jgen.writeNumberField("m1_rate", timer.getOneMinuteRate() * this.rateFactor);
+    jgen.writeNumberField("m5_rate", timer.getFiveMinuteRate() * this.rateFactor);
+    jgen.writeNumberField("mean_rate", timer.getMeanRate() * this.rateFactor);
+    jgen.writeStringField("duration_units", this.durationUnit);
+    jgen.writeStringField("rate_units", this.rateUnit);
+    if (includeHistogram) {
+      jgen.writeStringField("histogram", durations.encode());
+    }
+    jgen.writeEndObject();
+  }
+
+}
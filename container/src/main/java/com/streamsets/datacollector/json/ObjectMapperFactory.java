@@ -27,6 +27,8 @@ import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.module.SimpleModule;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.streamsets.datacollector.metrics.ExtendedMeter;
+import com.streamsets.datacollector.metrics.MergeableHistogram;
+import com.streamsets.datacollector.metrics.MergeableTimer;
 import com.streamsets.datacollector.record.FieldDeserializer;
 import com.streamsets.datacollector.restapi.bean.FieldJson;
 import com.streamsets.pipeline.api.impl.ErrorMessage;
@@ -35,12 +37,13 @@ import java.util.concurrent.TimeUnit;
 
 public class ObjectMapperFactory {
 
-  private static final ObjectMapper OBJECT_MAPPER = create(true);
-  private static final ObjectMapper OBJECT_MAPPER_ONE_LINE = create(false);
+  private static final ObjectMapper OBJECT_MAPPER = create(true, false);
+  private static final ObjectMapper OBJECT_MAPPER_ONE_LINE = create(false, false);
+  private static final ObjectMapper OBJECT_MAPPER_MERGEABLE_METRICS = create(false, true);
 
   private ObjectMapperFactory() {}
 
-  private static ObjectMapper create(boolean indent) {
+  private static ObjectMapper create(boolean indent, boolean includeMetricHistograms) {
     ObjectMapper objectMapper = new ObjectMapper();
     // This will cause the objectmapper to not close the underlying output stream
     objectMapper.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
@@ -49,6 +52,11 @@ public class ObjectMapperFactory {
     SimpleModule module = new SimpleModule();
     module.addDeserializer(FieldJson.class, new FieldDeserializer());
     module.addSerializer(ExtendedMeter.class, new ExtendedMeterSerializer(TimeUnit.SECONDS));
+    module.addSerializer(MergeableHistogram.class, new MergeableHistogramSerializer(includeMetricHistograms));
+    module.addSerializer(
+        MergeableTimer.class,
+        new MergeableTimerSerializer(TimeUnit.SECONDS, TimeUnit.SECONDS, includeMetricHistograms)
+    );
     module.addDeserializer(ErrorMessage.class, new ErrorMessageDeserializer());
     objectMapper.registerModule(module);
     if (indent) {
@@ -65,4 +73,12 @@ public class ObjectMapperFactory {
     return OBJECT_MAPPER_ONE_LINE;
   }
 
+  /**
+   * One line object mapper that also writes the encoded histograms of timers and histograms, used when the metrics
+   * are to be merged with the ones of other data collectors.
+   */
+  public static ObjectMapper getOneLineWithMergeableMetrics() {
+    return OBJECT_MAPPER_MERGEABLE_METRICS;
+  }
+
 }
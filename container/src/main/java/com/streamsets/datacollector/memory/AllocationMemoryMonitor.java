@@ -0,0 +1,146 @@
+/**
+ * Copyright 2016 StreamSets Inc.
+ *
+ * Licensed under the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.memory;
+
+import com.codahale.metrics.Counter;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.impl.Utils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Accounts the memory consumed by a stage from the bytes the processing thread allocates while the stage runs a
+ * batch and an estimate of the records the stage produced in that batch, which stay alive until the batch is done.
+ * Unlike {@link MemoryMonitor} it does not walk the heap, it costs two thread allocation counter reads per batch
+ * plus the estimation of a sample of the output records.
+ */
+public class AllocationMemoryMonitor {
+  private static final Logger LOG = LoggerFactory.getLogger(AllocationMemoryMonitor.class);
+  private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN;
+
+  static {
+    com.sun.management.ThreadMXBean threadMXBean = null;
+    try {
+      ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+      if (bean instanceof com.sun.management.ThreadMXBean &&
+          ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()) {
+        threadMXBean = (com.sun.management.ThreadMXBean) bean;
+        if (!threadMXBean.isThreadAllocatedMemoryEnabled()) {
+          threadMXBean.setThreadAllocatedMemoryEnabled(true);
+        }
+      } else {
+        LOG.warn("Thread allocated memory is not supported by this JVM, only record estimates will be accounted");
+      }
+    } catch (Exception e) {
+      LOG.warn("Could not enable thread allocated memory accounting: " + e, e);
+      threadMXBean = null;
+    }
+    THREAD_MX_BEAN = threadMXBean;
+  }
+
+  private final Counter memoryConsumed;
+  private final int recordSampleSize;
+  private final boolean includeSourceRecord;
+  private final boolean boundedByAllocated;
+
+  public AllocationMemoryMonitor(Counter memoryConsumed, int recordSampleSize, boolean includeSourceRecord) {
+    this(memoryConsumed, recordSampleSize, includeSourceRecord, true);
+  }
+
+  /**
+   * @param boundedByAllocated if the record estimate is bounded by the bytes allocated by the processing thread, it
+   * must be <code>false</code> for origins, which may read the data of their records on other threads.
+   */
+  public AllocationMemoryMonitor(Counter memoryConsumed, int recordSampleSize, boolean includeSourceRecord,
+      boolean boundedByAllocated) {
+    Utils.checkArgument(recordSampleSize > 0, "recordSampleSize must be greater than zero");
+    this.memoryConsumed = memoryConsumed;
+    this.recordSampleSize = recordSampleSize;
+    this.includeSourceRecord = includeSourceRecord;
+    this.boundedByAllocated = boundedByAllocated;
+  }
+
+  public static boolean isAllocatedMemorySupported() {
+    return THREAD_MX_BEAN != null;
+  }
+
+  /**
+   * Returns the bytes allocated so far by the current thread, or <code>-1</code> if the JVM does not track them.
+   * Must be called on the thread that processes the batch.
+   */
+  public long start() {
+    return getAllocatedBytes();
+  }
+
+  /**
+   * Updates the memory consumed counter, in MB like {@link MemoryMonitor}, with the estimated size of the records
+   * the stage produced, bounded (unless disabled) by the bytes the current thread allocated since
+   * <code>start()</code> returned <code>allocatedAtStart</code>.
+   */
+  public long end(long allocatedAtStart, Map<String, List<Record>> stageOutput) {
+    long allocated = -1;
+    if (allocatedAtStart >= 0) {
+      long allocatedAtEnd = getAllocatedBytes();
+      if (allocatedAtEnd >= allocatedAtStart) {
+        allocated = allocatedAtEnd - allocatedAtStart;
+      }
+    }
+    long retained = estimateRecords(stageOutput);
+    if (boundedByAllocated && allocated >= 0 && retained > allocated) {
+      retained = allocated;
+    }
+    if (LOG.isDebugEnabled()) {
+      LOG.debug(Utils.format("Batch allocated {}, retained records estimated at {}",
+          (allocated < 0) ? "n/a" : Utils.humanReadableInt(allocated), Utils.humanReadableInt(retained)));
+    }
+    long currentValue = memoryConsumed.getCount();
+    memoryConsumed.inc((retained / 1000000) - currentValue);
+    return retained;
+  }
+
+  long estimateRecords(Map<String, List<Record>> stageOutput) {
+    long size = 0;
+    for (List<Record> records : stageOutput.values()) {
+      int count = records.size();
+      if (count > 0) {
+        // sample records spread over the whole lane and extrapolate to the lane size
+        int step = Math.max(1, count / recordSampleSize);
+        long sampleSize = 0;
+        int sampled = 0;
+        for (int i = 0; i < count; i += step) {
+          sampleSize += RecordSizeEstimator.estimate(records.get(i), includeSourceRecord);
+          sampled++;
+        }
+        size += (sampleSize * count) / sampled;
+      }
+    }
+    return size;
+  }
+
+  private static long getAllocatedBytes() {
+    return (THREAD_MX_BEAN == null) ? -1 : THREAD_MX_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId());
+  }
+
+}
@@ -0,0 +1,138 @@
+/**
+ * Copyright 2016 StreamSets Inc.
+ *
+ * Licensed under the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.memory;
+
+import com.streamsets.datacollector.record.HeaderImpl;
+import com.streamsets.datacollector.record.RecordImpl;
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.Record;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Estimates the shallow heap footprint of records by walking their fields rather than the object graph. The sizes
+ * assume a 64 bit JVM with compressed oops and are only meant to be in the right order of magnitude, they are
+ * used to account for the records a stage keeps alive while a batch is in flight.
+ */
+public class RecordSizeEstimator {
+  static final int OBJECT_HEADER = 16;
+  static final int REFERENCE = 4;
+  static final int FIELD = 24;
+  static final int RECORD = 32;
+  static final int HEADER = 80;
+  static final int BOXED_VALUE = 16;
+  static final int BOXED_WIDE_VALUE = 24;
+  static final int BIG_DECIMAL = 72;
+  static final int DATE = 24;
+  static final int LIST = 40;
+  static final int MAP = 48;
+  static final int MAP_ENTRY = 40;
+  static final int STRING = 40;
+
+  private RecordSizeEstimator() {
+  }
+
+  /**
+   * Returns the estimated number of bytes held by the given record, its header attributes and fields. The copy of
+   * the original record that origins attach to the header is only counted if <code>includeSourceRecord</code> is
+   * set, the other stages share it with the origin.
+   */
+  public static long estimate(Record record, boolean includeSourceRecord) {
+    // reading the value must not make a record sharing it copy it
+    Field field = (record instanceof RecordImpl) ? ((RecordImpl) record).peek() : record.get();
+    long size = RECORD + HEADER + estimate(field);
+    Record.Header header = record.getHeader();
+    if (header instanceof HeaderImpl) {
+      Map<String, Object> values = ((HeaderImpl) header).getValues();
+      size += MAP + values.size() * MAP_ENTRY;
+      for (Map.Entry<String, Object> entry : values.entrySet()) {
+        size += estimate(entry.getKey());
+        Object value = entry.getValue();
+        if (value instanceof Record) {
+          if (includeSourceRecord) {
+            size += estimate((Record) value, false);
+          }
+        } else {
+          size += estimateValue(value);
+        }
+      }
+    }
+    return size;
+  }
+
+  public static long estimate(Field field) {
+    if (field == null) {
+      return 0;
+    }
+    long size = FIELD;
+    Object value = field.getValue();
+    if (value instanceof Map) {
+      Map<?, ?> map = (Map<?, ?>) value;
+      size += MAP + map.size() * MAP_ENTRY;
+      for (Map.Entry<?, ?> entry : map.entrySet()) {
+        size += estimateValue(entry.getKey());
+        size += estimateValue(entry.getValue());
+      }
+    } else if (value instanceof List) {
+      List<?> list = (List<?>) value;
+      size += LIST + list.size() * REFERENCE;
+      for (Object element : list) {
+        size += estimateValue(element);
+      }
+    } else {
+      size += estimateValue(value);
+    }
+    return size;
+  }
+
+  static long estimate(String value) {
+    return (value == null) ? 0 : align(STRING + 2L * value.length());
+  }
+
+  private static long estimateValue(Object value) {
+    long size;
+    if (value == null) {
+      size = 0;
+    } else if (value instanceof Field) {
+      size = estimate((Field) value);
+    } else if (value instanceof String) {
+      size = estimate((String) value);
+    } else if (value instanceof byte[]) {
+      size = align(OBJECT_HEADER + ((byte[]) value).length);
+    } else if (value instanceof BigDecimal) {
+      size = BIG_DECIMAL;
+    } else if (value instanceof Date) {
+      size = DATE;
+    } else if (value instanceof Long || value instanceof Double) {
+      size = BOXED_WIDE_VALUE;
+    } else {
+      size = BOXED_VALUE;
+    }
+    return size;
+  }
+
+  private static long align(long size) {
+    return (size + 7) & ~7L;
+  }
+
+}
@@ -0,0 +1,267 @@
+/**
+ * Copyright 2016 StreamSets Inc.
+ *
+ * Licensed under the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.metrics;
+
+import com.google.common.io.BaseEncoding;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Histogram of non negative long values kept in log-linear buckets: values below 64 get a bucket each, larger
+ * values share a bucket with the values having the same 6 most significant bits. A bucket never spans more than
+ * 1/32 of its lower bound, so quantiles are accurate to about 3%.
+ * <p/>
+ * Unlike the sampling reservoirs, two histograms merge exactly by adding up their buckets, which is what allows
+ * computing cluster wide percentiles out of the histograms of every slave. Histograms travel between data
+ * collectors as the compact string produced by {@link #encode()}.
+ * <p/>
+ * This class is not thread safe.
+ */
+public class LogLinearHistogram {
+  private static final int PRECISION_BITS = 6;
+  private static final int LINEAR_LIMIT = 1 << PRECISION_BITS;
+  private static final int SUB_BUCKETS = 1 << (PRECISION_BITS - 1);
+  private static final int ENCODING_VERSION = 1;
+
+  // buckets are kept only for the range of indexes seen so far, counts[0] is the bucket at index offset
+  private long[] counts;
+  private int offset;
+  private long count;
+  private long sum;
+  private long min;
+  private long max;
+
+  public LogLinearHistogram() {
+    counts = new long[0];
+    min = Long.MAX_VALUE;
+    max = Long.MIN_VALUE;
+  }
+
+  static int bucketIndex(long value) {
+    if (value < LINEAR_LIMIT) {
+      return (int) value;
+    }
+    int shift = 63 - Long.numberOfLeadingZeros(value) - PRECISION_BITS + 1;
+    return shift * SUB_BUCKETS + (int) (value >>> shift);
+  }
+
+  static long bucketValue(int index) {
+    if (index < LINEAR_LIMIT) {
+      return index;
+    }
+    int shift = index / SUB_BUCKETS - 1;
+    long lowerBound = (long) (index - shift * SUB_BUCKETS) << shift;
+    return lowerBound + ((1L << shift) >>> 1);
+  }
+
+  private void ensureBucket(int index) {
+    if (counts.length == 0) {
+      counts = new long[1];
+      offset = index;
+    } else if (index < offset) {
+      long[] newCounts = new long[counts.length + offset - index];
+      System.arraycopy(counts, 0, newCounts, offset - index, counts.length);
+      counts = newCounts;
+      offset = index;
+    } else if (index >= offset + counts.length) {
+      counts = Arrays.copyOf(counts, index - offset + 1);
+    }
+  }
+
+  public void record(long value) {
+    if (value < 0) {
+      value = 0;
+    }
+    int index = bucketIndex(value);
+    ensureBucket(index);
+    counts[index - offset]++;
+    count++;
+    sum += value;
+    min = Math.min(min, value);
+    max = Math.max(max, value);
+  }
+
+  public void merge(LogLinearHistogram other) {
+    if (other.count == 0) {
+      return;
+    }
+    ensureBucket(other.offset);
+    ensureBucket(other.offset + other.counts.length - 1);
+    for (int i = 0; i < other.counts.length; i++) {
+      counts[other.offset + i - offset] += other.counts[i];
+    }
+    count += other.count;
+    sum += other.sum;
+    min = Math.min(min, other.min);
+    max = Math.max(max, other.max);
+  }
+
+  public void reset() {
+    Arrays.fill(counts, 0);
+    count = 0;
+    sum = 0;
+    min = Long.MAX_VALUE;
+    max = Long.MIN_VALUE;
+  }
+
+  public long getCount() {
+    return count;
+  }
+
+  public long getMin() {
+    return (count == 0) ? 0 : min;
+  }
+
+  public long getMax() {
+    return (count == 0) ? 0 : max;
+  }
+
+  public double getMean() {
+    return (count == 0) ? 0 : (double) sum / count;
+  }
+
+  public double getStdDev() {
+    if (count <= 1) {
+      return 0;
+    }
+    double mean = getMean();
+    double sumOfSquares = 0;
+    for (int i = 0; i < counts.length; i++) {
+      if (counts[i] > 0) {
+        double diff = valueAt(offset + i) - mean;
+        sumOfSquares += counts[i] * diff * diff;
+      }
+    }
+    return Math.sqrt(sumOfSquares / (count - 1));
+  }
+
+  /**
+   * Returns the value at the given quantile, between 0 and 1.
+   */
+  public long getValue(double quantile) {
+    if (quantile < 0.0 || quantile > 1.0 || Double.isNaN(quantile)) {
+      throw new IllegalArgumentException(quantile + " is not in [0..1]");
+    }
+    if (count == 0) {
+      return 0;
+    }
+    long rank = Math.max(1, (long) Math.ceil(quantile * count));
+    long seen = 0;
+    for (int i = 0; i < counts.length; i++) {
+      seen += counts[i];
+      if (seen >= rank) {
+        return valueAt(offset + i);
+      }
+    }
+    return max;
+  }
+
+  /**
+   * Returns every recorded value, approximated to its bucket.
+   */
+  public long[] getValues() {
+    long[] values = new long[(int) Math.min(count, Integer.MAX_VALUE)];
+    int pos = 0;
+    for (int i = 0; i < counts.length && pos < values.length; i++) {
+      long value = valueAt(offset + i);
+      for (long j = 0; j < counts[i] && pos < values.length; j++) {
+        values[pos++] = value;
+      }
+    }
+    return values;
+  }
+
+  // the exact min and max are known, using them as bounds makes single valued histograms exact
+  private long valueAt(int index) {
+    return Math.max(min, Math.min(max, bucketValue(index)));
+  }
+
+  public String encode() {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(32 + counts.length);
+    writeVarLong(out, ENCODING_VERSION);
+    writeVarLong(out, count);
+    writeVarLong(out, sum);
+    writeVarLong(out, getMin());
+    writeVarLong(out, getMax());
+    int lastIndex = 0;
+    for (int i = 0; i < counts.length; i++) {
+      if (counts[i] > 0) {
+        writeVarLong(out, offset + i - lastIndex);
+        writeVarLong(out, counts[i]);
+        lastIndex = offset + i;
+      }
+    }
+    return BaseEncoding.base64().encode(out.toByteArray());
+  }
+
+  public static LogLinearHistogram decode(String encoded) {
+    ByteBuffer buffer = ByteBuffer.wrap(BaseEncoding.base64().decode(encoded));
+    try {
+      long version = readVarLong(buffer);
+      if (version != ENCODING_VERSION) {
+        throw new IllegalArgumentException("Unsupported histogram encoding version " + version);
+      }
+      LogLinearHistogram histogram = new LogLinearHistogram();
+      long count = readVarLong(buffer);
+      long sum = readVarLong(buffer);
+      long min = readVarLong(buffer);
+      long max = readVarLong(buffer);
+      int index = 0;
+      while (buffer.hasRemaining()) {
+        index += (int) readVarLong(buffer);
+        long bucketCount = readVarLong(buffer);
+        histogram.ensureBucket(index);
+        histogram.counts[index - histogram.offset] = bucketCount;
+      }
+      if (count > 0) {
+        histogram.count = count;
+        histogram.sum = sum;
+        histogram.min = min;
+        histogram.max = max;
+      }
+      return histogram;
+    } catch (BufferUnderflowException ex) {
+      throw new IllegalArgumentException("Truncated histogram encoding", ex);
+    }
+  }
+
+  private static void writeVarLong(ByteArrayOutputStream out, long value) {
+    while ((value & ~0x7FL) != 0) {
+      out.write((int) ((value & 0x7F) | 0x80));
+      value >>>= 7;
+    }
+    out.write((int) value);
+  }
+
+  private static long readVarLong(ByteBuffer buffer) {
+    long value = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      byte b = buffer.get();
+      value |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IllegalArgumentException("Malformed histogram encoding");
+  }
+}
@@ -0,0 +1,149 @@
+/**
+ * Copyright 2016 StreamSets Inc.
+ *
+ * Licensed under the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.metrics;
+
+import com.codahale.metrics.Clock;
+import com.codahale.metrics.Reservoir;
+import com.codahale.metrics.Snapshot;
+
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sliding time window reservoir backed by {@link LogLinearHistogram}s instead of the raw measurements.
+ * <p/>
+ * The window is split in a few sub-windows, each one with its own histogram, and the histogram of a sub-window is
+ * recycled once the sub-window falls out of the window. Memory is bounded regardless of the rate of updates and the
+ * resulting histogram can be merged with the ones of other data collectors.
+ */
+public class MergeableReservoir implements Reservoir {
+  private static final int SUB_WINDOWS = 4;
+
+  private final Clock clock;
+  private final long subWindowNanos;
+  private final LogLinearHistogram[] histograms;
+  private final long[] subWindowIds;
+
+  public MergeableReservoir(long window, TimeUnit unit) {
+    this(window, unit, Clock.defaultClock());
+  }
+
+  public MergeableReservoir(long window, TimeUnit unit, Clock clock) {
+    this.clock = clock;
+    // the oldest sub-window is partially expired, so the window covers (SUB_WINDOWS - 1) full sub-windows
+    subWindowNanos = Math.max(1, unit.toNanos(window) / (SUB_WINDOWS - 1));
+    histograms = new LogLinearHistogram[SUB_WINDOWS];
+    subWindowIds = new long[SUB_WINDOWS];
+    for (int i = 0; i < SUB_WINDOWS; i++) {
+      histograms[i] = new LogLinearHistogram();
+      subWindowIds[i] = Long.MIN_VALUE;
+    }
+  }
+
+  @Override
+  public int size() {
+    return (int) Math.min(getHistogram().getCount(), Integer.MAX_VALUE);
+  }
+
+  @Override
+  public synchronized void update(long value) {
+    long subWindowId = clock.getTick() / subWindowNanos;
+    int slot = (int) (subWindowId % SUB_WINDOWS);
+    if (subWindowIds[slot] != subWindowId) {
+      histograms[slot].reset();
+      subWindowIds[slot] = subWindowId;
+    }
+    histograms[slot].record(value);
+  }
+
+  /**
+   * Returns a new histogram with the values of the current window.
+   */
+  public synchronized LogLinearHistogram getHistogram() {
+    long subWindowId = clock.getTick() / subWindowNanos;
+    LogLinearHistogram histogram = new LogLinearHistogram();
+    for (int i = 0; i < SUB_WINDOWS; i++) {
+      if (subWindowId - subWindowIds[i] < SUB_WINDOWS) {
+        histogram.merge(histograms[i]);
+      }
+    }
+    return histogram;
+  }
+
+  @Override
+  public Snapshot getSnapshot() {
+    return new HistogramSnapshot(getHistogram());
+  }
+
+  static class HistogramSnapshot extends Snapshot {
+    private final LogLinearHistogram histogram;
+
+    HistogramSnapshot(LogLinearHistogram histogram) {
+      this.histogram = histogram;
+    }
+
+    @Override
+    public double getValue(double quantile) {
+      return histogram.getValue(quantile);
+    }
+
+    @Override
+    public long[] getValues() {
+      return histogram.getValues();
+    }
+
+    @Override
+    public int size() {
+      return (int) Math.min(histogram.getCount(), Integer.MAX_VALUE);
+    }
+
+    @Override
+    public long getMax() {
+      return histogram.getMax();
+    }
+
+    @Override
+    public double getMean() {
+      return histogram.getMean();
+    }
+
+    @Override
+    public long getMin() {
+      return histogram.getMin();
+    }
+
+    @Override
+    public double getStdDev() {
+      return histogram.getStdDev();
+    }
+
+    @Override
+    public void dump(OutputStream output) {
+      try (PrintWriter out = new PrintWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8))) {
+        for (long value : getValues()) {
+          out.printf("%d%n", value);
+        }
+      }
+    }
+  }
+}
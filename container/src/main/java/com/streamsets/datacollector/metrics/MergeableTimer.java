@@ -0,0 +1,39 @@
+/**
+ * Copyright 2016 StreamSets Inc.
+ *
+ * Licensed under the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.metrics;
+
+import com.codahale.metrics.Timer;
+
+/**
+ * Timer whose window of durations, in nanoseconds, is available as a {@link LogLinearHistogram}, to be merged across
+ * data collectors.
+ */
+public class MergeableTimer extends Timer {
+  private final MergeableReservoir reservoir;
+
+  public MergeableTimer(MergeableReservoir reservoir) {
+    super(reservoir);
+    this.reservoir = reservoir;
+  }
+
+  public LogLinearHistogram getHistogram() {
+    return reservoir.getHistogram();
+  }
+}
@@ -20,12 +20,10 @@
 package com.streamsets.datacollector.metrics;
 
 import com.codahale.metrics.Counter;
-import com.codahale.metrics.ExponentiallyDecayingReservoir;
 import com.codahale.metrics.Gauge;
 import com.codahale.metrics.Histogram;
 import com.codahale.metrics.Meter;
 import com.codahale.metrics.MetricRegistry;
-import com.codahale.metrics.SlidingTimeWindowReservoir;
 import com.codahale.metrics.Timer;
 
 import java.security.AccessController;
@@ -65,7 +63,7 @@ public class MetricsConfigurator {
                                   final String pipelineRev) {
     final String timerName = metricName(name, TIMER_SUFFIX);
     final String jmxNamePrefix = jmxNamePrefix(pipelineName, pipelineRev);
-    final Timer timer = new Timer(new SlidingTimeWindowReservoir(60, TimeUnit.SECONDS));
+    final Timer timer = new MergeableTimer(new MergeableReservoir(60, TimeUnit.SECONDS));
     final MetricRegistry metricRegistry = sdcMetrics;
     if (metricRegistry != null && runningPipelines.contains(jmxNamePrefix)) {
       AccessController.doPrivileged(new PrivilegedAction<Void>() {
@@ -129,7 +127,7 @@ public class MetricsConfigurator {
                                               final String pipelineRev) {
     final String histogramName = metricName(name, HISTOGRAM_M5_SUFFIX);
     final String jmxNamePrefix = jmxNamePrefix(pipelineName, pipelineRev);
-    final Histogram histogram = new Histogram(new ExponentiallyDecayingReservoir());
+    final Histogram histogram = new MergeableHistogram(new MergeableReservoir(5, TimeUnit.MINUTES));
     final MetricRegistry metricRegistry = sdcMetrics;
     if (metricRegistry != null && runningPipelines.contains(jmxNamePrefix)) {
       AccessController.doPrivileged(new PrivilegedAction<Void>() {
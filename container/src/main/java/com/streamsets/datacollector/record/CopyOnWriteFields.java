@@ -0,0 +1,384 @@
+/**
+ * Copyright 2016 StreamSets Inc.
+ *
+ * Licensed under the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.record;
+
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.impl.Utils;
+
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Copy-on-write views of the map, list and list-map fields handed out by a record while its value is shared via
+ * {@link RecordImpl#copyOnWrite()}.
+ * <p/>
+ * Reads go to the shared value, nested map, list and list-map fields are handed out as views too. A write makes the
+ * record copy the value first, from then on the view works on the container of the record's copy that corresponds
+ * to the viewed one.
+ */
+final class CopyOnWriteFields {
+
+  private CopyOnWriteFields() {}
+
+  static Field view(RecordImpl record, Field field) {
+    switch (field.getType()) {
+      case MAP:
+        return Field.create(Field.Type.MAP, new MapView(record, field.getValueAsMap()));
+      case LIST_MAP:
+        return Field.createListMap(new ListMapView(record, field.getValueAsListMap()));
+      case LIST:
+        return Field.create(Field.Type.LIST, new ListView(record, field.getValueAsList()));
+      default:
+        throw new IllegalArgumentException(Utils.format("Field type '{}' has no copy-on-write view", field.getType()));
+    }
+  }
+
+  /**
+   * Deep copies a field, recording the copy of every map, list and list-map container in <code>copies</code>.
+   * Fields of other types have an immutable value and are not copied.
+   */
+  static Field copy(Field field, Map<Object, Object> copies) {
+    if (field == null || field.getValue() == null) {
+      return field;
+    }
+    switch (field.getType()) {
+      case MAP:
+      case LIST_MAP:
+        Map<String, Field> map = field.getValueAsMap();
+        LinkedHashMap<String, Field> mapCopy = new LinkedHashMap<>();
+        for (Map.Entry<String, Field> entry : map.entrySet()) {
+          mapCopy.put(entry.getKey(), copy(entry.getValue(), copies));
+        }
+        copies.put(map, mapCopy);
+        if (field.getType() == Field.Type.MAP) {
+          return Field.create(Field.Type.MAP, mapCopy);
+        }
+        return Field.createListMap(mapCopy);
+      case LIST:
+        List<Field> list = field.getValueAsList();
+        List<Field> listCopy = new ArrayList<>(list.size());
+        for (Field element : list) {
+          listCopy.add(copy(element, copies));
+        }
+        copies.put(list, listCopy);
+        return Field.create(Field.Type.LIST, listCopy);
+      case BYTE_ARRAY:
+        return Field.create(Field.Type.BYTE_ARRAY, field.getValueAsByteArray().clone());
+      default:
+        return field;
+    }
+  }
+
+  private static class MapView extends AbstractMap<String, Field> {
+    private final RecordImpl record;
+    private final Map<String, Field> shared;
+
+    MapView(RecordImpl record, Map<String, Field> shared) {
+      this.record = record;
+      this.shared = shared;
+    }
+
+    Map<String, Field> read() {
+      return record.getOwnCopy(shared);
+    }
+
+    Map<String, Field> write() {
+      record.ensureValueNotShared();
+      return record.getOwnCopy(shared);
+    }
+
+    @Override
+    public int size() {
+      return read().size();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+      return read().containsKey(key);
+    }
+
+    @Override
+    public Field get(Object key) {
+      Field field = read().get(key);
+      if (record.mustUnshare(field)) {
+        field = write().get(key);
+      }
+      return record.handOut(field);
+    }
+
+    @Override
+    public Field put(String key, Field value) {
+      return write().put(key, value);
+    }
+
+    @Override
+    public Field remove(Object key) {
+      return write().remove(key);
+    }
+
+    @Override
+    public void clear() {
+      write().clear();
+    }
+
+    @Override
+    public Set<Entry<String, Field>> entrySet() {
+      return new AbstractSet<Entry<String, Field>>() {
+        @Override
+        public int size() {
+          return MapView.this.size();
+        }
+
+        @Override
+        public Iterator<Entry<String, Field>> iterator() {
+          return new EntryIterator();
+        }
+      };
+    }
+
+    private class EntryIterator implements Iterator<Entry<String, Field>> {
+      private final Map<String, Field> iterated = read();
+      private final Iterator<String> keys = iterated.keySet().iterator();
+      private String key;
+
+      @Override
+      public boolean hasNext() {
+        return keys.hasNext();
+      }
+
+      @Override
+      public Entry<String, Field> next() {
+        key = keys.next();
+        return new ViewEntry(key);
+      }
+
+      @Override
+      public void remove() {
+        if (key == null) {
+          throw new IllegalStateException();
+        }
+        Map<String, Field> target = write();
+        if (target == iterated) {
+          keys.remove();
+        } else {
+          // the record copied the value, the iteration goes on over the shared map
+          target.remove(key);
+        }
+        key = null;
+      }
+    }
+
+    private class ViewEntry implements Entry<String, Field> {
+      private final String key;
+
+      ViewEntry(String key) {
+        this.key = key;
+      }
+
+      @Override
+      public String getKey() {
+        return key;
+      }
+
+      @Override
+      public Field getValue() {
+        return get(key);
+      }
+
+      @Override
+      public Field setValue(Field value) {
+        return put(key, value);
+      }
+
+      @Override
+      public boolean equals(Object obj) {
+        if (!(obj instanceof Entry)) {
+          return false;
+        }
+        Entry<?, ?> other = (Entry<?, ?>) obj;
+        Field value = getValue();
+        return key.equals(other.getKey()) &&
+            (value == null ? other.getValue() == null : value.equals(other.getValue()));
+      }
+
+      @Override
+      public int hashCode() {
+        Field value = getValue();
+        return key.hashCode() ^ (value == null ? 0 : value.hashCode());
+      }
+
+      @Override
+      public String toString() {
+        return key + "=" + getValue();
+      }
+    }
+  }
+
+  /**
+   * List-map fields must hold a <code>LinkedHashMap</code>, the view delegates the <code>Map</code> API as of
+   * Java 7 to a map view and leaves its own entries empty.
+   */
+  private static class ListMapView extends LinkedHashMap<String, Field> {
+    private final MapView view;
+
+    ListMapView(RecordImpl record, Map<String, Field> shared) {
+      view = new MapView(record, shared);
+    }
+
+    @Override
+    public int size() {
+      return view.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+      return view.isEmpty();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+      return view.containsKey(key);
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+      return view.containsValue(value);
+    }
+
+    @Override
+    public Field get(Object key) {
+      return view.get(key);
+    }
+
+    @Override
+    public Field put(String key, Field value) {
+      return view.put(key, value);
+    }
+
+    @Override
+    public void putAll(Map<? extends String, ? extends Field> map) {
+      view.putAll(map);
+    }
+
+    @Override
+    public Field remove(Object key) {
+      return view.remove(key);
+    }
+
+    @Override
+    public void clear() {
+      view.clear();
+    }
+
+    @Override
+    public Set<String> keySet() {
+      return view.keySet();
+    }
+
+    @Override
+    public Collection<Field> values() {
+      return view.values();
+    }
+
+    @Override
+    public Set<Map.Entry<String, Field>> entrySet() {
+      return view.entrySet();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      return view.equals(obj);
+    }
+
+    @Override
+    public int hashCode() {
+      return view.hashCode();
+    }
+
+    @Override
+    public String toString() {
+      return view.toString();
+    }
+
+    @Override
+    public Object clone() {
+      return new LinkedHashMap<>(view);
+    }
+  }
+
+  private static class ListView extends AbstractList<Field> {
+    private final RecordImpl record;
+    private final List<Field> shared;
+
+    ListView(RecordImpl record, List<Field> shared) {
+      this.record = record;
+      this.shared = shared;
+    }
+
+    List<Field> read() {
+      return record.getOwnCopy(shared);
+    }
+
+    List<Field> write() {
+      record.ensureValueNotShared();
+      return record.getOwnCopy(shared);
+    }
+
+    @Override
+    public int size() {
+      return read().size();
+    }
+
+    @Override
+    public Field get(int index) {
+      Field field = read().get(index);
+      if (record.mustUnshare(field)) {
+        field = write().get(index);
+      }
+      return record.handOut(field);
+    }
+
+    @Override
+    public Field set(int index, Field element) {
+      return write().set(index, element);
+    }
+
+    @Override
+    public void add(int index, Field element) {
+      write().add(index, element);
+      modCount++;
+    }
+
+    @Override
+    public Field remove(int index) {
+      Field removed = write().remove(index);
+      modCount++;
+      return removed;
+    }
+  }
+}
@@ -0,0 +1,84 @@
+/**
+ * Copyright 2016 StreamSets Inc.
+ *
+ * Licensed under the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.record;
+
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import java.util.List;
+
+/**
+ * A parsed field-path.
+ * <p/>
+ * Stages access record fields again and again using the same handful of constant field-paths, compiled field-paths
+ * are kept in a bounded cache so the same field-path string is parsed only once.
+ */
+public final class FieldPath {
+  static final int MAX_CACHED_FIELD_PATHS = 10000;
+
+  private static final Cache<String, FieldPath> CACHE = CacheBuilder.newBuilder()
+      .maximumSize(MAX_CACHED_FIELD_PATHS)
+      .build();
+
+  private final String path;
+  private final PathElement[] elements;
+
+  private FieldPath(String path, List<PathElement> elements) {
+    this.path = path;
+    this.elements = elements.toArray(new PathElement[elements.size()]);
+  }
+
+  /**
+   * Returns the compiled field-path for the given field-path string.
+   *
+   * @throws IllegalArgumentException if the field-path is not valid.
+   */
+  public static FieldPath compile(String fieldPath) {
+    Preconditions.checkNotNull(fieldPath, "fieldPath cannot be null");
+    FieldPath compiled = CACHE.getIfPresent(fieldPath);
+    if (compiled == null) {
+      compiled = new FieldPath(fieldPath, PathElement.parse(fieldPath, false));
+      CACHE.put(fieldPath, compiled);
+    }
+    return compiled;
+  }
+
+  public String getPath() {
+    return path;
+  }
+
+  /**
+   * Returns the number of path elements, including the root element.
+   */
+  public int size() {
+    return elements.length;
+  }
+
+  public PathElement getElement(int idx) {
+    return elements[idx];
+  }
+
+  @Override
+  public String toString() {
+    return "FieldPath[" + path + "]";
+  }
+
+}
@@ -26,15 +26,23 @@ import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.impl.Utils;
 
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class RecordImpl implements Record, Cloneable {
   private final HeaderImpl header;
   private Field value;
+  // set while the value is shared with other records created via copyOnWrite(), see ensureValueNotShared()
+  private transient SharedValue sharedValue;
+  // set once copy-on-write views were handed out, see handOut()
+  private transient boolean viewsHandedOut;
+  // containers of the shared values this record copied, to the corresponding containers of its copies
+  private transient Map<Object, Object> valueCopies;
 
   // need default constructor for deserialization purposes (Kryo)
   private RecordImpl() {
@@ -76,6 +84,121 @@ public class RecordImpl implements Record, Cloneable {
     value = (record.value != null) ? record.value.clone() : null;
   }
 
+  // for copyOnWrite() purposes
+  private RecordImpl(HeaderImpl header, Field value, SharedValue sharedValue) {
+    this.header = header;
+    this.value = value;
+    this.sharedValue = sharedValue;
+  }
+
+  /**
+   * Keeps count of the records sharing the same value.
+   */
+  private static class SharedValue {
+    private final AtomicInteger holders = new AtomicInteger(1);
+  }
+
+  /**
+   * Returns a copy of the record that shares the value (the field tree) with this record.
+   * <p/>
+   * The header is copied right away, the value is copied only by the first of the records sharing it that modifies
+   * it. While the value is shared, map, list and list-map fields are handed out as copy-on-write views, so that
+   * modifying them copies the value too, and handing out a byte array field copies the value as a byte array cannot
+   * be guarded. The last record holding the value uses it without copying it.
+   */
+  public RecordImpl copyOnWrite() {
+    if (sharedValue == null) {
+      sharedValue = new SharedValue();
+    }
+    sharedValue.holders.incrementAndGet();
+    return new RecordImpl(header.clone(), value, sharedValue);
+  }
+
+  /**
+   * Gives up the hold of this record on a value shared via {@link #copyOnWrite()}, the record must not be modified
+   * afterwards.
+   */
+  public void release() {
+    if (sharedValue != null) {
+      sharedValue.holders.decrementAndGet();
+      sharedValue = null;
+    }
+  }
+
+  boolean isValueShared() {
+    return sharedValue != null;
+  }
+
+  void ensureValueNotShared() {
+    if (sharedValue != null) {
+      if (sharedValue.holders.decrementAndGet() > 0 && value != null) {
+        if (viewsHandedOut) {
+          copyValueForViews();
+        } else {
+          value = value.clone();
+        }
+      }
+      sharedValue = null;
+    }
+  }
+
+  // copies the value keeping track of the copy of each container, for the views handed out to work on the copy
+  private void copyValueForViews() {
+    Map<Object, Object> copies = new IdentityHashMap<>();
+    value = CopyOnWriteFields.copy(value, copies);
+    if (valueCopies != null) {
+      // views handed out while a previous value was shared now work on the new copy
+      for (Map.Entry<Object, Object> entry : valueCopies.entrySet()) {
+        Object copy = copies.get(entry.getValue());
+        if (copy != null) {
+          entry.setValue(copy);
+        }
+      }
+      copies.putAll(valueCopies);
+    }
+    valueCopies = copies;
+  }
+
+  /**
+   * Returns the container of the value of this record that corresponds to a container of a value it shared, the
+   * shared container itself if the record did not copy it.
+   */
+  @SuppressWarnings("unchecked")
+  <T> T getOwnCopy(T container) {
+    if (valueCopies != null) {
+      Object copy = valueCopies.get(container);
+      if (copy != null) {
+        return (T) copy;
+      }
+    }
+    return container;
+  }
+
+  // byte arrays cannot be handed out in a copy-on-write view, the value must not be shared anymore
+  boolean mustUnshare(Field field) {
+    return sharedValue != null && field != null && field.getType() == Field.Type.BYTE_ARRAY &&
+        field.getValue() != null;
+  }
+
+  /**
+   * Returns a field of the value to hand out, a copy-on-write view of it if the value is shared and the field is a
+   * map, list or list-map.
+   */
+  Field handOut(Field field) {
+    if (sharedValue != null && field != null && field.getValue() != null) {
+      switch (field.getType()) {
+        case MAP:
+        case LIST:
+        case LIST_MAP:
+          viewsHandedOut = true;
+          return CopyOnWriteFields.view(this, field);
+        default:
+          break;
+      }
+    }
+    return field;
+  }
+
   public void addStageToStagePath(String stage) {
     Preconditions.checkNotNull(stage, "stage cannot be null");
     String currentPath = (header.getStagesPath() == null) ? "" : header.getStagesPath() + ":";
@@ -98,11 +221,23 @@ public class RecordImpl implements Record, Cloneable {
 
   @Override
   public Field get() {
+    if (mustUnshare(value)) {
+      ensureValueNotShared();
+    }
+    return handOut(value);
+  }
+
+  /**
+   * Returns the value without copying it or handing it out in copy-on-write views while it is shared, the caller
+   * must not modify it.
+   */
+  public Field peek() {
     return value;
   }
 
   @Override
   public Field set(Field field) {
+    ensureValueNotShared();
     Field oldData = value;
     value = field;
     return oldData;
@@ -209,90 +344,85 @@ public class RecordImpl implements Record, Cloneable {
   }
 
   public FieldWithPath getValue() {
-    return createFieldWithPath("", "", get());
+    return createFieldWithPath("", "", value);
   }
 
-  List<PathElement> parse(String fieldPath) {
-    return PathElement.parse(fieldPath, false);
+  /**
+   * Returns the field found after walking the first <code>depth</code> elements of the field-path, <code>null</code>
+   * if there is no such field.
+   */
+  private Field resolve(FieldPath fieldPath, int depth) {
+    Field current = value;
+    for (int i = 1; current != null && i < depth; i++) {
+      current = getChild(current, fieldPath.getElement(i));
+    }
+    return current;
   }
 
-  private List<Field> get(List<PathElement> elements) {
-    List<Field> fields = new ArrayList<>(elements.size());
-    if (value != null) {
-      Field current = value;
-      for (int i = 0; current != null &&  i < elements.size(); i++) {
-        Field next = null;
-        PathElement element = elements.get(i);
-        switch (element.getType()) {
-          case ROOT:
-            fields.add(current);
-            next = current;
-            break;
-          case MAP:
-            if (current.getType() == Field.Type.MAP || current.getType() == Field.Type.LIST_MAP) {
-              String name = element.getName();
-              Map<String, Field> map = current.getValueAsMap();
-              if (map != null) {
-                Field field = map.get(name);
-                if (field != null) {
-                  fields.add(field);
-                  next = field;
-                }
-              }
-            }
-            break;
-          case LIST:
-            if (current.getType() == Field.Type.LIST || current.getType() == Field.Type.LIST_MAP) {
-              int index = element.getIndex();
-              List<Field> list = current.getValueAsList();
-              if (list != null) {
-                if (list.size() > index) {
-                  Field field = list.get(index);
-                  fields.add(field);
-                  next = field;
-                }
-              }
-            }
-            break;
-          default:
-            break;
+  private static Field getChild(Field parent, PathElement element) {
+    Field child = null;
+    switch (element.getType()) {
+      case MAP:
+        if (parent.getType() == Field.Type.MAP || parent.getType() == Field.Type.LIST_MAP) {
+          Map<String, Field> map = parent.getValueAsMap();
+          if (map != null) {
+            child = map.get(element.getName());
+          }
         }
-        current = next;
-      }
+        break;
+      case LIST:
+        if (parent.getType() == Field.Type.LIST || parent.getType() == Field.Type.LIST_MAP) {
+          List<Field> list = parent.getValueAsList();
+          if (list != null && list.size() > element.getIndex()) {
+            child = list.get(element.getIndex());
+          }
+        }
+        break;
+      default:
+        break;
     }
-    return fields;
+    return child;
   }
 
   @Override
   public Field get(String fieldPath) {
-    List<PathElement> elements = parse(fieldPath);
-    List<Field> fields = get(elements);
-    return (elements.size() == fields.size()) ? fields.get(fields.size() - 1) : null;
+    return get(FieldPath.compile(fieldPath));
   }
 
+  public Field get(FieldPath fieldPath) {
+    Field field = resolve(fieldPath, fieldPath.size());
+    if (mustUnshare(field)) {
+      // the caller could modify the byte array, resolve it again on our own copy of the value
+      ensureValueNotShared();
+      field = resolve(fieldPath, fieldPath.size());
+    }
+    return handOut(field);
+  }
 
   @Override
   public Field delete(String fieldPath) {
-    List<PathElement> elements = parse(fieldPath);
-    List<Field> fields = get(elements);
+    return delete(FieldPath.compile(fieldPath));
+  }
+
+  public Field delete(FieldPath fieldPath) {
+    ensureValueNotShared();
     Field deleted = null;
-    int fieldPos = fields.size();
-    if (elements.size() == fieldPos) {
-      fieldPos--;
-
-      if (fieldPos == 0) {
-        // the field to delete must be a primitive. delete it directly.
-        deleted = value;
-        value = null;
-      } else {
-        // the field to delete is a map or list element, so to delete, you must remove it from the parent collection.
-        PathElement element = elements.get(fieldPos);
+    int size = fieldPath.size();
+    if (size == 1) {
+      // the field to delete is the root field, delete it directly.
+      deleted = value;
+      value = null;
+    } else {
+      // the field to delete is a map or list element, so to delete, you must remove it from the parent collection.
+      Field parent = resolve(fieldPath, size - 1);
+      PathElement element = fieldPath.getElement(size - 1);
+      if (parent != null && getChild(parent, element) != null) {
         switch (element.getType()) {
           case MAP:
-            deleted = fields.get(fieldPos - 1).getValueAsMap().remove(element.getName());
+            deleted = parent.getValueAsMap().remove(element.getName());
             break;
           case LIST:
-            deleted = fields.get(fieldPos - 1).getValueAsList().remove(element.getIndex());
+            deleted = parent.getValueAsList().remove(element.getIndex());
             break;
           default:
             throw new IllegalStateException("Unexpected field type " + element.getType());
@@ -304,9 +434,11 @@ public class RecordImpl implements Record, Cloneable {
 
   @Override
   public boolean has(String fieldPath) {
-    List<PathElement> elements = parse(fieldPath);
-    List<Field> fields = get(elements);
-    return (elements.size() == fields.size());
+    return has(FieldPath.compile(fieldPath));
+  }
+
+  public boolean has(FieldPath fieldPath) {
+    return resolve(fieldPath, fieldPath.size()) != null;
   }
 
   @Override
@@ -442,57 +574,45 @@ public class RecordImpl implements Record, Cloneable {
 
   @Override
   public Field set(String fieldPath, Field newField) {
-    //get all the elements present in the fieldPath, including the newest element
-    //For example, if the existing record has /a/b/c and the argument fieldPath is /a/b/d the parser returns three
-    // elements - a, b and d
-    List<PathElement> elements = parse(fieldPath);
-    //return all *existing* fields form the list of elements
-    //In the above case it is going to return only field a and field b. Field d does not exist.
-    List<Field> fields = get(elements);
-    Field fieldToReplace = null;
-    int fieldPos = fields.size();
-    if (elements.size() == fieldPos) {
-      //The number of elements in the path is same as the number of fields => set use case
-      fieldPos--;
-      fieldToReplace = doSet(fieldPos, newField, elements, fields);
-    } else if (elements.size() -1 == fieldPos) {
-      //The number of elements in the path is on more than the number of fields => add use case
-      fieldToReplace = doSet(fieldPos, newField, elements, fields);
-    } else {
-      throw new IllegalArgumentException(Utils.format("Field-path '{}' not reachable", fieldPath));
-    }
-    return fieldToReplace;
+    return set(FieldPath.compile(fieldPath), newField);
   }
 
-  private Field doSet(int fieldPos, Field newField, List<PathElement> elements, List<Field> fields) {
+  public Field set(FieldPath fieldPath, Field newField) {
+    ensureValueNotShared();
     Field fieldToReplace = null;
-    if (fieldPos == 0) {
+    int size = fieldPath.size();
+    if (size == 1) {
       //root element
       fieldToReplace = value;
       value = newField;
     } else {
+      //the parent of the field must exist, the field itself is replaced if it exists or added if it does not.
+      //For example, if the existing record has /a/b/c and fieldPath is /a/b/d, field b is the parent of d.
+      Field parent = resolve(fieldPath, size - 1);
+      if (parent == null) {
+        throw new IllegalArgumentException(Utils.format("Field-path '{}' not reachable", fieldPath.getPath()));
+      }
       //get the type of the element based on the output of the parser.
       //Note that this is not the real type of the field, this is how the parser interpreted the fieldPath argument
       //to the set API above. For example if fieldPath is /a/b parser interprets a as type map, if fieldPath is a[0]/b
       //parser interprets a as of type list
-      switch (elements.get(fieldPos).getType()) {
+      PathElement element = fieldPath.getElement(size - 1);
+      switch (element.getType()) {
         case MAP:
-          //get the name of the field which must be added
-          String elementName = elements.get(fieldPos).getName();
-          //attempt to get the parent as a map type.
-          fieldToReplace = fields.get(fieldPos - 1).getValueAsMap().put(elementName, newField);
+          fieldToReplace = parent.getValueAsMap().put(element.getName(), newField);
           break;
         case LIST:
-          int elementIndex = elements.get(fieldPos).getIndex();
-          Field parentField = fields.get(fieldPos - 1);
-          if(elementIndex == parentField.getValueAsList().size()){
+          int elementIndex = element.getIndex();
+          if(elementIndex == parent.getValueAsList().size()){
             //add at end
-            parentField.getValueAsList().add(newField);
+            parent.getValueAsList().add(newField);
           } else {
             //replace existing value
-            fieldToReplace = parentField.getValueAsList().set(elementIndex, newField);
+            fieldToReplace = parent.getValueAsList().set(elementIndex, newField);
           }
           break;
+        default:
+          break;
       }
     }
     return fieldToReplace;
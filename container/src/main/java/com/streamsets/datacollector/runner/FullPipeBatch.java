@@ -204,14 +204,19 @@ public class FullPipeBatch implements PipeBatch {
         "Stream '{}' does not exist", inputLane));
     for (String lane : outputLanes) {
       Preconditions.checkNotNull(fullPayload.containsKey(lane), Utils.formatL("Lane '{}' does not exist", lane));
+      // the lanes share the record values, a record copies its value only when it is about to be modified
       fullPayload.put(lane, createCopy(records));
     }
+    // the original records are not used anymore, so they should not keep the copies from owning the shared values
+    for (Record record : records) {
+      ((RecordImpl) record).release();
+    }
   }
 
   private List<Record> createCopy(List<Record> records) {
     List<Record> list = new ArrayList<>(records.size());
     for (Record record : records) {
-      list.add(((RecordImpl) record).clone());
+      list.add(((RecordImpl) record).copyOnWrite());
     }
     return list;
   }
@@ -28,6 +28,7 @@ import com.codahale.metrics.Timer;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Supplier;
 import com.streamsets.datacollector.config.StageType;
+import com.streamsets.datacollector.memory.AllocationMemoryMonitor;
 import com.streamsets.datacollector.memory.MemoryMonitor;
 import com.streamsets.datacollector.memory.MemoryUsageCollector;
 import com.streamsets.datacollector.memory.MemoryUsageCollectorResourceBundle;
@@ -55,6 +56,15 @@ public class StagePipe extends Pipe<StagePipe.Context> {
   private static final Logger LOG = LoggerFactory.getLogger(StagePipe.class);
   //Runtime stat gauge name
   public static final String RUNTIME_STATS_GAUGE = "RuntimeStatsGauge";
+  public static final String MONITOR_MEMORY_KEY = "monitor.memory";
+  public static final boolean MONITOR_MEMORY_DEFAULT = false;
+  // 'heap' walks the stage object graph in the background, 'allocation' accounts allocations made by each batch
+  public static final String MONITOR_MEMORY_MODE_KEY = "monitor.memory.mode";
+  public static final String MONITOR_MEMORY_MODE_HEAP = "heap";
+  public static final String MONITOR_MEMORY_MODE_ALLOCATION = "allocation";
+  public static final String MONITOR_MEMORY_MODE_DEFAULT = MONITOR_MEMORY_MODE_HEAP;
+  public static final String MONITOR_MEMORY_RECORD_SAMPLE_SIZE_KEY = "monitor.memory.allocation.record.sample.size";
+  public static final int MONITOR_MEMORY_RECORD_SAMPLE_SIZE_DEFAULT = 100;
   private Timer processingTimer;
   private Counter memoryConsumedCounter;
   private Meter inputRecordsMeter;
@@ -75,6 +85,7 @@ public class StagePipe extends Pipe<StagePipe.Context> {
   private final Configuration configuration;
   private final MetricRegistryJson metricRegistryJson;
   private Map<String, Object> batchMetrics;
+  private AllocationMemoryMonitor allocationMemoryMonitor;
 
   @VisibleForTesting
   StagePipe(StageRuntime stage, List<String> inputLanes, List<String> outputLanes) {
@@ -169,7 +180,13 @@ public class StagePipe extends Pipe<StagePipe.Context> {
         }
       }
       this.context = pipeContext;
-      if (configuration.get("monitor.memory", false)) {
+      if (configuration.get(MONITOR_MEMORY_KEY, MONITOR_MEMORY_DEFAULT) &&
+          MONITOR_MEMORY_MODE_ALLOCATION.equals(configuration.get(MONITOR_MEMORY_MODE_KEY, MONITOR_MEMORY_MODE_DEFAULT))) {
+        LOG.info("Starting allocation memory accounting for {}", getStage().getInfo().getInstanceName());
+        allocationMemoryMonitor = new AllocationMemoryMonitor(memoryConsumedCounter,
+            configuration.get(MONITOR_MEMORY_RECORD_SAMPLE_SIZE_KEY, MONITOR_MEMORY_RECORD_SAMPLE_SIZE_DEFAULT),
+            isSource(), !isSource());
+      } else if (configuration.get(MONITOR_MEMORY_KEY, MONITOR_MEMORY_DEFAULT)) {
         LOG.info("Starting memory collector for {}", getStage().getInfo().getInstanceName());
         scheduledExecutorService.submit(
           new MemoryMonitor(memoryConsumedCounter,
@@ -208,6 +225,7 @@ public class StagePipe extends Pipe<StagePipe.Context> {
 
     Batch batch = new FilterRecordBatch(batchImpl, predicates, instanceErrorSink);
 
+    long allocatedAtStart = (allocationMemoryMonitor != null) ? allocationMemoryMonitor.start() : -1;
     long start = System.currentTimeMillis();
     String newOffset = getStage().execute(previousOffset, pipeBatch.getBatchSize(), batch, batchMaker, errorSink);
     if (isSource()) {
@@ -258,6 +276,10 @@ public class StagePipe extends Pipe<StagePipe.Context> {
     batchMetrics.put(AggregatorUtil.STAGE_ERROR, stageErrorsCount);
     batchMetrics.put(AggregatorUtil.OUTPUT_RECORDS_PER_LANE, outputRecordsPerLane);
 
+    if (allocationMemoryMonitor != null) {
+      allocationMemoryMonitor.end(allocatedAtStart, batchMaker.getStageOutput());
+    }
+
     pipeBatch.completeStage(batchMaker);
 
     //get records count to determine if this stage saw any record in this batch
@@ -0,0 +1,92 @@
+/**
+ * Copyright 2016 StreamSets Inc.
+ *
+ * Licensed under the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.runner.production;
+
+import com.streamsets.datacollector.io.DataStore;
+import com.streamsets.datacollector.json.ObjectMapperFactory;
+import com.streamsets.datacollector.restapi.bean.BeanHelper;
+import com.streamsets.datacollector.restapi.bean.SourceOffsetJson;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Stores the offset as JSON in the pipeline offset file, the whole file is rewritten on every save.
+ */
+public class FileOffsetStore implements OffsetStore {
+  private static final Logger LOG = LoggerFactory.getLogger(FileOffsetStore.class);
+
+  private final File offsetFile;
+  private long lastSaveTime;
+
+  public FileOffsetStore(File offsetFile) {
+    this.offsetFile = offsetFile;
+    lastSaveTime = offsetFile.lastModified();
+  }
+
+  public File getFile() {
+    return offsetFile;
+  }
+
+  @Override
+  public SourceOffset load() {
+    SourceOffset sourceOffset;
+    if (offsetFile.exists() && offsetFile.length() != 0) {
+      try (InputStream is = new DataStore(offsetFile).getInputStream()) {
+        SourceOffsetJson sourceOffsetJson = ObjectMapperFactory.get().readValue(is, SourceOffsetJson.class);
+        sourceOffset = BeanHelper.unwrapSourceOffset(sourceOffsetJson);
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+    } else {
+      sourceOffset = new SourceOffset(null);
+    }
+    return sourceOffset;
+  }
+
+  @Override
+  public void save(SourceOffset s) {
+    DataStore dataStore = new DataStore(offsetFile);
+    try (OutputStream os = dataStore.getOutputStream()) {
+      ObjectMapperFactory.get().writeValue((os), BeanHelper.wrapSourceOffset(s));
+      dataStore.commit(os);
+    } catch (IOException e) {
+      LOG.error("Failed to save offset value {}. Reason {}", s.getOffset(), e.toString(), e);
+      throw new RuntimeException(e);
+    } finally {
+      dataStore.release();
+    }
+    lastSaveTime = System.currentTimeMillis();
+  }
+
+  @Override
+  public long getLastSaveTime() {
+    return lastSaveTime;
+  }
+
+  @Override
+  public void close() {
+  }
+
+}
@@ -0,0 +1,317 @@
+/**
+ * Copyright 2016 StreamSets Inc.
+ *
+ * Licensed under the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.runner.production;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Preconditions;
+import com.streamsets.pipeline.lib.executor.SafeScheduledExecutorService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Stores the offset in an append-only log, each save appends a checksummed record to the log.
+ * <p/>
+ * Once the log has a configured number of records it is compacted, the current offset is written to the pipeline
+ * offset file (using a {@link FileOffsetStore}) and the log is truncated. The log is also compacted on close.
+ * <p/>
+ * On load the offset file is read and then the log is replayed, the last valid record wins. A partially written or
+ * corrupted record (i.e. a crash in the middle of an append) and anything after it are discarded.
+ * <p/>
+ * The save always appends the record before compacting, so in every crash window the last record of the log is
+ * the offset in the offset file.
+ */
+public class LogOffsetStore implements OffsetStore {
+  private static final Logger LOG = LoggerFactory.getLogger(LogOffsetStore.class);
+
+  /**
+   * When the log is flushed to disk.
+   */
+  public enum SyncPolicy {
+    /** on every save, a save returns once the offset is on disk. */
+    COMMIT,
+    /**
+     * on a save if the last flush is older than the sync interval, saves in between are grouped in one flush. A save
+     * left unsynced is flushed by a background thread once the interval elapses.
+     */
+    INTERVAL,
+    /** the operating system decides, the log is flushed only on compaction and close. */
+    OS,
+  }
+
+  private static final int MAGIC = 0x5344434f; // 'SDCO'
+  private static final int VERSION = 1;
+  private static final int HEADER_SIZE = 8;
+  // payload length, payload checksum
+  private static final int RECORD_HEADER_SIZE = 8;
+  private static final byte NULL_OFFSET = 0;
+  private static final byte NON_NULL_OFFSET = 1;
+
+  // shared by all the stores, it only runs the flushes of the INTERVAL policy
+  private static final SafeScheduledExecutorService SYNC_EXECUTOR =
+      new SafeScheduledExecutorService(1, "OffsetLogSync");
+
+  private final FileOffsetStore snapshot;
+  private final File logFile;
+  private final SyncPolicy syncPolicy;
+  private final long syncIntervalMillis;
+  private final int compactionThreshold;
+  private FileChannel channel;
+  private SourceOffset currentOffset;
+  private int records;
+  private boolean unsynced;
+  private boolean syncScheduled;
+  private long lastSyncTime;
+  private long lastSaveTime;
+
+  public LogOffsetStore(File offsetFile, File logFile, SyncPolicy syncPolicy, long syncIntervalMillis,
+      int compactionThreshold) {
+    Preconditions.checkArgument(compactionThreshold > 0, "compactionThreshold must be greater than zero");
+    this.snapshot = new FileOffsetStore(offsetFile);
+    this.logFile = logFile;
+    this.syncPolicy = syncPolicy;
+    this.syncIntervalMillis = syncIntervalMillis;
+    this.compactionThreshold = compactionThreshold;
+    currentOffset = new SourceOffset(null);
+    lastSaveTime = Math.max(offsetFile.lastModified(), logFile.lastModified());
+  }
+
+  public File getLogFile() {
+    return logFile;
+  }
+
+  @Override
+  public synchronized SourceOffset load() {
+    closeChannel();
+    currentOffset = snapshot.load();
+    records = 0;
+    if (logFile.exists()) {
+      try {
+        replay(ByteBuffer.wrap(Files.readAllBytes(logFile.toPath())));
+      } catch (IOException ex) {
+        throw new RuntimeException(ex);
+      }
+    }
+    return currentOffset;
+  }
+
+  private void replay(ByteBuffer buffer) throws IOException {
+    int validLength = 0;
+    if (buffer.remaining() >= HEADER_SIZE && buffer.getInt() == MAGIC && buffer.getInt() == VERSION) {
+      validLength = HEADER_SIZE;
+      CRC32 crc = new CRC32();
+      while (buffer.remaining() >= RECORD_HEADER_SIZE) {
+        int length = buffer.getInt();
+        int checksum = buffer.getInt();
+        if (length < 1 || length > buffer.remaining()) {
+          break;
+        }
+        byte[] payload = new byte[length];
+        buffer.get(payload);
+        crc.reset();
+        crc.update(payload);
+        if ((int) crc.getValue() != checksum) {
+          break;
+        }
+        currentOffset = fromPayload(payload);
+        records++;
+        validLength = buffer.position();
+      }
+    }
+    if (validLength < buffer.limit()) {
+      LOG.warn("Offset log '{}' has an incomplete or corrupted tail, discarding '{}' bytes", logFile,
+          buffer.limit() - validLength);
+      try (FileChannel fileChannel = FileChannel.open(logFile.toPath(), StandardOpenOption.WRITE)) {
+        fileChannel.truncate(validLength);
+        fileChannel.force(false);
+      }
+    }
+  }
+
+  @Override
+  public synchronized void save(SourceOffset sourceOffset) {
+    try {
+      append(sourceOffset);
+      currentOffset = sourceOffset;
+      lastSaveTime = System.currentTimeMillis();
+      sync(lastSaveTime);
+      if (records >= compactionThreshold) {
+        compact();
+      }
+    } catch (IOException ex) {
+      LOG.error("Failed to save offset value {}. Reason {}", sourceOffset.getOffset(), ex.toString(), ex);
+      closeChannel();
+      throw new RuntimeException(ex);
+    }
+  }
+
+  private void ensureOpen() throws IOException {
+    if (channel == null) {
+      channel = FileChannel.open(logFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+      if (channel.size() < HEADER_SIZE) {
+        channel.truncate(0);
+        writeFully(ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION));
+      }
+      channel.position(channel.size());
+    }
+  }
+
+  private void append(SourceOffset sourceOffset) throws IOException {
+    ensureOpen();
+    byte[] payload = toPayload(sourceOffset);
+    CRC32 crc = new CRC32();
+    crc.update(payload);
+    ByteBuffer buffer = ByteBuffer.allocate(RECORD_HEADER_SIZE + payload.length);
+    buffer.putInt(payload.length).putInt((int) crc.getValue()).put(payload);
+    writeFully(buffer);
+    records++;
+  }
+
+  private void writeFully(ByteBuffer buffer) throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+  }
+
+  private void sync(long now) throws IOException {
+    switch (syncPolicy) {
+      case COMMIT:
+        channel.force(false);
+        break;
+      case INTERVAL:
+        if (now - lastSyncTime >= syncIntervalMillis) {
+          channel.force(false);
+          lastSyncTime = now;
+          unsynced = false;
+        } else {
+          unsynced = true;
+          scheduleSync(now);
+        }
+        break;
+      case OS:
+        unsynced = true;
+        break;
+      default:
+        throw new IllegalStateException("Unexpected sync policy " + syncPolicy);
+    }
+  }
+
+  private void scheduleSync(long now) {
+    if (!syncScheduled) {
+      syncScheduled = true;
+      SYNC_EXECUTOR.scheduleAndForget(new Runnable() {
+        @Override
+        public void run() {
+          syncIfUnsynced();
+        }
+      }, Math.max(0, lastSyncTime + syncIntervalMillis - now), TimeUnit.MILLISECONDS);
+    }
+  }
+
+  private synchronized void syncIfUnsynced() {
+    syncScheduled = false;
+    if (unsynced && channel != null) {
+      try {
+        channel.force(false);
+        lastSyncTime = System.currentTimeMillis();
+        unsynced = false;
+      } catch (IOException ex) {
+        LOG.warn("Failed to sync offset log '{}': {}", logFile, ex.toString(), ex);
+      }
+    }
+  }
+
+  /**
+   * Returns if every saved offset has been flushed to disk.
+   */
+  public synchronized boolean isSynced() {
+    return !unsynced;
+  }
+
+  private void compact() throws IOException {
+    LOG.debug("Compacting offset log '{}' with '{}' records", logFile, records);
+    snapshot.save(currentOffset);
+    ensureOpen();
+    channel.truncate(HEADER_SIZE);
+    channel.position(HEADER_SIZE);
+    channel.force(false);
+    unsynced = false;
+    records = 0;
+  }
+
+  @Override
+  public synchronized long getLastSaveTime() {
+    return lastSaveTime;
+  }
+
+  @Override
+  public synchronized void close() {
+    if (records > 0) {
+      try {
+        compact();
+      } catch (IOException ex) {
+        LOG.warn("Failed to compact offset log '{}': {}", logFile, ex.toString(), ex);
+      }
+    }
+    closeChannel();
+  }
+
+  private void closeChannel() {
+    if (channel != null) {
+      try {
+        if (unsynced) {
+          channel.force(false);
+        }
+        channel.close();
+      } catch (IOException ex) {
+        LOG.warn("Failed to close offset log '{}': {}", logFile, ex.toString(), ex);
+      }
+      channel = null;
+      unsynced = false;
+    }
+  }
+
+  private static byte[] toPayload(SourceOffset sourceOffset) {
+    String offset = sourceOffset.getOffset();
+    if (offset == null) {
+      return new byte[]{NULL_OFFSET};
+    }
+    byte[] bytes = offset.getBytes(Charsets.UTF_8);
+    byte[] payload = new byte[bytes.length + 1];
+    payload[0] = NON_NULL_OFFSET;
+    System.arraycopy(bytes, 0, payload, 1, bytes.length);
+    return payload;
+  }
+
+  private static SourceOffset fromPayload(byte[] payload) {
+    String offset = (payload[0] == NULL_OFFSET) ? null : new String(payload, 1, payload.length - 1, Charsets.UTF_8);
+    return new SourceOffset(offset);
+  }
+
+}
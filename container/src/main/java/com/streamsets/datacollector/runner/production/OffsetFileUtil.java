@@ -27,10 +27,15 @@ import java.io.File;
 public class OffsetFileUtil {
 
   private static final String OFFSET_FILE = "offset.json";
+  private static final String OFFSET_LOG_FILE = "offset.log";
 
   private OffsetFileUtil() {}
 
   public static File getPipelineOffsetFile(RuntimeInfo runtimeInfo, String pipelineName, String rev) {
     return new File(PipelineDirectoryUtil.getPipelineDir(runtimeInfo, pipelineName, rev), OFFSET_FILE);
   }
+
+  public static File getPipelineOffsetLogFile(RuntimeInfo runtimeInfo, String pipelineName, String rev) {
+    return new File(PipelineDirectoryUtil.getPipelineDir(runtimeInfo, pipelineName, rev), OFFSET_LOG_FILE);
+  }
 }
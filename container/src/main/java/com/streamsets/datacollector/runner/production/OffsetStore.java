@@ -0,0 +1,49 @@
+/**
+ * Copyright 2016 StreamSets Inc.
+ *
+ * Licensed under the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.runner.production;
+
+/**
+ * Persistent storage for the committed offset of a pipeline source.
+ * <p/>
+ * Implementations are not thread safe, the {@link ProductionSourceOffsetTracker} is the only caller.
+ */
+public interface OffsetStore {
+
+  /**
+   * Returns the last saved offset, or a <code>null</code> offset if no offset has been saved yet.
+   */
+  public SourceOffset load();
+
+  /**
+   * Saves the offset, once the method returns the offset must survive a restart of the data collector.
+   */
+  public void save(SourceOffset sourceOffset);
+
+  /**
+   * Returns the time of the last save, zero if no offset has ever been saved.
+   */
+  public long getLastSaveTime();
+
+  /**
+   * Releases any resources held by the store, the store can still be used after closing it.
+   */
+  public void close();
+
+}
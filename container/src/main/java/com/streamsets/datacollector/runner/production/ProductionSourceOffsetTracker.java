@@ -19,12 +19,9 @@
  */
 package com.streamsets.datacollector.runner.production;
 
-import com.streamsets.datacollector.io.DataStore;
-import com.streamsets.datacollector.json.ObjectMapperFactory;
 import com.streamsets.datacollector.main.RuntimeInfo;
-import com.streamsets.datacollector.restapi.bean.BeanHelper;
-import com.streamsets.datacollector.restapi.bean.SourceOffsetJson;
 import com.streamsets.datacollector.runner.SourceOffsetTracker;
+import com.streamsets.datacollector.util.Configuration;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -33,14 +30,26 @@ import javax.inject.Inject;
 import javax.inject.Named;
 
 import java.io.File;
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
+import java.util.Locale;
 
 public class ProductionSourceOffsetTracker implements SourceOffsetTracker {
 
   private static final Logger LOG = LoggerFactory.getLogger(ProductionSourceOffsetTracker.class);
 
+  public static final String OFFSET_STORE_KEY = "production.offsetStore";
+  public static final String OFFSET_STORE_FILE = "file";
+  public static final String OFFSET_STORE_LOG = "log";
+  public static final String OFFSET_STORE_DEFAULT = OFFSET_STORE_FILE;
+
+  public static final String OFFSET_LOG_SYNC_KEY = "production.offsetStore.log.sync";
+  public static final String OFFSET_LOG_SYNC_DEFAULT = LogOffsetStore.SyncPolicy.COMMIT.name();
+
+  public static final String OFFSET_LOG_SYNC_INTERVAL_KEY = "production.offsetStore.log.syncIntervalMs";
+  public static final long OFFSET_LOG_SYNC_INTERVAL_DEFAULT = 1000;
+
+  public static final String OFFSET_LOG_COMPACTION_KEY = "production.offsetStore.log.compactionRecords";
+  public static final int OFFSET_LOG_COMPACTION_DEFAULT = 1000;
+
   private static final String DEFAULT_OFFSET = null;
 
   private String currentOffset;
@@ -48,14 +57,55 @@ public class ProductionSourceOffsetTracker implements SourceOffsetTracker {
   private boolean finished;
   private final String pipelineName;
   private final String rev;
-  private final RuntimeInfo runtimeInfo;
+  private final OffsetStore offsetStore;
+  private volatile long lastBatchTime;
+
+  public ProductionSourceOffsetTracker(String pipelineName, String rev, RuntimeInfo runtimeInfo) {
+    this(pipelineName, rev, runtimeInfo, new Configuration());
+  }
 
   @Inject
-  public ProductionSourceOffsetTracker( @Named("name") String pipelineName,  @Named("rev") String rev, RuntimeInfo runtimeInfo) {
+  public ProductionSourceOffsetTracker( @Named("name") String pipelineName,  @Named("rev") String rev,
+      RuntimeInfo runtimeInfo, Configuration configuration) {
     this.pipelineName = pipelineName;
     this.rev = rev;
-    this.runtimeInfo = runtimeInfo;
+    this.offsetStore = createOffsetStore(runtimeInfo, pipelineName, rev, configuration);
     this.currentOffset = getSourceOffset(pipelineName, rev).getOffset();
+    this.lastBatchTime = offsetStore.getLastSaveTime();
+  }
+
+  static OffsetStore createOffsetStore(RuntimeInfo runtimeInfo, String pipelineName, String rev,
+      Configuration configuration) {
+    File offsetFile = OffsetFileUtil.getPipelineOffsetFile(runtimeInfo, pipelineName, rev);
+    File logFile = OffsetFileUtil.getPipelineOffsetLogFile(runtimeInfo, pipelineName, rev);
+    String store = configuration.get(OFFSET_STORE_KEY, OFFSET_STORE_DEFAULT);
+    LogOffsetStore logStore = null;
+    if (OFFSET_STORE_LOG.equals(store) || logFile.exists()) {
+      String syncPolicy = configuration.get(OFFSET_LOG_SYNC_KEY, OFFSET_LOG_SYNC_DEFAULT);
+      logStore = new LogOffsetStore(
+          offsetFile,
+          logFile,
+          LogOffsetStore.SyncPolicy.valueOf(syncPolicy.toUpperCase(Locale.ENGLISH)),
+          configuration.get(OFFSET_LOG_SYNC_INTERVAL_KEY, OFFSET_LOG_SYNC_INTERVAL_DEFAULT),
+          configuration.get(OFFSET_LOG_COMPACTION_KEY, OFFSET_LOG_COMPACTION_DEFAULT)
+      );
+    }
+    OffsetStore offsetStore;
+    if (OFFSET_STORE_LOG.equals(store)) {
+      offsetStore = logStore;
+    } else {
+      if (logStore != null) {
+        // the log store was used before, fold the log into the offset file before dropping it
+        LOG.info("Compacting offset log '{}' into offset file '{}'", logFile, offsetFile);
+        logStore.load();
+        logStore.close();
+        if (!logFile.delete()) {
+          throw new RuntimeException(String.format("Could not delete offset log '%s'", logFile.getAbsolutePath()));
+        }
+      }
+      offsetStore = new FileOffsetStore(offsetFile);
+    }
+    return offsetStore;
   }
 
   @Override
@@ -86,17 +136,9 @@ public class ProductionSourceOffsetTracker implements SourceOffsetTracker {
   }
 
   public SourceOffset getSourceOffset(String pipelineName, String rev) {
-    File pipelineOffsetFile = OffsetFileUtil.getPipelineOffsetFile(runtimeInfo, pipelineName, rev);
-    SourceOffset sourceOffset;
-    if (pipelineOffsetFile.exists() && pipelineOffsetFile.length() != 0) {
-      // offset file exists, read from it
-      try (InputStream is = new DataStore(pipelineOffsetFile).getInputStream()) {
-        SourceOffsetJson sourceOffsetJson = ObjectMapperFactory.get().readValue(is, SourceOffsetJson.class);
-        sourceOffset = BeanHelper.unwrapSourceOffset(sourceOffsetJson);
-      } catch (IOException e) {
-        throw new RuntimeException(e);
-      }
-    } else {
+    SourceOffset sourceOffset = offsetStore.load();
+    if (offsetStore.getLastSaveTime() == 0) {
+      // nothing has been saved yet
       sourceOffset = new SourceOffset(DEFAULT_OFFSET);
       saveOffset(pipelineName, rev, sourceOffset);
     }
@@ -105,25 +147,24 @@ public class ProductionSourceOffsetTracker implements SourceOffsetTracker {
 
   public void resetOffset(String pipelineName, String rev) {
     saveOffset(pipelineName, rev, new SourceOffset(DEFAULT_OFFSET));
+    offsetStore.close();
   }
 
   private void saveOffset(String pipelineName, String rev, SourceOffset s) {
     LOG.debug("Saving offset {} for pipeline {}", s.getOffset(), pipelineName);
-    DataStore dataStore = new DataStore(OffsetFileUtil.getPipelineOffsetFile(runtimeInfo,
-      pipelineName, rev));
-    try (OutputStream os = dataStore.getOutputStream()) {
-      ObjectMapperFactory.get().writeValue((os), BeanHelper.wrapSourceOffset(s));
-      dataStore.commit(os);
-    } catch (IOException e) {
-      LOG.error("Failed to save offset value {}. Reason {}", s.getOffset(), e.toString(), e);
-      throw new RuntimeException(e);
-    } finally {
-      dataStore.release();
-    }
+    offsetStore.save(s);
+    lastBatchTime = offsetStore.getLastSaveTime();
+  }
+
+  /**
+   * Releases the resources held by the offset store, the tracker can still be used after closing it.
+   */
+  public void close() {
+    offsetStore.close();
   }
 
   @Override
   public long getLastBatchTime() {
-    return OffsetFileUtil.getPipelineOffsetFile(runtimeInfo, pipelineName, rev).lastModified();
+    return lastBatchTime;
   }
-}
\ No newline at end of file
+}
@@ -27,6 +27,7 @@ import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.streamsets.datacollector.config.StatsTargetChooserValues;
 import com.streamsets.datacollector.config.ConfigDefinition;
 import com.streamsets.datacollector.config.ErrorHandlingChooserValues;
@@ -35,6 +36,7 @@ import com.streamsets.datacollector.config.StageDefinition;
 import com.streamsets.datacollector.config.StageLibraryDefinition;
 import com.streamsets.datacollector.definition.StageDefinitionExtractor;
 import com.streamsets.datacollector.definition.StageLibraryDefinitionExtractor;
+import com.streamsets.datacollector.el.ELEvaluator;
 import com.streamsets.datacollector.el.RuntimeEL;
 import com.streamsets.datacollector.json.ObjectMapperFactory;
 import com.streamsets.datacollector.main.RuntimeInfo;
@@ -69,12 +71,19 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class ClassLoaderStageLibraryTask extends AbstractTask implements StageLibraryTask {
   public static final String MAX_PRIVATE_STAGE_CLASS_LOADERS_KEY = "max.stage.private.classloaders";
   public static final int MAX_PRIVATE_STAGE_CLASS_LOADERS_DEFAULT = 50;
 
+  public static final String STAGE_LIBRARY_LOADING_THREADS_KEY = "stagelibrary.loading.threads";
+  public static final int STAGE_LIBRARY_LOADING_THREADS_DEFAULT = Runtime.getRuntime().availableProcessors();
+
   private static final String CONFIG_LIBRARY_ALIAS_PREFIX = "library.alias.";
   private static final String CONFIG_STAGE_ALIAS_PREFIX = "stage.alias.";
 
@@ -271,57 +280,101 @@ public class ClassLoaderStageLibraryTask extends AbstractTask implements StageLi
 
     try {
       RuntimeEL.loadRuntimeConfiguration(runtimeInfo);
+      ELEvaluator.setCompiledMode(configuration.get(ELEvaluator.COMPILED_EL_KEY, ELEvaluator.COMPILED_EL_DEFAULT));
     } catch (IOException e) {
       throw new RuntimeException(
         Utils.format("Could not load runtime configuration, '{}'", e.toString()), e);
     }
 
+    int threads = Math.max(1, Math.min(stageClassLoaders.size(),
+        configuration.get(STAGE_LIBRARY_LOADING_THREADS_KEY, STAGE_LIBRARY_LOADING_THREADS_DEFAULT)));
+    ExecutorService executor = Executors.newFixedThreadPool(
+        threads,
+        new ThreadFactoryBuilder().setNameFormat("StageLibraryLoader-%d").setDaemon(true).build()
+    );
     try {
-      int libs = 0;
       int stages = 0;
       long start = System.currentTimeMillis();
-      LocaleInContext.set(Locale.getDefault());
-      for (ClassLoader cl : stageClassLoaders) {
-        libs++;
-        StageLibraryDefinition libDef = StageLibraryDefinitionExtractor.get().extract(cl);
-        LOG.debug("Loading stages from library '{}'", libDef.getName());
-        try {
-          Enumeration<URL> resources = cl.getResources(STAGES_DEFINITION_RESOURCE);
-          while (resources.hasMoreElements()) {
-            Map<String, String> stagesInLibrary = new HashMap<>();
-            URL url = resources.nextElement();
-            try (InputStream is = url.openStream()) {
-              List<String> stageList = json.readValue(is, List.class);
-              stageList = removeIgnoreStagesFromList(libDef, stageList);
-              for (String className : stageList) {
-                stages++;
-                Class<? extends Stage> klass = (Class<? extends Stage>) cl.loadClass(className);
-                StageDefinition stage = StageDefinitionExtractor.get().
-                    extract(libDef, klass, Utils.formatL("Library='{}'", libDef.getName()));
-                String key = createKey(libDef.getName(), stage.getName());
-                LOG.debug("Loaded stage '{}' (library:name)", key);
-                if (stagesInLibrary.containsKey(key)) {
-                  throw new IllegalStateException(Utils.format(
-                      "Library '{}' contains more than one definition for stage '{}', class '{}' and class '{}'",
-                      libDef.getName(), key, stagesInLibrary.get(key), stage.getStageClass()));
-                }
-                stagesInLibrary.put(key, stage.getClassName());
-                this.stageList.add(stage);
-                stageMap.put(key, stage);
-                computeDependsOnChain(stage);
-              }
+      // libraries are loaded concurrently, their stages are added in the order of the library classloaders
+      List<Future<List<StageDefinition>>> libraryStages = new ArrayList<>(stageClassLoaders.size());
+      for (final ClassLoader cl : stageClassLoaders) {
+        libraryStages.add(executor.submit(new Callable<List<StageDefinition>>() {
+          @Override
+          public List<StageDefinition> call() {
+            LocaleInContext.set(Locale.getDefault());
+            try {
+              return loadStages(cl);
+            } finally {
+              LocaleInContext.set(null);
             }
           }
-        } catch (IOException | ClassNotFoundException ex) {
-          throw new RuntimeException(
-              Utils.format("Could not load stages definition from '{}', {}", cl, ex.toString()), ex);
+        }));
+      }
+      for (Future<List<StageDefinition>> future : libraryStages) {
+        for (StageDefinition stage : getLibraryStages(future)) {
+          stages++;
+          this.stageList.add(stage);
+          stageMap.put(createKey(stage.getLibrary(), stage.getName()), stage);
         }
       }
-      LOG.debug("Loaded '{}' libraries with a total of '{}' stages in '{}ms'", libs, stages,
-                System.currentTimeMillis() - start);
+      LOG.debug("Loaded '{}' libraries with a total of '{}' stages in '{}ms' using '{}' threads",
+                stageClassLoaders.size(), stages, System.currentTimeMillis() - start, threads);
     } finally {
-      LocaleInContext.set(null);
+      executor.shutdownNow();
+    }
+  }
+
+  private List<StageDefinition> getLibraryStages(Future<List<StageDefinition>> future) {
+    try {
+      return future.get();
+    } catch (ExecutionException ex) {
+      if (ex.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) ex.getCause();
+      } else if (ex.getCause() instanceof Error) {
+        throw (Error) ex.getCause();
+      }
+      throw new RuntimeException(ex.getCause());
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while loading stage libraries", ex);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<StageDefinition> loadStages(ClassLoader cl) {
+    List<StageDefinition> stages = new ArrayList<>();
+    StageLibraryDefinition libDef = StageLibraryDefinitionExtractor.get().extract(cl);
+    LOG.debug("Loading stages from library '{}'", libDef.getName());
+    try {
+      Enumeration<URL> resources = cl.getResources(STAGES_DEFINITION_RESOURCE);
+      while (resources.hasMoreElements()) {
+        Map<String, String> stagesInLibrary = new HashMap<>();
+        URL url = resources.nextElement();
+        try (InputStream is = url.openStream()) {
+          List<String> stageList = json.readValue(is, List.class);
+          stageList = removeIgnoreStagesFromList(libDef, stageList);
+          for (String className : stageList) {
+            Class<? extends Stage> klass = (Class<? extends Stage>) cl.loadClass(className);
+            StageDefinition stage = StageDefinitionExtractor.get().
+                extract(libDef, klass, Utils.formatL("Library='{}'", libDef.getName()));
+            String key = createKey(libDef.getName(), stage.getName());
+            LOG.debug("Loaded stage '{}' (library:name)", key);
+            if (stagesInLibrary.containsKey(key)) {
+              throw new IllegalStateException(Utils.format(
+                  "Library '{}' contains more than one definition for stage '{}', class '{}' and class '{}'",
+                  libDef.getName(), key, stagesInLibrary.get(key), stage.getStageClass()));
+            }
+            stagesInLibrary.put(key, stage.getClassName());
+            computeDependsOnChain(stage);
+            stages.add(stage);
+          }
+        }
+      }
+    } catch (IOException | ClassNotFoundException ex) {
+      throw new RuntimeException(
+          Utils.format("Could not load stages definition from '{}', {}", cl, ex.toString()), ex);
     }
+    return stages;
   }
 
   void validateStageVersions(List<StageDefinition> stageList) {
@@ -0,0 +1,36 @@
+/**
+ * Copyright 2016 StreamSets Inc.
+ *
+ * Licensed under the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.websockets;
+
+import com.streamsets.datacollector.metrics.MetricsEventListener;
+
+import java.util.Queue;
+
+/**
+ * Sends the full metrics of the pipeline once, then only the metrics that changed at each refresh.
+ */
+public class MetricsDeltaWebSocket extends BaseWebSocket implements MetricsEventListener {
+  public static final String TYPE = "metricsDelta";
+
+  public MetricsDeltaWebSocket(ListenerManager<MetricsEventListener> listenerManager, Queue<WebSocketMessage> queue) {
+    super(TYPE, listenerManager, queue);
+  }
+
+}
@@ -134,6 +134,18 @@ public class SDCWebSocketServlet extends WebSocketServlet implements WebSocketCr
               eventListenerManager.removeMetricsEventListener(pipelineName, listener);
             }
           }, queue);
+        case MetricsDeltaWebSocket.TYPE:
+          return new MetricsDeltaWebSocket(new ListenerManager<MetricsEventListener>() {
+            @Override
+            public void register(MetricsEventListener listener) {
+              eventListenerManager.addMetricsDeltaEventListener(pipelineName, listener);
+            }
+
+            @Override
+            public void unregister(MetricsEventListener listener) {
+              eventListenerManager.removeMetricsDeltaEventListener(pipelineName, listener);
+            }
+          }, queue);
         case AlertsWebSocket.TYPE:
           return new AlertsWebSocket(new ListenerManager<AlertEventListener>() {
             @Override
@@ -185,6 +197,7 @@ public class SDCWebSocketServlet extends WebSocketServlet implements WebSocketCr
 
         case StatusWebSocket.TYPE:
         case MetricsWebSocket.TYPE:
+        case MetricsDeltaWebSocket.TYPE:
         case AlertsWebSocket.TYPE:
           //All roles are supported
           super.service(request, response);
@@ -24,6 +24,7 @@ import com.streamsets.datacollector.el.ElConstantDefinition;
 import com.streamsets.datacollector.el.ElFunctionDefinition;
 import com.streamsets.pipeline.api.ElConstant;
 import com.streamsets.pipeline.api.ElFunction;
+import com.streamsets.pipeline.api.ElParam;
 import com.streamsets.pipeline.api.el.ELEval;
 import com.streamsets.pipeline.api.el.ELEvalException;
 import com.streamsets.pipeline.api.el.ELVars;
@@ -132,6 +133,81 @@ public class TestELEvaluator {
     }
   }
 
+  @Test
+  public void testCompiledEvaluation() throws ELEvalException {
+    String[] expressions = {
+        "${location:city() eq CITY}",
+        "${str:concat(CITY, '!')}",
+        "Welcome to ${location:city()}, ${2 + 3 * 4} times",
+        "${1 < 2 && (CITY ne 'x' || location:city() eq 'y')}",
+        "${not empty CITY ? str:concat('a', 1 + 1) : 'b'}",
+        "${-(-x) + 1}",
+        "${x > 1 and CITY eq 'San Francisco'}",
+        "plain text",
+        "${NULL}",
+    };
+    ELEval elEval = new ELEvaluator("testCompiledEvaluation", CompiledTestEl.class, ValidTestEl.class);
+    ELVars variables = elEval.createVariables();
+    variables.addVariable("x", 5);
+    try {
+      for (String expression : expressions) {
+        ELEvaluator.setCompiledMode(false);
+        Object interpreted = elEval.eval(variables, expression, Object.class);
+        ELEvaluator.setCompiledMode(true);
+        Assert.assertEquals(expression, interpreted, elEval.eval(variables, expression, Object.class));
+        // second evaluation uses the cached compiled expression
+        Assert.assertEquals(expression, interpreted, elEval.eval(variables, expression, Object.class));
+      }
+      variables.addVariable("x", 0);
+      Assert.assertEquals(false, elEval.eval(variables, "${x > 1 and CITY eq 'San Francisco'}", Boolean.class));
+    } finally {
+      ELEvaluator.setCompiledMode(ELEvaluator.COMPILED_EL_DEFAULT);
+    }
+  }
+
+  @Test
+  public void testCompiledEvaluationErrors() throws ELEvalException {
+    ELEval elEval = new ELEvaluator("testCompiledEvaluationErrors", CompiledTestEl.class);
+    ELVars variables = elEval.createVariables();
+    ELEvaluator.setCompiledMode(true);
+    try {
+      try {
+        elEval.eval(variables, "${str:fail('boom')}", String.class);
+        Assert.fail();
+      } catch (ELEvalException ex) {
+        Assert.assertTrue(ex.getMessage().contains("boom"));
+      }
+      try {
+        elEval.eval(variables, "${undefined:function()}", String.class);
+        Assert.fail();
+      } catch (ELEvalException ex) {
+        // expected
+      }
+      try {
+        elEval.eval(variables, "${unknown}", String.class);
+        Assert.fail();
+      } catch (ELEvalException ex) {
+        // expected
+      }
+    } finally {
+      ELEvaluator.setCompiledMode(ELEvaluator.COMPILED_EL_DEFAULT);
+    }
+  }
+
+  public static class CompiledTestEl {
+
+    @ElFunction(prefix = "str", name = "concat")
+    public static String concat(@ElParam("a") String a, @ElParam("b") String b) {
+      return a + b;
+    }
+
+    @ElFunction(prefix = "str", name = "fail")
+    public static String fail(@ElParam("message") String message) {
+      throw new IllegalStateException(message);
+    }
+
+  }
+
   public static class ValidTestEl {
 
     @ElConstant(name = "CITY", description = "Declares the CITY constant to be 'San Francisco'")
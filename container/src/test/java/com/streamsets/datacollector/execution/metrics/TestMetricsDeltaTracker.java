@@ -0,0 +1,67 @@
+/**
+ * Copyright 2016 StreamSets Inc.
+ *
+ * Licensed under the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.execution.metrics;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricRegistry;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.streamsets.datacollector.json.ObjectMapperFactory;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestMetricsDeltaTracker {
+
+  @Test
+  public void testDelta() {
+    ObjectMapper objectMapper = ObjectMapperFactory.getOneLine();
+    MetricRegistry metrics = new MetricRegistry();
+    Counter counter1 = metrics.counter("c1");
+    metrics.counter("c2");
+
+    MetricsDeltaTracker tracker = new MetricsDeltaTracker();
+    JsonNode delta = tracker.update(objectMapper.valueToTree(metrics));
+    Assert.assertNotNull(delta);
+    Assert.assertTrue(delta.get(MetricsDeltaTracker.DELTA).asBoolean());
+    Assert.assertEquals(2, delta.get("counters").size());
+
+    // nothing changed
+    Assert.assertNull(tracker.update(objectMapper.valueToTree(metrics)));
+
+    counter1.inc();
+    delta = tracker.update(objectMapper.valueToTree(metrics));
+    Assert.assertNotNull(delta);
+    Assert.assertEquals(1, delta.get("counters").size());
+    Assert.assertEquals(1, delta.get("counters").get("c1").get("count").asLong());
+    Assert.assertNull(delta.get("meters"));
+
+    metrics.remove("c2");
+    delta = tracker.update(objectMapper.valueToTree(metrics));
+    Assert.assertNotNull(delta);
+    Assert.assertNull(delta.get("counters"));
+    Assert.assertEquals("c2", delta.get(MetricsDeltaTracker.REMOVED).get(0).asText());
+
+    // after a reset everything is sent again
+    tracker.reset();
+    delta = tracker.update(objectMapper.valueToTree(metrics));
+    Assert.assertEquals(1, delta.get("counters").size());
+  }
+
+}
@@ -24,6 +24,7 @@ import com.codahale.metrics.Meter;
 import com.codahale.metrics.MetricRegistry;
 import com.streamsets.datacollector.alerts.AlertsUtil;
 import com.streamsets.datacollector.config.DataRuleDefinition;
+import com.streamsets.datacollector.config.DriftRuleDefinition;
 import com.streamsets.datacollector.config.RuleDefinitions;
 import com.streamsets.datacollector.config.ThresholdType;
 import com.streamsets.datacollector.execution.EventListenerManager;
@@ -33,9 +34,12 @@ import com.streamsets.datacollector.execution.alerts.TestUtil;
 import com.streamsets.datacollector.main.RuntimeInfo;
 import com.streamsets.datacollector.main.RuntimeModule;
 import com.streamsets.datacollector.metrics.MetricsConfigurator;
+import com.streamsets.datacollector.record.RecordImpl;
 import com.streamsets.datacollector.runner.production.DataRulesEvaluationRequest;
 import com.streamsets.datacollector.runner.production.RulesConfigurationChangeRequest;
 import com.streamsets.datacollector.util.Configuration;
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.Record;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -44,6 +48,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -109,6 +114,101 @@ public class TestDataObserverRunner {
     Assert.assertEquals(3, meter.getCount());
   }
 
+  @Test
+  public void testHandleObserverRequestsWithEvaluationThreads() {
+    Configuration configuration = new Configuration();
+    configuration.set(Constants.DATA_RULES_EVALUATION_THREADS_KEY, 2);
+    dataObserverRunner = new DataObserverRunner(PIPELINE_NAME, REVISION, metrics,
+      new AlertManager(PIPELINE_NAME, REVISION, null, metrics, runtimeInfo, new EventListenerManager()), configuration);
+    try {
+      RulesConfigurationChangeRequest rulesConfigurationChangeRequest = createRulesConfigurationChangeRequest(true, true);
+      dataObserverRunner.handleConfigurationChangeRequest(rulesConfigurationChangeRequest);
+      dataObserverRunner.handleDataRulesEvaluationRequest(createProductionObserverRequest());
+      dataObserverRunner.handleDataRulesEvaluationRequest(createProductionObserverRequest());
+      Gauge<Object> gauge = MetricsConfigurator.getGauge(metrics, AlertsUtil.getAlertGaugeName("myId"));
+      Assert.assertNotNull(gauge);
+      Assert.assertEquals((long) 6, ((Map<String, Object>) gauge.getValue()).get("currentValue"));
+
+      Meter meter = MetricsConfigurator.getMeter(metrics, AlertsUtil.getUserMetricName("myId"));
+      Assert.assertNotNull(meter);
+      Assert.assertEquals(6, meter.getCount());
+    } finally {
+      dataObserverRunner.stop();
+    }
+  }
+
+  @Test
+  public void testDriftRulesWithEvaluationThreads() {
+    Configuration configuration = new Configuration();
+    configuration.set(Constants.DATA_RULES_EVALUATION_THREADS_KEY, 4);
+    dataObserverRunner = new DataObserverRunner(PIPELINE_NAME, REVISION, metrics,
+      new AlertManager(PIPELINE_NAME, REVISION, null, metrics, runtimeInfo, new EventListenerManager()), configuration);
+    try {
+      // rules on the same field keep their own drift state
+      List<String> ruleIds = Arrays.asList("drift0", "drift1", "drift2", "drift3");
+      dataObserverRunner.handleConfigurationChangeRequest(createDriftRulesConfigurationChangeRequest(ruleIds));
+      dataObserverRunner.handleDataRulesEvaluationRequest(createDriftObserverRequest(ruleIds));
+      for (String ruleId : ruleIds) {
+        Assert.assertEquals(2, MetricsConfigurator.getMeter(metrics, AlertsUtil.getUserMetricName(ruleId)).getCount());
+      }
+      dataObserverRunner.handleDataRulesEvaluationRequest(createDriftObserverRequest(ruleIds));
+      for (String ruleId : ruleIds) {
+        Assert.assertEquals(5, MetricsConfigurator.getMeter(metrics, AlertsUtil.getUserMetricName(ruleId)).getCount());
+      }
+    } finally {
+      dataObserverRunner.stop();
+    }
+  }
+
+  private DataRulesEvaluationRequest createDriftObserverRequest(List<String> ruleIds) {
+    Map<String, List<Record>> snapshot = new HashMap<>();
+    for (String ruleId : ruleIds) {
+      // map sizes drift twice on the first request and three times on the following ones
+      List<Record> records = new ArrayList<>();
+      for (int size : new int[] {1, 2, 2, 3, 3, 3}) {
+        Map<String, Field> map = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+          map.put("f" + i, Field.create(i));
+        }
+        Record record = new RecordImpl("s", "s:" + size, null, null);
+        record.set(Field.create(map));
+        records.add(record);
+      }
+      snapshot.put(ruleId, records);
+    }
+    Map<String, Map<String, List<Record>>> laneSnapshot = new HashMap<>();
+    laneSnapshot.put(LANE + "::s", snapshot);
+    return new DataRulesEvaluationRequest(laneSnapshot, TestUtil.createLaneToRecordSizeMap(LANE));
+  }
+
+  private RulesConfigurationChangeRequest createDriftRulesConfigurationChangeRequest(List<String> ruleIds) {
+    List<DataRuleDefinition> dataRuleDefinitions = new ArrayList<>();
+    for (String ruleId : ruleIds) {
+      dataRuleDefinitions.add(
+          new DriftRuleDefinition(
+              ruleId,
+              ruleId,
+              LANE + "::s",
+              100,
+              10,
+              "${drift:size('/', false)}",
+              false,
+              "alertText",
+              true,
+              false,
+              true,
+              System.currentTimeMillis()
+          )
+      );
+    }
+    RuleDefinitions ruleDefinitions = new RuleDefinitions(null, dataRuleDefinitions, null, Collections.<String>emptyList(),
+      UUID.randomUUID());
+    Map<String, List<DataRuleDefinition>> laneToRuleDefinition = new HashMap<>();
+    laneToRuleDefinition.put(LANE + "::s", dataRuleDefinitions);
+    return new RulesConfigurationChangeRequest(ruleDefinitions, new HashMap<String, String>(),
+      Collections.<String>emptySet(), laneToRuleDefinition, new HashMap<String, Integer>());
+  }
+
   private DataRulesEvaluationRequest createProductionObserverRequest() {
     DataRulesEvaluationRequest request = new DataRulesEvaluationRequest(TestUtil.createSnapshot(LANE, ID),
       TestUtil.createLaneToRecordSizeMap(LANE));
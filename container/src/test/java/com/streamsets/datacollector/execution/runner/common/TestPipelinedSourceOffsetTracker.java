@@ -0,0 +1,65 @@
+/**
+ * Copyright 2016 StreamSets Inc.
+ *
+ * Licensed under the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.execution.runner.common;
+
+import com.streamsets.datacollector.runner.SourceOffsetTracker;
+import com.streamsets.datacollector.util.TestUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestPipelinedSourceOffsetTracker {
+
+  @Test
+  public void testOffsetsRunAheadOfCommits() {
+    SourceOffsetTracker offsetTracker = new TestUtil.SourceOffsetTrackerImpl("0");
+    PipelinedSourceOffsetTracker pipelinedTracker = new PipelinedSourceOffsetTracker(offsetTracker);
+
+    SourceOffsetTracker batch1 = pipelinedTracker.newBatchTracker();
+    Assert.assertEquals("0", batch1.getOffset());
+    batch1.setOffset("1");
+
+    SourceOffsetTracker batch2 = pipelinedTracker.newBatchTracker();
+    Assert.assertEquals("1", batch2.getOffset());
+    batch2.setOffset(null);
+    Assert.assertTrue(pipelinedTracker.isProducerFinished());
+
+    Assert.assertEquals("0", offsetTracker.getOffset());
+    batch1.commitOffset();
+    Assert.assertEquals("1", offsetTracker.getOffset());
+    Assert.assertEquals("1", batch1.getOffset());
+    Assert.assertFalse(offsetTracker.isFinished());
+    batch2.commitOffset();
+    Assert.assertNull(offsetTracker.getOffset());
+    Assert.assertTrue(offsetTracker.isFinished());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testOutOfOrderCommit() {
+    PipelinedSourceOffsetTracker pipelinedTracker =
+        new PipelinedSourceOffsetTracker(new TestUtil.SourceOffsetTrackerImpl("0"));
+    SourceOffsetTracker batch1 = pipelinedTracker.newBatchTracker();
+    batch1.setOffset("1");
+    SourceOffsetTracker batch2 = pipelinedTracker.newBatchTracker();
+    batch2.setOffset("2");
+    batch2.commitOffset();
+    batch1.commitOffset();
+  }
+
+}
@@ -22,8 +22,12 @@ package com.streamsets.datacollector.execution.runner.common;
 import com.codahale.metrics.MetricRegistry;
 import com.streamsets.datacollector.main.RuntimeInfo;
 import com.streamsets.datacollector.main.RuntimeModule;
+import com.streamsets.datacollector.runner.production.FileOffsetStore;
+import com.streamsets.datacollector.runner.production.LogOffsetStore;
 import com.streamsets.datacollector.runner.production.OffsetFileUtil;
 import com.streamsets.datacollector.runner.production.ProductionSourceOffsetTracker;
+import com.streamsets.datacollector.runner.production.SourceOffset;
+import com.streamsets.datacollector.util.Configuration;
 import com.streamsets.pipeline.api.impl.Utils;
 
 import org.apache.commons.io.FileUtils;
@@ -35,8 +39,11 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.Arrays;
+import java.util.UUID;
 
 public class TestProdSourceOffsetTracker {
   private static Logger LOG = LoggerFactory.getLogger(TestProdSourceOffsetTracker.class);
@@ -70,13 +77,106 @@ public class TestProdSourceOffsetTracker {
     Assert.assertEquals(false, offsetTracker.isFinished());
     Assert.assertEquals(null, offsetTracker.getOffset());
 
+    long start = System.currentTimeMillis();
     offsetTracker.setOffset("abc");
     offsetTracker.commitOffset();
     Assert.assertEquals("abc", offsetTracker.getOffset());
 
-    Assert.assertEquals(OffsetFileUtil.getPipelineOffsetFile(info, PIPELINE_NAME, PIPELINE_REV).lastModified(),
-      offsetTracker.getLastBatchTime());
+    // the last batch time is kept in memory
+    Assert.assertTrue(offsetTracker.getLastBatchTime() >= start);
+    Assert.assertTrue(offsetTracker.getLastBatchTime() <= System.currentTimeMillis());
+    Assert.assertTrue(OffsetFileUtil.getPipelineOffsetFile(info, PIPELINE_NAME, PIPELINE_REV).exists());
+
+    offsetTracker = new ProductionSourceOffsetTracker(PIPELINE_NAME, PIPELINE_REV, info);
+    Assert.assertEquals("abc", offsetTracker.getOffset());
   }
 
+  @Test
+  public void testOffsetLogStore() {
+    RuntimeInfo info = new RuntimeInfo(RuntimeModule.SDC_PROPERTY_PREFIX, new MetricRegistry(),
+      Arrays.asList(getClass().getClassLoader()));
+    Configuration conf = new Configuration();
+    conf.set(ProductionSourceOffsetTracker.OFFSET_STORE_KEY, ProductionSourceOffsetTracker.OFFSET_STORE_LOG);
+    conf.set(ProductionSourceOffsetTracker.OFFSET_LOG_COMPACTION_KEY, 4);
+    String pipeline = "logPipeline";
+    File offsetFile = OffsetFileUtil.getPipelineOffsetFile(info, pipeline, PIPELINE_REV);
+    File logFile = OffsetFileUtil.getPipelineOffsetLogFile(info, pipeline, PIPELINE_REV);
+
+    ProductionSourceOffsetTracker offsetTracker = new ProductionSourceOffsetTracker(pipeline, PIPELINE_REV, info, conf);
+    Assert.assertNull(offsetTracker.getOffset());
+    Assert.assertTrue(offsetTracker.getLastBatchTime() > 0);
+    offsetTracker.setOffset("a");
+    offsetTracker.commitOffset();
+    offsetTracker.setOffset("b");
+    offsetTracker.commitOffset();
+    Assert.assertTrue(logFile.exists());
+    Assert.assertFalse(offsetFile.exists());
+
+    // recovery without a clean close replays the log
+    offsetTracker = new ProductionSourceOffsetTracker(pipeline, PIPELINE_REV, info, conf);
+    Assert.assertEquals("b", offsetTracker.getOffset());
+
+    // 4th record, including the initial one, triggers a compaction
+    offsetTracker.setOffset("c");
+    offsetTracker.commitOffset();
+    Assert.assertTrue(offsetFile.exists());
+    offsetTracker.setOffset("d");
+    offsetTracker.commitOffset();
+    offsetTracker = new ProductionSourceOffsetTracker(pipeline, PIPELINE_REV, info, conf);
+    Assert.assertEquals("d", offsetTracker.getOffset());
+    offsetTracker.close();
+
+    // switching back to the file store folds the log into the offset file
+    offsetTracker = new ProductionSourceOffsetTracker(pipeline, PIPELINE_REV, info, new Configuration());
+    Assert.assertEquals("d", offsetTracker.getOffset());
+    Assert.assertFalse(logFile.exists());
+  }
+
+  @Test
+  public void testOffsetLogStoreCorruptedTail() throws IOException {
+    File dir = new File("target", UUID.randomUUID().toString());
+    Assert.assertTrue(dir.mkdirs());
+    File offsetFile = new File(dir, "offset.json");
+    File logFile = new File(dir, "offset.log");
+    for (LogOffsetStore.SyncPolicy policy : LogOffsetStore.SyncPolicy.values()) {
+      LogOffsetStore store = new LogOffsetStore(offsetFile, logFile, policy, 100, 1000);
+      store.load();
+      store.save(new SourceOffset("x"));
+      store.save(new SourceOffset(null));
+      store.save(new SourceOffset("y"));
+      long length = logFile.length();
+      // simulate a crash in the middle of an append
+      try (OutputStream os = new FileOutputStream(logFile, true)) {
+        os.write(new byte[]{0, 0, 0, 10, 1, 2});
+      }
+
+      store = new LogOffsetStore(offsetFile, logFile, policy, 100, 1000);
+      Assert.assertEquals("y", store.load().getOffset());
+      Assert.assertEquals(length, logFile.length());
+      store.save(new SourceOffset(null));
+      store.close();
+      Assert.assertNull(new FileOffsetStore(offsetFile).load().getOffset());
+      Assert.assertNull(new LogOffsetStore(offsetFile, logFile, policy, 100, 1000).load().getOffset());
+    }
+  }
+
+  @Test
+  public void testOffsetLogStoreIntervalSync() throws Exception {
+    File dir = new File("target", UUID.randomUUID().toString());
+    Assert.assertTrue(dir.mkdirs());
+    LogOffsetStore store = new LogOffsetStore(new File(dir, "offset.json"), new File(dir, "offset.log"),
+        LogOffsetStore.SyncPolicy.INTERVAL, 100, 1000);
+    store.load();
+    store.save(new SourceOffset("x"));
+    store.save(new SourceOffset("y"));
+    Assert.assertFalse(store.isSynced());
+    // no further save comes, the pending one is flushed once the interval elapses
+    long timeout = System.currentTimeMillis() + 5000;
+    while (!store.isSynced() && System.currentTimeMillis() < timeout) {
+      Thread.sleep(10);
+    }
+    Assert.assertTrue(store.isSynced());
+    store.close();
+  }
 
 }
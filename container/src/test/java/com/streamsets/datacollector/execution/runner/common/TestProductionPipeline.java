@@ -261,6 +261,35 @@ public class TestProductionPipeline {
     Assert.assertTrue(capture.lastBatchTime < endTime);
   }
 
+  private static class PipelinedSourceCapture extends BaseSource {
+    public final List<String> lastSourceOffsets = new ArrayList<>();
+
+    @Override
+    public String produce(String lastSourceOffset, int maxBatchSize, BatchMaker batchMaker) throws StageException {
+      lastSourceOffsets.add(lastSourceOffset);
+      int count = lastSourceOffsets.size();
+      Record record = getContext().createRecord("e" + count);
+      record.set(Field.create(count));
+      batchMaker.addRecord(record);
+      return (count < 5) ? "o::" + count : null;
+    }
+
+  }
+
+  @Test
+  public void testProductionRunPipelined() throws Exception {
+    PipelinedSourceCapture capture = new PipelinedSourceCapture();
+    MockStages.setSourceCapture(capture);
+    ProductionPipeline pipeline = createProductionPipeline(DeliveryGuarantee.AT_LEAST_ONCE, false, -1L,
+      false/*source not committer*/, 2);
+    pipeline.registerStatusListener(new MyStateListener());
+    pipeline.run();
+    // the origin sees the offset of the previous batch even if that batch was not committed yet
+    Assert.assertEquals(Arrays.asList("1", "o::1", "o::2", "o::3", "o::4"), capture.lastSourceOffsets);
+    Assert.assertNull(pipeline.getCommittedOffset());
+    Assert.assertEquals("o::4", pipeline.getPipeline().getRunner().getSourceOffset());
+  }
+
   @Test
   public void testMemoryLimit() throws Exception {
     memoryLimit = new MemoryLimitConfiguration(MemoryLimitExceeded.STOP_PIPELINE, 1);
@@ -315,6 +344,11 @@ public class TestProductionPipeline {
 
   private ProductionPipeline createProductionPipeline(DeliveryGuarantee deliveryGuarantee, boolean captureNextBatch, long rateLimit,
     boolean sourceOffsetCommitter) throws Exception {
+    return createProductionPipeline(deliveryGuarantee, captureNextBatch, rateLimit, sourceOffsetCommitter, 0);
+  }
+
+  private ProductionPipeline createProductionPipeline(DeliveryGuarantee deliveryGuarantee, boolean captureNextBatch, long rateLimit,
+    boolean sourceOffsetCommitter, int pipelinedDepth) throws Exception {
     SourceOffsetTracker tracker = new TestUtil.SourceOffsetTrackerImpl("1");
     SnapshotStore snapshotStore = Mockito.mock(FileSnapshotStore.class);
 
@@ -324,6 +358,7 @@ public class TestProductionPipeline {
     BlockingQueue<Object> productionObserveRequests = new ArrayBlockingQueue<>(100, true /* FIFO */);
     Configuration config = new Configuration();
     config.set("monitor.memory", true);
+    config.set(Constants.PIPELINED_EXECUTION_DEPTH_KEY, pipelinedDepth);
     ProductionPipelineRunner runner =
         new ProductionPipelineRunner(PIPELINE_NAME, REVISION, config, runtimeInfo, new MetricRegistry(), snapshotStore,
             null);
@@ -19,9 +19,11 @@
  */
 package com.streamsets.datacollector.execution.snapshot;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.streamsets.datacollector.execution.Snapshot;
 import com.streamsets.datacollector.execution.SnapshotInfo;
 import com.streamsets.datacollector.execution.SnapshotStore;
+import com.streamsets.datacollector.json.ObjectMapperFactory;
 import com.streamsets.datacollector.record.RecordImpl;
 import com.streamsets.datacollector.runner.ErrorSink;
 import com.streamsets.datacollector.runner.StageOutput;
@@ -133,6 +135,42 @@ public abstract class TestSnapshotStore {
     Assert.assertNotNull(data);
   }
 
+  @Test
+  public void testAppendAndGet() throws PipelineException, IOException {
+    snapshotStore.create(USER, PIPELINE_NAME, PIPELINE_REV, SNAPSHOT_ID, SNAPSHOT_LABEL);
+
+    snapshotStore.appendBatch(PIPELINE_NAME, PIPELINE_REV, SNAPSHOT_ID, createSnapshotData());
+    snapshotStore.appendBatch(PIPELINE_NAME, PIPELINE_REV, SNAPSHOT_ID, createSnapshotData());
+    Assert.assertTrue(snapshotStore.getInfo(PIPELINE_NAME, PIPELINE_REV, SNAPSHOT_ID).isInProgress());
+    Assert.assertNull(snapshotStore.get(PIPELINE_NAME, PIPELINE_REV, SNAPSHOT_ID).getOutput());
+
+    snapshotStore.save(PIPELINE_NAME, PIPELINE_REV, SNAPSHOT_ID, getSnapshotData());
+    Assert.assertFalse(snapshotStore.getInfo(PIPELINE_NAME, PIPELINE_REV, SNAPSHOT_ID).isInProgress());
+
+    try (Snapshot snapshot = snapshotStore.get(PIPELINE_NAME, PIPELINE_REV, SNAPSHOT_ID)) {
+      JsonNode data = ObjectMapperFactory.get().readTree(snapshot.getOutput());
+      Assert.assertEquals(4, data.get("snapshotBatches").size());
+      Assert.assertEquals("source", data.get("snapshotBatches").get(0).get(0).get("instanceName").asText());
+    }
+  }
+
+  @Test
+  public void testRecaptureSameId() throws PipelineException, IOException {
+    // capture that never completed, e.g. the pipeline stopped
+    snapshotStore.create(USER, PIPELINE_NAME, PIPELINE_REV, SNAPSHOT_ID, SNAPSHOT_LABEL);
+    snapshotStore.appendBatch(PIPELINE_NAME, PIPELINE_REV, SNAPSHOT_ID, createSnapshotData());
+    snapshotStore.appendBatch(PIPELINE_NAME, PIPELINE_REV, SNAPSHOT_ID, createSnapshotData());
+
+    snapshotStore.create(USER, PIPELINE_NAME, PIPELINE_REV, SNAPSHOT_ID, SNAPSHOT_LABEL);
+    snapshotStore.appendBatch(PIPELINE_NAME, PIPELINE_REV, SNAPSHOT_ID, createSnapshotData());
+    snapshotStore.save(PIPELINE_NAME, PIPELINE_REV, SNAPSHOT_ID, getSnapshotData());
+
+    try (Snapshot snapshot = snapshotStore.get(PIPELINE_NAME, PIPELINE_REV, SNAPSHOT_ID)) {
+      JsonNode data = ObjectMapperFactory.get().readTree(snapshot.getOutput());
+      Assert.assertEquals(3, data.get("snapshotBatches").size());
+    }
+  }
+
   @Test
   public void testGetSummary() throws PipelineException {
     List<SnapshotInfo> summaryForPipeline = snapshotStore.getSummaryForPipeline(PIPELINE_NAME, PIPELINE_REV);
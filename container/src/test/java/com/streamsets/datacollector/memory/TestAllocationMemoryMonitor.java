@@ -0,0 +1,140 @@
+/**
+ * Copyright 2016 StreamSets Inc.
+ *
+ * Licensed under the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.memory;
+
+import com.codahale.metrics.Counter;
+import com.google.common.collect.ImmutableMap;
+import com.streamsets.datacollector.record.RecordImpl;
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.Record;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class TestAllocationMemoryMonitor {
+
+  private static Record createRecord(int valueLength) {
+    Record record = new RecordImpl("s", "id", null, null);
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < valueLength; i++) {
+      sb.append('a');
+    }
+    Map<String, Field> map = new HashMap<>();
+    map.put("a", Field.create(sb.toString()));
+    map.put("b", Field.create(new byte[valueLength]));
+    List<Field> list = new ArrayList<>();
+    list.add(Field.create(1));
+    list.add(Field.create(1L));
+    map.put("c", Field.create(list));
+    record.set(Field.create(map));
+    return record;
+  }
+
+  @Test
+  public void testRecordSizeEstimate() {
+    long small = RecordSizeEstimator.estimate(createRecord(10), false);
+    long large = RecordSizeEstimator.estimate(createRecord(10000), false);
+    Assert.assertTrue(small > 0);
+    // the string chars and the byte array dominate the difference
+    Assert.assertTrue(large - small >= 3 * 9990 - 16);
+    Assert.assertTrue(large - small < 3 * 10000 + 100);
+    Assert.assertEquals(0, RecordSizeEstimator.estimate((Field) null));
+  }
+
+  @Test
+  public void testEstimateDoesNotCopySharedValue() {
+    RecordImpl record = (RecordImpl) createRecord(10);
+    RecordImpl copy1 = record.copyOnWrite();
+    RecordImpl copy2 = record.copyOnWrite();
+    record.release();
+    Assert.assertEquals(RecordSizeEstimator.estimate(record, false), RecordSizeEstimator.estimate(copy1, false));
+    Assert.assertEquals(RecordSizeEstimator.estimate(record, false), RecordSizeEstimator.estimate(copy2, false));
+    Assert.assertSame(record.peek(), copy1.peek());
+    Assert.assertSame(record.peek(), copy2.peek());
+  }
+
+  @Test
+  public void testSourceRecordOnlyCountedWhenRequested() {
+    RecordImpl record = (RecordImpl) createRecord(1000);
+    long withoutSource = RecordSizeEstimator.estimate(record, true);
+    record.getHeader().setSourceRecord(record.clone());
+    Assert.assertEquals(withoutSource, RecordSizeEstimator.estimate(record, false));
+    Assert.assertTrue(RecordSizeEstimator.estimate(record, true) > 2 * withoutSource - 500);
+  }
+
+  @Test
+  public void testSampledEstimateExtrapolates() {
+    List<Record> records = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      records.add(createRecord(100));
+    }
+    long recordSize = RecordSizeEstimator.estimate(records.get(0), false);
+    AllocationMemoryMonitor monitor = new AllocationMemoryMonitor(new Counter(), 10, false);
+    Assert.assertEquals(1000 * recordSize, monitor.estimateRecords(ImmutableMap.of("lane", records)));
+    Assert.assertEquals(0, monitor.estimateRecords(ImmutableMap.of("lane", Collections.<Record>emptyList())));
+  }
+
+  @Test
+  public void testCounterUpdatedInMB() {
+    Counter counter = new Counter();
+    AllocationMemoryMonitor monitor = new AllocationMemoryMonitor(counter, 100, false);
+    long start = monitor.start();
+    List<Record> records = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      records.add(createRecord(50000));
+    }
+    long retained = monitor.end(start, ImmutableMap.of("lane", records));
+    Assert.assertTrue(retained > 0);
+    Assert.assertEquals(retained / 1000000, counter.getCount());
+    if (AllocationMemoryMonitor.isAllocatedMemorySupported()) {
+      // 100 records of 50K chars and 50KB, at least 5MB were allocated and retained
+      Assert.assertTrue(counter.getCount() >= 5);
+    }
+
+    // counter reflects the last batch, not an accumulation
+    start = monitor.start();
+    monitor.end(start, ImmutableMap.of("lane", Collections.<Record>emptyList()));
+    Assert.assertEquals(0, counter.getCount());
+  }
+
+  @Test
+  public void testEstimateNotBoundedForOrigins() {
+    // records created before start(), as an origin reading them on another thread would see
+    List<Record> records = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      records.add(createRecord(10000));
+    }
+    AllocationMemoryMonitor monitor = new AllocationMemoryMonitor(new Counter(), 100, true, false);
+    long estimate = monitor.estimateRecords(ImmutableMap.of("lane", records));
+    Assert.assertEquals(estimate, monitor.end(monitor.start(), ImmutableMap.of("lane", records)));
+
+    monitor = new AllocationMemoryMonitor(new Counter(), 100, true, true);
+    long retained = monitor.end(monitor.start(), ImmutableMap.of("lane", records));
+    if (AllocationMemoryMonitor.isAllocatedMemorySupported()) {
+      Assert.assertTrue(retained < estimate);
+    }
+  }
+
+}
@@ -0,0 +1,115 @@
+/**
+ * Copyright 2016 StreamSets Inc.
+ *
+ * Licensed under the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.metrics;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class TestLogLinearHistogram {
+
+  private static void assertWithinError(long expected, long actual) {
+    Assert.assertTrue(expected + " != " + actual, Math.abs(expected - actual) <= expected / 32 + 1);
+  }
+
+  @Test
+  public void testEmpty() {
+    LogLinearHistogram histogram = new LogLinearHistogram();
+    Assert.assertEquals(0, histogram.getCount());
+    Assert.assertEquals(0, histogram.getMin());
+    Assert.assertEquals(0, histogram.getMax());
+    Assert.assertEquals(0, histogram.getValue(0.99));
+    Assert.assertEquals(0, histogram.getValues().length);
+    Assert.assertEquals(0, LogLinearHistogram.decode(histogram.encode()).getCount());
+  }
+
+  @Test
+  public void testBuckets() {
+    for (long value : new long[] {0, 1, 63, 64, 65, 1000, 123456789, Long.MAX_VALUE}) {
+      assertWithinError(value, LogLinearHistogram.bucketValue(LogLinearHistogram.bucketIndex(value)));
+    }
+    Assert.assertTrue(LogLinearHistogram.bucketIndex(1000) < LogLinearHistogram.bucketIndex(1100));
+  }
+
+  @Test
+  public void testSingleValueIsExact() {
+    LogLinearHistogram histogram = new LogLinearHistogram();
+    histogram.record(100000001);
+    Assert.assertEquals(100000001, histogram.getValue(0.5));
+    Assert.assertArrayEquals(new long[] {100000001}, histogram.getValues());
+  }
+
+  @Test
+  public void testQuantiles() {
+    LogLinearHistogram histogram = new LogLinearHistogram();
+    for (int i = 1; i <= 10000; i++) {
+      histogram.record(i * 1000L);
+    }
+    Assert.assertEquals(10000, histogram.getCount());
+    Assert.assertEquals(1000, histogram.getMin());
+    Assert.assertEquals(10000000, histogram.getMax());
+    Assert.assertEquals(5000500, histogram.getMean(), 0.1);
+    assertWithinError(5000000, histogram.getValue(0.5));
+    assertWithinError(9900000, histogram.getValue(0.99));
+    Assert.assertEquals(10000000, histogram.getValue(1));
+  }
+
+  @Test
+  public void testMergeMatchesSingleHistogram() {
+    Random random = new Random(0);
+    LogLinearHistogram all = new LogLinearHistogram();
+    LogLinearHistogram merged = new LogLinearHistogram();
+    for (int i = 0; i < 50; i++) {
+      LogLinearHistogram slave = new LogLinearHistogram();
+      // each slave sees a different range of values
+      for (int j = 0; j < 1000; j++) {
+        long value = (long) (random.nextDouble() * (i + 1) * 1000000);
+        slave.record(value);
+        all.record(value);
+      }
+      merged.merge(LogLinearHistogram.decode(slave.encode()));
+    }
+    Assert.assertEquals(all.getCount(), merged.getCount());
+    Assert.assertEquals(all.getMin(), merged.getMin());
+    Assert.assertEquals(all.getMax(), merged.getMax());
+    Assert.assertEquals(all.getMean(), merged.getMean(), 0.001);
+    for (double quantile : new double[] {0.5, 0.75, 0.95, 0.98, 0.99, 0.999}) {
+      Assert.assertEquals(all.getValue(quantile), merged.getValue(quantile));
+    }
+  }
+
+  @Test
+  public void testReset() {
+    LogLinearHistogram histogram = new LogLinearHistogram();
+    histogram.record(10);
+    histogram.reset();
+    Assert.assertEquals(0, histogram.getCount());
+    histogram.record(20);
+    Assert.assertEquals(20, histogram.getMin());
+    Assert.assertEquals(20, histogram.getValue(0.5));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testDecodeInvalid() {
+    LogLinearHistogram.decode("AQ==");
+  }
+
+}
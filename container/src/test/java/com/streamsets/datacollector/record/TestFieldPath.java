@@ -0,0 +1,83 @@
+/**
+ * Copyright 2016 StreamSets Inc.
+ *
+ * Licensed under the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.record;
+
+import com.streamsets.pipeline.api.Field;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class TestFieldPath {
+
+  @Test
+  public void testCompile() {
+    FieldPath fieldPath = FieldPath.compile("/a[1]/'b/c'");
+    Assert.assertSame(fieldPath, FieldPath.compile("/a[1]/'b/c'"));
+    Assert.assertEquals("/a[1]/'b/c'", fieldPath.getPath());
+    Assert.assertEquals(4, fieldPath.size());
+    Assert.assertEquals(PathElement.ROOT, fieldPath.getElement(0));
+    Assert.assertEquals("a", fieldPath.getElement(1).getName());
+    Assert.assertEquals(1, fieldPath.getElement(2).getIndex());
+    Assert.assertEquals("b/c", fieldPath.getElement(3).getName());
+
+    Assert.assertEquals(1, FieldPath.compile("").size());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testCompileInvalid() {
+    FieldPath.compile("a");
+  }
+
+  @Test
+  public void testRecordAccess() {
+    List<Field> list = new ArrayList<>();
+    list.add(Field.create("x"));
+    Map<String, Field> map = new HashMap<>();
+    map.put("a", Field.create(list));
+    RecordImpl record = new RecordImpl("stage", "source", null, null);
+    record.set(Field.create(map));
+
+    FieldPath x = FieldPath.compile("/a[0]");
+    FieldPath y = FieldPath.compile("/a[1]");
+    Assert.assertTrue(record.has(x));
+    Assert.assertEquals("x", record.get(x).getValueAsString());
+    Assert.assertFalse(record.has(y));
+    Assert.assertNull(record.get(y));
+
+    Assert.assertNull(record.set(y, Field.create("y")));
+    Assert.assertEquals("y", record.get("/a[1]").getValueAsString());
+    Assert.assertEquals("x", record.set(x, Field.create("z")).getValueAsString());
+    Assert.assertEquals("z", record.delete(x).getValueAsString());
+    Assert.assertEquals("y", record.get(x).getValueAsString());
+    Assert.assertNull(record.delete(FieldPath.compile("/b")));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSetNotReachable() {
+    RecordImpl record = new RecordImpl("stage", "source", null, null);
+    record.set(Field.create(new HashMap<String, Field>()));
+    record.set(FieldPath.compile("/a/b"), Field.create("b"));
+  }
+
+}
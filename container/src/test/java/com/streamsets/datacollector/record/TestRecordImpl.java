@@ -28,6 +28,7 @@ import org.junit.Test;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -570,4 +571,98 @@ public class TestRecordImpl {
     Assert.assertEquals("GAMMA", r.get("[2]").getValue());
   }
 
+  @Test
+  public void testCopyOnWrite() {
+    RecordImpl r = new RecordImpl("stage", "source", null, null);
+    Map<String, Field> map = new HashMap<>();
+    map.put("a", Field.create("A"));
+    r.set(Field.create(map));
+    r.getHeader().setAttribute("h", "H");
+
+    RecordImpl copy1 = r.copyOnWrite();
+    RecordImpl copy2 = r.copyOnWrite();
+    r.release();
+    Assert.assertTrue(copy1.isValueShared());
+    Assert.assertTrue(copy2.isValueShared());
+    Assert.assertEquals(r, copy1);
+
+    // headers are not shared
+    copy1.getHeader().setAttribute("h", "H1");
+    Assert.assertEquals("H", copy2.getHeader().getAttribute("h"));
+
+    // reading primitive fields does not copy the value
+    Assert.assertEquals("A", copy1.get("/a").getValueAsString());
+    Assert.assertTrue(copy1.has("/a"));
+    Assert.assertTrue(copy1.isValueShared());
+
+    // modifying the value copies it
+    copy1.set("/b", Field.create("B"));
+    Assert.assertFalse(copy1.isValueShared());
+    Assert.assertTrue(copy1.has("/b"));
+    Assert.assertFalse(copy2.has("/b"));
+
+    // modifying a handed out map field copies the value, unless it is the last record sharing it
+    copy2.get().getValueAsMap().put("c", Field.create("C"));
+    Assert.assertFalse(copy2.isValueShared());
+    Assert.assertTrue(copy2.has("/c"));
+    Assert.assertFalse(copy1.has("/c"));
+  }
+
+  @Test
+  public void testCopyOnWriteReadOnly() {
+    RecordImpl r = new RecordImpl("stage", "source", null, null);
+    LinkedHashMap<String, Field> listMap = new LinkedHashMap<>();
+    listMap.put("a", Field.create("A"));
+    List<Field> list = new ArrayList<>();
+    list.add(Field.create(1));
+    list.add(Field.createListMap(listMap));
+    Map<String, Field> map = new HashMap<>();
+    map.put("list", Field.create(list));
+    map.put("s", Field.create("S"));
+    r.set(Field.create(map));
+    Field value = r.get();
+
+    RecordImpl copy1 = r.copyOnWrite();
+    RecordImpl copy2 = r.copyOnWrite();
+    r.release();
+
+    // reading map, list and list-map fields in both lanes does not copy the value
+    for (RecordImpl copy : ImmutableList.of(copy1, copy2)) {
+      Assert.assertEquals(value, copy.get());
+      Assert.assertEquals(2, copy.get().getValueAsMap().size());
+      Assert.assertEquals(1, copy.get("/list").getValueAsList().get(0).getValueAsInteger());
+      Assert.assertEquals("A", copy.get("/list[1]").getValueAsListMap().get("a").getValueAsString());
+      for (Map.Entry<String, Field> entry : copy.get().getValueAsMap().entrySet()) {
+        Assert.assertEquals(map.get(entry.getKey()), entry.getValue());
+      }
+      Assert.assertEquals(r.getEscapedFieldPaths(), copy.getEscapedFieldPaths());
+      Assert.assertTrue(copy.isValueShared());
+    }
+    Assert.assertEquals(copy1, copy2);
+
+    // modifying a nested field handed out before copies the value, later reads see the modification
+    List<Field> list1 = copy1.get("/list").getValueAsList();
+    LinkedHashMap<String, Field> listMap1 = copy1.get("/list[1]").getValueAsListMap();
+    list1.add(Field.create(2));
+    Assert.assertFalse(copy1.isValueShared());
+    Assert.assertEquals(3, list1.size());
+    Assert.assertTrue(copy1.has("/list[2]"));
+    listMap1.remove("a");
+    Assert.assertFalse(copy1.has("/list[1]/a"));
+    Assert.assertTrue(listMap1.isEmpty());
+
+    // the other lane still sees the original value, and as the last one sharing it uses it without copying it
+    Assert.assertTrue(copy2.isValueShared());
+    Assert.assertFalse(copy2.has("/list[2]"));
+    Assert.assertTrue(copy2.has("/list[1]/a"));
+    Field list2 = copy2.get("/list");
+    Iterator<Field> iterator = list2.getValueAsList().iterator();
+    iterator.next();
+    iterator.remove();
+    Assert.assertFalse(copy2.isValueShared());
+    Assert.assertSame(list, copy2.get("/list").getValueAsList());
+    Assert.assertEquals(1, list.size());
+    Assert.assertEquals(3, copy1.get("/list").getValueAsList().size());
+  }
+
 }
@@ -95,20 +95,12 @@ public class HdfsTarget extends BaseTarget {
               try {
                 write(record);
               } catch (OnRecordErrorException ex) {
-                switch (getContext().getOnErrorRecord()) {
-                  case DISCARD:
-                    break;
-                  case TO_ERROR:
-                    getContext().toError(record, ex);
-                    break;
-                  case STOP_PIPELINE:
-                    throw ex;
-                  default:
-                    throw new IllegalStateException(Utils.format("Unknown OnError value '{}'",
-                                                                 getContext().getOnErrorRecord(), ex));
-                }
+                handleError(record, ex);
               }
             }
+            if (hdfsTargetConfigBean.getCurrentWriters().isWriteBehind()) {
+              awaitWriteBehind();
+            }
             hdfsTargetConfigBean.getCurrentWriters().flushAll();
           } else {
             emptyBatch();
@@ -121,6 +113,52 @@ public class HdfsTarget extends BaseTarget {
     }
   }
 
+  private void handleError(Record record, OnRecordErrorException ex) throws StageException {
+    switch (getContext().getOnErrorRecord()) {
+      case DISCARD:
+        break;
+      case TO_ERROR:
+        getContext().toError(record, ex);
+        break;
+      case STOP_PIPELINE:
+        throw ex;
+      default:
+        throw new IllegalStateException(Utils.format("Unknown OnError value '{}'",
+                                                     getContext().getOnErrorRecord(), ex));
+    }
+  }
+
+  // waits for the write-behind threads to write the records of the batch, records whose writer was idle closed
+  // meanwhile are written again with a new writer.
+  private void awaitWriteBehind() throws StageException, IOException {
+    ActiveRecordWriters.WriteBehindResult result = hdfsTargetConfigBean.getCurrentWriters().awaitWrites();
+    while (result.getWrittenRecords() > 0 || !result.getFailedWrites().isEmpty()) {
+      hdfsTargetConfigBean.getToHdfsRecordsCounter().inc(result.getWrittenRecords());
+      hdfsTargetConfigBean.getToHdfsRecordsMeter().mark(result.getWrittenRecords());
+      for (ActiveRecordWriters.FailedWrite failedWrite : result.getFailedWrites()) {
+        Record record = failedWrite.getRecord();
+        Exception exception = failedWrite.getException();
+        try {
+          if (exception instanceof IdleClosedException) {
+            // No use printing path, since it is a temp path - the real one is created later.
+            LOG.debug("Writer was idle closed. Retrying.. ");
+            write(record);
+          } else if (exception instanceof IOException) {
+            throw new StageException(Errors.HADOOPFS_14, exception.toString(), exception);
+          } else if (exception instanceof StageException) {
+            StageException stageException = (StageException) exception;
+            throw new OnRecordErrorException(stageException.getErrorCode(), stageException.getParams());
+          } else {
+            throw (RuntimeException) exception;
+          }
+        } catch (OnRecordErrorException ex) {
+          handleError(record, ex);
+        }
+      }
+      result = hdfsTargetConfigBean.getCurrentWriters().awaitWrites();
+    }
+  }
+
   // we use the emptyBatch() method call to close open files when the late window closes even if there is no more
   // new data.
   protected void emptyBatch() throws StageException {
@@ -170,7 +208,10 @@ public class HdfsTarget extends BaseTarget {
       while (write) {
         write = false;
         RecordWriter writer = hdfsTargetConfigBean.getCurrentWriters().get(getBatchTime(), recordTime, record);
-        if (writer != null) {
+        if (writer != null && hdfsTargetConfigBean.getCurrentWriters().isWriteBehind()) {
+          // written by a write-behind thread, the outcome is handled when the batch is flushed
+          hdfsTargetConfigBean.getCurrentWriters().write(writer, record);
+        } else if (writer != null) {
           try {
             writer.write(record);
             // To avoid double counting, in case of IdleClosedException
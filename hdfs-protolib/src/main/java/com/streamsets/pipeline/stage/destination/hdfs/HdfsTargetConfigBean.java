@@ -304,6 +304,32 @@ public class HdfsTargetConfigBean {
   )
   public String idleTimeout;
 
+  @ConfigDef(
+    required = true,
+    type = ConfigDef.Type.NUMBER,
+    defaultValue = "0",
+    label = "Write-Behind Threads",
+    description = "Number of threads writing the records to the open files in the background, the batch completes " +
+        "once all its records are written and flushed. Use 0 to write the records from the pipeline thread.",
+    displayPosition = 195,
+    group = "OUTPUT_FILES",
+    min = 0
+  )
+  public int writerThreads;
+
+  @ConfigDef(
+    required = true,
+    type = ConfigDef.Type.NUMBER,
+    defaultValue = "1000",
+    label = "Write-Behind Queue Size",
+    description = "Maximum number of records waiting to be written per open file. A file may go over the 'Max " +
+        "Records in File' and 'Max File Size' limits by up to this number of records.",
+    displayPosition = 196,
+    group = "OUTPUT_FILES",
+    min = 1
+  )
+  public int writeBehindQueueSize;
+
   @ConfigDef(
     required = true,
     type = ConfigDef.Type.MODEL,
@@ -467,7 +493,7 @@ public class HdfsTargetConfigBean {
               Groups.OUTPUT_FILES.name(),
               newDirPath, issues
           )) {
-            currentWriters = new ActiveRecordWriters(mgr);
+            currentWriters = new ActiveRecordWriters(mgr, getUGI(), writerThreads, writeBehindQueueSize);
           }
         }
       }  catch (Exception ex) {
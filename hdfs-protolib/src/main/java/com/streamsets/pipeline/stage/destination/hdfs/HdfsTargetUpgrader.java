@@ -41,6 +41,9 @@ public class HdfsTargetUpgrader implements StageUpgrader {
     switch(fromVersion) {
       case 1:
         upgradeV1ToV2(configs);
+        // fall through
+      case 2:
+        upgradeV2ToV3(configs);
         break;
       default:
         throw new IllegalStateException(Utils.format("Unexpected fromVersion {}", fromVersion));
@@ -107,4 +110,9 @@ public class HdfsTargetUpgrader implements StageUpgrader {
     configs.add(new Config("hdfsTargetConfigBean.dataGeneratorFormatConfig.csvCustomQuote", '\"'));
     configs.add(new Config("hdfsTargetConfigBean.dataGeneratorFormatConfig.avroCompression", "NULL"));
   }
+
+  private void upgradeV2ToV3(List<Config> configs) {
+    configs.add(new Config("hdfsTargetConfigBean.writerThreads", 0));
+    configs.add(new Config("hdfsTargetConfigBean.writeBehindQueueSize", 1000));
+  }
 }
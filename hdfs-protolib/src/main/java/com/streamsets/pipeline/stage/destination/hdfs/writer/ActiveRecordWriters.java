@@ -21,21 +21,35 @@ package com.streamsets.pipeline.stage.destination.hdfs.writer;
 
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.StageException;
 import com.streamsets.pipeline.api.el.ELEvalException;
 import com.streamsets.pipeline.api.impl.Utils;
 import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.security.UserGroupInformation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.security.PrivilegedExceptionAction;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.DelayQueue;
 import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class ActiveRecordWriters {
   private final static Logger LOG = LoggerFactory.getLogger(ActiveRecordWriters.class);
@@ -74,14 +88,282 @@ public class ActiveRecordWriters {
     }
   }
 
+  /**
+   * A record that could not be written by a write-behind thread, with the exception the writer threw.
+   */
+  public static class FailedWrite {
+    private final Record record;
+    private final Exception exception;
+
+    FailedWrite(Record record, Exception exception) {
+      this.record = record;
+      this.exception = exception;
+    }
+
+    public Record getRecord() {
+      return record;
+    }
+
+    public Exception getException() {
+      return exception;
+    }
+  }
+
+  /**
+   * Outcome of the write-behind writes queued since the previous {@link #awaitWrites()} call.
+   */
+  public static class WriteBehindResult {
+    private final long writtenRecords;
+    private final List<FailedWrite> failedWrites;
+
+    WriteBehindResult(long writtenRecords, List<FailedWrite> failedWrites) {
+      this.writtenRecords = writtenRecords;
+      this.failedWrites = failedWrites;
+    }
+
+    public long getWrittenRecords() {
+      return writtenRecords;
+    }
+
+    public List<FailedWrite> getFailedWrites() {
+      return failedWrites;
+    }
+  }
+
+  private enum TaskType { WRITE, FLUSH }
+
+  private static class Task {
+    private static final Task FLUSH = new Task(TaskType.FLUSH, null);
+
+    private final TaskType type;
+    private final Record record;
+
+    Task(TaskType type, Record record) {
+      this.type = type;
+      this.record = record;
+    }
+  }
+
+  // tasks run by a write-behind thread before it gives other writers a chance to use the thread
+  private static final int MAX_TASKS_PER_RUN = 100;
+
+  /**
+   * Bounded queue of the pending operations of a writer. At most one write-behind thread drains a queue at any given
+   * time, that keeps the records of a file in the order they were queued.
+   */
+  private class WriteBehindQueue implements Runnable {
+    private final RecordWriter writer;
+    private final Queue<Task> tasks;
+    private boolean scheduled;
+    private long queuedRecords;
+    private volatile boolean overThresholds;
+
+    WriteBehindQueue(RecordWriter writer) {
+      this.writer = writer;
+      tasks = new ArrayDeque<>();
+    }
+
+    // called by the pipeline thread, it blocks while the queue is full
+    synchronized void add(Task task) throws InterruptedException {
+      while (tasks.size() >= writeBehindQueueSize) {
+        wait();
+      }
+      if (task.type == TaskType.WRITE) {
+        queuedRecords++;
+      }
+      taskQueued();
+      tasks.add(task);
+      if (!scheduled) {
+        scheduled = true;
+        writeBehindExecutor.execute(this);
+      }
+    }
+
+    // called by the pipeline thread, it blocks until a write-behind thread has run all the queued tasks
+    synchronized void awaitIdle() throws InterruptedException {
+      while (scheduled) {
+        wait();
+      }
+    }
+
+    // writes queued but not run yet are not taken into account by the manager thresholds
+    boolean isFull() {
+      long cutOffRecords = manager.getCutOffRecords();
+      return overThresholds || (cutOffRecords > 0 && queuedRecords >= cutOffRecords);
+    }
+
+    @Override
+    public void run() {
+      if (ugi == null) {
+        drain();
+      } else {
+        try {
+          ugi.doAs(new PrivilegedExceptionAction<Void>() {
+            @Override
+            public Void run() {
+              drain();
+              return null;
+            }
+          });
+        } catch (Exception ex) {
+          LOG.error("Unexpected error running write-behind tasks for '{}': {}", writer.getPath(), ex.toString(), ex);
+        }
+      }
+    }
+
+    private void drain() {
+      for (int i = 0; i < MAX_TASKS_PER_RUN; i++) {
+        Task task;
+        synchronized (this) {
+          task = tasks.poll();
+          if (task == null) {
+            scheduled = false;
+          }
+          notifyAll();
+        }
+        if (task == null) {
+          return;
+        }
+        try {
+          runTask(task);
+        } finally {
+          taskDone();
+        }
+      }
+      synchronized (this) {
+        if (tasks.isEmpty()) {
+          scheduled = false;
+          notifyAll();
+          return;
+        }
+      }
+      writeBehindExecutor.execute(this);
+    }
+
+    private void runTask(Task task) {
+      switch (task.type) {
+        case WRITE:
+          try {
+            writer.write(task.record);
+            writtenRecords.incrementAndGet();
+            if (!overThresholds && manager.isOverThresholds(writer)) {
+              overThresholds = true;
+            }
+          } catch (IOException | StageException | RuntimeException ex) {
+            failedWrites.add(new FailedWrite(task.record, ex));
+          }
+          break;
+        case FLUSH:
+          if (!writer.isClosed()) {
+            try {
+              writer.flush();
+            } catch (IOException ex) {
+              String msg = Utils.format("Error flushing writer {} : {}", writer, ex);
+              LOG.warn(msg, ex);
+            }
+          }
+          break;
+        default:
+          throw new IllegalStateException(Utils.format("Unknown task type '{}'", task.type));
+      }
+    }
+  }
+
   private final RecordWriterManager manager;
   private Map<String, RecordWriter> writers;
   private DelayQueue<DelayedRecordWriter> cutOffQueue;
 
+  // write-behind, all NULL when the writers are written synchronously by the pipeline thread
+  private final UserGroupInformation ugi;
+  private final int writeBehindQueueSize;
+  private final ExecutorService writeBehindExecutor;
+  private final Map<RecordWriter, WriteBehindQueue> writeBehindQueues;
+  private final Queue<FailedWrite> failedWrites;
+  private final AtomicLong writtenRecords;
+  private final Object pendingTasksLock;
+  private int pendingTasks;
+
   public ActiveRecordWriters(RecordWriterManager manager) {
+    this(manager, null, 0, 0);
+  }
+
+  /**
+   * Creates the active writers, if <code>writerThreads</code> is greater than zero records are written by a pool of
+   * write-behind threads running as the given user, otherwise they are written by the caller thread.
+   */
+  public ActiveRecordWriters(RecordWriterManager manager, UserGroupInformation ugi, int writerThreads,
+      int writeBehindQueueSize) {
     writers = new HashMap<>();
     cutOffQueue = new DelayQueue<>();
     this.manager = manager;
+    if (writerThreads > 0) {
+      Utils.checkArgument(writeBehindQueueSize > 0, "writeBehindQueueSize must be greater than zero");
+      this.ugi = ugi;
+      this.writeBehindQueueSize = writeBehindQueueSize;
+      writeBehindExecutor = Executors.newFixedThreadPool(writerThreads,
+          new ThreadFactoryBuilder().setNameFormat("hdfs-write-behind-%d").setDaemon(true).build());
+      writeBehindQueues = new ConcurrentHashMap<>();
+      failedWrites = new ConcurrentLinkedQueue<>();
+      writtenRecords = new AtomicLong();
+      pendingTasksLock = new Object();
+    } else {
+      this.ugi = null;
+      this.writeBehindQueueSize = 0;
+      writeBehindExecutor = null;
+      writeBehindQueues = null;
+      failedWrites = null;
+      writtenRecords = null;
+      pendingTasksLock = null;
+    }
+  }
+
+  public boolean isWriteBehind() {
+    return writeBehindExecutor != null;
+  }
+
+  private void taskQueued() {
+    synchronized (pendingTasksLock) {
+      pendingTasks++;
+    }
+  }
+
+  private void taskDone() {
+    synchronized (pendingTasksLock) {
+      pendingTasks--;
+      if (pendingTasks == 0) {
+        pendingTasksLock.notifyAll();
+      }
+    }
+  }
+
+  private void awaitPendingTasks() throws InterruptedIOException {
+    synchronized (pendingTasksLock) {
+      try {
+        while (pendingTasks > 0) {
+          pendingTasksLock.wait();
+        }
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted while waiting for the write-behind threads");
+      }
+    }
+  }
+
+  // removes the writer from the active ones and commits it, in write-behind mode once its queued tasks are done
+  private void commit(RecordWriter writer) throws IOException {
+    writers.remove(writer.getPath().toString());
+    if (isWriteBehind()) {
+      WriteBehindQueue queue = writeBehindQueues.remove(writer);
+      if (queue != null) {
+        try {
+          queue.awaitIdle();
+        } catch (InterruptedException ex) {
+          Thread.currentThread().interrupt();
+          throw new InterruptedIOException(Utils.format("Interrupted while committing '{}'", writer.getPath()));
+        }
+      }
+    }
+    manager.commitWriter(writer);
   }
 
   public void commitOldFiles(FileSystem fs) throws IOException, ELEvalException {
@@ -98,8 +380,7 @@ public class ActiveRecordWriters {
         if (IS_TRACE_ENABLED) {
           LOG.trace("Purging '{}'", delayedWriter.getWriter().getPath());
         }
-        writers.remove(delayedWriter.getWriter().getPath().toString());
-        manager.commitWriter(delayedWriter.getWriter());
+        commit(delayedWriter.getWriter());
       }
       delayedWriter = cutOffQueue.poll();
     }
@@ -108,6 +389,17 @@ public class ActiveRecordWriters {
   public RecordWriter get(Date now, Date recordDate, Record record) throws StageException, IOException {
     String path = manager.getPath(recordDate, record).toString();
     RecordWriter writer = writers.get(path);
+    if (writer != null && isWriteBehind()) {
+      // in write-behind mode thresholds and idle closes are detected when the next record for the file comes in,
+      // the writer must be committed before a new one can be created for the same path
+      if (writer.isClosed() || writeBehindQueues.get(writer).isFull()) {
+        if (IS_TRACE_ENABLED) {
+          LOG.trace("Release '{}'", writer.getPath());
+        }
+        commit(writer);
+        writer = null;
+      }
+    }
     if (writer == null) {
       writer = manager.getWriter(now, recordDate, record);
       if (writer != null) {
@@ -116,11 +408,46 @@ public class ActiveRecordWriters {
         }
         writers.put(path, writer);
         cutOffQueue.add(new DelayedRecordWriter(writer));
+        if (isWriteBehind()) {
+          writeBehindQueues.put(writer, new WriteBehindQueue(writer));
+        }
       }
     }
     return writer;
   }
 
+  /**
+   * Queues the record to be written by a write-behind thread, it blocks while the writer queue is full. The outcome
+   * of the write is reported by the next {@link #awaitWrites()} call.
+   */
+  public void write(RecordWriter writer, Record record) throws IOException {
+    Utils.checkState(isWriteBehind(), "Writers are not in write-behind mode");
+    WriteBehindQueue queue = writeBehindQueues.get(writer);
+    Utils.checkState(queue != null, Utils.formatL("Writer '{}' is not active", writer.getPath()));
+    try {
+      queue.add(new Task(TaskType.WRITE, record));
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException(Utils.format("Interrupted while queuing record for '{}'", writer.getPath()));
+    }
+  }
+
+  /**
+   * Waits until all the records queued by {@link #write(RecordWriter, Record)} have been written and returns the
+   * outcome of those writes.
+   */
+  public WriteBehindResult awaitWrites() throws IOException {
+    Utils.checkState(isWriteBehind(), "Writers are not in write-behind mode");
+    awaitPendingTasks();
+    List<FailedWrite> failed = new ArrayList<>();
+    FailedWrite failedWrite = failedWrites.poll();
+    while (failedWrite != null) {
+      failed.add(failedWrite);
+      failedWrite = failedWrites.poll();
+    }
+    return new WriteBehindResult(writtenRecords.getAndSet(0), Collections.unmodifiableList(failed));
+  }
+
   @VisibleForTesting
   public RecordWriterManager getWriterManager() {
     return manager;
@@ -136,16 +463,38 @@ public class ActiveRecordWriters {
       if (IS_TRACE_ENABLED) {
         LOG.trace("Release '{}'", writer.getPath());
       }
-      writers.remove(writer.getPath().toString());
-      manager.commitWriter(writer);
+      commit(writer);
     }
     purge();
   }
 
-  public void flushAll() {
+  /**
+   * Flushes all the active writers. In write-behind mode this is the batch barrier, it returns once all queued
+   * records have been written and flushed and the writers over their thresholds have been committed.
+   */
+  public void flushAll() throws IOException {
     if (IS_TRACE_ENABLED) {
       LOG.trace("Flush all '{}'", toString());
     }
+    if (isWriteBehind()) {
+      try {
+        for (RecordWriter writer : writers.values()) {
+          if (!writer.isClosed()) {
+            writeBehindQueues.get(writer).add(Task.FLUSH);
+          }
+        }
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted while flushing writers");
+      }
+      awaitPendingTasks();
+      for (RecordWriter writer : new ArrayList<>(writers.values())) {
+        if (writer.isClosed() || writeBehindQueues.get(writer).isFull()) {
+          commit(writer);
+        }
+      }
+      return;
+    }
     for (RecordWriter writer : writers.values()) {
       if (!writer.isClosed()) {
         try {
@@ -162,6 +511,14 @@ public class ActiveRecordWriters {
     if (IS_TRACE_ENABLED) {
       LOG.trace("Close all '{}'", toString());
     }
+    if (isWriteBehind()) {
+      try {
+        awaitPendingTasks();
+      } catch (InterruptedIOException ex) {
+        LOG.warn("Closing writers without waiting for the write-behind threads: {}", ex.toString(), ex);
+      }
+      writeBehindExecutor.shutdownNow();
+    }
     if(writers != null) {
       for (RecordWriter writer : writers.values()) {
         if (!writer.isClosed()) {
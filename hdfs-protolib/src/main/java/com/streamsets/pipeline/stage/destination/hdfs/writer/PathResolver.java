@@ -33,6 +33,7 @@ import com.streamsets.pipeline.lib.el.RecordEL;
 import com.streamsets.pipeline.lib.el.TimeEL;
 import com.streamsets.pipeline.stage.destination.hdfs.Errors;
 
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.List;
@@ -68,6 +69,29 @@ public class PathResolver {
   private final ELEval pathEval;
   private boolean validated;
 
+  // a path template that does not use the record nor the current time resolves to the same path for every date
+  // of a time bucket, we keep the last few buckets to avoid evaluating the template for every record
+  private static final int CACHED_BUCKETS = 4;
+  private final boolean pathCacheable;
+  private final TimeBucket[] buckets;
+  private int nextBucket;
+  private String constantPath;
+
+  private static class TimeBucket {
+    private final long floor;
+    private final long ceiling;
+    private String path;
+
+    public TimeBucket(Date floor, Date ceiling) {
+      this.floor = floor.getTime();
+      this.ceiling = ceiling.getTime();
+    }
+
+    public boolean contains(long millis) {
+      return millis >= floor && millis <= ceiling;
+    }
+  }
+
   public PathResolver(Stage.Context context, String config, String pathTemplate, TimeZone timeZone) {
     this.context = context;
     this.pathTemplate = pathTemplate;
@@ -75,6 +99,8 @@ public class PathResolver {
     elVars = context.createELVars();
     freqEdgeElEval = context.createELEval(config, FrequencyEdgeEL.class);
     pathEval = context.createELEval(config);
+    pathCacheable = !pathTemplate.contains("record:") && !pathTemplate.contains("time:");
+    buckets = new TimeBucket[CACHED_BUCKETS];
   }
 
   public static class ValidateEL {
@@ -296,6 +322,8 @@ public class PathResolver {
       issues.add(context.createConfigIssue(group, qualifiedConfigName, Errors.HADOOPFS_20, ex.toString()));
     }
     validated = (issues.size() - previousIssuesCount) == 0;
+    Arrays.fill(buckets, null);
+    constantPath = null;
     if (validated) {
       try {
         incrementUnit = evaluateTimeIncrementUnit(config);
@@ -317,6 +345,32 @@ public class PathResolver {
   }
 
   public Date getDate(Date date, boolean floorDate) {
+    TimeBucket bucket = getBucket(date);
+    if (bucket == null) {
+      return null;
+    }
+    return new Date((floorDate) ? bucket.floor : bucket.ceiling);
+  }
+
+  // returns the time bucket the date belongs to, NULL if the path template has no date functions.
+  private TimeBucket getBucket(Date date) {
+    long millis = date.getTime();
+    for (TimeBucket bucket : buckets) {
+      if (bucket != null && bucket.contains(millis)) {
+        return bucket;
+      }
+    }
+    Date floor = computeDate(date, true);
+    if (floor == null) {
+      return null;
+    }
+    TimeBucket bucket = new TimeBucket(floor, computeDate(date, false));
+    buckets[nextBucket] = bucket;
+    nextBucket = (nextBucket + 1) % buckets.length;
+    return bucket;
+  }
+
+  private Date computeDate(Date date, boolean floorDate) {
     Utils.checkState(validated, Utils.formatL("PathTemplateEL for '{}' must be validated", pathTemplate));
     DateContext dc = new DateContext(date, timeZone);
     elVars.addContextVariable(DATE_CONTEXT, dc);
@@ -368,10 +422,27 @@ public class PathResolver {
   }
 
   String resolvePath(Date date, Record record) throws StageException {
+    if (pathCacheable) {
+      TimeBucket bucket = getBucket(date);
+      if (bucket != null) {
+        if (bucket.path == null) {
+          bucket.path = evaluatePath(new Date(bucket.floor), record);
+        }
+        return bucket.path;
+      }
+      // no date functions in the path template
+      if (constantPath == null) {
+        constantPath = evaluatePath(null, record);
+      }
+      return constantPath;
+    }
+    return evaluatePath(getFloorDate(date), record);
+  }
+
+  private String evaluatePath(Date date, Record record) throws StageException {
     try {
       ELVars vars = context.createELVars();
       RecordEL.setRecordInContext(vars, record);
-      date = getFloorDate(date);
       if (date != null) {
         Calendar calendar = Calendar.getInstance(timeZone);
         calendar.setTime(date);
@@ -76,7 +76,7 @@ public class TestHdfsTargetUpgrader {
     HdfsTargetUpgrader hdfsTargetUpgrader = new HdfsTargetUpgrader();
     hdfsTargetUpgrader.upgrade("a", "b", "c", 1, 2, configs);
 
-    Assert.assertEquals(32, configs.size());
+    Assert.assertEquals(34, configs.size());
 
     HashMap<String, Object> configValues = new HashMap<>();
     for(Config c : configs) {
@@ -183,6 +183,26 @@ public class TestHdfsTargetUpgrader {
 
     Assert.assertEquals("NULL", configValues.get("hdfsTargetConfigBean.dataGeneratorFormatConfig.avroCompression"));
 
+    Assert.assertEquals(0, configValues.get("hdfsTargetConfigBean.writerThreads"));
+    Assert.assertEquals(1000, configValues.get("hdfsTargetConfigBean.writeBehindQueueSize"));
+  }
+
+  @Test
+  public void testUpgradeV2ToV3() throws StageException {
+    List<Config> configs = new ArrayList<>();
+    configs.add(new Config("hdfsTargetConfigBean.hdfsUri", "file:///"));
+
+    HdfsTargetUpgrader hdfsTargetUpgrader = new HdfsTargetUpgrader();
+    hdfsTargetUpgrader.upgrade("a", "b", "c", 2, 3, configs);
+
+    Assert.assertEquals(3, configs.size());
+    HashMap<String, Object> configValues = new HashMap<>();
+    for(Config c : configs) {
+      configValues.put(c.getName(), c.getValue());
+    }
+    Assert.assertEquals("file:///", configValues.get("hdfsTargetConfigBean.hdfsUri"));
+    Assert.assertEquals(0, configValues.get("hdfsTargetConfigBean.writerThreads"));
+    Assert.assertEquals(1000, configValues.get("hdfsTargetConfigBean.writeBehindQueueSize"));
   }
 
 }
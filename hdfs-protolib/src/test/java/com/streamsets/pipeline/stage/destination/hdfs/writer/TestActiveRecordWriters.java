@@ -152,4 +152,59 @@ public class TestActiveRecordWriters {
     Assert.assertTrue(writer.isClosed());
   }
 
+  @Test
+  public void testWriteBehind() throws Exception {
+    URI uri = new URI("file:///");
+    Configuration conf = new HdfsConfiguration();
+    String template = getTestDir().toString() + "/writeBehind/${YYYY()}/${MM()}/${DD()}/${hh()}/${record:value('/')}";
+    DefaultCodec compressionCodec = new DefaultCodec();
+    compressionCodec.setConf(conf);
+    RecordWriterManager mgr = new RecordWriterManager(uri, conf, "prefix", template, TimeZone.getTimeZone("UTC"),
+        3600, 10000, 2, HdfsFileType.SEQUENCE_FILE, compressionCodec , SequenceFile.CompressionType.BLOCK, "uuid()",
+        new DummyDataGeneratorFactory(null),
+        ContextInfoCreator.createTargetContext(HdfsDTarget.class, "testWriteBehind", false, OnRecordError.TO_ERROR,
+            null), "dirPathTemplate");
+    Assert.assertTrue(mgr.validateDirTemplate("g", "dirPathTemplate", "dirPathTemplate",
+        new ArrayList<Stage.ConfigIssue>()));
+    ActiveRecordWriters writers = new ActiveRecordWriters(mgr, null, 2, 1);
+    Assert.assertTrue(writers.isWriteBehind());
+
+    Date now = new Date();
+    Record recordA = RecordCreator.create();
+    recordA.set(Field.create("a"));
+    Record recordB = RecordCreator.create();
+    recordB.set(Field.create("b"));
+
+    RecordWriter writerA = writers.get(now, now, recordA);
+    writers.write(writerA, recordA);
+    RecordWriter writerB = writers.get(now, now, recordB);
+    writers.write(writerB, recordB);
+    Assert.assertSame(writerA, writers.get(now, now, recordA));
+    writers.write(writerA, recordA);
+
+    // writerA reached the max records per file, next record goes to a new file once writerA is committed
+    RecordWriter newWriterA = writers.get(now, now, recordA);
+    Assert.assertNotSame(writerA, newWriterA);
+    Assert.assertTrue(writerA.isClosed());
+    Assert.assertEquals(2, writerA.getRecords());
+    writers.write(newWriterA, recordA);
+
+    ActiveRecordWriters.WriteBehindResult result = writers.awaitWrites();
+    Assert.assertEquals(4, result.getWrittenRecords());
+    Assert.assertTrue(result.getFailedWrites().isEmpty());
+    Assert.assertEquals(1, newWriterA.getRecords());
+    Assert.assertEquals(1, writerB.getRecords());
+
+    writers.flushAll();
+    Assert.assertFalse(newWriterA.isClosed());
+    Assert.assertFalse(writerB.isClosed());
+
+    result = writers.awaitWrites();
+    Assert.assertEquals(0, result.getWrittenRecords());
+
+    writers.closeAll();
+    Assert.assertTrue(newWriterA.isClosed());
+    Assert.assertTrue(writerB.isClosed());
+  }
+
 }
@@ -19,8 +19,11 @@
  */
 package com.streamsets.pipeline.stage.destination.hdfs.writer;
 
+import com.streamsets.pipeline.api.Field;
 import com.streamsets.pipeline.api.OnRecordError;
+import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.Stage;
+import com.streamsets.pipeline.api.impl.Utils;
 import com.streamsets.pipeline.sdk.ContextInfoCreator;
 import com.streamsets.pipeline.sdk.RecordCreator;
 import com.streamsets.pipeline.stage.destination.hdfs.HdfsDTarget;
@@ -278,4 +281,36 @@ public class TestPathResolver {
     Assert.assertEquals(expected, got);
 
   }
+
+  @Test
+  public void testResolvePathSameResolverAcrossTimeBuckets() throws Exception {
+    PathResolver resolver = getPathTemplateEL("/${YYYY()}/${MM()}/${DD()}/${hh()}/${every(15, mm())}");
+    Assert.assertEquals("/2015/01/20/14/00", resolver.resolvePath(parseDate("2015-01-20T14:01:14Z"), null));
+    Assert.assertEquals("/2015/01/20/14/00", resolver.resolvePath(parseDate("2015-01-20T14:14:59Z"), null));
+    Assert.assertEquals("/2015/01/20/14/15", resolver.resolvePath(parseDate("2015-01-20T14:15:00Z"), null));
+    Assert.assertEquals("/2015/01/20/14/00", resolver.resolvePath(parseDate("2015-01-20T14:00:00Z"), null));
+    Assert.assertEquals(parseDate("2015-01-20T14:00:00Z"), resolver.getFloorDate(parseDate("2015-01-20T14:07:00Z")));
+    Assert.assertEquals(new Date(parseDate("2015-01-20T14:15:00Z").getTime() - 1),
+                        resolver.getCeilingDate(parseDate("2015-01-20T14:07:00Z")));
+    // more buckets than the ones kept by the resolver
+    for (int i = 0; i < 10; i++) {
+      Date date = parseDate(Utils.format("2015-01-20T{}:30:00Z", 10 + i));
+      Assert.assertEquals(Utils.format("/2015/01/20/{}/30", 10 + i), resolver.resolvePath(date, null));
+    }
+
+    // record dependent paths are not cached
+    resolver = getPathTemplateEL("/${YYYY()}/${record:value('/')}");
+    Record record = RecordCreator.create();
+    record.set(Field.create("a"));
+    Assert.assertEquals("/2015/a", resolver.resolvePath(parseDate("2015-01-20T14:01:14Z"), record));
+    record.set(Field.create("b"));
+    Assert.assertEquals("/2015/b", resolver.resolvePath(parseDate("2015-01-20T14:01:14Z"), record));
+
+    // no date functions
+    resolver = getPathTemplateEL("/tmp/out");
+    Assert.assertEquals("/tmp/out", resolver.resolvePath(parseDate("2015-01-20T14:01:14Z"), null));
+    Assert.assertEquals("/tmp/out", resolver.resolvePath(parseDate("2016-01-20T14:01:14Z"), null));
+    Assert.assertNull(resolver.getFloorDate(parseDate("2016-01-20T14:01:14Z")));
+  }
+
 }
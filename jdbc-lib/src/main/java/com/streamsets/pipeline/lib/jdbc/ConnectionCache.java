@@ -0,0 +1,194 @@
+/**
+ * Copyright 2016 StreamSets Inc.
+ *
+ * Licensed under the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.jdbc;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps a connection per thread open across batches, together with the statements prepared on it, so that record
+ * writers don't have to borrow a connection from the pool and prepare their statements again for every batch.
+ * <p/>
+ * A writer calls {@link #getConnection()} when it starts a batch and {@link #prepareStatement(String)} for each query
+ * of the batch. Statements are cached by their query and must not be closed by the writer. If a batch fails the
+ * writer calls {@link #invalidate()}, which closes the connection with its statements, and the next batch of the
+ * thread gets a new connection. A connection that sat idle between batches is validated before it is reused, as the
+ * database or a firewall may have dropped it meanwhile.
+ */
+public class ConnectionCache {
+  private static final Logger LOG = LoggerFactory.getLogger(ConnectionCache.class);
+
+  static final int MAX_STATEMENTS_PER_CONNECTION = 64;
+  // same window HikariCP uses to skip validating connections that were just used
+  static final long VALIDATION_BYPASS_MILLIS = 500;
+  static final int VALIDATION_TIMEOUT_SECONDS = 5;
+
+  private final DataSource dataSource;
+  private final long maxConnectionAgeMillis;
+  private final ThreadLocal<CachedConnection> threadConnection = new ThreadLocal<>();
+  private final Set<CachedConnection> connections =
+      Collections.newSetFromMap(new ConcurrentHashMap<CachedConnection, Boolean>());
+
+  /**
+   * Creates a cache that keeps connections open until they fail or the cache is closed.
+   * @param dataSource data source to borrow the connections from
+   */
+  public ConnectionCache(DataSource dataSource) {
+    this(dataSource, 0);
+  }
+
+  /**
+   * @param dataSource data source to borrow the connections from
+   * @param maxConnectionAgeMillis how long a connection is kept before it is returned to the data source and
+   * replaced, so that the pool can retire it. 0 keeps connections until they fail or the cache is closed.
+   */
+  public ConnectionCache(DataSource dataSource, long maxConnectionAgeMillis) {
+    this.dataSource = dataSource;
+    this.maxConnectionAgeMillis = maxConnectionAgeMillis;
+  }
+
+  /**
+   * Returns the connection of the current thread, borrowing one from the data source if the thread has none yet.
+   * It must be called at the start of each batch, it is also when connections past their maximum age or no longer
+   * valid are replaced and unused statements are closed.
+   */
+  public Connection getConnection() throws SQLException {
+    CachedConnection cached = threadConnection.get();
+    if (cached != null && !cached.closed) {
+      long now = System.currentTimeMillis();
+      if (maxConnectionAgeMillis > 0 && now - cached.created > maxConnectionAgeMillis) {
+        invalidate();
+      } else if (now - cached.lastUsed > VALIDATION_BYPASS_MILLIS && !cached.isValid()) {
+        LOG.debug("Cached connection '{}' is no longer valid, replacing it", cached.connection);
+        invalidate();
+      }
+    }
+    cached = getCachedConnection();
+    cached.trimStatements();
+    cached.lastUsed = System.currentTimeMillis();
+    return cached.connection;
+  }
+
+  /**
+   * Returns the statement for the given query on the connection of the current thread, preparing it only the first
+   * time the query is seen.
+   */
+  public PreparedStatement prepareStatement(String query) throws SQLException {
+    CachedConnection cached = getCachedConnection();
+    PreparedStatement statement = cached.statements.get(query);
+    if (statement == null) {
+      statement = cached.connection.prepareStatement(query);
+      cached.statements.put(query, statement);
+    }
+    return statement;
+  }
+
+  /**
+   * Closes the connection of the current thread and its statements. It must be called whenever a batch did not
+   * complete, as the statements may still hold its parameters.
+   */
+  public void invalidate() {
+    CachedConnection cached = threadConnection.get();
+    if (cached != null) {
+      threadConnection.remove();
+      connections.remove(cached);
+      cached.close();
+    }
+  }
+
+  /**
+   * Closes the connections of all threads, they must not be writing at this point.
+   */
+  public void close() {
+    for (CachedConnection cached : connections) {
+      cached.close();
+    }
+    connections.clear();
+  }
+
+  private CachedConnection getCachedConnection() throws SQLException {
+    CachedConnection cached = threadConnection.get();
+    if (cached == null || cached.closed) {
+      cached = new CachedConnection(dataSource.getConnection());
+      threadConnection.set(cached);
+      connections.add(cached);
+    }
+    return cached;
+  }
+
+  private static class CachedConnection {
+    private final Connection connection;
+    private final long created = System.currentTimeMillis();
+    private volatile long lastUsed = created;
+    // access ordered, so that the least recently used statements are the first ones to be closed
+    private final Map<String, PreparedStatement> statements = new LinkedHashMap<>(16, 0.75f, true);
+    private volatile boolean closed;
+
+    CachedConnection(Connection connection) {
+      this.connection = connection;
+    }
+
+    boolean isValid() {
+      try {
+        return connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+      } catch (SQLException e) {
+        LOG.debug("Error validating '{}': {}", connection, e.toString(), e);
+        return false;
+      }
+    }
+
+    // Only done between batches, a statement used by the current batch may still have rows to execute.
+    void trimStatements() {
+      Iterator<PreparedStatement> iterator = statements.values().iterator();
+      while (statements.size() > MAX_STATEMENTS_PER_CONNECTION && iterator.hasNext()) {
+        closeQuietly(iterator.next());
+        iterator.remove();
+      }
+    }
+
+    void close() {
+      closed = true;
+      for (PreparedStatement statement : statements.values()) {
+        closeQuietly(statement);
+      }
+      statements.clear();
+      closeQuietly(connection);
+    }
+
+    private static void closeQuietly(AutoCloseable closeable) {
+      try {
+        closeable.close();
+      } catch (Exception e) {
+        LOG.debug("Error closing '{}': {}", closeable, e.toString(), e);
+      }
+    }
+  }
+}
@@ -19,11 +19,14 @@
  */
 package com.streamsets.pipeline.lib.jdbc;
 
+import com.google.common.base.Joiner;
 import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.StageException;
 import com.streamsets.pipeline.api.base.OnRecordErrorException;
 import com.streamsets.pipeline.stage.destination.jdbc.Errors;
 import com.streamsets.pipeline.stage.destination.jdbc.JdbcFieldMappingConfig;
+import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -32,9 +35,14 @@ import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 public abstract class JdbcBaseRecordWriter implements JdbcRecordWriter {
   private static final Logger LOG = LoggerFactory.getLogger(JdbcBaseRecordWriter.class);
@@ -42,6 +50,7 @@ public abstract class JdbcBaseRecordWriter implements JdbcRecordWriter {
 
   private String connectionString;
   private DataSource dataSource;
+  private ConnectionCache connectionCache;
   private String tableName;
   private boolean rollbackOnError;
 
@@ -54,25 +63,47 @@ public abstract class JdbcBaseRecordWriter implements JdbcRecordWriter {
 
   private Map<String, Integer> columnType = new HashMap<>();
 
+  // Mapped columns sorted by name, with the field path and SQL type of each column at the same index.
+  private String[] columns;
+  private String[] columnFieldPaths;
+  private int[] columnTypes;
+
+  private final ConcurrentMap<BitSet, RecordShape> recordShapes = new ConcurrentHashMap<>();
+
+  public JdbcBaseRecordWriter(
+      String connectionString,
+      DataSource dataSource,
+      String tableName,
+      boolean rollbackOnError,
+      List<JdbcFieldMappingConfig> customMappings
+  ) throws StageException {
+    this(connectionString, dataSource, new ConnectionCache(dataSource), tableName, rollbackOnError, customMappings);
+  }
+
   public JdbcBaseRecordWriter(
       String connectionString,
       DataSource dataSource,
+      ConnectionCache connectionCache,
       String tableName,
       boolean rollbackOnError,
       List<JdbcFieldMappingConfig> customMappings
   ) throws StageException {
     this.connectionString = connectionString;
     this.dataSource = dataSource;
+    this.connectionCache = connectionCache;
     this.tableName = tableName;
     this.rollbackOnError = rollbackOnError;
     this.customMappings = customMappings;
 
     createDefaultFieldMappings();
     createCustomFieldMappings();
+    createColumnBindings();
   }
 
   private void createDefaultFieldMappings() throws StageException {
-    try (Connection connection = dataSource.getConnection()) {
+    try {
+      // The connection of the thread is kept open, it is the one the thread writes the batch with.
+      Connection connection = connectionCache.getConnection();
       try (ResultSet columns = JdbcUtil.getColumnMetadata(connection, tableName)) {
         while (columns.next()) {
           String columnName = columns.getString(4);
@@ -82,6 +113,7 @@ public abstract class JdbcBaseRecordWriter implements JdbcRecordWriter {
         }
       }
     } catch (SQLException e) {
+      connectionCache.invalidate();
       String errorMessage = JdbcUtil.formatSqlException(e);
       LOG.error(errorMessage);
       LOG.debug(errorMessage, e);
@@ -100,6 +132,113 @@ public abstract class JdbcBaseRecordWriter implements JdbcRecordWriter {
     }
   }
 
+  private void createColumnBindings() {
+    SortedMap<String, String> sortedColumnsToFields = new TreeMap<>(columnsToFields);
+    columns = new String[sortedColumnsToFields.size()];
+    columnFieldPaths = new String[columns.length];
+    columnTypes = new int[columns.length];
+    int i = 0;
+    for (Map.Entry<String, String> entry : sortedColumnsToFields.entrySet()) {
+      columns[i] = entry.getKey();
+      columnFieldPaths[i] = entry.getValue();
+      columnTypes[i] = columnType.get(entry.getKey());
+      i++;
+    }
+  }
+
+  /**
+   * Looks up the fields of all the mapped columns in a record, with a single path lookup per column.
+   * @param record record to write
+   * @return fields indexed like the mapped columns, null for the columns the record has no field for
+   */
+  Field[] getFields(Record record) {
+    Field[] fields = new Field[columns.length];
+    for (int i = 0; i < columns.length; i++) {
+      fields[i] = record.get(columnFieldPaths[i]);
+    }
+    return fields;
+  }
+
+  /**
+   * Returns the shape of a record given its fields from {@link #getFields(Record)}. Records with fields for the
+   * same columns share the same shape instance.
+   * @param fields fields of the record
+   * @return record shape
+   */
+  RecordShape getRecordShape(Field[] fields) {
+    BitSet present = new BitSet(fields.length);
+    for (int i = 0; i < fields.length; i++) {
+      if (fields[i] != null) {
+        present.set(i);
+      }
+    }
+    RecordShape shape = recordShapes.get(present);
+    if (shape == null) {
+      shape = new RecordShape(present);
+      RecordShape existing = recordShapes.putIfAbsent(present, shape);
+      if (existing != null) {
+        shape = existing;
+      }
+    }
+    return shape;
+  }
+
+  /**
+   * Columns a record has fields for. The columns, their parameters and the INSERT queries for them are resolved
+   * once per shape rather than for every record.
+   */
+  final class RecordShape {
+    private final int[] columnIndexes;
+    private final SortedMap<String, String> columnsToParameters = new TreeMap<>();
+    private final ConcurrentMap<Integer, String> insertQueries = new ConcurrentHashMap<>();
+
+    private RecordShape(BitSet present) {
+      columnIndexes = new int[present.cardinality()];
+      int i = 0;
+      for (int index = present.nextSetBit(0); index >= 0; index = present.nextSetBit(index + 1)) {
+        columnIndexes[i++] = index;
+        columnsToParameters.put(columns[index], getColumnsToParameters().get(columns[index]));
+      }
+    }
+
+    /**
+     * Indexes of the columns, in the order of the INSERT query parameters.
+     * @return column indexes
+     */
+    int[] getColumnIndexes() {
+      return columnIndexes;
+    }
+
+    /**
+     * Number of columns of the shape.
+     * @return number of columns
+     */
+    int size() {
+      return columnIndexes.length;
+    }
+
+    /**
+     * Parameterized INSERT query for the given number of rows of this shape.
+     * @param numRows number of rows the query inserts
+     * @return INSERT query
+     */
+    String getInsertQuery(int numRows) {
+      String query = insertQueries.get(numRows);
+      if (query == null) {
+        String valuePlaceholder = String.format("(%s)", Joiner.on(", ").join(columnsToParameters.values()));
+        query = String.format(
+            "INSERT INTO %s (%s) VALUES %s",
+            tableName,
+            // keySet and values will both return the same ordering, due to using a SortedMap
+            Joiner.on(", ").join(columnsToParameters.keySet()),
+            StringUtils.repeat(valuePlaceholder, ", ", numRows)
+        );
+        insertQueries.put(numRows, query);
+      }
+      return query;
+    }
+  }
+
   // This is necessary for supporting array data types. For some awful reason, the JDBC
   // spec requires a string name for a data type, rather than just an enum.
   static String getSQLTypeName(Field.Type type) throws OnRecordErrorException {
@@ -163,6 +302,32 @@ public abstract class JdbcBaseRecordWriter implements JdbcRecordWriter {
     return dataSource;
   }
 
+  /**
+   * Connections and prepared statements kept across batches.
+   * @return connection cache
+   */
+  ConnectionCache getConnectionCache() {
+    return connectionCache;
+  }
+
+  /**
+   * Name of the mapped column at the given index.
+   * @param columnIndex column index
+   * @return column name
+   */
+  String getColumnName(int columnIndex) {
+    return columns[columnIndex];
+  }
+
+  /**
+   * SQL type of the mapped column at the given index.
+   * @param columnIndex column index
+   * @return SQL type from {@link java.sql.Types}
+   */
+  int getColumnType(int columnIndex) {
+    return columnTypes[columnIndex];
+  }
+
   /**
    * SQL Table to SDC Field mappings
    * @return map of the mappings
@@ -35,11 +35,10 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
-import java.util.SortedMap;
-import java.util.TreeMap;
+import java.util.Set;
 
 public class JdbcGenericRecordWriter extends JdbcBaseRecordWriter {
   private static final Logger LOG = LoggerFactory.getLogger(JdbcGenericRecordWriter.class);
@@ -63,39 +62,56 @@ public class JdbcGenericRecordWriter extends JdbcBaseRecordWriter {
     super(connectionString, dataSource, tableName, rollbackOnError, customMappings);
   }
 
+  /**
+   * Class constructor
+   * @param connectionString database connection string
+   * @param dataSource a JDBC {@link javax.sql.DataSource} to get a connection from
+   * @param connectionCache cache of the connections and prepared statements used across batches
+   * @param tableName the name of the table to write to
+   * @param rollbackOnError whether to attempt rollback of failed queries
+   * @param customMappings any custom mappings the user provided
+   * @throws StageException
+   */
+  public JdbcGenericRecordWriter(
+      String connectionString,
+      DataSource dataSource,
+      ConnectionCache connectionCache,
+      String tableName,
+      boolean rollbackOnError,
+      List<JdbcFieldMappingConfig> customMappings
+  ) throws StageException {
+    super(connectionString, dataSource, connectionCache, tableName, rollbackOnError, customMappings);
+  }
+
   /** {@inheritDoc} */
   @SuppressWarnings("unchecked")
   @Override
   public List<OnRecordErrorException> writeBatch(Collection<Record> batch) throws StageException {
     List<OnRecordErrorException> errorRecords = new LinkedList<>();
-    Connection connection = null;
+    ConnectionCache connectionCache = getConnectionCache();
+    boolean completed = false;
     try {
-      connection = getDataSource().getConnection();
+      Connection connection = connectionCache.getConnection();
 
-      PreparedStatementMap statementsForBatch = new PreparedStatementMap(connection, getTableName());
+      // Statements are cached across batches, only the ones that got rows in this batch are executed.
+      Set<PreparedStatement> statementsForBatch = new LinkedHashSet<>();
 
       for (Record record : batch) {
-        Map<String, String> parameters = getColumnsToParameters();
-        SortedMap<String, String> columnsToParameters = new TreeMap<>();
-        for (Map.Entry<String, String> entry : getColumnsToFields().entrySet()) {
-          String columnName = entry.getKey();
-          String fieldPath = entry.getValue();
-
-          if (record.has(fieldPath)) {
-            columnsToParameters.put(columnName, parameters.get(columnName));
-          }
-        }
-        PreparedStatement statement = statementsForBatch.getInsertFor(columnsToParameters);
+        Field[] fields = getFields(record);
+        RecordShape shape = getRecordShape(fields);
+        PreparedStatement statement = connectionCache.prepareStatement(shape.getInsertQuery(1));
 
-        if (setParameters(columnsToParameters, record, connection, statement, errorRecords)) {
+        if (setParameters(shape, fields, record, connection, statement, errorRecords)) {
           statement.addBatch();
+          statementsForBatch.add(statement);
         }
       }
 
-      for (PreparedStatement statement : statementsForBatch.getStatements()) {
+      for (PreparedStatement statement : statementsForBatch) {
         try {
           statement.executeBatch();
         } catch (SQLException e) {
+          statement.clearBatch();
           if (getRollbackOnError()) {
             connection.rollback();
           }
@@ -103,15 +119,13 @@ public class JdbcGenericRecordWriter extends JdbcBaseRecordWriter {
         }
       }
       connection.commit();
+      completed = true;
     } catch (SQLException e) {
       handleSqlException(e);
     } finally {
-      if (connection != null) {
-        try {
-          connection.close();
-        } catch (SQLException e) {
-          handleSqlException(e);
-        }
+      if (!completed) {
+        // the cached statements may still hold parameters or rows of this batch
+        connectionCache.invalidate();
       }
     }
     return errorRecords;
@@ -119,7 +133,8 @@ public class JdbcGenericRecordWriter extends JdbcBaseRecordWriter {
 
   @SuppressWarnings("unchecked")
   private boolean setParameters(
-      Map<String, String> columnsToParameters,
+      RecordShape shape,
+      Field[] fields,
       Record record,
       Connection connection,
       PreparedStatement statement,
@@ -127,8 +142,9 @@ public class JdbcGenericRecordWriter extends JdbcBaseRecordWriter {
   ) {
     boolean isOk = true;
     int paramIdx = 1;
-    for (String column : columnsToParameters.keySet()) {
-      Field field = record.get(getColumnsToFields().get(column));
+    for (int columnIndex : shape.getColumnIndexes()) {
+      String column = getColumnName(columnIndex);
+      Field field = fields[columnIndex];
       Field.Type fieldType = field.getType();
       Object value = field.getValue();
 
@@ -145,7 +161,7 @@ public class JdbcGenericRecordWriter extends JdbcBaseRecordWriter {
             statement.setTimestamp(paramIdx, new java.sql.Timestamp(field.getValueAsDatetime().getTime()));
             break;
           default:
-            statement.setObject(paramIdx, value, getColumnType(column));
+            statement.setObject(paramIdx, value, getColumnType(columnIndex));
             break;
         }
       } catch (SQLException e) {
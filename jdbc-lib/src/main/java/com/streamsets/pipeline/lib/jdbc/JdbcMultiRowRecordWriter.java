@@ -19,22 +19,12 @@
  */
 package com.streamsets.pipeline.lib.jdbc;
 
-import com.google.common.base.Charsets;
-import com.google.common.base.Joiner;
-import com.google.common.collect.ArrayListMultimap;
-import com.google.common.collect.Multimap;
-import com.google.common.hash.Funnel;
-import com.google.common.hash.HashCode;
-import com.google.common.hash.HashFunction;
-import com.google.common.hash.Hashing;
-import com.google.common.hash.PrimitiveSink;
 import com.streamsets.pipeline.api.Field;
 import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.StageException;
 import com.streamsets.pipeline.api.base.OnRecordErrorException;
 import com.streamsets.pipeline.stage.destination.jdbc.Errors;
 import com.streamsets.pipeline.stage.destination.jdbc.JdbcFieldMappingConfig;
-import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -43,26 +33,16 @@ import java.sql.Array;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.SortedMap;
-import java.util.TreeMap;
 
 public class JdbcMultiRowRecordWriter extends JdbcBaseRecordWriter {
   private static final Logger LOG = LoggerFactory.getLogger(JdbcMultiRowRecordWriter.class);
 
-  private static final HashFunction columnHashFunction = Hashing.goodFastHash(64);
-  private static final Funnel<Map<String, String>> stringMapFunnel = new Funnel<Map<String, String>>() {
-    @Override
-    public void funnel(Map<String, String> map, PrimitiveSink into) {
-      for (Map.Entry<String, String> entry : map.entrySet()) {
-        into.putString(entry.getKey(), Charsets.UTF_8).putString(entry.getValue(), Charsets.UTF_8);
-      }
-    }
-  };
-
   public static final int UNLIMITED_PARAMETERS = -1;
   private int maxPrepStmtParameters;
 
@@ -90,33 +70,65 @@ public class JdbcMultiRowRecordWriter extends JdbcBaseRecordWriter {
         maxPrepStmtParameters == UNLIMITED_PARAMETERS ? Integer.MAX_VALUE : maxPrepStmtParameters;
   }
 
+  /**
+   * Class constructor
+   * @param connectionString database connection string
+   * @param dataSource a JDBC {@link DataSource} to get a connection from
+   * @param connectionCache cache of the connections and prepared statements used across batches
+   * @param tableName the name of the table to write to
+   * @param rollbackOnError whether to attempt rollback of failed queries
+   * @param customMappings any custom mappings the user provided
+   * @param maxPrepStmtParameters max number of parameters to include in each INSERT statement
+   * @throws StageException
+   */
+  public JdbcMultiRowRecordWriter(
+      String connectionString,
+      DataSource dataSource,
+      ConnectionCache connectionCache,
+      String tableName,
+      boolean rollbackOnError,
+      List<JdbcFieldMappingConfig> customMappings,
+      int maxPrepStmtParameters)
+      throws StageException
+  {
+    super(connectionString, dataSource, connectionCache, tableName, rollbackOnError, customMappings);
+    this.maxPrepStmtParameters =
+        maxPrepStmtParameters == UNLIMITED_PARAMETERS ? Integer.MAX_VALUE : maxPrepStmtParameters;
+  }
+
   /** {@inheritDoc} */
-  @SuppressWarnings("unchecked")
   @Override
   public List<OnRecordErrorException> writeBatch(Collection<Record> batch) throws StageException {
     List<OnRecordErrorException> errorRecords = new LinkedList<>();
+    ConnectionCache connectionCache = getConnectionCache();
     Connection connection = null;
+    boolean completed = false;
     try {
-      connection = getDataSource().getConnection();
+      connection = connectionCache.getConnection();
 
       // Since we are doing multi-row inserts we have to partition the batch into groups of the same
-      // set of fields. We'll also sort each partition for optimal inserts into column stores.
-      Multimap<Long, Record> partitions = partitionBatch(batch);
+      // set of fields.
+      Map<RecordShape, List<RecordFields>> partitions = partitionBatch(batch);
 
-      for (Long partitionKey : partitions.keySet()) {
-        processPartition(connection, partitions, partitionKey, errorRecords);
+      for (Map.Entry<RecordShape, List<RecordFields>> partition : partitions.entrySet()) {
+        processPartition(connection, partition.getKey(), partition.getValue());
       }
+      completed = true;
     } catch (SQLException e) {
       handleSqlException(e);
     } finally {
       if (connection != null) {
         try {
           connection.commit();
-          connection.close();
         } catch (SQLException e) {
+          connectionCache.invalidate();
           handleSqlException(e);
         }
       }
+      if (!completed) {
+        // the cached statements may still hold parameters of this batch
+        connectionCache.invalidate();
+      }
     }
     return errorRecords;
   }
@@ -124,47 +136,33 @@ public class JdbcMultiRowRecordWriter extends JdbcBaseRecordWriter {
   @SuppressWarnings("unchecked")
   private void processPartition(
       Connection connection,
-      Multimap<Long, Record> partitions,
-      Long partitionKey,
-      List<OnRecordErrorException> errorRecords
+      RecordShape shape,
+      List<RecordFields> partition
   ) throws SQLException, OnRecordErrorException {
-    Collection<Record> partition = partitions.get(partitionKey);
-    // Fetch the base insert query for this partition.
-    SortedMap<String, String> columnsToParameters = getFilteredColumnsToParameters(
-        getColumnsToParameters(), partition.iterator().next()
-    );
-
-    // put all the records in a queue for consumption
-    LinkedList<Record> queue = new LinkedList<>(partition);
-
     // compute number of rows per batch
-    if (columnsToParameters.isEmpty()) {
+    if (shape.size() == 0) {
       throw new OnRecordErrorException(Errors.JDBCDEST_22);
     }
-    int maxRowsPerBatch = maxPrepStmtParameters / columnsToParameters.size();
+    int maxRowsPerBatch = maxPrepStmtParameters / shape.size();
 
     PreparedStatement statement = null;
 
     // parameters are indexed starting with 1
     int paramIdx = 1;
     int rowCount = 0;
-    while (!queue.isEmpty()) {
+    int remaining = partition.size();
+    for (RecordFields recordFields : partition) {
       // we're at the start of a batch.
       if (statement == null) {
-        // instantiate the new statement
-        statement = generatePreparedStatement(
-            columnsToParameters,
-            // the next batch will have either the max number of records, or however many are left.
-            Math.min(maxRowsPerBatch, queue.size()),
-            getTableName(),
-            connection
-        );
+        // the next batch will have either the max number of records, or however many are left.
+        statement = getConnectionCache().prepareStatement(shape.getInsertQuery(Math.min(maxRowsPerBatch, remaining)));
       }
 
       // process the next record into the current statement
-      Record record = queue.removeFirst();
-      for (String column : columnsToParameters.keySet()) {
-        Field field = record.get(getColumnsToFields().get(column));
+      Record record = recordFields.record;
+      for (int columnIndex : shape.getColumnIndexes()) {
+        String column = getColumnName(columnIndex);
+        Field field = recordFields.fields[columnIndex];
         Field.Type fieldType = field.getType();
         Object value = field.getValue();
 
@@ -182,7 +180,7 @@ public class JdbcMultiRowRecordWriter extends JdbcBaseRecordWriter {
               statement.setObject(paramIdx, new java.sql.Date(date.getTime()));
               break;
             default:
-              statement.setObject(paramIdx, value, getColumnType(column));
+              statement.setObject(paramIdx, value, getColumnType(columnIndex));
               break;
           }
         } catch (SQLException e) {
@@ -193,13 +191,13 @@ public class JdbcMultiRowRecordWriter extends JdbcBaseRecordWriter {
       }
 
       rowCount++;
+      remaining--;
 
       // check if we've filled up the current batch
       if (rowCount == maxRowsPerBatch) {
-        // time to execute the current batch
+        // time to execute the current batch, the statement stays cached for the next one
         statement.addBatch();
         statement.executeBatch();
-        statement.close();
         statement = null;
 
         // reset our counters
@@ -213,71 +211,42 @@ public class JdbcMultiRowRecordWriter extends JdbcBaseRecordWriter {
     if (statement != null) {
       statement.addBatch();
       statement.executeBatch();
-      statement.close();
     }
   }
 
-  private static PreparedStatement generatePreparedStatement(
-      SortedMap<String, String> columns,
-      int numRecords,
-      Object tableName,
-      Connection connection
-  ) throws SQLException {
-    String valuePlaceholder = String.format("(%s)", Joiner.on(", ").join(columns.values()));
-    String valuePlaceholders = StringUtils.repeat(valuePlaceholder, ", ", numRecords);
-    String query = String.format(
-        "INSERT INTO %s (%s) VALUES %s",
-        tableName,
-        // keySet and values will both return the same ordering, due to using a SortedMap
-        Joiner.on(", ").join(columns.keySet()),
-        valuePlaceholders
-    );
-
-    return connection.prepareStatement(query);
-  }
-
-  private SortedMap<String, String> getFilteredColumnsToParameters(Map<String, String> parameters, Record record) {
-    SortedMap<String, String> filtered = new TreeMap<>();
-    for (Map.Entry<String, String> entry : getColumnsToFields().entrySet()) {
-      String columnName = entry.getKey();
-      String fieldPath = entry.getValue();
-
-      if (record.has(fieldPath)) {
-        filtered.put(columnName, parameters.get(columnName));
-      }
-    }
-    return filtered;
-  }
-
   /**
    * Partitions a batch into partitions of the same set of fields.
    * Does not sort the records in each partition.
    *
    * @param batch input batch of records
-   * @return Multi-valued map of records. Key is a hash of the columns present.
+   * @return records with their fields, by the shape of the records.
    */
-  private Multimap<Long, Record> partitionBatch(Collection<Record> batch) {
-    Multimap<Long, Record> partitions = ArrayListMultimap.create();
+  private Map<RecordShape, List<RecordFields>> partitionBatch(Collection<Record> batch) {
+    Map<RecordShape, List<RecordFields>> partitions = new LinkedHashMap<>();
     for (Record record : batch) {
-      Long columnHash = getColumnHash(record).asLong();
-      partitions.put(columnHash, record);
+      Field[] fields = getFields(record);
+      RecordShape shape = getRecordShape(fields);
+      List<RecordFields> partition = partitions.get(shape);
+      if (partition == null) {
+        partition = new ArrayList<>();
+        partitions.put(shape, partition);
+      }
+      partition.add(new RecordFields(record, fields));
     }
     return partitions;
   }
 
   /**
-   * Generates a hash for the fields present in a record and their mappings.
-   * A specific implementation of the hash function is not guaranteed.
-   *
-   * @param record The record to generate a hash for.
-   * @return A Guava HashCode of the fields.
+   * A record with the fields looked up for the mapped columns, so they are not looked up again when binding.
    */
-  private HashCode getColumnHash(Record record) {
-    Map<String, String> parameters = getColumnsToParameters();
-    SortedMap<String, String> columnsToParameters = getFilteredColumnsToParameters(parameters, record);
-    return columnHashFunction.newHasher()
-        .putObject(columnsToParameters, stringMapFunnel)
-        .hash();
+  private static class RecordFields {
+    private final Record record;
+    private final Field[] fields;
+
+    RecordFields(Record record, Field[] fields) {
+      this.record = record;
+      this.fields = fields;
+    }
   }
 
   /**
@@ -48,6 +48,8 @@ public enum Errors implements ErrorCode {
   JDBCDEST_20("Invalid table name template expression '{}': {}"),
   JDBCDEST_22("The record had no fields that matched the columns in the destination table."),
   JDBCDEST_23("The field '{}' of type '{}' doesn't match the destination column's type."),
+  JDBCDEST_24("Writer threads '{}' cannot be greater than the maximum pool size '{}'"),
+  JDBCDEST_25("Interrupted while writing the batch in parallel"),
   ;
   private final String msg;
 
@@ -40,7 +40,7 @@ import java.util.List;
 @HideConfigs(value = {"hikariConfigBean.readOnly"})
 @GenerateResourceBundle
 @StageDef(
-    version = 5,
+    version = 6,
     label = "JDBC Producer",
     description = "Writes data to a JDBC destination.",
     upgrader = JdbcTargetUpgrader.class,
@@ -125,6 +125,22 @@ public class JdbcDTarget extends DTarget {
   )
   public int maxPrepStmtParameters;
 
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      defaultValue = "1",
+      label = "Writer Threads",
+      description = "Number of threads writing each batch in parallel, each with its own connection. Batches are " +
+          "written by a single thread when rolling back the batch on error. Cannot be greater than the maximum " +
+          "pool size.",
+      dependsOn = "changeLogFormat",
+      triggeredByValue = "NONE",
+      min = 1,
+      displayPosition = 70,
+      group = "JDBC"
+  )
+  public int writerThreads;
+
   @ConfigDefBean()
   public HikariPoolConfigBean hikariConfigBean;
 
@@ -137,6 +153,7 @@ public class JdbcDTarget extends DTarget {
         useMultiRowInsert,
         maxPrepStmtParameters,
         changeLogFormat,
+        writerThreads,
         hikariConfigBean
     );
   }
@@ -22,7 +22,9 @@ package com.streamsets.pipeline.stage.destination.jdbc;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Multimap;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.streamsets.pipeline.api.Batch;
 import com.streamsets.pipeline.api.ErrorCode;
 import com.streamsets.pipeline.api.Record;
@@ -37,6 +39,7 @@ import com.streamsets.pipeline.api.impl.Utils;
 import com.streamsets.pipeline.lib.el.ELUtils;
 import com.streamsets.pipeline.lib.el.RecordEL;
 import com.streamsets.pipeline.lib.jdbc.ChangeLogFormat;
+import com.streamsets.pipeline.lib.jdbc.ConnectionCache;
 import com.streamsets.pipeline.lib.jdbc.HikariPoolConfigBean;
 import com.streamsets.pipeline.lib.jdbc.JdbcGenericRecordWriter;
 import com.streamsets.pipeline.lib.jdbc.JdbcMultiRowRecordWriter;
@@ -52,10 +55,17 @@ import org.slf4j.LoggerFactory;
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
 import static com.streamsets.pipeline.lib.jdbc.HikariPoolConfigBean.MILLISECONDS;
@@ -70,11 +80,13 @@ public class JdbcTarget extends BaseTarget {
   private static final String CUSTOM_MAPPINGS = "columnNames";
   private static final String TABLE_NAME = "tableNameTemplate";
   private static final String CONNECTION_STRING = HIKARI_CONFIG_PREFIX + "connectionString";
+  private static final String WRITER_THREADS = "writerThreads";
   private static final String EL_PREFIX = "${";
 
   private final boolean rollbackOnError;
   private final boolean useMultiRowInsert;
   private final int maxPrepStmtParameters;
+  private final int writerThreads;
 
   private final String tableNameTemplate;
   private final List<JdbcFieldMappingConfig> customMappings;
@@ -84,6 +96,8 @@ public class JdbcTarget extends BaseTarget {
   private final HikariPoolConfigBean hikariConfigBean;
 
   private HikariDataSource dataSource = null;
+  private ConnectionCache connectionCache = null;
+  private ExecutorService writerPool = null;
   private ELEval tableNameEval = null;
   private ELVars tableNameVars = null;
 
@@ -109,12 +123,35 @@ public class JdbcTarget extends BaseTarget {
       int maxPrepStmtParameters,
       final ChangeLogFormat changeLogFormat,
       final HikariPoolConfigBean hikariConfigBean
+  ) {
+    this(
+        tableNameTemplate,
+        customMappings,
+        rollbackOnError,
+        useMultiRowInsert,
+        maxPrepStmtParameters,
+        changeLogFormat,
+        1,
+        hikariConfigBean
+    );
+  }
+
+  public JdbcTarget(
+      final String tableNameTemplate,
+      final List<JdbcFieldMappingConfig> customMappings,
+      final boolean rollbackOnError,
+      final boolean useMultiRowInsert,
+      int maxPrepStmtParameters,
+      final ChangeLogFormat changeLogFormat,
+      int writerThreads,
+      final HikariPoolConfigBean hikariConfigBean
   ) {
     this.tableNameTemplate = tableNameTemplate;
     this.customMappings = customMappings;
     this.rollbackOnError = rollbackOnError;
     this.useMultiRowInsert = useMultiRowInsert;
     this.maxPrepStmtParameters = maxPrepStmtParameters;
+    this.writerThreads = writerThreads;
     this.driverProperties.putAll(hikariConfigBean.driverProperties);
     this.changeLogFormat = changeLogFormat;
     this.hikariConfigBean = hikariConfigBean;
@@ -142,15 +179,41 @@ public class JdbcTarget extends BaseTarget {
         issues
     );
 
+    if (changeLogFormat == ChangeLogFormat.NONE && writerThreads > hikariConfigBean.maximumPoolSize) {
+      issues.add(getContext().createConfigIssue(
+          Groups.JDBC.name(), WRITER_THREADS, Errors.JDBCDEST_24, writerThreads, hikariConfigBean.maximumPoolSize
+      ));
+    }
+
     if (issues.isEmpty()) {
       createDataSource(issues);
     }
 
+    // Change logs must be applied in order and a rollback must cover the whole batch, so batches are only split
+    // across connections for plain inserts without rollback. The pipeline thread writes one of the parts.
+    if (issues.isEmpty() && writerThreads > 1 && changeLogFormat == ChangeLogFormat.NONE && !rollbackOnError) {
+      writerPool = Executors.newFixedThreadPool(
+          writerThreads - 1,
+          new ThreadFactoryBuilder().setNameFormat("jdbc-writer-%d").setDaemon(true).build()
+      );
+    }
+
     return issues;
   }
 
   @Override
   public void destroy() {
+    if (writerPool != null) {
+      writerPool.shutdownNow();
+      try {
+        writerPool.awaitTermination(1, TimeUnit.MINUTES);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    if (connectionCache != null) {
+      connectionCache.close();
+    }
     closeQuietly(connection);
 
     if (null != dataSource) {
@@ -177,6 +240,7 @@ public class JdbcTarget extends BaseTarget {
           recordWriter = new JdbcGenericRecordWriter(
               hikariConfigBean.connectionString,
               dataSource,
+              connectionCache,
               tableName,
               rollbackOnError,
               customMappings
@@ -185,6 +249,7 @@ public class JdbcTarget extends BaseTarget {
           recordWriter = new JdbcMultiRowRecordWriter(
               hikariConfigBean.connectionString,
               dataSource,
+              connectionCache,
               tableName,
               rollbackOnError,
               customMappings,
@@ -231,6 +296,7 @@ public class JdbcTarget extends BaseTarget {
 
     try {
       dataSource = new HikariDataSource(config);
+      connectionCache = new ConnectionCache(dataSource, config.getMaxLifetime());
 
       // Test connectivity
       connection = dataSource.getConnection();
@@ -277,13 +343,74 @@ public class JdbcTarget extends BaseTarget {
     );
     Set<String> tableNames = partitions.keySet();
     for (String tableName : tableNames) {
-      List<OnRecordErrorException> errors = recordWriters.getUnchecked(tableName).writeBatch(partitions.get(tableName));
+      JdbcRecordWriter recordWriter = recordWriters.getUnchecked(tableName);
+      Collection<Record> records = partitions.get(tableName);
+      List<OnRecordErrorException> errors;
+      if (writerPool != null) {
+        errors = writeInParallel(recordWriter, records);
+      } else {
+        errors = recordWriter.writeBatch(records);
+      }
       for (OnRecordErrorException error : errors) {
         handleErrorRecord(error);
       }
     }
   }
 
+  /**
+   * Splits the records of a table in as many parts as there are writer threads. The first part is written by the
+   * pipeline thread and each of the others by a thread of the writer pool, with the connection of that thread.
+   * Error records are returned to be handled on the pipeline thread.
+   */
+  private List<OnRecordErrorException> writeInParallel(
+      final JdbcRecordWriter recordWriter,
+      Collection<Record> records
+  ) throws StageException {
+    List<Record> recordList = new ArrayList<>(records);
+    int partSize = (recordList.size() + writerThreads - 1) / writerThreads;
+    List<List<Record>> parts = Lists.partition(recordList, Math.max(partSize, 1));
+    List<Future<List<OnRecordErrorException>>> futures = new ArrayList<>(writerThreads);
+    for (final List<Record> part : parts.subList(Math.min(1, parts.size()), parts.size())) {
+      futures.add(writerPool.submit(new Callable<List<OnRecordErrorException>>() {
+        @Override
+        public List<OnRecordErrorException> call() throws StageException {
+          return recordWriter.writeBatch(part);
+        }
+      }));
+    }
+
+    // Wait for all the parts before failing, so no writer is still running when the batch is retried.
+    List<OnRecordErrorException> errors = new ArrayList<>();
+    Throwable failure = null;
+    if (!parts.isEmpty()) {
+      try {
+        errors.addAll(recordWriter.writeBatch(parts.get(0)));
+      } catch (StageException | RuntimeException e) {
+        failure = e;
+      }
+    }
+    for (Future<List<OnRecordErrorException>> future : futures) {
+      try {
+        errors.addAll(future.get());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new StageException(Errors.JDBCDEST_25, e);
+      } catch (ExecutionException e) {
+        if (failure == null) {
+          failure = e.getCause();
+        }
+      }
+    }
+    if (failure instanceof StageException) {
+      throw (StageException) failure;
+    } else if (failure instanceof RuntimeException) {
+      throw (RuntimeException) failure;
+    } else if (failure != null) {
+      throw new IllegalStateException(failure);
+    }
+    return errors;
+  }
+
   private void handleErrorRecord(OnRecordErrorException error) throws StageException {
     switch (getContext().getOnErrorRecord()) {
       case DISCARD:
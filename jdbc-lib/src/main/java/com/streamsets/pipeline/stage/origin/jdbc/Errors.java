@@ -41,6 +41,10 @@ public enum Errors implements ErrorCode {
       "which are required when Transaction ID Column Name is specified."),
   JDBC_13("Failed to convert CLOB to string: {}"),
   JDBC_14("Parsed record had {} columns but SDC expected {}."),
+  JDBC_15("Offset column '{}' must hold integer values to read the initial load in partitions, found '{}'"),
+  JDBC_16("Query must include '{} > ${OFFSET}' in the WHERE clause to read the initial load in partitions"),
+  JDBC_17("Maximum Pool Size ({}) must be greater than or equal to the number of initial load partitions ({})"),
+  JDBC_18("Initial load partitions require Incremental Mode and cannot be used with a Transaction ID Column Name"),
   ;
   private final String msg;
 
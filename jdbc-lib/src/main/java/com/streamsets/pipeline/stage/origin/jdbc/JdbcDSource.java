@@ -32,7 +32,7 @@ import com.streamsets.pipeline.lib.el.TimeEL;
 import com.streamsets.pipeline.lib.jdbc.HikariPoolConfigBean;
 
 @StageDef(
-    version = 6,
+    version = 7,
     label = "JDBC Consumer",
     description = "Reads data from a JDBC source.",
     icon = "rdbms.png",
@@ -105,6 +105,21 @@ public class JdbcDSource extends DSource {
   )
   public long queryInterval;
 
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      defaultValue = "1",
+      label = "Initial Load Partitions",
+      description = "When the pipeline starts without an offset, splits the offset column range into this many " +
+          "partitions that are read in parallel, each with its own connection. Requires an integer offset column " +
+          "and a Maximum Pool Size of at least this value. Once all partitions are read it continues in " +
+          "incremental mode.",
+      displayPosition = 70,
+      group = "JDBC",
+      min = 1
+  )
+  public int numPartitions;
+
   @ConfigDef(
       required = true,
       type = ConfigDef.Type.MODEL,
@@ -173,7 +188,8 @@ public class JdbcDSource extends DSource {
         jdbcRecordType,
         maxBatchSize,
         maxClobSize,
-        hikariConfigBean
+        hikariConfigBean,
+        numPartitions
       );
   }
 }
@@ -25,6 +25,7 @@ import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.Source;
 import com.streamsets.pipeline.api.StageException;
 import com.streamsets.pipeline.api.base.BaseSource;
+import com.streamsets.pipeline.api.impl.Utils;
 import com.streamsets.pipeline.lib.jdbc.HikariPoolConfigBean;
 import com.streamsets.pipeline.lib.jdbc.JdbcUtil;
 import com.streamsets.pipeline.lib.util.JsonUtil;
@@ -38,6 +39,7 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.io.Reader;
+import java.math.BigDecimal;
 import java.sql.Clob;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
@@ -53,6 +55,14 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import static com.streamsets.pipeline.lib.jdbc.HikariPoolConfigBean.MILLISECONDS;
@@ -70,6 +80,12 @@ public class JdbcSource extends BaseSource {
   private static final String TXN_MAX_SIZE = "txnMaxSize";
   private static final String MAX_BATCH_SIZE = "maxBatchSize";
   private static final String MAX_CLOB_SIZE = "maxClobSize";
+  private static final String NUM_PARTITIONS = "numPartitions";
+  private static final String MAX_POOL_SIZE = HIKARI_CONFIG_PREFIX + HikariPoolConfigBean.MAX_POOL_SIZE_NAME;
+
+  private static final Pattern WHERE_PATTERN = Pattern.compile("\\bWHERE\\b", Pattern.CASE_INSENSITIVE);
+  private static final Pattern ORDER_BY_PATTERN = Pattern.compile("\\bORDER\\s+BY\\b", Pattern.CASE_INSENSITIVE);
+  private static final long PARTITION_POLL_MILLIS = 1000;
 
   private final boolean isIncrementalMode;
   private final String query;
@@ -82,6 +98,7 @@ public class JdbcSource extends BaseSource {
   private final int maxBatchSize;
   private final int maxClobSize;
   private final HikariPoolConfigBean hikariConfigBean;
+  private final int numPartitions;
 
   private ErrorRecordHandler errorRecordHandler;
 
@@ -93,6 +110,11 @@ public class JdbcSource extends BaseSource {
   private ResultSet resultSet = null;
   private long lastQueryCompletedTime = 0L;
 
+  // initial load read in partitions, all NULL when not reading partitions
+  private PartitionedOffset partitionedOffset;
+  private ExecutorService partitionReaders;
+  private BlockingQueue<PartitionRow> partitionRows;
+
   public JdbcSource(
       boolean isIncrementalMode,
       String query,
@@ -105,6 +127,36 @@ public class JdbcSource extends BaseSource {
       int maxBatchSize,
       int maxClobSize,
       HikariPoolConfigBean hikariConfigBean
+  ) {
+    this(
+        isIncrementalMode,
+        query,
+        initialOffset,
+        offsetColumn,
+        queryInterval,
+        txnColumnName,
+        txnMaxSize,
+        jdbcRecordType,
+        maxBatchSize,
+        maxClobSize,
+        hikariConfigBean,
+        1
+    );
+  }
+
+  public JdbcSource(
+      boolean isIncrementalMode,
+      String query,
+      String initialOffset,
+      String offsetColumn,
+      long queryInterval,
+      String txnColumnName,
+      int txnMaxSize,
+      JdbcRecordType jdbcRecordType,
+      int maxBatchSize,
+      int maxClobSize,
+      HikariPoolConfigBean hikariConfigBean,
+      int numPartitions
   ) {
     this.isIncrementalMode = isIncrementalMode;
     this.query = query;
@@ -118,6 +170,7 @@ public class JdbcSource extends BaseSource {
     this.maxBatchSize = maxBatchSize;
     this.maxClobSize = maxClobSize;
     this.hikariConfigBean = hikariConfigBean;
+    this.numPartitions = numPartitions;
   }
 
   @Override
@@ -161,6 +214,23 @@ public class JdbcSource extends BaseSource {
     if (maxClobSize < 0) {
       issues.add(context.createConfigIssue(Groups.ADVANCED.name(), MAX_CLOB_SIZE, Errors.JDBC_10, maxClobSize, 0));
     }
+    if (numPartitions < 1) {
+      issues.add(context.createConfigIssue(Groups.JDBC.name(), NUM_PARTITIONS, Errors.JDBC_10, numPartitions, 1));
+    } else if (numPartitions > 1) {
+      if (!isIncrementalMode || !txnColumnName.isEmpty()) {
+        issues.add(context.createConfigIssue(Groups.JDBC.name(), NUM_PARTITIONS, Errors.JDBC_18));
+      }
+      Pattern offsetColumnGreaterThanOffset = Pattern.compile(
+          String.format("(?s).*\\b%s\\s*>\\s*\\$\\{OFFSET\\}.*", formattedOffsetColumn)
+      );
+      if (!offsetColumnGreaterThanOffset.matcher(query.toUpperCase()).matches()) {
+        issues.add(context.createConfigIssue(Groups.JDBC.name(), QUERY, Errors.JDBC_16, offsetColumn));
+      }
+      if (hikariConfigBean.maximumPoolSize < numPartitions) {
+        issues.add(context.createConfigIssue(Groups.ADVANCED.name(), MAX_POOL_SIZE, Errors.JDBC_17,
+            hikariConfigBean.maximumPoolSize, numPartitions));
+      }
+    }
 
     if (issues.isEmpty()) {
       try {
@@ -223,6 +293,7 @@ public class JdbcSource extends BaseSource {
 
   @Override
   public void destroy() {
+    stopPartitionReaders();
     closeQuietly(connection);
     closeQuietly(dataSource);
     super.destroy();
@@ -240,6 +311,8 @@ public class JdbcSource extends BaseSource {
       // Sleep in one second increments so we don't tie up the app.
       LOG.debug("{}ms remaining until next fetch.", delay);
       ThreadUtil.sleep(Math.min(delay, 1000));
+    } else if (isPartitionedRead(lastSourceOffset)) {
+      nextSourceOffset = producePartitions(lastSourceOffset, batchSize, batchMaker);
     } else {
       Statement statement = null;
       try {
@@ -253,12 +326,7 @@ public class JdbcSource extends BaseSource {
             statement = connection.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
           }
 
-          int fetchSize = batchSize;
-          // MySQL does not support cursors or fetch size except 0 and "streaming" (1 at a time).
-          if (hikariConfigBean.connectionString.toLowerCase().contains("mysql")) {
-            // Enable MySQL streaming mode.
-            fetchSize = Integer.MIN_VALUE;
-          }
+          int fetchSize = getFetchSize(batchSize);
           statement.setFetchSize(fetchSize);
           LOG.debug("Using query fetch size: {}", fetchSize);
 
@@ -321,6 +389,183 @@ public class JdbcSource extends BaseSource {
     return nextSourceOffset;
   }
 
+  private int getFetchSize(int batchSize) {
+    int fetchSize = batchSize;
+    // MySQL does not support cursors or fetch size except 0 and "streaming" (1 at a time).
+    if (hikariConfigBean.connectionString.toLowerCase().contains("mysql")) {
+      // Enable MySQL streaming mode.
+      fetchSize = Integer.MIN_VALUE;
+    }
+    return fetchSize;
+  }
+
+  private boolean isPartitionedRead(String lastSourceOffset) {
+    // a partitioned initial load in progress is always resumed, a new one starts only when there is no offset
+    return PartitionedOffset.isPartitioned(lastSourceOffset) ||
+        (numPartitions > 1 && lastSourceOffset == null && !getContext().isPreview());
+  }
+
+  private String producePartitions(String lastSourceOffset, int batchSize, BatchMaker batchMaker)
+      throws StageException {
+    if (partitionedOffset == null) {
+      partitionedOffset = (lastSourceOffset == null) ? createPartitions() : PartitionedOffset.parse(lastSourceOffset);
+      if (partitionedOffset == null) {
+        // nothing to load, continue in incremental mode
+        lastQueryCompletedTime = System.currentTimeMillis();
+        return initialOffset;
+      }
+      startPartitionReaders(batchSize);
+    }
+    PartitionedOffset offset = partitionedOffset;
+    int rowCount = 0;
+    try {
+      while (rowCount < batchSize && !offset.isComplete()) {
+        PartitionRow row = (rowCount == 0)
+            ? partitionRows.poll(PARTITION_POLL_MILLIS, TimeUnit.MILLISECONDS)
+            : partitionRows.poll();
+        if (row == null) {
+          break;
+        } else if (row.error != null) {
+          String formattedError = JdbcUtil.formatSqlException(row.error);
+          LOG.error(formattedError);
+          LOG.debug(formattedError, row.error);
+          // the partitions are read again from the current offsets by the next produce() call
+          stopPartitionReaders();
+          lastQueryCompletedTime = System.currentTimeMillis();
+          LOG.debug("Query failed at: {}", lastQueryCompletedTime);
+          errorRecordHandler.onError(Errors.JDBC_04, row.query, formattedError);
+          break;
+        } else if (row.values == null) {
+          offset.setDone(row.partition);
+        } else {
+          Record record = createRecord(row.columnNames, row.values, row.offset);
+          if (record != null) {
+            batchMaker.addRecord(record);
+          }
+          offset.setOffset(row.partition, row.offset);
+          ++rowCount;
+        }
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+    if (offset.isComplete()) {
+      stopPartitionReaders();
+      lastQueryCompletedTime = System.currentTimeMillis();
+      LOG.info("Initial load completed, continuing in incremental mode from offset '{}'", offset.getMaxOffset());
+      return offset.getMaxOffset();
+    }
+    return offset.toString();
+  }
+
+  // returns NULL if the query does not return any row
+  private PartitionedOffset createPartitions() throws StageException {
+    String rangeQuery = Utils.format(
+        "SELECT MIN({}), MAX({}) FROM ({}) SDC_RANGE",
+        offsetColumn,
+        offsetColumn,
+        removeOrderBy(prepareQuery(query, initialOffset))
+    );
+    try (
+        Connection connection = dataSource.getConnection();
+        Statement statement = connection.createStatement();
+        ResultSet resultSet = statement.executeQuery(rangeQuery)
+    ) {
+      resultSet.next();
+      String min = resultSet.getString(1);
+      String max = resultSet.getString(2);
+      if (min == null || max == null) {
+        return null;
+      }
+      PartitionedOffset partitions = PartitionedOffset.create(
+          initialOffset,
+          toLongOffset(min),
+          toLongOffset(max),
+          numPartitions
+      );
+      LOG.info("Reading initial load in partitions '{}'", partitions);
+      return partitions;
+    } catch (SQLException e) {
+      String formattedError = JdbcUtil.formatSqlException(e);
+      LOG.error(formattedError);
+      LOG.debug(formattedError, e);
+      throw new StageException(Errors.JDBC_04, rangeQuery, formattedError);
+    }
+  }
+
+  private long toLongOffset(String value) throws StageException {
+    try {
+      return new BigDecimal(value).longValueExact();
+    } catch (NumberFormatException | ArithmeticException ex) {
+      throw new StageException(Errors.JDBC_15, offsetColumn, value);
+    }
+  }
+
+  private void startPartitionReaders(int batchSize) {
+    partitionRows = new ArrayBlockingQueue<>(Math.max(batchSize, 1) * partitionedOffset.size());
+    partitionReaders = Executors.newFixedThreadPool(partitionedOffset.size(), new ThreadFactory() {
+      private final AtomicInteger count = new AtomicInteger();
+
+      @Override
+      public Thread newThread(Runnable r) {
+        Thread thread = new Thread(r, "jdbc-partition-reader-" + count.getAndIncrement());
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+    int fetchSize = getFetchSize(batchSize);
+    for (int i = 0; i < partitionedOffset.size(); i++) {
+      if (!partitionedOffset.isDone(i)) {
+        partitionReaders.execute(
+            new PartitionReader(i, partitionedOffset.getOffset(i), partitionedOffset.getUpper(i), fetchSize)
+        );
+      } else {
+        LOG.debug("Partition {} already read", i);
+      }
+    }
+  }
+
+  private void stopPartitionReaders() {
+    if (partitionReaders != null) {
+      partitionReaders.shutdownNow();
+      try {
+        if (!partitionReaders.awaitTermination(5, TimeUnit.SECONDS)) {
+          LOG.warn("Partition readers did not stop in time");
+        }
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      }
+      partitionReaders = null;
+    }
+    partitionRows = null;
+    partitionedOffset = null;
+  }
+
+  // the query restricted to the rows in the (offset, upper] range of the offset column
+  private String preparePartitionQuery(String offset, long upper) {
+    String preparedQuery = prepareQuery(query, offset);
+    int orderBy = lastMatch(ORDER_BY_PATTERN, preparedQuery, preparedQuery.length());
+    int where = lastMatch(WHERE_PATTERN, preparedQuery, orderBy);
+    int condition = where + "WHERE".length();
+    return preparedQuery.substring(0, condition) + " (" + preparedQuery.substring(condition, orderBy).trim() +
+        ") AND " + offsetColumn + " <= " + upper + " " + preparedQuery.substring(orderBy);
+  }
+
+  private String removeOrderBy(String preparedQuery) {
+    return preparedQuery.substring(0, lastMatch(ORDER_BY_PATTERN, preparedQuery, preparedQuery.length()));
+  }
+
+  // start of the last match of the pattern before the given index, the query has been validated so there is one
+  private static int lastMatch(Pattern pattern, String str, int before) {
+    Matcher matcher = pattern.matcher(str);
+    int last = -1;
+    while (matcher.find() && matcher.start() < before) {
+      last = matcher.start();
+    }
+    Utils.checkState(last >= 0, Utils.formatL("Pattern '{}' not found in '{}'", pattern, str));
+    return last;
+  }
+
   private boolean continueReading(int rowCount, int batchSize) {
     if (txnColumnName.isEmpty()) {
       return rowCount < batchSize;
@@ -401,12 +646,35 @@ public class JdbcSource extends BaseSource {
   }
 
   private Record processRow(ResultSet resultSet) throws SQLException, StageException {
-    Source.Context context = getContext();
     ResultSetMetaData md = resultSet.getMetaData();
-    int numColumns = md.getColumnCount();
-    LinkedHashMap<String, Field> fields = new LinkedHashMap<>(numColumns);
+    return createRecord(getColumnNames(md), readRow(resultSet, md.getColumnCount()), resultSet.getString(offsetColumn));
+  }
 
-    // Process row
+  private static String[] getColumnNames(ResultSetMetaData md) throws SQLException {
+    String[] columnNames = new String[md.getColumnCount()];
+    for (int i = 1; i <= columnNames.length; i++) {
+      columnNames[i - 1] = md.getColumnName(i);
+    }
+    return columnNames;
+  }
+
+  /**
+   * Error reading a column value, it is reported when the record is created as reading may happen in a partition
+   * reader thread.
+   */
+  private static class ColumnError {
+    private final Errors error;
+    private final Object[] params;
+
+    ColumnError(Errors error, Object... params) {
+      this.error = error;
+      this.params = params;
+    }
+  }
+
+  // reads the current row of the result set, it does not use the stage context
+  private Object[] readRow(ResultSet resultSet, int numColumns) throws SQLException {
+    Object[] values = new Object[numColumns];
     for (int i = 1; i <= numColumns; i++) {
       Object value = resultSet.getObject(i);
       try {
@@ -415,11 +683,33 @@ public class JdbcSource extends BaseSource {
           Clob clobValue = (Clob) value;
           value = getClobString(clobValue);
         }
-        fields.put(md.getColumnName(i), JsonUtil.jsonToField(value));
+        values[i - 1] = value;
       } catch (SQLException e) {
-        errorRecordHandler.onError(Errors.JDBC_13, e.getMessage());
+        values[i - 1] = new ColumnError(Errors.JDBC_13, e.getMessage());
       } catch (IOException e) {
-        errorRecordHandler.onError(Errors.JDBC_03, md.getColumnName(i), value);
+        values[i - 1] = new ColumnError(Errors.JDBC_03, resultSet.getMetaData().getColumnName(i), value);
+      }
+    }
+    return values;
+  }
+
+  private Record createRecord(String[] columnNames, Object[] values, String offset) throws StageException {
+    Source.Context context = getContext();
+    int numColumns = columnNames.length;
+    LinkedHashMap<String, Field> fields = new LinkedHashMap<>(numColumns);
+
+    // Process row
+    for (int i = 0; i < numColumns; i++) {
+      Object value = values[i];
+      if (value instanceof ColumnError) {
+        ColumnError columnError = (ColumnError) value;
+        errorRecordHandler.onError(columnError.error, columnError.params);
+        continue;
+      }
+      try {
+        fields.put(columnNames[i], JsonUtil.jsonToField(value));
+      } catch (IOException e) {
+        errorRecordHandler.onError(Errors.JDBC_03, columnNames[i], value);
       }
     }
 
@@ -428,7 +718,7 @@ public class JdbcSource extends BaseSource {
       return null; // Don't output this record.
     }
 
-    final String recordContext = query + "::" + resultSet.getString(offsetColumn);
+    final String recordContext = query + "::" + offset;
     Record record = context.createRecord(recordContext);
     if (recordType == JdbcRecordType.LIST_MAP) {
       record.set(Field.createListMap(fields));
@@ -447,4 +737,101 @@ public class JdbcSource extends BaseSource {
     }
     return record;
   }
+
+  /**
+   * Row read by a partition reader. A row without values marks the end of the partition, a row with an error marks
+   * a failed partition query.
+   */
+  private static class PartitionRow {
+    private final int partition;
+    private final String offset;
+    private final String[] columnNames;
+    private final Object[] values;
+    private final String query;
+    private final SQLException error;
+
+    PartitionRow(int partition, String offset, String[] columnNames, Object[] values, String query,
+        SQLException error) {
+      this.partition = partition;
+      this.offset = offset;
+      this.columnNames = columnNames;
+      this.values = values;
+      this.query = query;
+      this.error = error;
+    }
+  }
+
+  /**
+   * Reads the rows of a partition with its own connection. The query is run again from the last offset read until
+   * it returns no rows, the same way queries with a LIMIT are paged through in incremental mode.
+   */
+  private class PartitionReader implements Runnable {
+    private final int partition;
+    private final long upper;
+    private final int fetchSize;
+    private final BlockingQueue<PartitionRow> rows;
+    private String offset;
+    private String partitionQuery;
+
+    PartitionReader(int partition, String offset, long upper, int fetchSize) {
+      this.partition = partition;
+      this.offset = offset;
+      this.upper = upper;
+      this.fetchSize = fetchSize;
+      rows = partitionRows;
+    }
+
+    @Override
+    public void run() {
+      PartitionRow last;
+      try {
+        read();
+        LOG.debug("Partition {} read up to '{}'", partition, upper);
+        last = new PartitionRow(partition, offset, null, null, partitionQuery, null);
+      } catch (SQLException ex) {
+        last = new PartitionRow(partition, offset, null, null, partitionQuery, ex);
+      } catch (InterruptedException ex) {
+        return;
+      }
+      try {
+        rows.put(last);
+      } catch (InterruptedException ex) {
+        // stopping
+      }
+    }
+
+    private void read() throws SQLException, InterruptedException {
+      try (Connection connection = dataSource.getConnection()) {
+        boolean readRows = true;
+        while (readRows && !Thread.currentThread().isInterrupted()) {
+          readRows = false;
+          partitionQuery = preparePartitionQuery(offset, upper);
+          try (Statement statement = connection.createStatement(
+              ResultSet.TYPE_FORWARD_ONLY,
+              ResultSet.CONCUR_READ_ONLY
+          )) {
+            statement.setFetchSize(fetchSize);
+            try (ResultSet resultSet = statement.executeQuery(partitionQuery)) {
+              String[] columnNames = getColumnNames(resultSet.getMetaData());
+              while (resultSet.next()) {
+                offset = resultSet.getString(offsetColumn);
+                rows.put(new PartitionRow(
+                    partition,
+                    offset,
+                    columnNames,
+                    readRow(resultSet, columnNames.length),
+                    partitionQuery,
+                    null
+                ));
+                readRows = true;
+              }
+            }
+          }
+        }
+        if (Thread.currentThread().isInterrupted()) {
+          throw new InterruptedException();
+        }
+      }
+    }
+  }
 }
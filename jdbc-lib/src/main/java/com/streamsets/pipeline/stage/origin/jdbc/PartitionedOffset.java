@@ -0,0 +1,130 @@
+/**
+ * Copyright 2016 StreamSets Inc.
+ *
+ * Licensed under the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.jdbc;
+
+import com.streamsets.pipeline.api.impl.Utils;
+
+import java.math.BigInteger;
+
+/**
+ * Offset of an initial load read in partitions. For every partition it holds the last offset column value read and
+ * the inclusive upper bound of the partition range, it is serialized as
+ * <code>partitions:&lt;offset&gt;,&lt;upper&gt;;&lt;offset&gt;,&lt;upper&gt;...</code>.
+ */
+class PartitionedOffset {
+  static final String PREFIX = "partitions:";
+  private static final String PARTITION_SEPARATOR = ";";
+  private static final String VALUE_SEPARATOR = ",";
+
+  private final String[] offsets;
+  private final long[] uppers;
+
+  private PartitionedOffset(String[] offsets, long[] uppers) {
+    this.offsets = offsets;
+    this.uppers = uppers;
+  }
+
+  static boolean isPartitioned(String offset) {
+    return offset != null && offset.startsWith(PREFIX);
+  }
+
+  /**
+   * Splits the <code>[min, max]</code> range of the offset column in up to <code>numPartitions</code> ranges of
+   * similar size, the first partition starts at the initial offset.
+   */
+  static PartitionedOffset create(String initialOffset, long min, long max, int numPartitions) {
+    Utils.checkArgument(min <= max, Utils.formatL("min '{}' must be less than or equal to max '{}'", min, max));
+    BigInteger from = BigInteger.valueOf(min);
+    BigInteger range = BigInteger.valueOf(max).subtract(from).add(BigInteger.ONE);
+    int partitions = (int) Math.min(numPartitions, range.min(BigInteger.valueOf(Integer.MAX_VALUE)).longValue());
+    String[] offsets = new String[partitions];
+    long[] uppers = new long[partitions];
+    for (int i = 0; i < partitions; i++) {
+      offsets[i] = (i == 0) ? initialOffset : String.valueOf(uppers[i - 1]);
+      uppers[i] = from.add(range.multiply(BigInteger.valueOf(i + 1)).divide(BigInteger.valueOf(partitions)))
+          .subtract(BigInteger.ONE).longValue();
+    }
+    return new PartitionedOffset(offsets, uppers);
+  }
+
+  static PartitionedOffset parse(String offset) {
+    Utils.checkArgument(isPartitioned(offset), Utils.formatL("Invalid partitioned offset '{}'", offset));
+    String[] partitions = offset.substring(PREFIX.length()).split(PARTITION_SEPARATOR);
+    String[] offsets = new String[partitions.length];
+    long[] uppers = new long[partitions.length];
+    for (int i = 0; i < partitions.length; i++) {
+      int separator = partitions[i].lastIndexOf(VALUE_SEPARATOR);
+      Utils.checkArgument(separator > 0, Utils.formatL("Invalid partitioned offset '{}'", offset));
+      offsets[i] = partitions[i].substring(0, separator);
+      uppers[i] = Long.parseLong(partitions[i].substring(separator + 1));
+    }
+    return new PartitionedOffset(offsets, uppers);
+  }
+
+  int size() {
+    return offsets.length;
+  }
+
+  String getOffset(int partition) {
+    return offsets[partition];
+  }
+
+  void setOffset(int partition, String offset) {
+    offsets[partition] = offset;
+  }
+
+  long getUpper(int partition) {
+    return uppers[partition];
+  }
+
+  void setDone(int partition) {
+    offsets[partition] = String.valueOf(uppers[partition]);
+  }
+
+  boolean isDone(int partition) {
+    return offsets[partition].equals(String.valueOf(uppers[partition]));
+  }
+
+  boolean isComplete() {
+    for (int i = 0; i < offsets.length; i++) {
+      if (!isDone(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // the offset to continue in incremental mode once all partitions are done
+  String getMaxOffset() {
+    return String.valueOf(uppers[uppers.length - 1]);
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder(PREFIX);
+    for (int i = 0; i < offsets.length; i++) {
+      if (i > 0) {
+        sb.append(PARTITION_SEPARATOR);
+      }
+      sb.append(offsets[i]).append(VALUE_SEPARATOR).append(uppers[i]);
+    }
+    return sb.toString();
+  }
+}
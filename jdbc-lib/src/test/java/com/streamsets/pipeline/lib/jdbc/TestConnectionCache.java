@@ -0,0 +1,66 @@
+/**
+ * Copyright 2016 StreamSets Inc.
+ *
+ * Licensed under the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.jdbc;
+
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static org.junit.Assert.assertSame;
+
+public class TestConnectionCache {
+
+  @Test
+  public void testReplaceInvalidConnection() throws Exception {
+    Connection stale = Mockito.mock(Connection.class);
+    Mockito.when(stale.isValid(Mockito.anyInt())).thenReturn(false);
+    Connection fresh = Mockito.mock(Connection.class);
+    DataSource dataSource = Mockito.mock(DataSource.class);
+    Mockito.when(dataSource.getConnection()).thenReturn(stale, fresh);
+
+    ConnectionCache connectionCache = new ConnectionCache(dataSource);
+    assertSame(stale, connectionCache.getConnection());
+    // not validated again right after being used
+    assertSame(stale, connectionCache.getConnection());
+    Mockito.verify(stale, Mockito.never()).isValid(Mockito.anyInt());
+
+    Thread.sleep(ConnectionCache.VALIDATION_BYPASS_MILLIS + 100);
+    assertSame(fresh, connectionCache.getConnection());
+    Mockito.verify(stale).close();
+  }
+
+  @Test
+  public void testReplaceConnectionFailingValidation() throws Exception {
+    Connection stale = Mockito.mock(Connection.class);
+    Mockito.when(stale.isValid(Mockito.anyInt())).thenThrow(new SQLException("connection reset"));
+    Connection fresh = Mockito.mock(Connection.class);
+    DataSource dataSource = Mockito.mock(DataSource.class);
+    Mockito.when(dataSource.getConnection()).thenReturn(stale, fresh);
+
+    ConnectionCache connectionCache = new ConnectionCache(dataSource);
+    assertSame(stale, connectionCache.getConnection());
+    Thread.sleep(ConnectionCache.VALIDATION_BYPASS_MILLIS + 100);
+    assertSame(fresh, connectionCache.getConnection());
+    Mockito.verify(stale).close();
+  }
+}
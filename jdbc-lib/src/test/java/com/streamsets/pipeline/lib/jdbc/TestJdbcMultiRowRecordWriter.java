@@ -149,6 +149,34 @@ public class TestJdbcMultiRowRecordWriter {
     }
   }
 
+  @Test
+  public void testMultipleBatches() throws Exception {
+    List<JdbcFieldMappingConfig> mappings = new ArrayList<>();
+
+    ConnectionCache connectionCache = new ConnectionCache(dataSource);
+    JdbcRecordWriter writer = new JdbcMultiRowRecordWriter(
+        connectionString,
+        dataSource,
+        connectionCache,
+        "TEST.TEST_TABLE",
+        false,
+        mappings,
+        8
+    );
+
+    // the statements prepared for the first batch are reused by the following ones
+    for (int i = 0; i < 3; i++) {
+      writer.writeBatch(generateRecords(10));
+    }
+    connectionCache.close();
+
+    try (Statement statement = connection.createStatement()) {
+      ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM TEST.TEST_TABLE");
+      rs.next();
+      assertEquals(30, rs.getInt(1));
+    }
+  }
+
   @Test(expected = OnRecordErrorException.class)
   public void testEmptyColumnMappingError() throws Exception {
     List<JdbcFieldMappingConfig> mappings = new ArrayList<>();
@@ -48,6 +48,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 @SuppressWarnings("Duplicates")
 public class TestJdbcTarget {
@@ -646,6 +647,82 @@ public class TestJdbcTarget {
     }
   }
 
+  @Test
+  public void testParallelWriters() throws Exception {
+    List<JdbcFieldMappingConfig> fieldMappings = ImmutableList.of(
+        new JdbcFieldMappingConfig("[0]", "P_ID"),
+        new JdbcFieldMappingConfig("[1]", "FIRST_NAME"),
+        new JdbcFieldMappingConfig("[2]", "LAST_NAME"),
+        new JdbcFieldMappingConfig("[3]", "TS")
+    );
+
+    HikariPoolConfigBean configBean = createConfigBean(h2ConnectionString, username, password);
+    configBean.maximumPoolSize = 3;
+    Target target = new JdbcTarget(
+        tableName,
+        fieldMappings,
+        false,
+        false,
+        JdbcMultiRowRecordWriter.UNLIMITED_PARAMETERS,
+        ChangeLogFormat.NONE,
+        3,
+        configBean
+    );
+    TargetRunner targetRunner = new TargetRunner.Builder(JdbcDTarget.class, target)
+        .setOnRecordError(OnRecordError.TO_ERROR)
+        .build();
+
+    targetRunner.runInit();
+    // the second batch reuses the connections and statements of the first one
+    for (int batch = 0; batch < 2; batch++) {
+      List<Record> records = new ArrayList<>();
+      for (int i = 0; i < 10; i++) {
+        records.add(generateRecord(batch * 10 + i, "Adam", "Kunicki", tableName));
+      }
+      targetRunner.runWrite(records);
+    }
+    // a duplicate key only fails the record, the other records of the batch are still written
+    targetRunner.runWrite(ImmutableList.of(
+        generateRecord(0, "Jon", "Natkins", tableName),
+        generateRecord(20, "Jon", "Daulton", tableName)
+    ));
+    targetRunner.runDestroy();
+
+    connection = DriverManager.getConnection(h2ConnectionString, username, password);
+    try (Statement statement = connection.createStatement()) {
+      ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM TEST.TEST_TABLE");
+      rs.next();
+      assertEquals(21, rs.getInt(1));
+    }
+    assertEquals(1, targetRunner.getErrorRecords().size());
+  }
+
+  @Test
+  public void testWriterThreadsGreaterThanPoolSize() throws Exception {
+    List<JdbcFieldMappingConfig> fieldMappings = ImmutableList.of(
+        new JdbcFieldMappingConfig("[0]", "P_ID"),
+        new JdbcFieldMappingConfig("[1]", "FIRST_NAME"),
+        new JdbcFieldMappingConfig("[2]", "LAST_NAME"),
+        new JdbcFieldMappingConfig("[3]", "TS")
+    );
+
+    Target target = new JdbcTarget(
+        tableName,
+        fieldMappings,
+        false,
+        false,
+        JdbcMultiRowRecordWriter.UNLIMITED_PARAMETERS,
+        ChangeLogFormat.NONE,
+        2,
+        createConfigBean(h2ConnectionString, username, password)
+    );
+    TargetRunner targetRunner = new TargetRunner.Builder(JdbcDTarget.class, target).build();
+
+    List<Stage.ConfigIssue> issues = targetRunner.runValidateConfigs();
+    assertEquals(1, issues.size());
+    assertTrue(issues.get(0).toString().contains(Errors.JDBCDEST_24.name()));
+  }
+
   private Record generateRecord(int id, String first, String last, String tableName) {
     Record record = RecordCreator.create();
     List<Field> fields = new ArrayList<>();
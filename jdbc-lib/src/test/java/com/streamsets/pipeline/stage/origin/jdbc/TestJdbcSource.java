@@ -37,8 +37,12 @@ import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
@@ -644,4 +648,128 @@ public class TestJdbcSource {
       runner.runDestroy();
     }
   }
+
+  private JdbcSource createPartitionedSource(int numPartitions, int maximumPoolSize) {
+    HikariPoolConfigBean configBean = createConfigBean(h2ConnectionString, username, password);
+    configBean.maximumPoolSize = maximumPoolSize;
+    return new JdbcSource(
+        true,
+        query,
+        initialOffset,
+        "P_ID",
+        queryInterval,
+        "",
+        1000,
+        JdbcRecordType.LIST_MAP,
+        BATCH_SIZE,
+        CLOB_SIZE,
+        configBean,
+        numPartitions
+    );
+  }
+
+  // produces until the initial load completes, returning the ids read
+  private String producePartitions(SourceRunner runner, String offset, Set<Integer> ids) throws Exception {
+    for (int i = 0; i < 20 && (offset == null || PartitionedOffset.isPartitioned(offset)); i++) {
+      StageRunner.Output output = runner.runProduce(offset, 3);
+      for (Record record : output.getRecords().get("lane")) {
+        assertTrue(ids.add(record.get("/P_ID").getValueAsInteger()));
+      }
+      offset = output.getNewOffset();
+    }
+    return offset;
+  }
+
+  @Test
+  public void testPartitionedInitialLoad() throws Exception {
+    JdbcSource origin = createPartitionedSource(2, 2);
+    SourceRunner runner = new SourceRunner.Builder(JdbcDSource.class, origin)
+        .addOutputLane("lane")
+        .build();
+
+    runner.runInit();
+
+    try {
+      Set<Integer> ids = new HashSet<>();
+      String offset = producePartitions(runner, null, ids);
+      assertEquals(new HashSet<>(Arrays.asList(1, 2, 3, 4)), ids);
+      assertEquals("4", offset);
+
+      // Check that new rows are loaded in incremental mode.
+      runInsertNewRows();
+      StageRunner.Output output = runner.runProduce(offset, 100);
+      assertEquals(2, output.getRecords().get("lane").size());
+      assertEquals("10", output.getNewOffset());
+    } finally {
+      runner.runDestroy();
+    }
+  }
+
+  @Test
+  public void testResumePartitionedInitialLoad() throws Exception {
+    JdbcSource origin = createPartitionedSource(2, 2);
+    SourceRunner runner = new SourceRunner.Builder(JdbcDSource.class, origin)
+        .addOutputLane("lane")
+        .build();
+
+    runner.runInit();
+
+    try {
+      // first partition done, second one read up to 3
+      Set<Integer> ids = new HashSet<>();
+      String offset = producePartitions(runner, "partitions:2,2;3,4", ids);
+      assertEquals(Collections.singleton(4), ids);
+      assertEquals("4", offset);
+    } finally {
+      runner.runDestroy();
+    }
+  }
+
+  @Test
+  public void testPartitionedInitialLoadEmptyTable() throws Exception {
+    try (Statement statement = connection.createStatement()) {
+      statement.execute("DELETE FROM TEST.TEST_TABLE");
+    }
+    JdbcSource origin = createPartitionedSource(4, 4);
+    SourceRunner runner = new SourceRunner.Builder(JdbcDSource.class, origin)
+        .addOutputLane("lane")
+        .build();
+
+    runner.runInit();
+
+    try {
+      StageRunner.Output output = runner.runProduce(null, 100);
+      assertEquals(0, output.getRecords().get("lane").size());
+      assertEquals(initialOffset, output.getNewOffset());
+    } finally {
+      runner.runDestroy();
+    }
+  }
+
+  @Test
+  public void testPartitionsRequireConnections() throws Exception {
+    JdbcSource origin = createPartitionedSource(4, 2);
+    SourceRunner runner = new SourceRunner.Builder(JdbcDSource.class, origin)
+        .addOutputLane("lane")
+        .build();
+
+    List<Stage.ConfigIssue> issues = runner.runValidateConfigs();
+    assertEquals(1, issues.size());
+  }
+
+  @Test
+  public void testPartitionedOffset() {
+    PartitionedOffset offset = PartitionedOffset.create("0", 1, 10, 3);
+    assertEquals("partitions:0,3;3,6;6,10", offset.toString());
+    offset.setOffset(0, "2");
+    offset.setDone(1);
+    offset = PartitionedOffset.parse(offset.toString());
+    assertEquals(3, offset.size());
+    assertEquals("2", offset.getOffset(0));
+    assertTrue(offset.isDone(1));
+    assertEquals("10", offset.getMaxOffset());
+
+    // less values than partitions
+    assertEquals("partitions:0,5;5,6", PartitionedOffset.create("0", 5, 6, 4).toString());
+  }
 }
@@ -60,6 +60,11 @@ public class JythonProcessor extends AbstractScriptingProcessor {
       super(scriptEngine);
     }
 
+    @Override
+    protected boolean isFieldViewSupported() {
+      return false;
+    }
+
     @Override
     public void putInMap(Object obj, Object key, Object value) {
       ((PyDictionary) obj).put(key, value);
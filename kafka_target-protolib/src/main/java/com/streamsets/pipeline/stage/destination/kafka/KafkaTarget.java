@@ -49,6 +49,7 @@ public class KafkaTarget extends BaseTarget {
 
   private long recordCounter = 0;
   private SdcKafkaProducer kafkaProducer;
+  private RecordSerializer recordSerializer;
 
   public KafkaTarget(KafkaConfigBean kafkaConfigBean) {
     this.kafkaConfigBean = kafkaConfigBean;
@@ -59,11 +60,15 @@ public class KafkaTarget extends BaseTarget {
     List<ConfigIssue> issues = super.init();
     kafkaConfigBean.init(getContext(), issues);
     kafkaProducer = kafkaConfigBean.kafkaConfig.getKafkaProducer();
+    if (issues.isEmpty()) {
+      recordSerializer = new RecordSerializer(kafkaConfigBean.dataGeneratorFormatConfig.getDataGeneratorFactory());
+    }
     return issues;
   }
 
   @Override
   public void write(Batch batch) throws StageException {
+    kafkaConfigBean.kafkaConfig.startBatch();
     if (kafkaConfigBean.kafkaConfig.singleMessagePerBatch) {
       writeOneMessagePerBatch(batch);
     } else {
@@ -196,11 +201,7 @@ public class KafkaTarget extends BaseTarget {
       try {
         String topic = kafkaConfigBean.kafkaConfig.getTopic(record);
         String partitionKey = kafkaConfigBean.kafkaConfig.getPartitionKey(record, topic);
-        ByteArrayOutputStream baos = new ByteArrayOutputStream(1024);
-        DataGenerator generator = kafkaConfigBean.dataGeneratorFormatConfig.getDataGeneratorFactory().getGenerator(baos);
-        generator.write(record);
-        generator.close();
-        byte[] bytes = baos.toByteArray();
+        byte[] bytes = recordSerializer.serialize(record);
         kafkaProducer.enqueueMessage(topic, bytes, partitionKey);
         count++;
       } catch (KafkaConnectionException ex) {
@@ -198,6 +198,12 @@ public class KafkaTargetConfig {
   // holds the value of 'retry.backoff.ms' supplied by the user or the default value
   private long retryBackoffMs;
 
+  // expressions not using record: functions are evaluated once per batch
+  private boolean topicPerRecord;
+  private boolean partitionPerRecord;
+  private String batchTopic;
+  private Map<String, String> batchPartitionKeys;
+
   public void init(
       Stage.Context context,
       DataFormat dataFormat,
@@ -206,6 +212,9 @@ public class KafkaTargetConfig {
     this.topicPartitionMap = new HashMap<>();
     this.allowedTopics = new HashSet<>();
     this.invalidTopicMap = new HashMap<>();
+    this.batchPartitionKeys = new HashMap<>();
+    topicPerRecord = runtimeTopicResolution && dependsOnRecord(topicExpression);
+    partitionPerRecord = dependsOnRecord(partition);
     allowAllTopics = false;
     kafkaValidationUtil = SdcKafkaValidationUtilFactory.getInstance().create();
     //metadata broker list should be one or more <host>:<port> separated by a comma
@@ -479,7 +488,34 @@ public class KafkaTargetConfig {
   }
 
 
+  // Values are computed once per batch only for expressions that yield the same value for every record of the batch,
+  // which excludes the record functions as well as the ones returning a new value on each call.
+  private static boolean dependsOnRecord(String expression) {
+    return expression == null || expression.contains("record:") || expression.contains("time:") ||
+        expression.contains("uuid(");
+  }
+
+  /**
+   * Drops the topic and partition values computed for the previous batch.
+   */
+  void startBatch() {
+    batchTopic = null;
+    batchPartitionKeys.clear();
+  }
+
   String getPartitionKey(Record record, String topic) throws StageException {
+    if (partitionPerRecord) {
+      return evaluatePartitionKey(record, topic);
+    }
+    String partitionKey = batchPartitionKeys.get(topic);
+    if (partitionKey == null) {
+      partitionKey = evaluatePartitionKey(record, topic);
+      batchPartitionKeys.put(topic, partitionKey);
+    }
+    return partitionKey;
+  }
+
+  private String evaluatePartitionKey(Record record, String topic) throws StageException {
     String partitionKey = "";
     if(partitionStrategy == PartitionStrategy.EXPRESSION) {
       RecordEL.setRecordInContext(partitionVars, record);
@@ -526,6 +562,16 @@ public class KafkaTargetConfig {
    * @throws StageException
    */
   String getTopic(Record record) throws StageException {
+    if (!runtimeTopicResolution || topicPerRecord) {
+      return evaluateTopic(record);
+    }
+    if (batchTopic == null) {
+      batchTopic = evaluateTopic(record);
+    }
+    return batchTopic;
+  }
+
+  private String evaluateTopic(Record record) throws StageException {
     String result = topic;
     if(runtimeTopicResolution) {
       RecordEL.setRecordInContext(topicVars, record);
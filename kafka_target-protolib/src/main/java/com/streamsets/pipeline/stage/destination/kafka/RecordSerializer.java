@@ -0,0 +1,78 @@
+/**
+ * Copyright 2016 StreamSets Inc.
+ *
+ * Licensed under the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.destination.kafka;
+
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.lib.generator.DataGenerator;
+import com.streamsets.pipeline.lib.generator.DataGeneratorException;
+import com.streamsets.pipeline.lib.generator.DataGeneratorFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+/**
+ * Serializes one record per message reusing the same growable buffer across records, the only copy made is the
+ * exact size payload handed to the producer.
+ * <p/>
+ * Each message must be self contained (Avro container header, delimited header line, JSON array brackets), so a
+ * generator is still created per record, it only wraps the shared buffer.
+ * <p/>
+ * Not thread safe, a target instance is driven by a single pipeline runner thread.
+ */
+class RecordSerializer {
+  private static final int INITIAL_BUFFER_SIZE = 1024;
+  // a buffer grown beyond this by an unusually large record is not kept around
+  private static final int MAX_RETAINED_BUFFER_SIZE = 1024 * 1024;
+
+  private final DataGeneratorFactory generatorFactory;
+  private Buffer buffer;
+
+  RecordSerializer(DataGeneratorFactory generatorFactory) {
+    this.generatorFactory = generatorFactory;
+    buffer = new Buffer();
+  }
+
+  byte[] serialize(Record record) throws IOException, DataGeneratorException {
+    buffer.reset();
+    try {
+      DataGenerator generator = generatorFactory.getGenerator(buffer);
+      generator.write(record);
+      generator.close();
+      return buffer.toByteArray();
+    } finally {
+      if (buffer.capacity() > MAX_RETAINED_BUFFER_SIZE) {
+        buffer = new Buffer();
+      }
+    }
+  }
+
+  private static class Buffer extends ByteArrayOutputStream {
+
+    Buffer() {
+      super(INITIAL_BUFFER_SIZE);
+    }
+
+    int capacity() {
+      return buf.length;
+    }
+
+  }
+
+}
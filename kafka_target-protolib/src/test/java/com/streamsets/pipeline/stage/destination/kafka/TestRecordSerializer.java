@@ -0,0 +1,64 @@
+/**
+ * Copyright 2016 StreamSets Inc.
+ *
+ * Licensed under the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.destination.kafka;
+
+import com.google.common.base.Strings;
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.OnRecordError;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.Stage;
+import com.streamsets.pipeline.config.JsonMode;
+import com.streamsets.pipeline.lib.generator.DataGeneratorFactory;
+import com.streamsets.pipeline.lib.generator.DataGeneratorFactoryBuilder;
+import com.streamsets.pipeline.lib.generator.DataGeneratorFormat;
+import com.streamsets.pipeline.sdk.ContextInfoCreator;
+import com.streamsets.pipeline.sdk.RecordCreator;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+public class TestRecordSerializer {
+
+  private static Record createRecord(String value) {
+    Record record = RecordCreator.create();
+    record.set(Field.create(value));
+    return record;
+  }
+
+  @Test
+  public void testSerializeReusesBuffer() throws Exception {
+    Stage.Context context = ContextInfoCreator.createTargetContext("i", false, OnRecordError.TO_ERROR);
+    DataGeneratorFactory factory = new DataGeneratorFactoryBuilder(context, DataGeneratorFormat.JSON)
+        .setMode(JsonMode.ARRAY_OBJECTS).setCharset(StandardCharsets.UTF_8).build();
+    RecordSerializer serializer = new RecordSerializer(factory);
+
+    byte[] first = serializer.serialize(createRecord("a"));
+    String large = Strings.repeat("x", 2 * 1024 * 1024);
+    byte[] second = serializer.serialize(createRecord(large));
+    byte[] third = serializer.serialize(createRecord("b"));
+
+    // every message is complete and sized exactly, nothing leaks from the previous record
+    Assert.assertEquals("[\"a\"]", new String(first, StandardCharsets.UTF_8));
+    Assert.assertEquals("[\"" + large + "\"]", new String(second, StandardCharsets.UTF_8));
+    Assert.assertEquals("[\"b\"]", new String(third, StandardCharsets.UTF_8));
+  }
+
+}